@@ -70,6 +70,18 @@ protected ExecutorService createExecutor(String displayName, int fixedSize) {
         return Executors.newFixedThreadPool(fixedSize, newThreadFactory(displayName));
     }
 
+    @Override
+    public ManagedExecutor createForBlockingWork(String displayName, int fixedSize) {
+        ThreadFactory virtualThreadFactory = VirtualThreads.isEnabled() ? VirtualThreads.newThreadFactory(displayName, threadFactoryContextClassloader) : null;
+        if (virtualThreadFactory == null) {
+            return create(displayName, fixedSize);
+        }
+        // Virtual threads are cheap to keep around, so a fixed pool is used only to bound the number of concurrent actions
+        TrackedManagedExecutor executor = new TrackedManagedExecutor(Executors.newFixedThreadPool(fixedSize, virtualThreadFactory), new ExecutorPolicy.CatchAndRecordFailures());
+        executors.add(executor);
+        return executor;
+    }
+
     @Override
     public ManagedScheduledExecutor createScheduled(String displayName, int fixedSize) {
         ManagedScheduledExecutor executor = new TrackedScheduledManagedExecutor(createScheduledExecutor(displayName, fixedSize), new ExecutorPolicy.CatchAndRecordFailures());
@@ -38,6 +38,19 @@ public interface ExecutorFactory {
      */
     ManagedExecutor create(String displayName, int fixedSize);
 
+    /**
+     * Creates an executor for actions that spend most of their time blocked, for example waiting on network transfers. It is the caller's responsibility to stop the executor.
+     *
+     * Runs the actions on virtual threads when these are enabled, see {@link VirtualThreads}. Otherwise, behaves the same as {@link #create(String, int)}.
+     *
+     * @param displayName The display name for the this executor. Used for thread names, logging and error message.
+     * @param fixedSize The maximum number of actions that can run concurrently
+     * @return The executor.
+     */
+    default ManagedExecutor createForBlockingWork(String displayName, int fixedSize) {
+        return create(displayName, fixedSize);
+    }
+
     /**
      * Creates a scheduled executor which can run tasks periodically. It is the caller's responsibility to stop the executor.
      *
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.concurrent;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads, which are only available when running on Java 21 or later.
+ *
+ * <p>Virtual threads are used for work that spends most of its time blocked on I/O, such as network transfers. They are not used unless enabled
+ * using the {@link #ENABLED_PROPERTY} system property.</p>
+ */
+public final class VirtualThreads {
+    /**
+     * When set, executors created for blocking work use virtual threads, if the JVM supports them.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.virtual-threads";
+
+    @Nullable
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    @Nullable
+    private static final Method IS_VIRTUAL = findMethod(Thread.class, "isVirtual");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns true when the current JVM supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && IS_VIRTUAL != null;
+    }
+
+    /**
+     * Returns true when virtual threads have been enabled and are supported by the current JVM.
+     */
+    public static boolean isEnabled() {
+        return isSupported() && Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Returns true when the given thread is a virtual thread.
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory for virtual threads with the given name prefix, or returns {@code null} when virtual threads are not supported.
+     */
+    @Nullable
+    public static ThreadFactory newThreadFactory(String displayName, @Nullable ClassLoader contextClassloader) {
+        if (!isSupported()) {
+            return null;
+        }
+        ThreadFactory factory;
+        try {
+            // Use the methods of the public Thread.Builder interface, as the builder implementation is not accessible
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, displayName + " Thread ", 1L);
+            factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+        return runnable -> {
+            Thread thread = factory.newThread(runnable);
+            thread.setContextClassLoader(contextClassloader);
+            return thread;
+        };
+    }
+
+    @Nullable
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.resources;
+
+/**
+ * Grants leases for amounts of memory, so that work only starts while the total memory leased by running work stays within a budget.
+ *
+ * <p>A lease is always granted when no memory is currently leased, so that work which needs more memory than the whole budget can still run on its own.</p>
+ */
+public class MemoryLeaseRegistry extends AbstractResourceLockRegistry<String, ResourceLock> {
+    private final ResourceLockCoordinationService coordinationService;
+    private final long budgetBytes;
+    // Guarded by the state lock of the coordination service
+    private long leasedBytes;
+
+    public MemoryLeaseRegistry(ResourceLockCoordinationService coordinationService, long budgetBytes) {
+        super(coordinationService);
+        this.coordinationService = coordinationService;
+        this.budgetBytes = budgetBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Returns the amount of memory currently leased. Should only be called while holding the state lock.
+     */
+    public long getLeasedBytes() {
+        return leasedBytes;
+    }
+
+    /**
+     * Creates a new lease for the given amount of memory. The lease is granted when it is locked.
+     */
+    public ResourceLock newMemoryLease(String displayName, long bytes) {
+        return new MemoryLease("memory lease for " + displayName, bytes);
+    }
+
+    private class MemoryLease extends AbstractTrackedResourceLock {
+        private final long bytes;
+        private Thread ownerThread;
+
+        MemoryLease(String displayName, long bytes) {
+            super(displayName, coordinationService, MemoryLeaseRegistry.this);
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected boolean doIsLocked() {
+            return ownerThread != null;
+        }
+
+        @Override
+        protected boolean doIsLockedByCurrentThread() {
+            return Thread.currentThread() == ownerThread;
+        }
+
+        @Override
+        protected boolean acquireLock() {
+            if (ownerThread != null || (leasedBytes > 0 && leasedBytes + bytes > budgetBytes)) {
+                return false;
+            }
+            leasedBytes += bytes;
+            ownerThread = Thread.currentThread();
+            return true;
+        }
+
+        @Override
+        protected void releaseLock() {
+            if (Thread.currentThread() != ownerThread) {
+                // Not implemented - not yet required. Please implement if required
+                throw new UnsupportedOperationException("Must complete operation from owner thread.");
+            }
+            leasedBytes -= bytes;
+            ownerThread = null;
+        }
+    }
+}
@@ -16,6 +16,9 @@
 package org.gradle.internal.concurrent
 
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.IgnoreIf
 
 import java.util.concurrent.Callable
 import java.util.concurrent.CountDownLatch
@@ -23,6 +26,9 @@ import java.util.concurrent.TimeUnit
 
 class DefaultExecutorFactoryTest extends ConcurrentSpec {
 
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+
     def factory = new DefaultExecutorFactory()
 
     def cleanup() {
@@ -436,4 +442,48 @@ class DefaultExecutorFactoryTest extends ConcurrentSpec {
         def ex = thrown(RuntimeException)
         ex.is(failure1)
     }
+
+    def executorForBlockingWorkUsesPlatformThreadsUnlessVirtualThreadsAreEnabled() {
+        given:
+        def latch = new CountDownLatch(1)
+        Thread worker = null
+
+        when:
+        def executor = factory.createForBlockingWork('test', 2)
+        executor.execute {
+            worker = Thread.currentThread()
+            latch.countDown()
+        }
+        latch.await()
+
+        then:
+        worker.name == 'test'
+        !VirtualThreads.isVirtual(worker)
+
+        cleanup:
+        executor?.stop()
+    }
+
+    @IgnoreIf({ !VirtualThreads.supported })
+    def executorForBlockingWorkUsesVirtualThreadsWhenEnabled() {
+        given:
+        System.setProperty(VirtualThreads.ENABLED_PROPERTY, "true")
+        def latch = new CountDownLatch(1)
+        Thread worker = null
+
+        when:
+        def executor = factory.createForBlockingWork('test', 2)
+        executor.execute {
+            worker = Thread.currentThread()
+            latch.countDown()
+        }
+        latch.await()
+
+        then:
+        worker.name == 'test Thread 1'
+        VirtualThreads.isVirtual(worker)
+
+        cleanup:
+        executor?.stop()
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resources
+
+import spock.lang.Specification
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.tryLock
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock
+
+class MemoryLeaseRegistryTest extends Specification {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def registry = new MemoryLeaseRegistry(coordinationService, 1000)
+
+    def "grants leases while they fit into the budget"() {
+        def a = registry.newMemoryLease('a', 600)
+        def b = registry.newMemoryLease('b', 400)
+        def c = registry.newMemoryLease('c', 1)
+
+        expect:
+        coordinationService.withStateLock(tryLock(a))
+        coordinationService.withStateLock(tryLock(b))
+        !coordinationService.withStateLock(tryLock(c))
+        registry.leasedBytes == 1000
+        registry.holdsLock()
+
+        when:
+        coordinationService.withStateLock(unlock(a))
+
+        then:
+        coordinationService.withStateLock(tryLock(c))
+        registry.leasedBytes == 401
+    }
+
+    def "grants a lease larger than the budget when nothing else is leased"() {
+        def large = registry.newMemoryLease('large', 2000)
+        def small = registry.newMemoryLease('small', 1)
+
+        expect:
+        coordinationService.withStateLock(tryLock(large))
+        !coordinationService.withStateLock(tryLock(small))
+
+        when:
+        coordinationService.withStateLock(unlock(large))
+
+        then:
+        registry.leasedBytes == 0
+        !registry.holdsLock()
+        coordinationService.withStateLock(tryLock(small))
+    }
+
+    def "does not grant a lease to a thread while another thread holds it"() {
+        def lease = registry.newMemoryLease('work', 100)
+        coordinationService.withStateLock(tryLock(lease))
+
+        when:
+        def acquired = null
+        def thread = new Thread({ acquired = coordinationService.withStateLock(tryLock(lease)) })
+        thread.start()
+        thread.join()
+
+        then:
+        !acquired
+        registry.leasedBytes == 100
+    }
+}
@@ -57,9 +57,16 @@ public OriginMetadataFactory(
     }
 
     public OriginWriter createWriter(CacheableEntity entry, Duration elapsedTime) {
+        return createWriter(entry, currentBuildInvocationId, elapsedTime);
+    }
+
+    /**
+     * Creates a writer for an entry that was produced by the given build, e.g. when copying an entry loaded from another cache.
+     */
+    public OriginWriter createWriter(CacheableEntity entry, String buildInvocationId, Duration elapsedTime) {
         return outputStream -> {
             Properties properties = new Properties();
-            properties.setProperty(BUILD_INVOCATION_ID_KEY, currentBuildInvocationId);
+            properties.setProperty(BUILD_INVOCATION_ID_KEY, buildInvocationId);
             properties.setProperty(TYPE_KEY, entry.getType().getCanonicalName());
             properties.setProperty(IDENTITY_KEY, entry.getIdentity());
             properties.setProperty(CREATION_TIME_KEY, Long.toString(System.currentTimeMillis()));
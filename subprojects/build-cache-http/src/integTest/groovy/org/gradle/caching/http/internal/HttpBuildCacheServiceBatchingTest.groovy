@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.http.internal
+
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.caching.BuildCacheKey
+import org.gradle.caching.BuildCacheServiceFactory
+import org.gradle.caching.http.HttpBuildCache
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.resource.transport.http.DefaultSslContextFactory
+import org.gradle.internal.resource.transport.http.HttpClientHelper
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.fixtures.server.http.HttpBuildCacheServer
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class HttpBuildCacheServiceBatchingTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tempDir = new TestNameTestDirectoryProvider(getClass())
+    @Rule
+    HttpBuildCacheServer server = new HttpBuildCacheServer(tempDir)
+
+    def config = TestUtil.newInstance(HttpBuildCache.class)
+    def httpClientHelperFactory = HttpClientHelper.Factory.createFactory(new DocumentationRegistry())
+    def existingKey = key("0123456789abcdef")
+    def missingKey = key("fedcba9876543210")
+
+    def "finds existing entries with a single request when server supports batching"() {
+        server.withBatchedContains()
+        def requests = []
+        server.addResponder { request, response ->
+            requests << request.method
+            true
+        }
+        server.start()
+        server.cacheDir.file("cache/${existingKey.hashCode}") << "entry"
+
+        when:
+        def existing = createService().findExisting([existingKey, missingKey])
+
+        then:
+        existing == [existingKey] as Set
+        requests == ["OPTIONS", "POST"]
+    }
+
+    def "entries can still be loaded when server supports batching"() {
+        server.withBatchedContains()
+        server.start()
+        server.cacheDir.file("cache/${existingKey.hashCode}") << "entry"
+        def service = createService()
+
+        when:
+        service.findExisting([existingKey, missingKey])
+        def content = null
+        def loaded = service.load(existingKey) { input -> content = input.text }
+
+        then:
+        loaded
+        content == "entry"
+    }
+
+    def "falls back to loading entries one by one when server does not support batching"() {
+        def requests = []
+        server.addResponder { request, response ->
+            requests << request.method
+            true
+        }
+        server.start()
+        def service = createService()
+
+        when:
+        def first = service.findExisting([existingKey, missingKey])
+        def second = service.findExisting([existingKey, missingKey])
+
+        then:
+        first == null
+        second == null
+        // Support is only checked once
+        requests == ["OPTIONS"]
+    }
+
+    private HttpBuildCacheService createService() {
+        config.url = server.uri.resolve("/cache/")
+        new DefaultHttpBuildCacheServiceFactory(new DefaultSslContextFactory(), { }, httpClientHelperFactory)
+            .createBuildCacheService(config, new NoopBuildCacheDescriber()) as HttpBuildCacheService
+    }
+
+    private static BuildCacheKey key(String value) {
+        def hashCode = HashCode.fromString(value)
+        return new BuildCacheKey() {
+            @Override
+            String getHashCode() {
+                return hashCode.toString()
+            }
+
+            @Override
+            byte[] toByteArray() {
+                return hashCode.toByteArray()
+            }
+
+            @Override
+            String getDisplayName() {
+                return getHashCode()
+            }
+
+            @Override
+            String toString() {
+                return getHashCode()
+            }
+        }
+    }
+
+    private static class NoopBuildCacheDescriber implements BuildCacheServiceFactory.Describer {
+
+        @Override
+        BuildCacheServiceFactory.Describer type(String type) { this }
+
+        @Override
+        BuildCacheServiceFactory.Describer config(String name, String value) { this }
+
+    }
+}
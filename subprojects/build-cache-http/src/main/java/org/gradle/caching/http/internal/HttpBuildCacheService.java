@@ -16,41 +16,64 @@
 
 package org.gradle.caching.http.internal;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableSet;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpOptions;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.protocol.HTTP;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.caching.BuildCacheEntryReader;
 import org.gradle.caching.BuildCacheEntryWriter;
 import org.gradle.caching.BuildCacheException;
 import org.gradle.caching.BuildCacheKey;
-import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.BatchingBuildCacheService;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.resource.transport.http.HttpClientHelper;
 import org.gradle.internal.resource.transport.http.HttpClientResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Build cache implementation that delegates to a service accessible via HTTP.
+ *
+ * <p>
+ * Servers can advertise support for checking many keys with a single request by answering an {@code OPTIONS} request to the cache URL
+ * with the {@value #BATCH_HEADER} header set to {@value #BATCH_CONTAINS}.
+ * The keys to check are then {@code POST}ed to {@value #BATCH_CONTAINS_PATH} below the cache URL, one per line,
+ * and the server responds with the keys it has an entry for, one per line.
+ * </p>
  */
-public class HttpBuildCacheService implements BuildCacheService {
+public class HttpBuildCacheService implements BatchingBuildCacheService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpBuildCacheService.class);
     static final String BUILD_CACHE_CONTENT_TYPE = "application/vnd.gradle.build-cache-artifact.v1";
+    static final String BATCH_HEADER = "X-Gradle-Build-Cache-Batch";
+    static final String BATCH_CONTAINS = "contains";
+    static final String BATCH_CONTAINS_PATH = "_contains";
 
     private static final Set<Integer> FATAL_HTTP_ERROR_CODES = ImmutableSet.of(
         HttpStatus.SC_USE_PROXY,
@@ -67,6 +90,7 @@ public class HttpBuildCacheService implements BuildCacheService {
     private final HttpClientHelper httpClientHelper;
     private final HttpBuildCacheRequestCustomizer requestCustomizer;
     private final boolean useExpectContinue;
+    private volatile Boolean batchContainsSupported;
 
     public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url, HttpBuildCacheRequestCustomizer requestCustomizer, boolean useExpectContinue) {
         this.requestCustomizer = requestCustomizer;
@@ -155,6 +179,78 @@ public boolean isStreaming() {
         }
     }
 
+    @Nullable
+    @Override
+    public Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) throws BuildCacheException {
+        if (!isBatchContainsSupported()) {
+            return null;
+        }
+        Map<String, BuildCacheKey> keysByHash = new HashMap<>();
+        for (BuildCacheKey key : keys) {
+            keysByHash.put(key.getHashCode(), key);
+        }
+        final URI uri = root.resolve(BATCH_CONTAINS_PATH);
+        HttpPost httpPost = new HttpPost(uri);
+        httpPost.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType());
+        httpPost.setEntity(new StringEntity(String.join("\n", keysByHash.keySet()), ContentType.TEXT_PLAIN));
+        requestCustomizer.customize(httpPost);
+
+        try (HttpClientResponse response = httpClientHelper.performHttpRequest(httpPost)) {
+            StatusLine statusLine = response.getStatusLine();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Response for POST {}: {}", safeUri(uri), statusLine);
+            }
+            int statusCode = statusLine.getStatusCode();
+            if (isHttpSuccess(statusCode)) {
+                Set<BuildCacheKey> existing = new HashSet<>();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(response.getContent(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    BuildCacheKey key = keysByHash.get(line.trim());
+                    if (key != null) {
+                        existing.add(key);
+                    }
+                }
+                return existing;
+            } else if (statusCode == HttpStatus.SC_NOT_FOUND || statusCode == HttpStatus.SC_METHOD_NOT_ALLOWED || statusCode == HttpStatus.SC_NOT_IMPLEMENTED) {
+                // The server stopped supporting the batched protocol, fall back to loading entries one by one
+                batchContainsSupported = false;
+                return null;
+            } else {
+                String defaultMessage = String.format("Checking entries at '%s' response status %d: %s", safeUri(uri), statusCode, statusLine.getReasonPhrase());
+                throwHttpStatusCodeException(statusCode, defaultMessage);
+                return null;
+            }
+        } catch (IOException e) {
+            throw wrap(e);
+        }
+    }
+
+    private boolean isBatchContainsSupported() {
+        Boolean supported = batchContainsSupported;
+        if (supported == null) {
+            supported = probeBatchContainsSupport();
+            batchContainsSupported = supported;
+        }
+        return supported;
+    }
+
+    private boolean probeBatchContainsSupport() {
+        HttpOptions httpOptions = new HttpOptions(root);
+        requestCustomizer.customize(httpOptions);
+        try (HttpClientResponse response = httpClientHelper.performHttpRequest(httpOptions)) {
+            String batch = response.getHeader(BATCH_HEADER);
+            boolean supported = isHttpSuccess(response.getStatusLine().getStatusCode())
+                && batch != null
+                && Splitter.on(',').trimResults().splitToList(batch).contains(BATCH_CONTAINS);
+            LOGGER.debug("Batched requests are {}supported by {}", supported ? "" : "not ", safeUri(root));
+            return supported;
+        } catch (IOException e) {
+            LOGGER.debug("Could not determine whether {} supports batched requests", safeUri(root), e);
+            return false;
+        }
+    }
+
     private static BuildCacheException wrap(Throwable e) {
         if (e instanceof Error) {
             throw (Error) e;
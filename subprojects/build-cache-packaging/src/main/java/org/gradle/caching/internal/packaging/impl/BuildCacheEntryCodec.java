@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses and decompresses the archive stream of a build cache entry.
+ *
+ * @see CompressingBuildCacheEntryPacker
+ */
+public interface BuildCacheEntryCodec {
+    /**
+     * The identifier stored in the entry header. Must be unique among codecs and must never change once released.
+     */
+    byte getId();
+
+    /**
+     * The name used to select the codec.
+     */
+    String getName();
+
+    /**
+     * Wraps the given stream so that data written to the result is compressed. Closing the result closes the given stream.
+     */
+    OutputStream compress(OutputStream output) throws IOException;
+
+    /**
+     * Wraps the given stream so that data read from the result is decompressed. Closing the result closes the given stream.
+     */
+    InputStream decompress(InputStream input) throws IOException;
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the output of a delegate packer with a configurable {@link BuildCacheEntryCodec}.
+ *
+ * <p>
+ * GZip entries are written as plain GZip streams, exactly like {@link GZipBuildCacheEntryPacker} does.
+ * Entries compressed with any other codec start with a header identifying the codec.
+ * When unpacking, the codec is selected by looking at the first bytes of the entry,
+ * so entries written with a different codec, or by an older version of Gradle, can still be read.
+ * </p>
+ */
+public class CompressingBuildCacheEntryPacker implements BuildCacheEntryPacker {
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    // 'G', 'C', 'E' followed by the header format version
+    private static final byte[] HEADER_MAGIC = {0x47, 0x43, 0x45, 0x01};
+    private static final BuildCacheEntryCodec GZIP = new GZipBuildCacheEntryCodec();
+    private static final List<BuildCacheEntryCodec> KNOWN_CODECS = ImmutableList.of(GZIP, new SnappyBuildCacheEntryCodec());
+
+    private final BuildCacheEntryPacker delegate;
+    private final BuildCacheEntryCodec codec;
+
+    public CompressingBuildCacheEntryPacker(BuildCacheEntryPacker delegate, BuildCacheEntryCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    /**
+     * Creates the codec with the given name.
+     *
+     * @param level the compression level, only supported by GZip. Must be {@link Deflater#DEFAULT_COMPRESSION} for other codecs.
+     */
+    public static BuildCacheEntryCodec createCodec(String name, int level) {
+        switch (name) {
+            case GZipBuildCacheEntryCodec.NAME:
+                return new GZipBuildCacheEntryCodec(level);
+            case SnappyBuildCacheEntryCodec.NAME:
+                if (level != Deflater.DEFAULT_COMPRESSION) {
+                    throw new IllegalArgumentException("Build cache entry compression '" + name + "' does not support a compression level, but level " + level + " was given.");
+                }
+                return new SnappyBuildCacheEntryCodec();
+            default:
+                throw new IllegalArgumentException("Unknown build cache entry compression '" + name + "', supported values are '" + GZipBuildCacheEntryCodec.NAME + "' and '" + SnappyBuildCacheEntryCodec.NAME + "'.");
+        }
+    }
+
+    @Override
+    public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        if (!(codec instanceof GZipBuildCacheEntryCodec)) {
+            output.write(HEADER_MAGIC);
+            output.write(codec.getId());
+        }
+        try (OutputStream compressedOutput = codec.compress(output)) {
+            return delegate.pack(entity, snapshots, compressedOutput, writeOrigin);
+        }
+    }
+
+    @Override
+    public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+        BufferedInputStream bufferedInput = new BufferedInputStream(input);
+        BuildCacheEntryCodec entryCodec = readCodec(bufferedInput);
+        try (InputStream decompressedInput = entryCodec.decompress(bufferedInput)) {
+            return delegate.unpack(entity, decompressedInput, readOrigin);
+        }
+    }
+
+    private static BuildCacheEntryCodec readCodec(BufferedInputStream input) throws IOException {
+        input.mark(HEADER_MAGIC.length + 1);
+        int first = input.read();
+        int second = input.read();
+        if (first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2) {
+            input.reset();
+            return GZIP;
+        }
+        if (first != HEADER_MAGIC[0] || second != HEADER_MAGIC[1] || input.read() != HEADER_MAGIC[2]) {
+            throw new IOException("Build cache entry is neither GZip compressed nor does it start with a codec header.");
+        }
+        int version = input.read();
+        if (version != HEADER_MAGIC[3]) {
+            throw new IOException("Unsupported build cache entry header version " + version + ".");
+        }
+        int id = input.read();
+        for (BuildCacheEntryCodec knownCodec : KNOWN_CODECS) {
+            if (knownCodec.getId() == id) {
+                return knownCodec;
+            }
+        }
+        throw new IOException("Build cache entry was compressed with an unknown codec (id " + id + ").");
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.caching.internal.packaging.impl;
 
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Interner;
 import com.google.common.io.CountingOutputStream;
@@ -64,9 +65,17 @@
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -92,22 +101,42 @@ private interface UnixPermissions {
     private static final Pattern TREE_PATH = Pattern.compile("(missing-)?tree-([^/]+)(?:/(.*))?");
     private static final int BUFFER_SIZE = 64 * 1024;
     private static final ThreadLocal<byte[]> COPY_BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private static final int MAX_BUFFERED_FILE_SIZE = 128 * 1024;
+    private static final int MAX_PENDING_FILE_WRITES = 128;
 
     private final TarPackerFileSystemSupport fileSystemSupport;
     private final FilePermissionAccess filePermissionAccess;
     private final StreamHasher streamHasher;
     private final Interner<String> stringInterner;
+    @Nullable
+    private final Executor fileWriteExecutor;
 
     public TarBuildCacheEntryPacker(
         TarPackerFileSystemSupport fileSystemSupport,
         FilePermissionAccess filePermissionAccess,
         StreamHasher streamHasher,
         Interner<String> stringInterner
+    ) {
+        this(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, null);
+    }
+
+    /**
+     * Creates a packer which unpacks files in parallel when a {@code fileWriteExecutor} is given.
+     *
+     * The archive is still decompressed and read on the calling thread.
+     */
+    public TarBuildCacheEntryPacker(
+        TarPackerFileSystemSupport fileSystemSupport,
+        FilePermissionAccess filePermissionAccess,
+        StreamHasher streamHasher,
+        Interner<String> stringInterner,
+        @Nullable Executor fileWriteExecutor
     ) {
         this.fileSystemSupport = fileSystemSupport;
         this.filePermissionAccess = filePermissionAccess;
         this.streamHasher = streamHasher;
         this.stringInterner = stringInterner;
+        this.fileWriteExecutor = fileWriteExecutor;
     }
 
     @Override
@@ -277,39 +306,185 @@ private RegularFileSnapshot unpackFile(TarArchiveInputStream input, TarArchiveEn
     private TarArchiveEntry unpackDirectoryTree(TarArchiveInputStream input, TarArchiveEntry rootEntry, Map<String, FileSystemLocationSnapshot> snapshots, AtomicLong entries, File treeRoot, String treeName) throws IOException {
         RelativePathParser parser = new RelativePathParser(rootEntry.getName());
 
-        DirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.noSortingRequired();
-        builder.enterDirectory(DIRECT, stringInterner.intern(treeRoot.getAbsolutePath()), stringInterner.intern(treeRoot.getName()), INCLUDE_EMPTY_DIRS);
+        UnpackedTreeBuilder builder = fileWriteExecutor == null
+            ? new SequentialUnpackedTreeBuilder()
+            : new ParallelUnpackedTreeBuilder(fileWriteExecutor);
+        builder.enterDirectory(stringInterner.intern(treeRoot.getAbsolutePath()), stringInterner.intern(treeRoot.getName()));
 
         TarArchiveEntry entry;
 
-        while ((entry = input.getNextTarEntry()) != null) {
-            boolean isDir = entry.isDirectory();
-            boolean outsideOfRoot = parser.nextPath(entry.getName(), isDir, builder::leaveDirectory);
-            if (outsideOfRoot) {
-                break;
+        try {
+            while ((entry = input.getNextTarEntry()) != null) {
+                boolean isDir = entry.isDirectory();
+                boolean outsideOfRoot = parser.nextPath(entry.getName(), isDir, builder::leaveDirectory);
+                if (outsideOfRoot) {
+                    break;
+                }
+                entries.incrementAndGet();
+
+                File file = new File(treeRoot, parser.getRelativePath());
+                if (isDir) {
+                    FileUtils.forceMkdir(file);
+                    chmodUnpackedFile(entry, file);
+                    String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
+                    String internedName = stringInterner.intern(parser.getName());
+                    builder.enterDirectory(internedAbsolutePath, internedName);
+                } else {
+                    builder.visitFile(input, entry, file, parser.getName());
+                }
             }
-            entries.incrementAndGet();
 
-            File file = new File(treeRoot, parser.getRelativePath());
-            if (isDir) {
-                FileUtils.forceMkdir(file);
-                chmodUnpackedFile(entry, file);
-                String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
-                String internedName = stringInterner.intern(parser.getName());
-                builder.enterDirectory(DIRECT, internedAbsolutePath, internedName, INCLUDE_EMPTY_DIRS);
-            } else {
-                RegularFileSnapshot fileSnapshot = unpackFile(input, entry, file, parser.getName());
-                builder.visitLeafElement(fileSnapshot);
-            }
+            parser.exitToRoot(builder::leaveDirectory);
+            builder.leaveDirectory();
+        } finally {
+            builder.awaitPendingFiles();
         }
 
-        parser.exitToRoot(builder::leaveDirectory);
-        builder.leaveDirectory();
-
         snapshots.put(treeName, builder.getResult());
         return entry;
     }
 
+    /**
+     * Collects the snapshot of an unpacked directory tree.
+     */
+    private interface UnpackedTreeBuilder {
+        void enterDirectory(String absolutePath, String name);
+
+        void visitFile(TarArchiveInputStream input, TarArchiveEntry entry, File file, String fileName) throws IOException;
+
+        void leaveDirectory();
+
+        /**
+         * Waits until all files have been written. Must be called before {@link #getResult()}, even if unpacking fails.
+         */
+        void awaitPendingFiles();
+
+        FileSystemLocationSnapshot getResult() throws IOException;
+    }
+
+    /**
+     * Writes every file on the calling thread.
+     */
+    private class SequentialUnpackedTreeBuilder implements UnpackedTreeBuilder {
+        private final DirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.noSortingRequired();
+
+        @Override
+        public void enterDirectory(String absolutePath, String name) {
+            builder.enterDirectory(DIRECT, absolutePath, name, INCLUDE_EMPTY_DIRS);
+        }
+
+        @Override
+        public void visitFile(TarArchiveInputStream input, TarArchiveEntry entry, File file, String fileName) throws IOException {
+            builder.visitLeafElement(unpackFile(input, entry, file, fileName));
+        }
+
+        @Override
+        public void leaveDirectory() {
+            builder.leaveDirectory();
+        }
+
+        @Override
+        public void awaitPendingFiles() {
+        }
+
+        @Override
+        public FileSystemLocationSnapshot getResult() {
+            return builder.getResult();
+        }
+    }
+
+    /**
+     * Reads and hashes the archive on the calling thread, but hands off writing small files, setting their permissions
+     * and reading back their metadata to the given executor.
+     *
+     * Large files are still written on the calling thread to keep the amount of buffered content bounded.
+     * The visited elements are recorded in archive order and replayed into a {@link MerkleDirectorySnapshotBuilder}
+     * once all files have been written, so the resulting snapshot is the same as when unpacking sequentially.
+     */
+    private class ParallelUnpackedTreeBuilder implements UnpackedTreeBuilder {
+        private final Executor executor;
+        private final Semaphore pendingWrites = new Semaphore(MAX_PENDING_FILE_WRITES);
+        private final List<Consumer<DirectorySnapshotBuilder>> recordedVisits = new ArrayList<>();
+        private final List<CompletableFuture<RegularFileSnapshot>> pendingFiles = new ArrayList<>();
+
+        public ParallelUnpackedTreeBuilder(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void enterDirectory(String absolutePath, String name) {
+            recordedVisits.add(builder -> builder.enterDirectory(DIRECT, absolutePath, name, INCLUDE_EMPTY_DIRS));
+        }
+
+        @Override
+        public void visitFile(TarArchiveInputStream input, TarArchiveEntry entry, File file, String fileName) throws IOException {
+            if (entry.getSize() > MAX_BUFFERED_FILE_SIZE) {
+                RegularFileSnapshot fileSnapshot = unpackFile(input, entry, file, fileName);
+                recordedVisits.add(builder -> builder.visitLeafElement(fileSnapshot));
+                return;
+            }
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) entry.getSize());
+            HashCode hash = streamHasher.hashCopy(input, buffer);
+            byte[] content = buffer.toByteArray();
+            String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
+            String internedFileName = stringInterner.intern(fileName);
+
+            CompletableFuture<RegularFileSnapshot> fileSnapshot = new CompletableFuture<>();
+            pendingWrites.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        try (OutputStream output = new FileOutputStream(file)) {
+                            output.write(content);
+                        }
+                        chmodUnpackedFile(entry, file);
+                        fileSnapshot.complete(new RegularFileSnapshot(internedAbsolutePath, internedFileName, hash, DefaultFileMetadata.file(content.length, file.lastModified(), DIRECT)));
+                    } catch (Throwable t) {
+                        fileSnapshot.completeExceptionally(t);
+                    } finally {
+                        pendingWrites.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                pendingWrites.release();
+                throw e;
+            }
+            pendingFiles.add(fileSnapshot);
+            recordedVisits.add(builder -> builder.visitLeafElement(fileSnapshot.join()));
+        }
+
+        @Override
+        public void leaveDirectory() {
+            recordedVisits.add(DirectorySnapshotBuilder::leaveDirectory);
+        }
+
+        @Override
+        public void awaitPendingFiles() {
+            for (CompletableFuture<RegularFileSnapshot> pendingFile : pendingFiles) {
+                try {
+                    pendingFile.join();
+                } catch (CompletionException | CancellationException ignored) {
+                    // Reported by getResult()
+                }
+            }
+        }
+
+        @Override
+        public FileSystemLocationSnapshot getResult() throws IOException {
+            DirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.noSortingRequired();
+            try {
+                recordedVisits.forEach(visit -> visit.accept(builder));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                Throwables.throwIfInstanceOf(cause, IOException.class);
+                Throwables.throwIfUnchecked(cause);
+                throw new UncheckedIOException(new IOException(cause));
+            }
+            return builder.getResult();
+        }
+    }
+
     private void chmodUnpackedFile(TarArchiveEntry entry, File file) {
         filePermissionAccess.chmod(file, entry.getMode() & UnixPermissions.PERM_MASK);
     }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.caching.internal.CacheableEntity
+import org.gradle.caching.internal.origin.OriginReader
+import org.gradle.caching.internal.origin.OriginWriter
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
+import org.gradle.internal.snapshot.FileSystemSnapshot
+import spock.lang.Specification
+
+import java.util.zip.GZIPOutputStream
+
+class CompressingBuildCacheEntryPackerTest extends Specification {
+    def entity = Stub(CacheableEntity)
+    def readOrigin = Stub(OriginReader)
+    def writeOrigin = Stub(OriginWriter)
+    def content = ("some cache entry content " * 1000).bytes
+    def delegate = new CopyingPacker(content)
+
+    def "can round-trip entry with #codecName (level #level)"() {
+        def packer = new CompressingBuildCacheEntryPacker(delegate, CompressingBuildCacheEntryPacker.createCodec(codecName, level))
+        def output = new ByteArrayOutputStream()
+
+        when:
+        packer.pack(entity, [:], output, writeOrigin)
+        then:
+        output.size() < content.length
+
+        when:
+        packer.unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+        then:
+        delegate.unpacked == content
+
+        where:
+        codecName | level
+        "gzip"    | -1
+        "gzip"    | 1
+        "gzip"    | 9
+        "snappy"  | -1
+    }
+
+    def "writes plain GZip entries when using the GZip codec"() {
+        def packer = new CompressingBuildCacheEntryPacker(delegate, new GZipBuildCacheEntryCodec())
+        def output = new ByteArrayOutputStream()
+
+        when:
+        packer.pack(entity, [:], output, writeOrigin)
+        new GZipBuildCacheEntryPacker(delegate).unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        delegate.unpacked == content
+    }
+
+    def "can read entry written with a different codec"() {
+        def snappyPacker = new CompressingBuildCacheEntryPacker(delegate, new SnappyBuildCacheEntryCodec())
+        def gzipPacker = new CompressingBuildCacheEntryPacker(delegate, new GZipBuildCacheEntryCodec())
+        def output = new ByteArrayOutputStream()
+
+        when:
+        snappyPacker.pack(entity, [:], output, writeOrigin)
+        gzipPacker.unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        delegate.unpacked == content
+    }
+
+    def "can read entry written by the legacy GZip packer"() {
+        def output = new ByteArrayOutputStream()
+        new GZIPOutputStream(output).withStream { it.write(content) }
+        def packer = new CompressingBuildCacheEntryPacker(delegate, new SnappyBuildCacheEntryCodec())
+
+        when:
+        packer.unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        delegate.unpacked == content
+    }
+
+    def "fails to unpack entry with unknown codec"() {
+        def packer = new CompressingBuildCacheEntryPacker(delegate, new SnappyBuildCacheEntryCodec())
+        def input = new ByteArrayInputStream([0x47, 0x43, 0x45, 0x01, 0x7f] as byte[])
+
+        when:
+        packer.unpack(entity, input, readOrigin)
+
+        then:
+        def ex = thrown(IOException)
+        ex.message == "Build cache entry was compressed with an unknown codec (id 127)."
+    }
+
+    def "fails to unpack entry without header"() {
+        def packer = new CompressingBuildCacheEntryPacker(delegate, new SnappyBuildCacheEntryCodec())
+
+        when:
+        packer.unpack(entity, new ByteArrayInputStream("garbage".bytes), readOrigin)
+
+        then:
+        def ex = thrown(IOException)
+        ex.message == "Build cache entry is neither GZip compressed nor does it start with a codec header."
+    }
+
+    def "rejects unknown codec name"() {
+        when:
+        CompressingBuildCacheEntryPacker.createCodec("unknown", -1)
+
+        then:
+        def ex = thrown(IllegalArgumentException)
+        ex.message == "Unknown build cache entry compression 'unknown', supported values are 'gzip' and 'snappy'."
+    }
+
+    def "rejects compression level with Snappy"() {
+        when:
+        CompressingBuildCacheEntryPacker.createCodec("snappy", 9)
+
+        then:
+        def ex = thrown(IllegalArgumentException)
+        ex.message == "Build cache entry compression 'snappy' does not support a compression level, but level 9 was given."
+    }
+
+    def "rejects invalid GZip compression level"() {
+        when:
+        new GZipBuildCacheEntryCodec(10)
+
+        then:
+        def ex = thrown(IllegalArgumentException)
+        ex.message == "GZip compression level must be between 1 and 9, but was 10"
+    }
+
+    private static class CopyingPacker implements BuildCacheEntryPacker {
+        final byte[] content
+        byte[] unpacked
+
+        CopyingPacker(byte[] content) {
+            this.content = content
+        }
+
+        @Override
+        PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+            output.write(content)
+            return new PackResult(1)
+        }
+
+        @Override
+        UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+            unpacked = input.bytes
+            return new UnpackResult(null, 1, [:])
+        }
+    }
+}
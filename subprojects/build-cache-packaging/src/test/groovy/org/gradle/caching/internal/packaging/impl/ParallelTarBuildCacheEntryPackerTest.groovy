@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor
+import org.gradle.internal.snapshot.RegularFileSnapshot
+import org.gradle.internal.snapshot.SnapshotVisitResult
+
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
+import static org.gradle.internal.file.TreeType.DIRECTORY
+
+class ParallelTarBuildCacheEntryPackerTest extends TarBuildCacheEntryPackerTest {
+    ExecutorService executor
+
+    @Override
+    protected Executor createFileWriteExecutor() {
+        executor = Executors.newFixedThreadPool(4)
+        return executor
+    }
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "produces the same snapshot as sequential unpacking"() {
+        def sourceDir = temporaryFolder.file("source").createDir()
+        20.times { dirIndex ->
+            def dir = sourceDir.file("dir-$dirIndex")
+            50.times { fileIndex ->
+                dir.file("nested-${fileIndex % 3}/file-${fileIndex}.txt") << "content $dirIndex/$fileIndex"
+            }
+        }
+        sourceDir.file("large.bin").bytes = new byte[512 * 1024]
+        def output = new ByteArrayOutputStream()
+        pack output, prop(DIRECTORY, sourceDir)
+        def sequentialPacker = new TarBuildCacheEntryPacker(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner)
+        def sequentialTargetDir = temporaryFolder.file("sequential")
+        def parallelTargetDir = temporaryFolder.file("parallel")
+
+        when:
+        def sequentialResult = sequentialPacker.unpack(entity(prop(DIRECTORY, sequentialTargetDir)), new ByteArrayInputStream(output.toByteArray()), readOrigin)
+        def parallelResult = unpack new ByteArrayInputStream(output.toByteArray()), prop(DIRECTORY, parallelTargetDir)
+
+        then:
+        parallelResult.entries == sequentialResult.entries
+        parallelResult.snapshots["test"].hash == sequentialResult.snapshots["test"].hash
+        relativePathsOf(parallelResult.snapshots["test"], parallelTargetDir) == relativePathsOf(sequentialResult.snapshots["test"], sequentialTargetDir)
+        parallelTargetDir.file("dir-7/nested-1/file-13.txt").text == "content 7/13"
+        parallelTargetDir.file("large.bin").length() == 512 * 1024
+    }
+
+    def "propagates failure to schedule file write"() {
+        def sourceDir = temporaryFolder.file("source").createDir()
+        sourceDir.file("dir/file.txt") << "content"
+        def output = new ByteArrayOutputStream()
+        pack output, prop(DIRECTORY, sourceDir)
+        def failure = new RejectedExecutionException("rejected")
+        def rejectingPacker = new TarBuildCacheEntryPacker(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, { Runnable action -> throw failure } as Executor)
+
+        when:
+        rejectingPacker.unpack(entity(prop(DIRECTORY, temporaryFolder.file("target"))), new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        def ex = thrown(RejectedExecutionException)
+        ex == failure
+    }
+
+    private static List<String> relativePathsOf(FileSystemLocationSnapshot snapshot, File root) {
+        def paths = []
+        snapshot.accept({ FileSystemLocationSnapshot child ->
+            def relativePath = child.absolutePath.substring(root.absolutePath.length())
+            paths << relativePath + (child instanceof RegularFileSnapshot ? ":" + child.hash : "")
+            return SnapshotVisitResult.CONTINUE
+        } as FileSystemSnapshotHierarchyVisitor)
+        return paths
+    }
+}
@@ -11,6 +11,7 @@ dependencies {
 
     implementation(project(":build-cache-packaging"))
     implementation(project(":base-services"))
+    implementation(project(":build-option"))
     implementation(project(":enterprise-operations"))
     implementation(project(":core-api"))
     implementation(project(":files"))
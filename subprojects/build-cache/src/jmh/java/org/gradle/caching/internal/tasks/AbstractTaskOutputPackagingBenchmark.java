@@ -19,6 +19,8 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.io.FileUtils;
+import org.gradle.caching.internal.packaging.impl.GZipBuildCacheEntryCodec;
+import org.gradle.caching.internal.packaging.impl.SnappyBuildCacheEntryCodec;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
@@ -35,6 +37,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.zip.Deflater;
 
 @Fork(1)
 @Warmup(iterations = 3)
@@ -55,6 +58,9 @@ public abstract class AbstractTaskOutputPackagingBenchmark {
         .put("tar.small", new CommonsTarPacker(2))
         .put("tar.large", new CommonsTarPacker(64))
         .put("tar.gz", new GzipPacker(new CommonsTarPacker(4)))
+        .put("tar.gz.codec", new CodecPacker(new GZipBuildCacheEntryCodec(), new CommonsTarPacker(4)))
+        .put("tar.gz.codec.fastest", new CodecPacker(new GZipBuildCacheEntryCodec(Deflater.BEST_SPEED), new CommonsTarPacker(4)))
+        .put("tar.snappy.codec", new CodecPacker(new SnappyBuildCacheEntryCodec(), new CommonsTarPacker(4)))
         .put("zip", new ZipPacker(4))
         .build();
 
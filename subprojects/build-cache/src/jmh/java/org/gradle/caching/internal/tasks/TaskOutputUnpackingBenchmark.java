@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.tasks;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginMetadata;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
+import org.gradle.caching.internal.packaging.impl.TarBuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
+import org.gradle.internal.file.TreeType;
+import org.gradle.internal.hash.DefaultStreamHasher;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter;
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures loading a cache entry with many small files, unpacking sequentially or with a pool of file writers.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class TaskOutputUnpackingBenchmark {
+    private static final StreamHasher STREAM_HASHER = new DefaultStreamHasher();
+    private static final OriginMetadata ORIGIN = new OriginMetadata("benchmark", Duration.ZERO);
+
+    @Param({"1000", "10000"})
+    int fileCount;
+
+    @Param({"0", "4", "8"})
+    int threads;
+
+    File tempDir;
+    File iterationDir;
+    int unpackCount;
+    byte[] entry;
+    ExecutorService executor;
+    BuildCacheEntryPacker packer;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        tempDir = Files.createTempDirectory("unpacking").toFile();
+        File sourceDir = new File(tempDir, "source");
+        for (int i = 0; i < fileCount; i++) {
+            File file = new File(sourceDir, "dir-" + (i % 100) + "/sub-" + (i % 7) + "/File" + i + ".java");
+            FileUtils.writeStringToFile(file, "class File" + i + " { /* generated */ }", "UTF-8");
+        }
+
+        StringInterner stringInterner = new StringInterner();
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+        packer = new TarBuildCacheEntryPacker(new CreatingFileSystemSupport(), new NoOpFilePermissionAccess(), STREAM_HASHER, stringInterner, executor);
+
+        DirectorySnapshotter snapshotter = new DirectorySnapshotter(new StreamBackedFileHasher(), stringInterner, Collections.emptyList(), new DirectorySnapshotterStatistics.Collector());
+        FileSystemLocationSnapshot snapshot = snapshotter.snapshot(sourceDir.getAbsolutePath(), null, unfiltered -> {});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        packer.pack(entity(sourceDir), ImmutableMap.of("output", snapshot), output, origin -> {});
+        entry = output.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws IOException {
+        iterationDir = Files.createTempDirectory(tempDir.toPath(), "iteration-").toFile();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        FileUtils.forceDelete(iterationDir);
+    }
+
+    @Benchmark
+    public BuildCacheEntryPacker.UnpackResult unpack() throws IOException {
+        File target = new File(iterationDir, "target-" + unpackCount++);
+        return packer.unpack(entity(target), new ByteArrayInputStream(entry), input -> ORIGIN);
+    }
+
+    private static CacheableEntity entity(File root) {
+        return new CacheableEntity() {
+            @Override
+            public String getIdentity() {
+                return "benchmark";
+            }
+
+            @Override
+            public Class<?> getType() {
+                return CacheableEntity.class;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "benchmark";
+            }
+
+            @Override
+            public void visitOutputTrees(CacheableTreeVisitor visitor) {
+                visitor.visitOutputTree("output", TreeType.DIRECTORY, root);
+            }
+        };
+    }
+
+    private static class CreatingFileSystemSupport implements TarPackerFileSystemSupport {
+        @Override
+        public void ensureFileIsMissing(File entry) throws IOException {
+            FileUtils.forceMkdirParent(entry);
+        }
+
+        @Override
+        public void ensureDirectoryForTree(TreeType type, File root) throws IOException {
+            FileUtils.forceMkdir(type == TreeType.DIRECTORY ? root : root.getParentFile());
+        }
+    }
+
+    private static class NoOpFilePermissionAccess implements FilePermissionAccess {
+        @Override
+        @SuppressWarnings("OctalInteger")
+        public int getUnixMode(File f) {
+            return 0644;
+        }
+
+        @Override
+        public void chmod(File file, int mode) {
+        }
+    }
+
+    private static class StreamBackedFileHasher implements FileHasher {
+        @Override
+        public HashCode hash(File file) {
+            try (InputStream input = new FileInputStream(file)) {
+                return STREAM_HASHER.hash(input);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public HashCode hash(File file, long length, long lastModified) {
+            return hash(file);
+        }
+    }
+}
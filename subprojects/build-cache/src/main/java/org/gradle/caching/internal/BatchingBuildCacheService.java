@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal;
+
+import org.gradle.caching.BuildCacheException;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A build cache service that can check whether it contains entries for many keys with a single request.
+ */
+public interface BatchingBuildCacheService extends BuildCacheService {
+
+    /**
+     * Returns the keys among the given ones for which the cache contains an entry.
+     *
+     * @return the keys with an entry, or {@code null} when the cache does not support batched queries, in which case each entry needs to be loaded individually.
+     */
+    @Nullable
+    Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) throws BuildCacheException;
+}
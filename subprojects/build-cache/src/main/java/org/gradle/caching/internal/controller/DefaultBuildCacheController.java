@@ -30,6 +30,7 @@
 import org.gradle.caching.internal.controller.operations.PackOperationResult;
 import org.gradle.caching.internal.controller.operations.UnpackOperationDetails;
 import org.gradle.caching.internal.controller.operations.UnpackOperationResult;
+import org.gradle.caching.internal.controller.service.AsyncRemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.BuildCacheLoadResult;
 import org.gradle.caching.internal.controller.service.RemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.BuildCacheServiceRole;
@@ -41,10 +42,13 @@
 import org.gradle.caching.internal.controller.service.OpFiringRemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
+import org.gradle.caching.internal.origin.OriginWriter;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
 import org.gradle.caching.local.internal.BuildCacheTempFileStore;
+import org.gradle.caching.local.internal.ContentAddressedBuildCacheService;
 import org.gradle.caching.local.internal.DefaultBuildCacheTempFileStore;
 import org.gradle.caching.local.internal.LocalBuildCacheService;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.file.TreeType;
@@ -77,8 +81,12 @@ public class DefaultBuildCacheController implements BuildCacheController {
     @VisibleForTesting
     final LocalBuildCacheServiceHandle local;
 
+    @Nullable
+    private final ContentAddressedBuildCacheService contentAddressedLocal;
+
     private final BuildCacheTempFileStore tmp;
     private final boolean emitDebugLogging;
+    private final OriginMetadataFactory originMetadataFactory;
     private final PackOperationExecutor packExecutor;
 
     private boolean closed;
@@ -94,11 +102,39 @@ public DefaultBuildCacheController(
         BuildCacheEntryPacker packer,
         OriginMetadataFactory originMetadataFactory,
         StringInterner stringInterner
+    ) {
+        this(config, buildOperationExecutor, temporaryFileProvider, logStackTraces, emitDebugLogging, disableRemoteOnError, fileSystemAccess, packer, originMetadataFactory, stringInterner, null, 0);
+    }
+
+    /**
+     * Creates a controller that stores entries in the remote cache in the background using the given store executor, if not {@code null}.
+     * The controller takes ownership of the executor and stops it when closed.
+     */
+    public DefaultBuildCacheController(
+        BuildCacheServicesConfiguration config,
+        BuildOperationExecutor buildOperationExecutor,
+        TemporaryFileProvider temporaryFileProvider,
+        boolean logStackTraces,
+        boolean emitDebugLogging,
+        boolean disableRemoteOnError,
+        FileSystemAccess fileSystemAccess,
+        BuildCacheEntryPacker packer,
+        OriginMetadataFactory originMetadataFactory,
+        StringInterner stringInterner,
+        @Nullable ManagedExecutor remoteStoreExecutor,
+        int remoteStoreQueueSize
     ) {
         this.emitDebugLogging = emitDebugLogging;
         this.local = toLocalHandle(config.getLocal(), config.isLocalPush());
-        this.remote = toRemoteHandle(config.getRemote(), config.isRemotePush(), buildOperationExecutor, logStackTraces, disableRemoteOnError);
+        RemoteBuildCacheServiceHandle remote = toRemoteHandle(config.getRemote(), config.isRemotePush(), buildOperationExecutor, logStackTraces, disableRemoteOnError);
+        this.remote = remoteStoreExecutor != null
+            ? new AsyncRemoteBuildCacheServiceHandle(remote, temporaryFileProvider, buildOperationExecutor, remoteStoreExecutor, remoteStoreQueueSize)
+            : remote;
+        this.contentAddressedLocal = config.getLocal() instanceof ContentAddressedBuildCacheService
+            ? (ContentAddressedBuildCacheService) config.getLocal()
+            : null;
         this.tmp = toTempFileStore(config.getLocal(), temporaryFileProvider);
+        this.originMetadataFactory = originMetadataFactory;
         this.packExecutor = new PackOperationExecutor(
             buildOperationExecutor,
             fileSystemAccess,
@@ -129,6 +165,11 @@ public Optional<BuildCacheLoadResult> load(BuildCacheKey key, CacheableEntity en
 
     private Optional<BuildCacheLoadResult> loadLocal(BuildCacheKey key, CacheableEntity entity) {
         try {
+            if (contentAddressedLocal != null) {
+                return contentAddressedLocal.contains(key)
+                    ? Optional.ofNullable(packExecutor.materialize(key, entity, contentAddressedLocal))
+                    : Optional.empty();
+            }
             return local.maybeLoad(key, file -> packExecutor.unpack(key, entity, file));
         } catch (Exception e) {
             throw new GradleException("Could not load from local cache: " + e.getMessage(), e);
@@ -148,20 +189,45 @@ private Optional<BuildCacheLoadResult> loadRemoteAndStoreResultLocally(BuildCach
                 throw new GradleException("Could not load from remote cache: " + e.getMessage(), e);
             }
             if (remoteResult.isPresent()) {
-                local.maybeStore(key, file);
+                storeRemoteResultLocally(key, entity, file, remoteResult.get());
                 result.set(remoteResult);
             }
         });
         return result.get();
     }
 
+    private void storeRemoteResultLocally(BuildCacheKey key, CacheableEntity entity, File file, BuildCacheLoadResult remoteResult) {
+        if (contentAddressedLocal != null) {
+            if (local.canStore()) {
+                OriginMetadata origin = remoteResult.getOriginMetadata();
+                OriginWriter writeOrigin = originMetadataFactory.createWriter(entity, origin.getBuildInvocationId(), origin.getExecutionTime());
+                contentAddressedLocal.storeEntry(key, entity, remoteResult.getResultingSnapshots(), writeOrigin);
+            }
+        } else {
+            local.maybeStore(key, file);
+        }
+    }
+
     @Override
     public void store(BuildCacheKey key, CacheableEntity entity, Map<String, FileSystemSnapshot> snapshots, Duration executionTime) {
         if (!local.canStore() && !remote.canStore()) {
             return;
         }
+        if (contentAddressedLocal != null) {
+            if (remote.canStore()) {
+                tmp.withTempFile(key, file -> {
+                    packExecutor.pack(file, key, entity, snapshots, executionTime);
+                    remote.maybeStore(key, file);
+                });
+            }
+            if (local.canStore()) {
+                contentAddressedLocal.storeEntry(key, entity, snapshots, originMetadataFactory.createWriter(entity, executionTime));
+            }
+            return;
+        }
         tmp.withTempFile(key, file -> {
             packExecutor.pack(file, key, entity, snapshots, executionTime);
+            // Store remotely first, as storing locally moves the file into the local cache
             remote.maybeStore(key, file);
             local.maybeStore(key, file);
         });
@@ -215,12 +281,50 @@ public BuildOperationDescriptor.Builder description() {
             });
         }
 
+        /**
+         * Loads an entry from a content addressed local cache, directly materializing the stored files.
+         */
+        @Nullable
+        BuildCacheLoadResult materialize(BuildCacheKey key, CacheableEntity entity, ContentAddressedBuildCacheService service) {
+            return buildOperationExecutor.call(new CallableBuildOperation<BuildCacheLoadResult>() {
+                @Override
+                public BuildCacheLoadResult call(BuildOperationContext context) {
+                    invalidateOutputRoots(entity);
+                    BuildCacheEntryPacker.UnpackResult unpackResult = service.loadEntry(key, entity, originMetadataFactory.createReader(entity));
+                    if (unpackResult == null) {
+                        // The entry has been removed concurrently
+                        context.setResult(new UnpackOperationResult(0));
+                        return null;
+                    }
+                    BuildCacheLoadResult loadResult = toLoadResult(entity, unpackResult);
+                    context.setResult(new UnpackOperationResult(loadResult.getArtifactEntryCount()));
+                    return loadResult;
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    // There is no archive, so there is no archive size to report
+                    return BuildOperationDescriptor.displayName("Unpack build cache entry " + key.getHashCode())
+                        .details(new UnpackOperationDetails(key, 0))
+                        .progressDisplayName("Unpacking build cache entry");
+                }
+            });
+        }
+
         private BuildCacheLoadResult doUnpack(CacheableEntity entity, InputStream input) throws IOException {
+            invalidateOutputRoots(entity);
+            BuildCacheEntryPacker.UnpackResult unpackResult = packer.unpack(entity, input, originMetadataFactory.createReader(entity));
+            return toLoadResult(entity, unpackResult);
+        }
+
+        private void invalidateOutputRoots(CacheableEntity entity) {
             ImmutableList.Builder<String> roots = ImmutableList.builder();
             entity.visitOutputTrees((name, type, root) -> roots.add(root.getAbsolutePath()));
             // TODO: Actually unpack the roots inside of the action
             fileSystemAccess.write(roots.build(), () -> {});
-            BuildCacheEntryPacker.UnpackResult unpackResult = packer.unpack(entity, input, originMetadataFactory.createReader(entity));
+        }
+
+        private BuildCacheLoadResult toLoadResult(CacheableEntity entity, BuildCacheEntryPacker.UnpackResult unpackResult) {
             // TODO: Update the snapshots from the action
             ImmutableSortedMap<String, FileSystemSnapshot> resultingSnapshots = snapshotUnpackedData(entity, unpackResult.getSnapshots());
             return new BuildCacheLoadResult() {
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.service;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.file.temp.TemporaryFileProvider;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.controller.operations.StoreQueueOperationDetails;
+import org.gradle.caching.internal.controller.operations.StoreQueueOperationResult;
+import org.gradle.caching.local.internal.BuildCacheTempFileStore;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.util.internal.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Stores entries in the remote build cache in the background.
+ *
+ * Each stored entry is linked or copied to a staging file and uploaded by the given executor, so the caller does not wait for the upload.
+ * At most {@code maxQueuedEntries} entries are staged at a time; once the queue is full, storing blocks until an upload completes.
+ * Closing the handle waits for all staged entries to be uploaded before closing the delegate.
+ *
+ * Before uploading, the queued entries that have not been checked yet are checked for existence in the remote cache with a single request,
+ * and entries the remote cache already contains are not uploaded.
+ * This only happens for remote caches that can answer batched queries.
+ */
+public class AsyncRemoteBuildCacheServiceHandle implements RemoteBuildCacheServiceHandle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRemoteBuildCacheServiceHandle.class);
+
+    private final RemoteBuildCacheServiceHandle delegate;
+    private final TemporaryFileProvider temporaryFileProvider;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ManagedExecutor executor;
+    private final int maxQueuedEntries;
+
+    private final Object lock = new Object();
+    private int queuedEntries;
+    private long bytesPending;
+    private final Set<BuildCacheKey> uncheckedKeys = new LinkedHashSet<>();
+    private final Map<BuildCacheKey, ExistenceCheck> existenceChecks = new HashMap<>();
+
+    public AsyncRemoteBuildCacheServiceHandle(
+        RemoteBuildCacheServiceHandle delegate,
+        TemporaryFileProvider temporaryFileProvider,
+        BuildOperationExecutor buildOperationExecutor,
+        ManagedExecutor executor,
+        int maxQueuedEntries
+    ) {
+        if (maxQueuedEntries < 1) {
+            throw new IllegalArgumentException("The remote build cache store queue must hold at least one entry, but was " + maxQueuedEntries);
+        }
+        this.delegate = delegate;
+        this.temporaryFileProvider = temporaryFileProvider;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.executor = executor;
+        this.maxQueuedEntries = maxQueuedEntries;
+    }
+
+    @Nullable
+    @Override
+    public BuildCacheService getService() {
+        return delegate.getService();
+    }
+
+    @Override
+    public boolean canLoad() {
+        return delegate.canLoad();
+    }
+
+    @Override
+    public Optional<BuildCacheLoadResult> maybeLoad(BuildCacheKey key, File toFile, Function<File, BuildCacheLoadResult> unpackFunction) {
+        return delegate.maybeLoad(key, toFile, unpackFunction);
+    }
+
+    @Nullable
+    @Override
+    public Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) {
+        return delegate.findExisting(keys);
+    }
+
+    @Override
+    public boolean canStore() {
+        return delegate.canStore();
+    }
+
+    /**
+     * Queues the file to be stored in the remote cache.
+     *
+     * The file is left in place, so the caller can still store it elsewhere, for example in the local cache.
+     * Returns true when the entry has been queued, which does not mean the upload will succeed.
+     */
+    @Override
+    public boolean maybeStore(BuildCacheKey key, File file) {
+        if (!canStore()) {
+            return false;
+        }
+        File stagedFile = stage(key, file);
+        long size = stagedFile.length();
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                enqueue(size);
+                context.setResult(StoreQueueOperationResult.INSTANCE);
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                StoreQueueOperationDetails details;
+                synchronized (lock) {
+                    details = new StoreQueueOperationDetails(queuedEntries, bytesPending);
+                }
+                return BuildOperationDescriptor.displayName("Queue entry " + key.getDisplayName() + " for remote build cache")
+                    .details(details)
+                    .progressDisplayName("Waiting for remote build cache store queue");
+            }
+        });
+        synchronized (lock) {
+            uncheckedKeys.add(key);
+        }
+        try {
+            executor.execute(() -> upload(key, stagedFile, size));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                uncheckedKeys.remove(key);
+            }
+            dequeue(size);
+            GFileUtils.deleteQuietly(stagedFile);
+            throw e;
+        }
+        return true;
+    }
+
+    private File stage(BuildCacheKey key, File file) {
+        File stagedFile = temporaryFileProvider.createTemporaryFile(key.getHashCode() + "-", BuildCacheTempFileStore.PARTIAL_FILE_SUFFIX);
+        try {
+            try {
+                // A hard link avoids copying the entry, and stays valid when the original file is moved into the local cache
+                Files.delete(stagedFile.toPath());
+                Files.createLink(stagedFile.toPath(), file.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(file.toPath(), stagedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            GFileUtils.deleteQuietly(stagedFile);
+            throw new UncheckedIOException("Could not stage build cache entry " + key.getDisplayName() + " for storing in the remote build cache", e);
+        }
+        return stagedFile;
+    }
+
+    private void upload(BuildCacheKey key, File stagedFile, long size) {
+        try {
+            // Failures are logged by the delegate, which also disables the remote cache if configured to do so
+            if (existsRemotely(key)) {
+                LOGGER.debug("Not storing entry {} in remote build cache as it already exists", key.getDisplayName());
+            } else {
+                delegate.maybeStore(key, stagedFile);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not store entry {} in remote build cache: {}", key.getDisplayName(), e.getMessage());
+        } finally {
+            GFileUtils.deleteQuietly(stagedFile);
+            dequeue(size);
+        }
+    }
+
+    private boolean existsRemotely(BuildCacheKey key) {
+        ExistenceCheck check;
+        synchronized (lock) {
+            check = existenceChecks.remove(key);
+            if (check == null) {
+                // Check the entries still waiting in the queue together with this one
+                uncheckedKeys.add(key);
+                check = new ExistenceCheck(new LinkedHashSet<>(uncheckedKeys));
+                uncheckedKeys.remove(key);
+                for (BuildCacheKey uncheckedKey : uncheckedKeys) {
+                    existenceChecks.put(uncheckedKey, check);
+                }
+                uncheckedKeys.clear();
+            }
+        }
+        return check.contains(key);
+    }
+
+    private void enqueue(long size) {
+        synchronized (lock) {
+            try {
+                while (queuedEntries >= maxQueuedEntries) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            queuedEntries++;
+            bytesPending += size;
+        }
+    }
+
+    private void dequeue(long size) {
+        synchronized (lock) {
+            queuedEntries--;
+            bytesPending -= size;
+            lock.notifyAll();
+        }
+    }
+
+    private void awaitQueueDrained() {
+        synchronized (lock) {
+            try {
+                while (queuedEntries > 0) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            buildOperationExecutor.run(new RunnableBuildOperation() {
+                @Override
+                public void run(BuildOperationContext context) {
+                    awaitQueueDrained();
+                    context.setResult(StoreQueueOperationResult.INSTANCE);
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    StoreQueueOperationDetails details;
+                    synchronized (lock) {
+                        details = new StoreQueueOperationDetails(queuedEntries, bytesPending);
+                    }
+                    return BuildOperationDescriptor.displayName("Wait for remote build cache stores")
+                        .details(details)
+                        .progressDisplayName("Waiting for remote build cache stores");
+                }
+            });
+        } finally {
+            executor.stop();
+            delegate.close();
+        }
+    }
+
+    /**
+     * Checks the existence of a batch of entries, once, when the first of them is about to be uploaded.
+     */
+    private class ExistenceCheck {
+        private final Set<BuildCacheKey> keys;
+        private boolean done;
+        @Nullable
+        private Set<BuildCacheKey> existing;
+
+        ExistenceCheck(Set<BuildCacheKey> keys) {
+            this.keys = keys;
+        }
+
+        synchronized boolean contains(BuildCacheKey key) {
+            if (!done) {
+                done = true;
+                existing = delegate.findExisting(keys);
+            }
+            return existing != null && existing.contains(key);
+        }
+    }
+}
@@ -19,12 +19,15 @@
 import org.gradle.caching.BuildCacheEntryReader;
 import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.BatchingBuildCacheService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 public class BaseRemoteBuildCacheServiceHandle implements RemoteBuildCacheServiceHandle {
@@ -38,7 +41,7 @@ public class BaseRemoteBuildCacheServiceHandle implements RemoteBuildCacheServic
     private final boolean logStackTraces;
     private final boolean disableOnError;
 
-    private boolean disabled;
+    private volatile boolean disabled;
 
     public BaseRemoteBuildCacheServiceHandle(
         BuildCacheService service,
@@ -96,6 +99,27 @@ private Optional<BuildCacheLoadResult> maybeUnpack(LoadTarget loadTarget, Functi
         return Optional.empty();
     }
 
+    @Nullable
+    @Override
+    public final Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) {
+        if (!canLoad() || keys.isEmpty() || !(service instanceof BatchingBuildCacheService)) {
+            return null;
+        }
+        String description = "Find " + keys.size() + " entries in " + role.getDisplayName() + " build cache";
+        LOGGER.debug(description);
+        try {
+            return findExistingInner(description, keys);
+        } catch (Exception e) {
+            failure("Could not find " + keys.size() + " entries in " + role.getDisplayName() + " build cache", e);
+            return null;
+        }
+    }
+
+    @Nullable
+    protected Set<BuildCacheKey> findExistingInner(String description, Collection<BuildCacheKey> keys) {
+        return ((BatchingBuildCacheService) service).findExisting(keys);
+    }
+
     @Override
     public boolean canStore() {
         return pushEnabled && !disabled;
@@ -122,11 +146,14 @@ protected void storeInner(String description, BuildCacheKey key, StoreTarget sto
     }
 
     private void failure(String verb, String preposition, BuildCacheKey key, Throwable e) {
+        failure("Could not " + verb + " entry " + key.getDisplayName() + " " + preposition + " " + role.getDisplayName() + " build cache", e);
+    }
+
+    private void failure(String description, Throwable e) {
         if (disableOnError) {
             disabled = true;
         }
 
-        String description = "Could not " + verb + " entry " + key.getDisplayName() + " " + preposition + " " + role.getDisplayName() + " build cache";
         if (LOGGER.isWarnEnabled()) {
             if (logStackTraces) {
                 LOGGER.warn(description, e);
@@ -19,6 +19,8 @@
 import org.gradle.caching.BuildCacheEntryReader;
 import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.controller.operations.FindExistingOperationDetails;
+import org.gradle.caching.internal.controller.operations.FindExistingOperationResult;
 import org.gradle.caching.internal.controller.operations.LoadOperationDetails;
 import org.gradle.caching.internal.controller.operations.LoadOperationHitResult;
 import org.gradle.caching.internal.controller.operations.LoadOperationMissResult;
@@ -26,11 +28,15 @@
 import org.gradle.caching.internal.controller.operations.StoreOperationResult;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
 
 public class OpFiringRemoteBuildCacheServiceHandle extends BaseRemoteBuildCacheServiceHandle {
 
@@ -63,6 +69,26 @@ public BuildOperationDescriptor.Builder description() {
         });
     }
 
+    @Nullable
+    @Override
+    protected Set<BuildCacheKey> findExistingInner(final String description, final Collection<BuildCacheKey> keys) {
+        return buildOperationExecutor.call(new CallableBuildOperation<Set<BuildCacheKey>>() {
+            @Override
+            public Set<BuildCacheKey> call(BuildOperationContext context) {
+                Set<BuildCacheKey> existing = OpFiringRemoteBuildCacheServiceHandle.super.findExistingInner(description, keys);
+                context.setResult(new FindExistingOperationResult(existing == null ? 0 : existing.size()));
+                return existing;
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName(description)
+                    .details(new FindExistingOperationDetails(keys))
+                    .progressDisplayName("Querying remote build cache");
+            }
+        });
+    }
+
     @Override
     protected void storeInner(final String description, final BuildCacheKey key, final StoreTarget storeTarget) {
         buildOperationExecutor.run(new RunnableBuildOperation() {
@@ -23,7 +23,9 @@
 import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 public interface RemoteBuildCacheServiceHandle extends Closeable {
@@ -41,6 +43,14 @@ public interface RemoteBuildCacheServiceHandle extends Closeable {
      */
     Optional<BuildCacheLoadResult> maybeLoad(BuildCacheKey key, File toFile, Function<File, BuildCacheLoadResult> unpackFunction);
 
+    /**
+     * Returns the keys among the given ones for which the cache contains an entry, checked with a single request.
+     *
+     * If canLoad() returns false, the cache cannot answer batched queries or the query fails, then this method returns null.
+     */
+    @Nullable
+    Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys);
+
     boolean canStore();
 
     /**
@@ -0,0 +1,559 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import org.gradle.api.Action;
+import org.gradle.cache.PersistentCache;
+import org.gradle.caching.BuildCacheEntryReader;
+import org.gradle.caching.BuildCacheEntryWriter;
+import org.gradle.caching.BuildCacheException;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginMetadata;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
+import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
+import org.gradle.internal.file.FileAccessTracker;
+import org.gradle.internal.file.TreeType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.DirectorySnapshotBuilder;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor;
+import org.gradle.internal.snapshot.MerkleDirectorySnapshotBuilder;
+import org.gradle.internal.snapshot.MissingFileSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotVisitResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.gradle.internal.file.FileMetadata.AccessType.DIRECT;
+import static org.gradle.internal.snapshot.DirectorySnapshotBuilder.EmptyDirectoryHandlingStrategy.INCLUDE_EMPTY_DIRS;
+
+/**
+ * A local build cache that stores the files of cache entries by their content hash, so files shared between entries are stored only once.
+ *
+ * <p>
+ * Each entry is described by a small manifest stored under {@code manifests/<cache key>}, which lists the output trees,
+ * their directory structure, the content hashes of the files and the origin metadata.
+ * The content of each file is stored under {@code blobs-<hash variant>/<content hash>}, so hashes calculated in different ways are never mixed.
+ * The content hashes are taken from the output snapshots. The content is hashed again while it is copied into a blob,
+ * and the entry is not stored when a file has changed since it was snapshotted.
+ * Blobs are read-only, so they cannot be changed through the files materialized from them.
+ * </p>
+ *
+ * <p>
+ * Loading an entry materializes the files from the blobs by copying them.
+ * When hard links are enabled, files that are read-only like the blobs are materialized as hard links to the blobs instead.
+ * Other files are still copied, as changing their permissions or writing to them would change the shared blob, too.
+ * </p>
+ *
+ * <p>
+ * Entries are not stored as archives, so this service does not implement the archive based methods of
+ * {@link LocalBuildCacheService} and {@link BuildCacheService}; they always miss.
+ * Use {@link #loadEntry(BuildCacheKey, CacheableEntity, OriginReader)} and
+ * {@link #storeEntry(BuildCacheKey, CacheableEntity, Map, OriginWriter)} instead.
+ * </p>
+ */
+public class ContentAddressedBuildCacheService implements LocalBuildCacheService, BuildCacheService {
+    public static final String MANIFESTS_DIRECTORY = "manifests";
+    public static final String BLOBS_DIRECTORY_PREFIX = "blobs-";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentAddressedBuildCacheService.class);
+
+    private static final int MANIFEST_VERSION = 1;
+
+    private static final byte MISSING = 0;
+    private static final byte FILE = 1;
+    private static final byte ENTER_DIRECTORY = 2;
+    private static final byte LEAVE_DIRECTORY = 3;
+    private static final byte END_OF_TREE = 4;
+
+    @SuppressWarnings("OctalInteger")
+    private static final int DEFAULT_DIR_PERM = 0755;
+    @SuppressWarnings("OctalInteger")
+    private static final int BLOB_PERM = 0444;
+
+    private final File manifestsDir;
+    private final File blobsDir;
+    private final PersistentCache persistentCache;
+    private final BuildCacheTempFileStore tempFileStore;
+    private final FileAccessTracker fileAccessTracker;
+    private final TarPackerFileSystemSupport fileSystemSupport;
+    private final FilePermissionAccess filePermissionAccess;
+    private final StreamHasher streamHasher;
+    private final Interner<String> stringInterner;
+    private final boolean hardLinkFiles;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ContentAddressedBuildCacheService(
+        File baseDir,
+        PersistentCache persistentCache,
+        BuildCacheTempFileStore tempFileStore,
+        FileAccessTracker fileAccessTracker,
+        TarPackerFileSystemSupport fileSystemSupport,
+        FilePermissionAccess filePermissionAccess,
+        StreamHasher streamHasher,
+        Interner<String> stringInterner,
+        boolean hardLinkFiles
+    ) {
+        this.manifestsDir = new File(baseDir, MANIFESTS_DIRECTORY);
+        this.blobsDir = new File(baseDir, blobsDirectory(streamHasher));
+        this.persistentCache = persistentCache;
+        this.tempFileStore = tempFileStore;
+        this.fileAccessTracker = fileAccessTracker;
+        this.fileSystemSupport = fileSystemSupport;
+        this.filePermissionAccess = filePermissionAccess;
+        this.streamHasher = streamHasher;
+        this.stringInterner = stringInterner;
+        this.hardLinkFiles = hardLinkFiles;
+    }
+
+    /**
+     * Returns the name of the directory holding the blobs whose content hashes are calculated by the given hasher.
+     */
+    public static String blobsDirectory(StreamHasher streamHasher) {
+        String variant = streamHasher.getVariant();
+        return BLOBS_DIRECTORY_PREFIX + (variant != null ? variant : streamHasher.getHashFunction().getAlgorithm().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns whether there is a manifest for the given key. The blobs of the entry may have been cleaned up nevertheless.
+     */
+    public boolean contains(BuildCacheKey key) {
+        return persistentCache.withFileLock(() -> new File(manifestsDir, key.getHashCode()).isFile());
+    }
+
+    /**
+     * Materializes the outputs of the entry with the given key.
+     *
+     * @return the result of loading the entry, or {@code null} if there is no complete entry for the key.
+     */
+    @Nullable
+    public BuildCacheEntryPacker.UnpackResult loadEntry(BuildCacheKey key, CacheableEntity entity, OriginReader readOrigin) {
+        // We need to lock other processes out here because garbage collection can be under way in another process
+        return persistentCache.withFileLock(() -> {
+            lock.readLock().lock();
+            try {
+                return loadInsideLock(key, entity, readOrigin);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Stores the outputs of an entity, described by the given snapshots, as the entry with the given key.
+     */
+    public void storeEntry(BuildCacheKey key, CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OriginWriter writeOrigin) {
+        persistentCache.withFileLock(() -> {
+            lock.writeLock().lock();
+            try {
+                storeInsideLock(key, entity, snapshots, writeOrigin);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Nullable
+    private BuildCacheEntryPacker.UnpackResult loadInsideLock(BuildCacheKey key, CacheableEntity entity, OriginReader readOrigin) throws IOException {
+        File manifestFile = new File(manifestsDir, key.getHashCode());
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        Manifest manifest = readManifest(manifestFile);
+        for (HashCode contentHash : manifest.getContentHashes()) {
+            if (!blobFor(contentHash).isFile()) {
+                // A blob has been cleaned up, treat the entry as missing
+                return null;
+            }
+        }
+        fileAccessTracker.markAccessed(manifestFile);
+
+        Map<String, File> treeRoots = new HashMap<>();
+        Map<String, TreeType> treeTypes = new HashMap<>();
+        entity.visitOutputTrees((name, type, root) -> {
+            treeRoots.put(name, root);
+            treeTypes.put(name, type);
+        });
+
+        OriginMetadata originMetadata = readOrigin.execute(new ByteArrayInputStream(manifest.origin));
+        Map<String, FileSystemLocationSnapshot> snapshots = new HashMap<>();
+        long entries = 1;
+        for (Map.Entry<String, List<Event>> tree : manifest.trees.entrySet()) {
+            String treeName = tree.getKey();
+            File treeRoot = treeRoots.get(treeName);
+            if (treeRoot == null) {
+                throw new IllegalStateException(String.format("No tree '%s' registered", treeName));
+            }
+            entries += tree.getValue().stream().filter(event -> event.type != LEAVE_DIRECTORY).count();
+            FileSystemLocationSnapshot snapshot = materializeTree(treeName, treeTypes.get(treeName), treeRoot, tree.getValue());
+            if (snapshot != null) {
+                snapshots.put(treeName, snapshot);
+            }
+        }
+        return new BuildCacheEntryPacker.UnpackResult(originMetadata, entries, snapshots);
+    }
+
+    @Nullable
+    private FileSystemLocationSnapshot materializeTree(String treeName, TreeType treeType, File treeRoot, List<Event> events) throws IOException {
+        Event rootEvent = events.get(0);
+        if (rootEvent.type == MISSING) {
+            fileSystemSupport.ensureFileIsMissing(treeRoot);
+            return null;
+        }
+        fileSystemSupport.ensureDirectoryForTree(treeType, treeRoot);
+        if (treeType == TreeType.FILE) {
+            if (rootEvent.type != FILE) {
+                throw new IllegalStateException("Should be a file: " + treeName);
+            }
+            return materializeFile(rootEvent, treeRoot, treeRoot.getName());
+        }
+        if (rootEvent.type != ENTER_DIRECTORY) {
+            throw new IllegalStateException("Should be a directory: " + treeName);
+        }
+
+        DirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.noSortingRequired();
+        List<File> directories = new ArrayList<>();
+        for (Event event : events) {
+            File parent = directories.isEmpty() ? null : directories.get(directories.size() - 1);
+            File file = parent == null ? treeRoot : new File(parent, event.name);
+            String name = parent == null ? treeRoot.getName() : event.name;
+            switch (event.type) {
+                case ENTER_DIRECTORY:
+                    if (parent != null) {
+                        Files.createDirectories(file.toPath());
+                    }
+                    filePermissionAccess.chmod(file, event.mode);
+                    directories.add(file);
+                    builder.enterDirectory(DIRECT, stringInterner.intern(file.getAbsolutePath()), stringInterner.intern(name), INCLUDE_EMPTY_DIRS);
+                    break;
+                case FILE:
+                    builder.visitLeafElement(materializeFile(event, file, name));
+                    break;
+                case LEAVE_DIRECTORY:
+                    directories.remove(directories.size() - 1);
+                    builder.leaveDirectory();
+                    break;
+                default:
+                    throw new IllegalStateException("Cached entry format error, unexpected entry in tree " + treeName);
+            }
+        }
+        return builder.getResult();
+    }
+
+    private RegularFileSnapshot materializeFile(Event event, File file, String fileName) throws IOException {
+        File blob = blobFor(event.contentHash);
+        if (hardLinkFiles && event.mode == BLOB_PERM && filePermissionAccess.getUnixMode(blob) == BLOB_PERM) {
+            // Neither the permissions nor the content of a read-only file are changed when materializing it, so it can share the blob
+            Files.deleteIfExists(file.toPath());
+            Files.createLink(file.toPath(), blob.toPath());
+        } else {
+            Files.copy(blob.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            filePermissionAccess.chmod(file, event.mode);
+        }
+        fileAccessTracker.markAccessed(blob);
+        return new RegularFileSnapshot(
+            stringInterner.intern(file.getAbsolutePath()),
+            stringInterner.intern(fileName),
+            event.contentHash,
+            DefaultFileMetadata.file(file.length(), file.lastModified(), DIRECT)
+        );
+    }
+
+    private void storeInsideLock(BuildCacheKey key, CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OriginWriter writeOrigin) throws IOException {
+        ByteArrayOutputStream origin = new ByteArrayOutputStream();
+        writeOrigin.execute(origin);
+
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(manifest);
+        output.writeInt(MANIFEST_VERSION);
+        output.writeInt(origin.size());
+        origin.writeTo(output);
+
+        ImmutableList.Builder<String> treeNamesBuilder = ImmutableList.builder();
+        entity.visitOutputTrees((name, type, root) -> {
+            FileSystemSnapshot snapshot = snapshots.get(name);
+            if (snapshot != null && snapshot != FileSystemSnapshot.EMPTY) {
+                treeNamesBuilder.add(name);
+            }
+        });
+        ImmutableList<String> treeNames = treeNamesBuilder.build();
+        output.writeInt(treeNames.size());
+        for (String treeName : treeNames) {
+            output.writeUTF(treeName);
+            if (!writeTree(snapshots.get(treeName), output)) {
+                LOGGER.warn("Not storing entry {} in the local build cache, as the outputs of {} changed while storing them.", key.getHashCode(), entity.getDisplayName());
+                return;
+            }
+        }
+        output.flush();
+
+        File manifestFile = new File(manifestsDir, key.getHashCode());
+        File partialManifestFile = new File(manifestsDir, key.getHashCode() + BuildCacheTempFileStore.PARTIAL_FILE_SUFFIX);
+        Files.createDirectories(manifestsDir.toPath());
+        Files.write(partialManifestFile.toPath(), manifest.toByteArray());
+        Files.move(partialManifestFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileAccessTracker.markAccessed(manifestFile);
+    }
+
+    /**
+     * Writes the events of the tree and stores the blobs of its files.
+     *
+     * @return whether the content of all files still matches the snapshot.
+     */
+    private boolean writeTree(FileSystemSnapshot snapshot, DataOutputStream output) throws IOException {
+        AtomicBoolean contentChanged = new AtomicBoolean();
+        try {
+            snapshot.accept(new FileSystemSnapshotHierarchyVisitor() {
+                private boolean root = true;
+                private int depth;
+
+                @Override
+                public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot snapshot) {
+                    boolean isRoot = root;
+                    root = false;
+                    if (contentChanged.get()) {
+                        return SnapshotVisitResult.TERMINATE;
+                    }
+                    try {
+                        if (snapshot instanceof RegularFileSnapshot) {
+                            RegularFileSnapshot fileSnapshot = (RegularFileSnapshot) snapshot;
+                            File file = new File(fileSnapshot.getAbsolutePath());
+                            if (!storeBlob(fileSnapshot.getHash(), file)) {
+                                contentChanged.set(true);
+                                return SnapshotVisitResult.TERMINATE;
+                            }
+                            output.writeByte(FILE);
+                            output.writeUTF(fileSnapshot.getName());
+                            output.writeInt(filePermissionAccess.getUnixMode(file));
+                            byte[] hash = fileSnapshot.getHash().toByteArray();
+                            output.writeByte(hash.length);
+                            output.write(hash);
+                        } else if (snapshot instanceof MissingFileSnapshot) {
+                            if (!isRoot) {
+                                throw new IllegalStateException(String.format("Couldn't read content of file '%s'", snapshot.getAbsolutePath()));
+                            }
+                            output.writeByte(MISSING);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return SnapshotVisitResult.CONTINUE;
+                }
+
+                @Override
+                public void enterDirectory(DirectorySnapshot directorySnapshot) {
+                    try {
+                        int mode = depth++ == 0 ? DEFAULT_DIR_PERM : filePermissionAccess.getUnixMode(new File(directorySnapshot.getAbsolutePath()));
+                        output.writeByte(ENTER_DIRECTORY);
+                        output.writeUTF(directorySnapshot.getName());
+                        output.writeInt(mode);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void leaveDirectory(DirectorySnapshot directorySnapshot) {
+                    depth--;
+                    try {
+                        output.writeByte(LEAVE_DIRECTORY);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (contentChanged.get()) {
+            return false;
+        }
+        output.writeByte(END_OF_TREE);
+        return true;
+    }
+
+    /**
+     * Stores the content of the file as the blob for the given hash, unless there already is such a blob.
+     *
+     * @return whether the blob has been stored, {@code false} if the content of the file doesn't match the hash.
+     */
+    private boolean storeBlob(HashCode contentHash, File file) throws IOException {
+        File blob = blobFor(contentHash);
+        if (blob.isFile()) {
+            fileAccessTracker.markAccessed(blob);
+            return true;
+        }
+        Files.createDirectories(blobsDir.toPath());
+        File partialBlob = new File(blobsDir, contentHash + BuildCacheTempFileStore.PARTIAL_FILE_SUFFIX);
+        HashCode actualHash;
+        try (InputStream input = Files.newInputStream(file.toPath()); OutputStream output = Files.newOutputStream(partialBlob.toPath())) {
+            actualHash = streamHasher.hashCopy(input, output);
+        }
+        if (!actualHash.equals(contentHash)) {
+            Files.delete(partialBlob.toPath());
+            return false;
+        }
+        filePermissionAccess.chmod(partialBlob, BLOB_PERM);
+        Files.move(partialBlob.toPath(), blob.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileAccessTracker.markAccessed(blob);
+        return true;
+    }
+
+    private File blobFor(HashCode contentHash) {
+        return new File(blobsDir, contentHash.toString());
+    }
+
+    private static Manifest readManifest(File manifestFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(manifestFile.toPath())))) {
+            int version = input.readInt();
+            if (version != MANIFEST_VERSION) {
+                throw new IllegalStateException("Unsupported build cache manifest version " + version);
+            }
+            byte[] origin = new byte[input.readInt()];
+            input.readFully(origin);
+            int treeCount = input.readInt();
+            Map<String, List<Event>> trees = new HashMap<>();
+            for (int i = 0; i < treeCount; i++) {
+                String treeName = input.readUTF();
+                List<Event> events = new ArrayList<>();
+                byte type;
+                while ((type = input.readByte()) != END_OF_TREE) {
+                    events.add(readEvent(type, input));
+                }
+                trees.put(treeName, events);
+            }
+            return new Manifest(origin, trees);
+        }
+    }
+
+    private static Event readEvent(byte type, DataInputStream input) throws IOException {
+        switch (type) {
+            case MISSING:
+            case LEAVE_DIRECTORY:
+                return new Event(type, "", 0, null);
+            case ENTER_DIRECTORY:
+                return new Event(type, input.readUTF(), input.readInt(), null);
+            case FILE:
+                String name = input.readUTF();
+                int mode = input.readInt();
+                byte[] hash = new byte[input.readByte()];
+                input.readFully(hash);
+                return new Event(type, name, mode, HashCode.fromBytes(hash));
+            default:
+                throw new IllegalStateException("Cached entry format error, unknown manifest entry type " + type);
+        }
+    }
+
+    private static class Manifest {
+        private final byte[] origin;
+        private final Map<String, List<Event>> trees;
+
+        public Manifest(byte[] origin, Map<String, List<Event>> trees) {
+            this.origin = origin;
+            this.trees = trees;
+        }
+
+        public List<HashCode> getContentHashes() {
+            List<HashCode> hashes = new ArrayList<>();
+            for (List<Event> events : trees.values()) {
+                for (Event event : events) {
+                    if (event.contentHash != null) {
+                        hashes.add(event.contentHash);
+                    }
+                }
+            }
+            return hashes;
+        }
+    }
+
+    private static class Event {
+        private final byte type;
+        private final String name;
+        private final int mode;
+        private final HashCode contentHash;
+
+        public Event(byte type, String name, int mode, @Nullable HashCode contentHash) {
+            this.type = type;
+            this.name = name;
+            this.mode = mode;
+            this.contentHash = contentHash;
+        }
+    }
+
+    @Override
+    public boolean load(BuildCacheKey key, BuildCacheEntryReader reader) throws BuildCacheException {
+        return false;
+    }
+
+    @Override
+    public void store(BuildCacheKey key, BuildCacheEntryWriter writer) throws BuildCacheException {
+    }
+
+    @Override
+    public void loadLocally(BuildCacheKey key, Action<? super File> reader) {
+    }
+
+    @Override
+    public void storeLocally(BuildCacheKey key, File file) {
+    }
+
+    @Override
+    public void withTempFile(BuildCacheKey key, Action<? super File> action) {
+        persistentCache.withFileLock(() -> tempFileStore.withTempFile(key, action));
+    }
+
+    @Override
+    public void close() {
+        persistentCache.close();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.api.internal.cache.DefaultCacheCleanupStrategy;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.temp.TemporaryFileProvider;
+import org.gradle.cache.CacheBuilder;
+import org.gradle.cache.CacheCleanupStrategy;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.UnscopedCacheBuilderFactory;
+import org.gradle.cache.internal.CleanupActionDecorator;
+import org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup;
+import org.gradle.cache.internal.SingleDepthFilesFinder;
+import org.gradle.cache.scopes.GlobalScopedCacheBuilderFactory;
+import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.BuildCacheServiceFactory;
+import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
+import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
+import org.gradle.caching.local.DirectoryBuildCache;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.file.FileAccessTimeJournal;
+import org.gradle.internal.file.FileAccessTracker;
+import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.file.impl.SingleDepthFileAccessTracker;
+import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.time.TimestampSuppliers;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.function.Supplier;
+
+import static org.gradle.cache.FileLockManager.LockMode.OnDemand;
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Creates a {@link ContentAddressedBuildCacheService} for the local {@link DirectoryBuildCache}.
+ */
+public class ContentAddressedBuildCacheServiceFactory implements BuildCacheServiceFactory<DirectoryBuildCache> {
+    /**
+     * Materialize read-only files loaded from the cache as hard links to the stored content instead of copying them.
+     */
+    public static final InternalFlag HARD_LINK_FILES = new InternalFlag("org.gradle.caching.local.content-addressed.hard-links");
+
+    private static final String BUILD_CACHE_VERSION = "1";
+    private static final String BUILD_CACHE_KEY = "build-cache-cas-" + BUILD_CACHE_VERSION;
+    private static final String CONTENT_ADDRESSED_BUILD_CACHE_TYPE = "content-addressed directory";
+    // manifests/<cache key> and blobs-<hash variant>/<content hash>
+    private static final int FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP = 2;
+
+    private final UnscopedCacheBuilderFactory unscopedCacheBuilderFactory;
+    private final GlobalScopedCacheBuilderFactory cacheBuilderFactory;
+    private final PathToFileResolver resolver;
+    private final CleanupActionDecorator cleanupActionDecorator;
+    private final FileAccessTimeJournal fileAccessTimeJournal;
+    private final TemporaryFileProvider temporaryFileProvider;
+    private final TarPackerFileSystemSupport fileSystemSupport;
+    private final FilePermissionAccess filePermissionAccess;
+    private final StreamHasher streamHasher;
+    private final StringInterner stringInterner;
+    private final InternalOptions internalOptions;
+
+    @Inject
+    public ContentAddressedBuildCacheServiceFactory(
+        UnscopedCacheBuilderFactory unscopedCacheBuilderFactory, GlobalScopedCacheBuilderFactory cacheBuilderFactory, PathToFileResolver resolver,
+        CleanupActionDecorator cleanupActionDecorator, FileAccessTimeJournal fileAccessTimeJournal, TemporaryFileProvider temporaryFileProvider,
+        TarPackerFileSystemSupport fileSystemSupport, FilePermissionAccess filePermissionAccess, StreamHasher streamHasher, StringInterner stringInterner,
+        InternalOptions internalOptions
+    ) {
+        this.unscopedCacheBuilderFactory = unscopedCacheBuilderFactory;
+        this.cacheBuilderFactory = cacheBuilderFactory;
+        this.resolver = resolver;
+        this.cleanupActionDecorator = cleanupActionDecorator;
+        this.fileAccessTimeJournal = fileAccessTimeJournal;
+        this.temporaryFileProvider = temporaryFileProvider;
+        this.fileSystemSupport = fileSystemSupport;
+        this.filePermissionAccess = filePermissionAccess;
+        this.streamHasher = streamHasher;
+        this.stringInterner = stringInterner;
+        this.internalOptions = internalOptions;
+    }
+
+    @Override
+    public BuildCacheService createBuildCacheService(DirectoryBuildCache configuration, Describer describer) {
+        Object cacheDirectory = configuration.getDirectory();
+        File target;
+        if (cacheDirectory != null) {
+            target = resolver.resolve(cacheDirectory);
+        } else {
+            target = cacheBuilderFactory.baseDirForCrossVersionCache(BUILD_CACHE_KEY);
+        }
+        DirectoryBuildCacheServiceFactory.checkDirectory(target);
+
+        int removeUnusedEntriesAfterDays = configuration.getRemoveUnusedEntriesAfterDays();
+        boolean hardLinkFiles = internalOptions.getOption(HARD_LINK_FILES).get();
+        describer.type(CONTENT_ADDRESSED_BUILD_CACHE_TYPE).
+            config("location", target.getAbsolutePath()).
+            config("removeUnusedEntriesAfter", removeUnusedEntriesAfterDays + " days").
+            config("hardLinks", String.valueOf(hardLinkFiles));
+
+        PersistentCache persistentCache = unscopedCacheBuilderFactory
+            .cache(target)
+            .withCleanupStrategy(createCacheCleanupStrategy(TimestampSuppliers.daysAgo(removeUnusedEntriesAfterDays)))
+            .withDisplayName("Build cache")
+            .withLockOptions(mode(OnDemand))
+            .withCrossVersionCache(CacheBuilder.LockTarget.DefaultTarget)
+            .open();
+        BuildCacheTempFileStore tempFileStore = new DefaultBuildCacheTempFileStore(temporaryFileProvider);
+        FileAccessTracker fileAccessTracker = new SingleDepthFileAccessTracker(fileAccessTimeJournal, target, FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP);
+
+        return new ContentAddressedBuildCacheService(target, persistentCache, tempFileStore, fileAccessTracker, fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, hardLinkFiles);
+    }
+
+    private CacheCleanupStrategy createCacheCleanupStrategy(Supplier<Long> removeUnusedEntriesTimestamp) {
+        // Blobs still referenced by a manifest may be removed as well, loading such an entry is treated as a miss
+        return DefaultCacheCleanupStrategy.from(cleanupActionDecorator.decorate(
+            new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP), fileAccessTimeJournal, removeUnusedEntriesTimestamp)
+        ));
+    }
+}
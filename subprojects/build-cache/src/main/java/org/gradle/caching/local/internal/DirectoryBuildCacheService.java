@@ -32,6 +32,7 @@
 import org.gradle.util.internal.GFileUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -46,14 +47,20 @@ public class DirectoryBuildCacheService implements LocalBuildCacheService, Build
     private final BuildCacheTempFileStore tempFileStore;
     private final FileAccessTracker fileAccessTracker;
     private final String failedFileSuffix;
+    private final DirectoryBuildCacheSizeBudget sizeBudget;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public DirectoryBuildCacheService(PathKeyFileStore fileStore, PersistentCache persistentCache, BuildCacheTempFileStore tempFileStore, FileAccessTracker fileAccessTracker, String failedFileSuffix) {
+        this(fileStore, persistentCache, tempFileStore, fileAccessTracker, failedFileSuffix, null);
+    }
+
+    DirectoryBuildCacheService(PathKeyFileStore fileStore, PersistentCache persistentCache, BuildCacheTempFileStore tempFileStore, FileAccessTracker fileAccessTracker, String failedFileSuffix, @Nullable DirectoryBuildCacheSizeBudget sizeBudget) {
         this.fileStore = fileStore;
         this.persistentCache = persistentCache;
         this.tempFileStore = tempFileStore;
         this.fileAccessTracker = fileAccessTracker;
         this.failedFileSuffix = failedFileSuffix;
+        this.sizeBudget = sizeBudget;
     }
 
     private static class LoadAction implements Action<File> {
@@ -163,8 +170,16 @@ public void run() {
     }
 
     private void storeInsideLock(BuildCacheKey key, File file) {
+        long replacedSize = 0;
+        if (sizeBudget != null) {
+            LocallyAvailableResource existing = fileStore.get(key.getHashCode());
+            replacedSize = existing == null ? 0 : existing.getContentLength();
+        }
         LocallyAvailableResource resource = fileStore.move(key.getHashCode(), file);
         fileAccessTracker.markAccessed(resource.getFile());
+        if (sizeBudget != null) {
+            sizeBudget.entryStored(persistentCache, resource.getFile(), replacedSize);
+        }
     }
 
     @Override
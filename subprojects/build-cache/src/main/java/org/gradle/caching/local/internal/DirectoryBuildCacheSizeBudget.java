@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.cache.CleanableStore;
+import org.gradle.cache.CleanupAction;
+import org.gradle.cache.CleanupProgressMonitor;
+import org.gradle.internal.file.FileAccessTimeJournal;
+import org.gradle.util.internal.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the total size of the entries in a directory build cache within a budget by removing the least recently used entries.
+ *
+ * <p>The total size of the cache is kept in an index file in the cache directory, so it does not need to be computed by listing
+ * the cache directory on every build. The index is only read and written while holding the cache's file lock.</p>
+ *
+ * <p>Once storing an entry takes the cache over budget, entries are removed until the cache is back
+ * to {@value #LOW_WATER_MARK_PERCENT}% of the budget, so that the next stores don't immediately trigger another trim.
+ * Processes that don't know about the index, like older Gradle versions sharing the cache, can change the cache without updating it,
+ * so the index is recomputed from the cache directory whenever the cache is trimmed.</p>
+ */
+class DirectoryBuildCacheSizeBudget implements CleanupAction {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryBuildCacheSizeBudget.class);
+
+    static final String INDEX_FILE_NAME = "size.bin";
+    static final int LOW_WATER_MARK_PERCENT = 90;
+
+    private final long maxSize;
+    private final long lowWaterMark;
+    private final FileAccessTimeJournal journal;
+
+    DirectoryBuildCacheSizeBudget(long maxSize, FileAccessTimeJournal journal) {
+        this.maxSize = maxSize;
+        this.lowWaterMark = maxSize / 100 * LOW_WATER_MARK_PERCENT;
+        this.journal = journal;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Records that the given entry has been stored, replacing an entry of {@code replacedSize} bytes, and trims the cache if it went over budget.
+     *
+     * Must be called while holding the file lock of the cache.
+     */
+    public void entryStored(CleanableStore cache, File entry, long replacedSize) {
+        File indexFile = indexFile(cache);
+        long totalSize = readTotalSize(indexFile);
+        if (totalSize >= 0) {
+            totalSize += entry.length() - replacedSize;
+        }
+        if (totalSize < 0 || totalSize > maxSize) {
+            totalSize = trim(cache, CleanupProgressMonitor.NO_OP);
+        }
+        writeTotalSize(indexFile, totalSize);
+    }
+
+    @Override
+    public void clean(CleanableStore cleanableStore, CleanupProgressMonitor progressMonitor) {
+        writeTotalSize(indexFile(cleanableStore), trim(cleanableStore, progressMonitor));
+    }
+
+    private long trim(CleanableStore cache, CleanupProgressMonitor progressMonitor) {
+        List<Entry> entries = listEntries(cache);
+        long totalSize = 0;
+        for (Entry entry : entries) {
+            totalSize += entry.size;
+        }
+        if (totalSize <= maxSize) {
+            return totalSize;
+        }
+
+        LOGGER.info("{} is {} bytes, which is over the budget of {} bytes. Removing least recently used entries.", cache.getDisplayName(), totalSize, maxSize);
+        for (Entry entry : entries) {
+            entry.lastAccessTime = journal.getLastAccessTime(entry.file);
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.lastAccessTime));
+
+        int filesDeleted = 0;
+        for (Entry entry : entries) {
+            if (totalSize <= lowWaterMark) {
+                progressMonitor.incrementSkipped();
+                continue;
+            }
+            progressMonitor.incrementDeleted();
+            if (GFileUtils.deleteQuietly(entry.file)) {
+                journal.deleteLastAccessTime(entry.file);
+                totalSize -= entry.size;
+                filesDeleted++;
+            }
+        }
+        LOGGER.info("{} size budget cleanup deleted {} files.", cache.getDisplayName(), filesDeleted);
+        return totalSize;
+    }
+
+    private static List<Entry> listEntries(CleanableStore cache) {
+        File[] files = cache.getBaseDir().listFiles();
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Collection<File> reservedFiles = cache.getReservedCacheFiles();
+        List<Entry> entries = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (file.getName().equals(INDEX_FILE_NAME) || reservedFiles.contains(file) || !file.isFile()) {
+                continue;
+            }
+            entries.add(new Entry(file, file.length()));
+        }
+        return entries;
+    }
+
+    private static File indexFile(CleanableStore cache) {
+        return new File(cache.getBaseDir(), INDEX_FILE_NAME);
+    }
+
+    /**
+     * Returns the total size recorded in the index, or -1 when there is no usable index.
+     */
+    private static long readTotalSize(File indexFile) {
+        if (indexFile.length() != Long.BYTES) {
+            return -1;
+        }
+        try (DataInputStream input = new DataInputStream(new FileInputStream(indexFile))) {
+            return input.readLong();
+        } catch (IOException e) {
+            LOGGER.debug("Could not read build cache size index {}.", indexFile, e);
+            return -1;
+        }
+    }
+
+    private static void writeTotalSize(File indexFile, long totalSize) {
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(indexFile))) {
+            output.writeLong(totalSize);
+        } catch (IOException e) {
+            // Without an index, the size is recomputed on the next store
+            LOGGER.debug("Could not write build cache size index {}.", indexFile, e);
+            GFileUtils.deleteQuietly(indexFile);
+        }
+    }
+
+    private static class Entry {
+        private final File file;
+        private final long size;
+        private long lastAccessTime;
+
+        Entry(File file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
@@ -23,11 +23,15 @@ import org.gradle.caching.BuildCacheEntryReader
 import org.gradle.caching.BuildCacheEntryWriter
 import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheService
+import org.gradle.caching.internal.BatchingBuildCacheService
 import org.gradle.caching.internal.CacheableEntity
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration
+import org.gradle.caching.internal.operations.BuildCacheRemoteFindExistingBuildOperationType
 import org.gradle.caching.internal.origin.OriginMetadataFactory
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
 import org.gradle.caching.local.internal.LocalBuildCacheService
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.snapshot.FileSystemSnapshot
 import org.gradle.internal.vfs.FileSystemAccess
@@ -70,7 +74,7 @@ class DefaultBuildCacheControllerTest extends Specification {
 
     interface Local extends BuildCacheService, LocalBuildCacheService {}
 
-    BuildCacheController getController(boolean disableRemoteOnError = true) {
+    BuildCacheController getController(boolean disableRemoteOnError = true, ManagedExecutor remoteStoreExecutor = null) {
         new DefaultBuildCacheController(
             new BuildCacheServicesConfiguration(
                 local,
@@ -86,7 +90,9 @@ class DefaultBuildCacheControllerTest extends Specification {
             fileSystemAccess,
             packer,
             originMetadataFactory,
-            stringInterner
+            stringInterner,
+            remoteStoreExecutor,
+            remoteStoreExecutor == null ? 0 : 1
         )
     }
 
@@ -118,6 +124,56 @@ class DefaultBuildCacheControllerTest extends Specification {
         1 * local.storeLocally(key, _)
     }
 
+    def "stores to remote and local when both push"() {
+        def uploaded = new ByteArrayOutputStream()
+        packer.pack(_, _, _, _) >> { entity, snapshots, OutputStream output, writeOrigin ->
+            output.write("entry".bytes)
+            new BuildCacheEntryPacker.PackResult(1)
+        }
+
+        when:
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+
+        then:
+        1 * remote.store(key, _) >> { BuildCacheKey key, BuildCacheEntryWriter writer ->
+            writer.writeTo(uploaded)
+        }
+
+        then:
+        1 * local.storeLocally(key, _) >> { BuildCacheKey key, File file ->
+            // The local cache moves the entry into its directory
+            assert file.renameTo(tmpDir.file("local-entry"))
+        }
+        uploaded.toString() == "entry"
+    }
+
+    def "stores to remote in the background and local when both push"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def uploaded = new ByteArrayOutputStream()
+        packer.pack(_, _, _, _) >> { entity, snapshots, OutputStream output, writeOrigin ->
+            output.write("entry".bytes)
+            new BuildCacheEntryPacker.PackResult(1)
+        }
+
+        when:
+        def controller = getController(true, executorFactory.create("remote store", 1))
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+        controller.close()
+
+        then:
+        1 * local.storeLocally(key, _) >> { BuildCacheKey key, File file ->
+            assert file.renameTo(tmpDir.file("local-entry"))
+        }
+        1 * remote.store(key, _) >> { BuildCacheKey key, BuildCacheEntryWriter writer ->
+            writer.writeTo(uploaded)
+        }
+        uploaded.toString() == "entry"
+        tmpDir.file("local-entry").text == "entry"
+
+        cleanup:
+        executorFactory.stop()
+    }
+
     def "does not store to local if local push is disabled"() {
         given:
         localPush = false
@@ -265,6 +321,61 @@ class DefaultBuildCacheControllerTest extends Specification {
         1 * remote.store(key, _)
     }
 
+    def "does not store entries in the background that already exist remotely"() {
+        local = null
+        def batchingRemote = Mock(BatchingBuildCacheService)
+        remote = batchingRemote
+        def otherKey = Mock(BuildCacheKey) {
+            getHashCode() >> "other"
+            toString() >> "other"
+        }
+        def uploads = []
+        def executor = Stub(ManagedExecutor) {
+            execute(_) >> { Runnable upload -> uploads << upload }
+        }
+
+        when:
+        def controller = getController(true, executor)
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+        controller.store(otherKey, cacheableEntity, snapshots, executionTime)
+        uploads*.run()
+        controller.close()
+
+        then:
+        1 * batchingRemote.findExisting([key, otherKey] as Set) >> ([key] as Set)
+        0 * batchingRemote.store(key, _)
+        1 * batchingRemote.store(otherKey, _)
+
+        and:
+        def findOps = operations.log.all(BuildCacheRemoteFindExistingBuildOperationType)
+        findOps.size() == 1
+        findOps[0].details.cacheKeys == ["key", "other"]
+        findOps[0].result.existingCount == 1
+    }
+
+    def "stops calling through after batched query error"() {
+        local = null
+        def batchingRemote = Mock(BatchingBuildCacheService)
+        remote = batchingRemote
+        def uploads = []
+        def executor = Stub(ManagedExecutor) {
+            execute(_) >> { Runnable upload -> uploads << upload }
+        }
+
+        when:
+        def controller = getController(true, executor)
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+        uploads*.run()
+        controller.load(key, cacheableEntity)
+        controller.close()
+
+        then:
+        1 * batchingRemote.findExisting(_) >> { throw new RuntimeException("broken") }
+        0 * batchingRemote.store(key, _)
+        0 * batchingRemote.load(key, _)
+        operations.log.all(BuildCacheRemoteFindExistingBuildOperationType)[0].failure.message == "broken"
+    }
+
     def "close only closes once"() {
         when:
         def controller = getController()
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.service
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.caching.BuildCacheKey
+import org.gradle.caching.internal.operations.BuildCacheRemoteStoreQueueBuildOperationType
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncRemoteBuildCacheServiceHandleTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def key = Stub(BuildCacheKey) {
+        getHashCode() >> "key"
+        getDisplayName() >> "key"
+    }
+    def delegate = Mock(RemoteBuildCacheServiceHandle) {
+        canStore() >> true
+    }
+    def operations = new TestBuildOperationExecutor()
+    def executorFactory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "stores entry in the background and removes staged file"() {
+        def file = tmpDir.file("entry") << "content"
+        def uploaded = new CopyOnWriteArrayList<String>()
+        def stagedFiles = new CopyOnWriteArrayList<File>()
+        def handle = createHandle(2)
+
+        when:
+        def queued = handle.maybeStore(key, file)
+        handle.close()
+
+        then:
+        queued
+        file.text == "content"
+        1 * delegate.maybeStore(key, _ as File) >> { BuildCacheKey k, File staged ->
+            uploaded << staged.text
+            stagedFiles << staged
+            true
+        }
+        1 * delegate.close()
+        uploaded == ["content"]
+        stagedFiles.every { !it.exists() }
+    }
+
+    def "stores entry when the file is moved away before the upload starts"() {
+        def file = tmpDir.file("entry") << "content"
+        def uploaded = new CopyOnWriteArrayList<String>()
+        def release = new CountDownLatch(1)
+        def handle = createHandle(1)
+
+        when:
+        handle.maybeStore(key, file)
+        file.renameTo(tmpDir.file("moved"))
+        release.countDown()
+        handle.close()
+
+        then:
+        1 * delegate.maybeStore(key, _ as File) >> { BuildCacheKey k, File staged ->
+            release.await()
+            uploaded << staged.text
+            true
+        }
+        uploaded == ["content"]
+    }
+
+    def "does not queue entry when delegate cannot store"() {
+        def file = tmpDir.file("entry") << "content"
+        def delegate = Mock(RemoteBuildCacheServiceHandle) {
+            canStore() >> false
+        }
+        def handle = new AsyncRemoteBuildCacheServiceHandle(delegate, TestFiles.tmpDirTemporaryFileProvider(tmpDir.createDir("tmp")), operations, executorFactory.create("test", 1), 1)
+
+        when:
+        def queued = handle.maybeStore(key, file)
+        handle.close()
+
+        then:
+        !queued
+        file.exists()
+        0 * delegate.maybeStore(_, _)
+    }
+
+    def "close waits for queued entries to be stored"() {
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def handle = createHandle(1)
+
+        when:
+        handle.maybeStore(key, tmpDir.file("entry") << "12345")
+        started.await(10, TimeUnit.SECONDS)
+        Thread.start {
+            Thread.sleep(100)
+            release.countDown()
+        }
+        handle.close()
+
+        then:
+        1 * delegate.maybeStore(key, _ as File) >> {
+            started.countDown()
+            release.await()
+            true
+        }
+        1 * delegate.close()
+        release.count == 0
+
+        and:
+        def queueOps = operations.log.all(BuildCacheRemoteStoreQueueBuildOperationType)
+        queueOps.size() == 2
+        queueOps[0].details.queueDepth == 0
+        queueOps[0].details.bytesPending == 0
+        queueOps[1].details.queueDepth == 1
+        queueOps[1].details.bytesPending == 5
+    }
+
+    def "failing store does not fail the build"() {
+        def handle = createHandle(1)
+
+        when:
+        handle.maybeStore(key, tmpDir.file("entry") << "content")
+        handle.close()
+
+        then:
+        1 * delegate.maybeStore(key, _ as File) >> { throw new RuntimeException("broken") }
+        1 * delegate.close()
+        noExceptionThrown()
+    }
+
+    private AsyncRemoteBuildCacheServiceHandle createHandle(int maxQueuedEntries) {
+        new AsyncRemoteBuildCacheServiceHandle(delegate, TestFiles.tmpDirTemporaryFileProvider(tmpDir.createDir("tmp")), operations, executorFactory.create("test", 2), maxQueuedEntries)
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.temp.DefaultTemporaryFileProvider
+import org.gradle.cache.PersistentCache
+import org.gradle.caching.BuildCacheKey
+import org.gradle.caching.internal.CacheableEntity
+import org.gradle.caching.internal.origin.OriginMetadata
+import org.gradle.caching.internal.origin.OriginReader
+import org.gradle.caching.internal.origin.OriginWriter
+import org.gradle.caching.internal.packaging.impl.DefaultTarPackerFileSystemSupport
+import org.gradle.caching.internal.packaging.impl.FilePermissionAccess
+import org.gradle.internal.Factory
+import org.gradle.internal.file.FileAccessTracker
+import org.gradle.internal.file.TreeType
+import org.gradle.internal.hash.DefaultStreamHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.hash.StreamHasher
+import org.gradle.internal.nativeintegration.filesystem.FileSystem
+import org.gradle.internal.snapshot.FileSystemSnapshot
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.time.Duration
+
+@UsesNativeServices
+@CleanupTestDirectory
+class ContentAddressedBuildCacheServiceTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def cacheDir = temporaryFolder.createDir("cache")
+    def persistentCache = Mock(PersistentCache) {
+        getBaseDir() >> cacheDir
+        withFileLock(_ as Runnable) >> { Runnable r -> r.run() }
+        withFileLock(_ as Factory) >> { Factory f -> f.create() }
+    }
+    def tempFileStore = new DefaultBuildCacheTempFileStore(new DefaultTemporaryFileProvider(() -> cacheDir))
+    def fileAccessTracker = Mock(FileAccessTracker)
+    def fileSystemSupport = new DefaultTarPackerFileSystemSupport(TestFiles.deleter())
+    def filePermissionAccess = new FilePermissionAccess() {
+        final FileSystem fileSystem = TestFiles.fileSystem()
+
+        @Override
+        int getUnixMode(File f) {
+            fileSystem.getUnixMode(f)
+        }
+
+        @Override
+        void chmod(File file, int mode) {
+            fileSystem.chmod(file, mode)
+        }
+    }
+    def fileSystemAccess = TestFiles.fileSystemAccess()
+    def origin = new OriginMetadata("build-id", Duration.ofMillis(123))
+    def writeOrigin = { OutputStream output -> output << origin.buildInvocationId } as OriginWriter
+    def readOrigin = { InputStream input -> new OriginMetadata(input.text, origin.executionTime) } as OriginReader
+    def blobsDir = cacheDir.file(ContentAddressedBuildCacheService.blobsDirectory(TestFiles.streamHasher()))
+
+    def "can store and load entry"() {
+        def source = temporaryFolder.createDir("source")
+        source.file("sub/a.txt") << "a"
+        source.file("sub/b.txt") << "b"
+        source.file("empty").createDir()
+        def sourceFile = temporaryFolder.file("source.txt") << "single"
+        def target = temporaryFolder.file("target")
+        def targetFile = temporaryFolder.file("target.txt")
+        def service = createService(false)
+
+        when:
+        service.storeEntry(key("1234"), entity(dir: source, file: sourceFile), snapshots(dir: source, file: sourceFile), writeOrigin)
+        def result = service.loadEntry(key("1234"), entity(dir: target, file: targetFile), readOrigin)
+
+        then:
+        result.originMetadata.buildInvocationId == "build-id"
+        result.entries == 7
+        target.file("sub/a.txt").text == "a"
+        target.file("sub/b.txt").text == "b"
+        target.file("empty").directory
+        targetFile.text == "single"
+        result.snapshots["dir"].hash == fileSystemAccess.read(target.absolutePath).hash
+        result.snapshots["file"].hash == fileSystemAccess.read(targetFile.absolutePath).hash
+    }
+
+    def "stores file content only once"() {
+        def first = temporaryFolder.createDir("first")
+        first.file("lib.jar") << "shared content"
+        def second = temporaryFolder.createDir("second")
+        second.file("other/lib.jar") << "shared content"
+        def service = createService(false)
+
+        when:
+        service.storeEntry(key("1"), entity(dir: first), snapshots(dir: first), writeOrigin)
+        service.storeEntry(key("2"), entity(dir: second), snapshots(dir: second), writeOrigin)
+
+        then:
+        blobsDir.listFiles().length == 1
+        cacheDir.file(ContentAddressedBuildCacheService.MANIFESTS_DIRECTORY).listFiles()*.name.sort() == ["1", "2"]
+    }
+
+    @Requires(TestPrecondition.FILE_PERMISSIONS)
+    def "can materialize read-only files as hard links"() {
+        def source = temporaryFolder.createDir("source")
+        source.file("file.txt") << "content"
+        source.file("file.txt").mode = 0444
+        def target = temporaryFolder.file("target")
+        def service = createService(true)
+
+        when:
+        service.storeEntry(key("1234"), entity(dir: source), snapshots(dir: source), writeOrigin)
+        service.loadEntry(key("1234"), entity(dir: target), readOrigin)
+
+        then:
+        target.file("file.txt").text == "content"
+        Files.isSameFile(target.file("file.txt").toPath(), blobsDir.listFiles()[0].toPath())
+    }
+
+    @Requires(TestPrecondition.FILE_PERMISSIONS)
+    def "copies writable files even when hard links are enabled"() {
+        def source = temporaryFolder.createDir("source")
+        source.file("file.txt") << "content"
+        source.file("file.txt").mode = 0644
+        def target = temporaryFolder.file("target")
+        def service = createService(true)
+
+        when:
+        service.storeEntry(key("1234"), entity(dir: source), snapshots(dir: source), writeOrigin)
+        service.loadEntry(key("1234"), entity(dir: target), readOrigin)
+        target.file("file.txt") << " changed"
+
+        then:
+        target.file("file.txt").mode == 0644
+        def blob = blobsDir.listFiles()[0]
+        !Files.isSameFile(target.file("file.txt").toPath(), blob.toPath())
+        blob.text == "content"
+        blob.mode == 0444
+    }
+
+    def "does not store entry when output changed after it was snapshotted"() {
+        def source = temporaryFolder.createDir("source")
+        source.file("file.txt") << "content"
+        def service = createService(false)
+        def snapshots = snapshots(dir: source)
+        source.file("file.txt") << " changed"
+
+        when:
+        service.storeEntry(key("1234"), entity(dir: source), snapshots, writeOrigin)
+
+        then:
+        !service.contains(key("1234"))
+        blobsDir.listFiles().length == 0
+    }
+
+    def "can store and load missing output"() {
+        def target = temporaryFolder.file("target").createDir()
+        def service = createService(false)
+        def missing = temporaryFolder.file("missing")
+
+        when:
+        service.storeEntry(key("1234"), entity(dir: missing), snapshots(dir: missing), writeOrigin)
+        def result = service.loadEntry(key("1234"), entity(dir: target), readOrigin)
+
+        then:
+        !target.exists()
+        result.snapshots.isEmpty()
+    }
+
+    def "misses when there is no manifest"() {
+        def service = createService(false)
+
+        expect:
+        !service.contains(key("1234"))
+        service.loadEntry(key("1234"), entity(dir: temporaryFolder.file("target")), readOrigin) == null
+    }
+
+    def "misses when content has been cleaned up"() {
+        def source = temporaryFolder.createDir("source")
+        source.file("file.txt") << "content"
+        def target = temporaryFolder.file("target").createDir()
+        target.file("existing.txt") << "existing"
+        def service = createService(false)
+        service.storeEntry(key("1234"), entity(dir: source), snapshots(dir: source), writeOrigin)
+        blobsDir.listFiles()*.delete()
+
+        expect:
+        service.contains(key("1234"))
+        service.loadEntry(key("1234"), entity(dir: target), readOrigin) == null
+        target.file("existing.txt").text == "existing"
+    }
+
+    def "keeps blobs of different hash variants apart"() {
+        def source = temporaryFolder.createDir("source")
+        source.file("file.txt") << "content"
+        def target = temporaryFolder.file("target")
+        def service = createService(false)
+        def otherVariantService = createService(false, new DefaultStreamHasher(Hashing.sha1()))
+
+        when:
+        service.storeEntry(key("1234"), entity(dir: source), snapshots(dir: source), writeOrigin)
+
+        then:
+        blobsDir.listFiles().length == 1
+        otherVariantService.contains(key("1234"))
+        otherVariantService.loadEntry(key("1234"), entity(dir: target), readOrigin) == null
+        !target.exists()
+    }
+
+    private ContentAddressedBuildCacheService createService(boolean hardLinks, StreamHasher streamHasher = TestFiles.streamHasher()) {
+        new ContentAddressedBuildCacheService(cacheDir, persistentCache, tempFileStore, fileAccessTracker, fileSystemSupport, filePermissionAccess, streamHasher, new StringInterner(), hardLinks)
+    }
+
+    private Map<String, FileSystemSnapshot> snapshots(Map<String, File> roots) {
+        roots.collectEntries { name, root -> [(name): fileSystemAccess.read(root.absolutePath)] }
+    }
+
+    private CacheableEntity entity(Map<String, File> roots) {
+        Stub(CacheableEntity) {
+            visitOutputTrees(_ as CacheableEntity.CacheableTreeVisitor) >> { CacheableEntity.CacheableTreeVisitor visitor ->
+                roots.each { name, root ->
+                    visitor.visitOutputTree(name, name == "file" ? TreeType.FILE : TreeType.DIRECTORY, root)
+                }
+            }
+        }
+    }
+
+    private BuildCacheKey key(String hashCode) {
+        Stub(BuildCacheKey) {
+            getHashCode() >> hashCode
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.cache.PersistentCache
 import org.gradle.caching.BuildCacheEntryReader
 import org.gradle.caching.BuildCacheEntryWriter
 import org.gradle.caching.BuildCacheKey
+import org.gradle.internal.file.FileAccessTimeJournal
 import org.gradle.internal.file.FileAccessTracker
 import org.gradle.internal.resource.local.DefaultPathKeyFileStore
 import org.gradle.test.fixtures.file.CleanupTestDirectory
@@ -134,4 +135,23 @@ class DirectoryBuildCacheServiceTest extends Specification {
         1 * fileAccessTracker.markAccessed(cachedFile)
         loaded
     }
+
+    def "removes least recently used entries when storing goes over the size budget"() {
+        def journal = Stub(FileAccessTimeJournal) {
+            getLastAccessTime(_) >> { File file -> file.name == "old" ? 1L : 2L }
+        }
+        def budgetedService = new DirectoryBuildCacheService(fileStore, persistentCache, tempFileStore, fileAccessTracker, ".failed", new DirectoryBuildCacheSizeBudget(100, journal))
+        def oldEntry = temporaryFolder.createFile("old")
+        oldEntry.bytes = new byte[60]
+        def newEntry = temporaryFolder.createFile("new")
+        newEntry.bytes = new byte[60]
+
+        when:
+        budgetedService.storeLocally(Stub(BuildCacheKey) { getHashCode() >> "old" }, oldEntry)
+        budgetedService.storeLocally(Stub(BuildCacheKey) { getHashCode() >> "new" }, newEntry)
+
+        then:
+        _ * persistentCache.getReservedCacheFiles() >> []
+        cacheDir.list() as Set == ["new", DirectoryBuildCacheSizeBudget.INDEX_FILE_NAME] as Set
+    }
 }
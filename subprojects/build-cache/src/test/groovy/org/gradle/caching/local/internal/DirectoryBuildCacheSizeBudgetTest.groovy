@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.cache.CleanableStore
+import org.gradle.cache.CleanupProgressMonitor
+import org.gradle.internal.file.FileAccessTimeJournal
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+@CleanupTestDirectory
+class DirectoryBuildCacheSizeBudgetTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def cacheDir = temporaryFolder.createDir("cache")
+    def lockFile = cacheDir.file("build-cache.lock").createFile()
+    def accessTimes = [:]
+    def journal = Stub(FileAccessTimeJournal) {
+        getLastAccessTime(_) >> { File file -> accessTimes[file] }
+        deleteLastAccessTime(_) >> { File file -> accessTimes.remove(file) }
+    }
+    def cache = Stub(CleanableStore) {
+        getBaseDir() >> cacheDir
+        getReservedCacheFiles() >> [lockFile]
+        getDisplayName() >> "Build cache"
+    }
+    def budget = new DirectoryBuildCacheSizeBudget(1000, journal)
+
+    def "removes least recently used entries down to the low water mark once the cache goes over budget"() {
+        def oldest = entry("a", 400, 1)
+        def middle = entry("b", 300, 2)
+        def newest = entry("c", 200, 3)
+        budget.entryStored(cache, newest, 0)
+
+        expect:
+        indexedSize() == 900
+
+        when:
+        def stored = entry("d", 250, 4)
+        budget.entryStored(cache, stored, 0)
+
+        then:
+        !oldest.exists()
+        middle.exists()
+        newest.exists()
+        stored.exists()
+        lockFile.exists()
+        !accessTimes.containsKey(oldest)
+        indexedSize() == 750
+    }
+
+    def "updates the index without listing the cache directory"() {
+        def first = entry("a", 100, 1)
+        budget.entryStored(cache, first, 0)
+
+        when:
+        // Not seen by the index, as if added by a process that doesn't know about it
+        entry("b", 100, 2)
+        budget.entryStored(cache, entry("c", 100, 3), 0)
+
+        then:
+        indexedSize() == 200
+
+        when:
+        first.bytes = new byte[300]
+        budget.entryStored(cache, first, 100)
+
+        then:
+        indexedSize() == 400
+    }
+
+    def "recomputes the size of the cache when the index is missing or corrupt"() {
+        entry("a", 100, 1)
+        entry("b", 200, 2)
+
+        when:
+        budget.entryStored(cache, entry("c", 300, 3), 0)
+
+        then:
+        indexedSize() == 600
+
+        when:
+        cacheDir.file(DirectoryBuildCacheSizeBudget.INDEX_FILE_NAME).text = "broken"
+        budget.entryStored(cache, entry("d", 100, 4), 0)
+
+        then:
+        indexedSize() == 700
+    }
+
+    def "cleanup removes least recently used entries when over budget"() {
+        def oldest = entry("a", 600, 2)
+        def newest = entry("b", 600, 3)
+        def progressMonitor = Mock(CleanupProgressMonitor)
+
+        when:
+        budget.clean(cache, progressMonitor)
+
+        then:
+        !oldest.exists()
+        newest.exists()
+        lockFile.exists()
+        indexedSize() == 600
+        1 * progressMonitor.incrementDeleted()
+        1 * progressMonitor.incrementSkipped()
+    }
+
+    def "cleanup leaves cache within budget alone"() {
+        def first = entry("a", 500, 1)
+        def second = entry("b", 500, 2)
+        def progressMonitor = Mock(CleanupProgressMonitor)
+
+        when:
+        budget.clean(cache, progressMonitor)
+
+        then:
+        first.exists()
+        second.exists()
+        indexedSize() == 1000
+        0 * progressMonitor._
+    }
+
+    private TestFile entry(String name, int size, long accessTime) {
+        def file = cacheDir.file(name)
+        file.bytes = new byte[size]
+        accessTimes[file] = accessTime
+        return file
+    }
+
+    private long indexedSize() {
+        return new DataInputStream(new FileInputStream(cacheDir.file(DirectoryBuildCacheSizeBudget.INDEX_FILE_NAME))).withCloseable { it.readLong() }
+    }
+}
@@ -68,4 +68,20 @@ class DefaultInternalOptionsTest extends Specification {
         value.get() == 23
         !value.explicit
     }
+
+    def "locates value for string option"() {
+        sysProps["prop1"] = "value"
+
+        expect:
+        def value = options.getOption(new StringInternalOption("prop1", "default"))
+        value.get() == "value"
+        value.explicit
+    }
+
+    def "uses default for string option when system property is not set"() {
+        expect:
+        def value = options.getOption(new StringInternalOption("prop", "default"))
+        value.get() == "default"
+        !value.explicit
+    }
 }
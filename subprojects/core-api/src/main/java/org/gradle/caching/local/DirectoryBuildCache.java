@@ -16,6 +16,7 @@
 
 package org.gradle.caching.local;
 
+import org.gradle.api.Incubating;
 import org.gradle.caching.configuration.AbstractBuildCache;
 
 import javax.annotation.Nullable;
@@ -29,6 +30,7 @@
 public abstract class DirectoryBuildCache extends AbstractBuildCache {
     private Object directory;
     private int removeUnusedEntriesAfterDays = 7;
+    private long maxSize;
 
     /**
      * Returns the directory to use to store the build cache.
@@ -69,4 +71,31 @@ public void setRemoveUnusedEntriesAfterDays(int removeUnusedEntriesAfterDays) {
         }
         this.removeUnusedEntriesAfterDays = removeUnusedEntriesAfterDays;
     }
+
+    /**
+     * Returns the maximum total size of the entries in the cache, in bytes. Defaults to 0, which means that the size of the cache is not limited.
+     *
+     * When storing an entry makes the cache grow beyond this size, the least recently used entries are removed.
+     *
+     * @since 8.1
+     */
+    @Incubating
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum total size of the entries in the cache, in bytes. Defaults to 0, which means that the size of the cache is not limited.
+     *
+     * Must not be negative.
+     *
+     * @since 8.1
+     */
+    @Incubating
+    public void setMaxSize(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Directory build cache maximum size must not be negative.");
+        }
+        this.maxSize = maxSize;
+    }
 }
@@ -290,7 +290,7 @@ class CopyPermissionsIntegrationTest extends AbstractIntegrationSpec implements
 
         where:
         type        | create              | expectedError
-        'file'      | { it.createFile() } | { "Failed to create MD5 hash for file '${it.absolutePath}' as it does not exist." }
+        'file'      | { it.createFile() } | { "Failed to create hash for file '${it.absolutePath}' as it does not exist." }
         'directory' | { it.createDir() }  | { "java.nio.file.AccessDeniedException: ${it.absolutePath}" }
     }
 
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.internal.file.FileMetadata;
+import org.gradle.internal.file.Stat;
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.resources.ResourceLockState;
+import org.gradle.internal.snapshot.CaseSensitivity;
+import org.gradle.util.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how quickly a number of workers can select and execute all nodes of a finalized execution plan.
+ *
+ * <p>Nodes are spread over a fixed number of projects and hold their project lock while they execute,
+ * so with many workers most ready nodes are blocked on a project lock at any time.
+ * All selection happens while holding the state lock of the coordination service, as it does in {@link DefaultPlanExecutor}.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExecutionPlanSelectionBenchmark {
+    private static final int PROJECT_COUNT = 16;
+    private static final int LAYER_COUNT = 10;
+    private static final long WORK_TOKENS_PER_NODE = 200;
+
+    @Param({"1", "8", "32", "64"})
+    int workers;
+
+    @Param({"2000", "10000"})
+    int nodeCount;
+
+    ExecutorService executor;
+    DefaultResourceLockCoordinationService coordinator;
+    DefaultExecutionPlan executionPlan;
+    FinalizedExecutionPlan finalizedPlan;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        executor = Executors.newFixedThreadPool(workers);
+        coordinator = new DefaultResourceLockCoordinationService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates a new plan for every invocation, as executing a plan consumes it.
+     */
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        List<ResourceLock> projectLocks = new ArrayList<>(PROJECT_COUNT);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            projectLocks.add(new ExclusiveLock("project " + i));
+        }
+
+        // Layers of nodes, where each node depends on a couple of nodes of the previous layer
+        Random random = new Random(1234L);
+        int layerSize = nodeCount / LAYER_COUNT;
+        List<Node> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            BenchmarkNode node = new BenchmarkNode("node " + i, projectLocks.get(random.nextInt(PROJECT_COUNT)));
+            if (i >= layerSize) {
+                int previousLayerStart = (i / layerSize - 1) * layerSize;
+                node.addDependencySuccessor(nodes.get(previousLayerStart + random.nextInt(layerSize)));
+                node.addDependencySuccessor(nodes.get(previousLayerStart + random.nextInt(layerSize)));
+            }
+            nodes.add(node);
+        }
+
+        ExecutionNodeAccessHierarchies accessHierarchies = new ExecutionNodeAccessHierarchies(CaseSensitivity.CASE_SENSITIVE, new UnsupportedStat());
+        executionPlan = new DefaultExecutionPlan(
+            Path.ROOT.toString(),
+            null,
+            new OrdinalGroupFactory(),
+            new TaskDependencyResolver(Collections.emptyList()),
+            accessHierarchies.getOutputHierarchy(),
+            accessHierarchies.getDestroyableHierarchy(),
+            coordinator
+        );
+        executionPlan.addEntryNodes(nodes);
+        executionPlan.determineExecutionPlan();
+        finalizedPlan = executionPlan.finalizePlan();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() {
+        coordinator.withStateLock(() -> executionPlan.close());
+    }
+
+    @Benchmark
+    public void selectAndExecuteAllNodes() throws Exception {
+        List<Future<?>> results = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            results.add(executor.submit((Callable<Void>) () -> {
+                runWorker();
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+    }
+
+    private void runWorker() {
+        WorkSource<Node> workSource = finalizedPlan.asWorkSource();
+        while (true) {
+            Node node = selectNext(workSource);
+            if (node == null) {
+                return;
+            }
+            Blackhole.consumeCPU(WORK_TOKENS_PER_NODE);
+            coordinator.withStateLock(() -> workSource.finishedExecuting(node, null));
+            // The locks of the benchmark nodes are not tracked by the coordination service, so wake up waiting workers explicitly
+            coordinator.notifyStateChange();
+        }
+    }
+
+    @Nullable
+    private Node selectNext(WorkSource<Node> workSource) {
+        AtomicReference<Node> selected = new AtomicReference<>();
+        coordinator.withStateLock(state -> {
+            WorkSource.Selection<Node> selection = workSource.selectNext();
+            if (selection.isNoMoreWorkToStart()) {
+                return ResourceLockState.Disposition.FINISHED;
+            } else if (selection.isNoWorkReadyToStart()) {
+                return ResourceLockState.Disposition.RETRY;
+            }
+            selected.set(selection.getItem());
+            return ResourceLockState.Disposition.FINISHED;
+        });
+        return selected.get();
+    }
+
+    private static class BenchmarkNode extends CreationOrderedNode {
+        private final String name;
+        private final ResourceLock projectLock;
+
+        BenchmarkNode(String name, ResourceLock projectLock) {
+            this.name = name;
+            this.projectLock = projectLock;
+        }
+
+        @Override
+        public ResourceLock getProjectToLock() {
+            return projectLock;
+        }
+
+        @Nullable
+        @Override
+        public Throwable getNodeFailure() {
+            return null;
+        }
+
+        @Override
+        public void resolveDependencies(TaskDependencyResolver dependencyResolver) {
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * A lock that is only ever used while holding the state lock.
+     */
+    private static class ExclusiveLock implements ResourceLock {
+        private final String displayName;
+        private boolean locked;
+
+        ExclusiveLock(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public boolean isLocked() {
+            return locked;
+        }
+
+        @Override
+        public boolean isLockedByCurrentThread() {
+            return locked;
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (locked) {
+                return false;
+            }
+            locked = true;
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            locked = false;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static class UnsupportedStat implements Stat {
+        @Override
+        public int getUnixMode(File f) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileMetadata stat(File f) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
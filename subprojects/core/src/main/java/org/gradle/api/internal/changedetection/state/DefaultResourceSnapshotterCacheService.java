@@ -16,10 +16,13 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.internal.file.archive.ZipEntry;
 import org.gradle.cache.IndexedCache;
 import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher;
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContextHasher;
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext;
+import org.gradle.internal.fingerprint.hashing.ResourceHasher;
+import org.gradle.internal.fingerprint.hashing.ZipEntryContext;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.hash.Hashing;
@@ -31,6 +34,7 @@
 
 public class DefaultResourceSnapshotterCacheService implements ResourceSnapshotterCacheService {
     private static final HashCode NO_HASH = Hashing.signature(CachingResourceHasher.class.getName() + " : no hash");
+    private static final String ZIP_ENTRY_KEY_PREFIX = "zip-entry";
     private final IndexedCache<HashCode, HashCode> indexedCache;
 
     public DefaultResourceSnapshotterCacheService(IndexedCache<HashCode, HashCode> indexedCache) {
@@ -49,10 +53,23 @@ public HashCode hashFile(RegularFileSnapshotContext fileSnapshotContext, Regular
         return hashFile(fileSnapshotContext.getSnapshot(), () -> hasher.hash(fileSnapshotContext), configurationHash);
     }
 
+    @Nullable
+    @Override
+    public HashCode hashZipEntry(ZipEntryContext zipEntryContext, ResourceHasher hasher, HashCode configurationHash) throws IOException {
+        ZipEntry entry = zipEntryContext.getEntry();
+        if (entry.getCrc() < 0 || entry.size() < 0) {
+            return hasher.hash(zipEntryContext);
+        }
+        return hashResource(zipEntryHashCacheKey(zipEntryContext.getFullName(), entry, configurationHash), () -> hasher.hash(zipEntryContext));
+    }
+
     @Nullable
     private HashCode hashFile(FileSystemLocationSnapshot snapshot, IoSupplier<HashCode> hashCodeSupplier, HashCode configurationHash) throws IOException {
-        HashCode resourceHashCacheKey = resourceHashCacheKey(snapshot.getHash(), configurationHash);
+        return hashResource(resourceHashCacheKey(snapshot.getHash(), configurationHash), hashCodeSupplier);
+    }
 
+    @Nullable
+    private HashCode hashResource(HashCode resourceHashCacheKey, IoSupplier<HashCode> hashCodeSupplier) throws IOException {
         HashCode resourceHash = indexedCache.getIfPresent(resourceHashCacheKey);
         if (resourceHash != null) {
             if (resourceHash.equals(NO_HASH)) {
@@ -77,4 +94,14 @@ private static HashCode resourceHashCacheKey(HashCode contentHash, HashCode conf
         hasher.putHash(contentHash);
         return hasher.hash();
     }
+
+    private static HashCode zipEntryHashCacheKey(String fullName, ZipEntry entry, HashCode configurationHash) {
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(ZIP_ENTRY_KEY_PREFIX);
+        hasher.putHash(configurationHash);
+        hasher.putString(fullName);
+        hasher.putLong(entry.getCrc());
+        hasher.putInt(entry.size());
+        return hasher.hash();
+    }
 }
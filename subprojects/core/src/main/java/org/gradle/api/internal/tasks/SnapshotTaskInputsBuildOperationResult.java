@@ -40,6 +40,7 @@
 import org.gradle.internal.fingerprint.FingerprintingStrategy;
 import org.gradle.internal.fingerprint.LineEndingSensitivity;
 import org.gradle.internal.fingerprint.impl.AbsolutePathFingerprintingStrategy;
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache;
 import org.gradle.internal.fingerprint.impl.IgnoredPathFingerprintingStrategy;
 import org.gradle.internal.fingerprint.impl.NameOnlyFingerprintingStrategy;
 import org.gradle.internal.fingerprint.impl.RelativePathFingerprintingStrategy;
@@ -92,10 +93,16 @@ public class SnapshotTaskInputsBuildOperationResult implements SnapshotTaskInput
     @VisibleForTesting
     final CachingState cachingState;
     private final Map<String, InputFilePropertySpec> propertySpecsByName;
+    private final FileCollectionFingerprintCache.Statistics fingerprintCacheStatistics;
 
-    public SnapshotTaskInputsBuildOperationResult(CachingState cachingState, Set<InputFilePropertySpec> inputFileProperties) {
+    public SnapshotTaskInputsBuildOperationResult(
+        CachingState cachingState,
+        Set<InputFilePropertySpec> inputFileProperties,
+        FileCollectionFingerprintCache.Statistics fingerprintCacheStatistics
+    ) {
         this.cachingState = cachingState;
         this.propertySpecsByName = Maps.uniqueIndex(inputFileProperties, PropertySpec::getPropertyName);
+        this.fingerprintCacheStatistics = fingerprintCacheStatistics;
     }
 
     @Override
@@ -378,6 +385,16 @@ public List<String> getOutputPropertyNames() {
             .orElse(null);
     }
 
+    @Override
+    public long getFingerprintCacheHits() {
+        return fingerprintCacheStatistics.getHits();
+    }
+
+    @Override
+    public long getFingerprintCacheMisses() {
+        return fingerprintCacheStatistics.getMisses();
+    }
+
     @Override
     public byte[] getHashBytes() {
         return getKey()
@@ -429,6 +446,9 @@ public Object getCustomOperationTraceSerializableModel() {
 
         model.put("outputPropertyNames", getOutputPropertyNames());
 
+        model.put("fingerprintCacheHits", getFingerprintCacheHits());
+        model.put("fingerprintCacheMisses", getFingerprintCacheMisses());
+
         return model;
     }
 
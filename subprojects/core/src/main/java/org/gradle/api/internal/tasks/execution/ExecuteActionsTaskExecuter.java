@@ -35,6 +35,7 @@
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
 import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.file.ReservedFileSystemLocationRegistry;
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.work.AsyncWorkTracker;
@@ -73,6 +74,7 @@ public enum ScanPluginState {
     private final FileCollectionFactory fileCollectionFactory;
     private final TaskDependencyFactory taskDependencyFactory;
     private final PathToFileResolver fileResolver;
+    private final FileCollectionFingerprintCache fingerprintCache;
 
     public ExecuteActionsTaskExecuter(
         BuildCacheState buildCacheState,
@@ -90,7 +92,8 @@ public ExecuteActionsTaskExecuter(
         ReservedFileSystemLocationRegistry reservedFileSystemLocationRegistry,
         FileCollectionFactory fileCollectionFactory,
         TaskDependencyFactory taskDependencyFactory,
-        PathToFileResolver fileResolver
+        PathToFileResolver fileResolver,
+        FileCollectionFingerprintCache fingerprintCache
     ) {
         this.buildCacheState = buildCacheState;
         this.scanPluginState = scanPluginState;
@@ -108,6 +111,7 @@ public ExecuteActionsTaskExecuter(
         this.fileCollectionFactory = fileCollectionFactory;
         this.taskDependencyFactory = taskDependencyFactory;
         this.fileResolver = fileResolver;
+        this.fingerprintCache = fingerprintCache;
     }
 
     @Override
@@ -129,7 +133,8 @@ public TaskExecuterResult execute(TaskInternal task, TaskStateInternal state, Ta
             listenerManager,
             reservedFileSystemLocationRegistry,
             taskCacheabilityResolver,
-            taskDependencyFactory
+            taskDependencyFactory,
+            fingerprintCache
         );
         try {
             return executeIfValid(task, state, context, work);
@@ -61,6 +61,7 @@
 import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.file.ReservedFileSystemLocationRegistry;
 import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
@@ -113,6 +114,8 @@ public class TaskExecution implements UnitOfWork {
     private final ListenerManager listenerManager;
     private final ReservedFileSystemLocationRegistry reservedFileSystemLocationRegistry;
     private final TaskCacheabilityResolver taskCacheabilityResolver;
+    private final FileCollectionFingerprintCache fingerprintCache;
+    private FileCollectionFingerprintCache.Statistics fingerprintCacheStatisticsBeforeSnapshotting = FileCollectionFingerprintCache.Statistics.NONE;
 
     public TaskExecution(
         TaskInternal task,
@@ -130,7 +133,8 @@ public TaskExecution(
         ListenerManager listenerManager,
         ReservedFileSystemLocationRegistry reservedFileSystemLocationRegistry,
         TaskCacheabilityResolver taskCacheabilityResolver,
-        TaskDependencyFactory taskDependencyFactory
+        TaskDependencyFactory taskDependencyFactory,
+        FileCollectionFingerprintCache fingerprintCache
     ) {
         this.task = task;
         this.context = context;
@@ -148,6 +152,7 @@ public TaskExecution(
         this.listenerManager = listenerManager;
         this.reservedFileSystemLocationRegistry = reservedFileSystemLocationRegistry;
         this.taskCacheabilityResolver = taskCacheabilityResolver;
+        this.fingerprintCache = fingerprintCache;
     }
 
     @Override
@@ -435,6 +440,8 @@ public void markLegacySnapshottingInputsStarted() {
         // Note: this operation should be added only if the scan plugin is applied, but SnapshotTaskInputsOperationIntegrationTest
         //   expects it to be added also when the build cache is enabled (but not the scan plugin)
         if (emitLegacySnapshottingOperations) {
+            // Inputs are fingerprinted on the thread executing the work, so the difference in its statistics is attributed to this task
+            fingerprintCacheStatisticsBeforeSnapshotting = fingerprintCache.getCurrentThreadStatistics();
             BuildOperationContext operationContext = buildOperationExecutor.start(BuildOperationDescriptor
                 .displayName("Snapshot task inputs for " + task.getIdentityPath())
                 .name("Snapshot task inputs")
@@ -446,14 +453,18 @@ public void markLegacySnapshottingInputsStarted() {
     @Override
     public void markLegacySnapshottingInputsFinished(CachingState cachingState) {
         context.removeSnapshotTaskInputsBuildOperationContext()
-            .ifPresent(operation -> operation.setResult(new SnapshotTaskInputsBuildOperationResult(cachingState, context.getTaskProperties().getInputFileProperties())));
+            .ifPresent(operation -> operation.setResult(new SnapshotTaskInputsBuildOperationResult(
+                cachingState,
+                context.getTaskProperties().getInputFileProperties(),
+                fingerprintCache.getCurrentThreadStatistics().since(fingerprintCacheStatisticsBeforeSnapshotting)
+            )));
     }
 
     @Override
     public void ensureLegacySnapshottingInputsClosed() {
         // If the operation hasn't finished normally (because of a shortcut or an error), we close it without a cache key
         context.removeSnapshotTaskInputsBuildOperationContext()
-            .ifPresent(operation -> operation.setResult(new SnapshotTaskInputsBuildOperationResult(CachingState.NOT_DETERMINED, Collections.emptySet())));
+            .ifPresent(operation -> operation.setResult(new SnapshotTaskInputsBuildOperationResult(CachingState.NOT_DETERMINED, Collections.emptySet(), FileCollectionFingerprintCache.Statistics.NONE)));
     }
 
     @Override
@@ -29,16 +29,23 @@
 import org.gradle.caching.internal.controller.RootBuildCacheControllerRef;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.CompressingBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.DefaultTarPackerFileSystemSupport;
 import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
-import org.gradle.caching.internal.packaging.impl.GZipBuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.GZipBuildCacheEntryCodec;
 import org.gradle.caching.internal.packaging.impl.TarBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
 import org.gradle.caching.internal.services.BuildCacheControllerFactory;
 import org.gradle.caching.local.DirectoryBuildCache;
+import org.gradle.caching.local.internal.ContentAddressedBuildCacheServiceFactory;
 import org.gradle.caching.local.internal.DirectoryBuildCacheFileStoreFactory;
 import org.gradle.caching.local.internal.DirectoryBuildCacheServiceFactory;
 import org.gradle.internal.SystemProperties;
+import org.gradle.internal.buildoption.IntegerInternalOption;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.FileException;
 import org.gradle.internal.hash.ChecksumService;
@@ -61,18 +68,53 @@
 
 import java.io.File;
 import java.util.List;
+import java.util.zip.Deflater;
 
 /**
  * Build scoped services for build cache usage.
  */
 public final class BuildCacheServices extends AbstractPluginServiceRegistry {
 
+    /**
+     * The codec used to compress newly stored build cache entries. Entries are always read with the codec they were written with.
+     */
+    public static final StringInternalOption ENTRY_COMPRESSION = new StringInternalOption("org.gradle.caching.compression", GZipBuildCacheEntryCodec.NAME);
+
+    /**
+     * The compression level used for newly stored build cache entries. Only supported by GZip, setting it with another codec fails the build.
+     */
+    public static final IntegerInternalOption ENTRY_COMPRESSION_LEVEL = new IntegerInternalOption("org.gradle.caching.compression.level", Deflater.DEFAULT_COMPRESSION);
+
+    /**
+     * The number of threads used to write files when unpacking build cache entries. Entries are unpacked sequentially when set to 0.
+     */
+    public static final IntegerInternalOption UNPACK_THREADS = new IntegerInternalOption("org.gradle.caching.unpack.threads", 0);
+
+    /**
+     * Store the files of local build cache entries by their content instead of as archives, see {@link ContentAddressedBuildCacheServiceFactory}.
+     */
+    public static final InternalFlag CONTENT_ADDRESSED_LOCAL_CACHE = new InternalFlag("org.gradle.caching.local.content-addressed");
+
+    /**
+     * The number of threads used to store entries in the remote build cache in the background. Entries are stored while executing the work producing them when set to 0.
+     */
+    public static final IntegerInternalOption REMOTE_STORE_THREADS = new IntegerInternalOption("org.gradle.caching.remote.store.threads", 0);
+
+    /**
+     * The maximum number of entries waiting to be stored in the remote build cache in the background before storing more entries blocks.
+     */
+    public static final IntegerInternalOption REMOTE_STORE_QUEUE_SIZE = new IntegerInternalOption("org.gradle.caching.remote.store.queue-size", 64);
+
     @Override
     public void registerBuildTreeServices(ServiceRegistration registration) {
         registration.addProvider(new Object() {
             RootBuildCacheControllerRef createRootBuildCacheControllerRef() {
                 return new RootBuildCacheControllerRef();
             }
+
+            BuildCacheUnpackExecutor createBuildCacheUnpackExecutor(ExecutorFactory executorFactory, InternalOptions internalOptions) {
+                return new BuildCacheUnpackExecutor(executorFactory, internalOptions.getOption(UNPACK_THREADS).get());
+            }
         });
     }
 
@@ -96,8 +138,10 @@ public PathKeyFileStore createFileStore(File baseDir) {
                 };
             }
 
-            BuildCacheServiceRegistration createDirectoryBuildCacheServiceRegistration() {
-                return new DefaultBuildCacheServiceRegistration(DirectoryBuildCache.class, DirectoryBuildCacheServiceFactory.class);
+            BuildCacheServiceRegistration createDirectoryBuildCacheServiceRegistration(InternalOptions internalOptions) {
+                return internalOptions.getOption(CONTENT_ADDRESSED_LOCAL_CACHE).get()
+                    ? new DefaultBuildCacheServiceRegistration(DirectoryBuildCache.class, ContentAddressedBuildCacheServiceFactory.class)
+                    : new DefaultBuildCacheServiceRegistration(DirectoryBuildCache.class, DirectoryBuildCacheServiceFactory.class);
             }
 
         });
@@ -113,14 +157,25 @@ TarPackerFileSystemSupport createPackerFileSystemSupport(Deleter deleter) {
                 return new DefaultTarPackerFileSystemSupport(deleter);
             }
 
+            FilePermissionAccess createFilePermissionAccess(FileSystem fileSystem) {
+                return new FilePermissionsAccessAdapter(fileSystem);
+            }
+
             BuildCacheEntryPacker createResultPacker(
                 TarPackerFileSystemSupport fileSystemSupport,
-                FileSystem fileSystem,
+                FilePermissionAccess filePermissionAccess,
                 StreamHasher fileHasher,
-                StringInterner stringInterner
+                StringInterner stringInterner,
+                InternalOptions internalOptions,
+                BuildCacheUnpackExecutor unpackExecutor
             ) {
-                return new GZipBuildCacheEntryPacker(
-                    new TarBuildCacheEntryPacker(fileSystemSupport, new FilePermissionsAccessAdapter(fileSystem), fileHasher, stringInterner));
+                return new CompressingBuildCacheEntryPacker(
+                    new TarBuildCacheEntryPacker(fileSystemSupport, filePermissionAccess, fileHasher, stringInterner, unpackExecutor.getExecutor()),
+                    CompressingBuildCacheEntryPacker.createCodec(
+                        internalOptions.getOption(ENTRY_COMPRESSION).get(),
+                        internalOptions.getOption(ENTRY_COMPRESSION_LEVEL).get()
+                    )
+                );
             }
 
             OriginMetadataFactory createOriginMetadataFactory(
@@ -148,10 +203,12 @@ BuildCacheController createBuildCacheController(
                 FileSystemAccess fileSystemAccess,
                 BuildCacheEntryPacker packer,
                 OriginMetadataFactory originMetadataFactory,
-                StringInterner stringInterner
+                StringInterner stringInterner,
+                ExecutorFactory executorFactory,
+                InternalOptions internalOptions
             ) {
                 if (isRoot(gradle) || isGradleBuildTaskRoot(rootControllerRef)) {
-                    return doCreateBuildCacheController(serviceRegistry, buildCacheConfiguration, buildOperationExecutor, instantiatorFactory, gradle, temporaryFileProvider, fileSystemAccess, packer, originMetadataFactory, stringInterner);
+                    return doCreateBuildCacheController(serviceRegistry, buildCacheConfiguration, buildOperationExecutor, instantiatorFactory, gradle, temporaryFileProvider, fileSystemAccess, packer, originMetadataFactory, stringInterner, executorFactory, internalOptions);
                 } else {
                     // must be an included build or buildSrc
                     return rootControllerRef.getForNonRootBuild();
@@ -174,7 +231,7 @@ private boolean isRoot(GradleInternal gradle) {
             private BuildCacheController doCreateBuildCacheController(
                 ServiceRegistry serviceRegistry, BuildCacheConfigurationInternal buildCacheConfiguration, BuildOperationExecutor buildOperationExecutor, InstantiatorFactory instantiatorFactory,
                 GradleInternal gradle, TemporaryFileProvider temporaryFileProvider, FileSystemAccess fileSystemAccess, BuildCacheEntryPacker packer, OriginMetadataFactory originMetadataFactory,
-                StringInterner stringInterner
+                StringInterner stringInterner, ExecutorFactory executorFactory, InternalOptions internalOptions
             ) {
                 StartParameter startParameter = gradle.getStartParameter();
                 Path buildIdentityPath = gradle.getIdentityPath();
@@ -196,7 +253,10 @@ private BuildCacheController doCreateBuildCacheController(
                     fileSystemAccess,
                     packer,
                     originMetadataFactory,
-                    stringInterner
+                    stringInterner,
+                    executorFactory,
+                    internalOptions.getOption(REMOTE_STORE_THREADS).get(),
+                    internalOptions.getOption(REMOTE_STORE_QUEUE_SIZE).get()
                 );
             }
         });
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal;
+
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Executor;
+
+/**
+ * The thread pool used to write files when unpacking build cache entries in parallel.
+ */
+public class BuildCacheUnpackExecutor implements Stoppable {
+    @Nullable
+    private final ManagedExecutor executor;
+
+    public BuildCacheUnpackExecutor(ExecutorFactory executorFactory, int threadCount) {
+        this.executor = threadCount > 0
+            ? executorFactory.create("Build cache unpack", threadCount)
+            : null;
+    }
+
+    /**
+     * Returns the executor to write files with, or {@code null} if entries should be unpacked sequentially.
+     */
+    @Nullable
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+}
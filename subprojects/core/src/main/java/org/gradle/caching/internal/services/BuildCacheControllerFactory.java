@@ -34,8 +34,10 @@
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
 import org.gradle.caching.local.DirectoryBuildCache;
-import org.gradle.caching.local.internal.DirectoryBuildCacheService;
+import org.gradle.caching.local.internal.LocalBuildCacheService;
 import org.gradle.internal.Cast;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -79,7 +81,10 @@ public static BuildCacheController create(
         final FileSystemAccess fileSystemAccess,
         final BuildCacheEntryPacker packer,
         final OriginMetadataFactory originMetadataFactory,
-        final StringInterner stringInterner
+        final StringInterner stringInterner,
+        final ExecutorFactory executorFactory,
+        final int remoteStoreThreads,
+        final int remoteStoreQueueSize
     ) {
         return buildOperationExecutor.call(new CallableBuildOperation<BuildCacheController>() {
             @Override
@@ -100,7 +105,7 @@ public BuildCacheController call(BuildOperationContext context) {
                     LOGGER.warn("Remote build cache is disabled when running with --offline.");
                 }
 
-                DescribedBuildCacheService<DirectoryBuildCache, DirectoryBuildCacheService> localDescribedService = localEnabled
+                DescribedBuildCacheService<DirectoryBuildCache, LocalBuildCacheService> localDescribedService = localEnabled
                     ? createBuildCacheService(local, BuildCacheServiceRole.LOCAL, buildIdentityPath, buildCacheConfiguration, instantiator)
                     : null;
 
@@ -125,6 +130,9 @@ public BuildCacheController call(BuildOperationContext context) {
                         remoteDescribedService
                     );
 
+                    ManagedExecutor remoteStoreExecutor = remoteStoreThreads > 0 && config.isRemotePush()
+                        ? executorFactory.createForBlockingWork("Build cache remote store", remoteStoreThreads)
+                        : null;
                     return new DefaultBuildCacheController(
                         config,
                         buildOperationExecutor,
@@ -135,7 +143,9 @@ public BuildCacheController call(BuildOperationContext context) {
                         fileSystemAccess,
                         packer,
                         originMetadataFactory,
-                        stringInterner
+                        stringInterner,
+                        remoteStoreExecutor,
+                        remoteStoreQueueSize
                     );
                 }
             }
@@ -149,7 +159,7 @@ public BuildOperationDescriptor.Builder description() {
     }
 
     private static BuildCacheServicesConfiguration toConfiguration(
-        @Nullable DescribedBuildCacheService<DirectoryBuildCache, DirectoryBuildCacheService> local,
+        @Nullable DescribedBuildCacheService<DirectoryBuildCache, LocalBuildCacheService> local,
         @Nullable DescribedBuildCacheService<BuildCache, BuildCacheService> remote
     ) {
         boolean localPush = local != null && local.config.isPush();
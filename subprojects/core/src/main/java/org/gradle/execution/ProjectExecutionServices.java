@@ -21,6 +21,7 @@
 import org.gradle.api.internal.changedetection.TaskExecutionModeResolver;
 import org.gradle.api.internal.changedetection.changes.DefaultTaskExecutionModeResolver;
 import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheService;
+import org.gradle.api.internal.changedetection.state.ZipEntryHashingPool;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.project.ProjectInternal;
@@ -53,6 +54,7 @@
 import org.gradle.internal.file.RelativeFilePathResolver;
 import org.gradle.internal.file.ReservedFileSystemLocation;
 import org.gradle.internal.file.ReservedFileSystemLocationRegistry;
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache;
 import org.gradle.internal.fingerprint.impl.FileCollectionFingerprinterRegistrations;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -105,7 +107,8 @@ TaskExecuter createTaskExecuter(
         TaskExecutionModeResolver repository,
         TaskListenerInternal taskListenerInternal,
         ExecutionEngine executionEngine,
-        InputFingerprinter inputFingerprinter
+        InputFingerprinter inputFingerprinter,
+        FileCollectionFingerprintCache fingerprintCache
     ) {
         TaskExecuter executer = new ExecuteActionsTaskExecuter(
             buildCacheController.isEnabled()
@@ -127,7 +130,8 @@ TaskExecuter createTaskExecuter(
             fileCollectionFactory,
             taskDependencyFactory,
             // TODO Can we inject a PathToFileResolver here directly?
-            fileOperations.getFileResolver()
+            fileOperations.getFileResolver(),
+            fingerprintCache
         );
         executer = new FinalizePropertiesTaskExecuter(executer);
         executer = new ResolveTaskExecutionModeExecuter(repository, executer);
@@ -142,7 +146,9 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
         StringInterner stringInterner,
         FileCollectionSnapshotter fileCollectionSnapshotter,
         ResourceSnapshotterCacheService resourceSnapshotterCacheService,
-        InputNormalizationHandlerInternal inputNormalizationHandler
+        InputNormalizationHandlerInternal inputNormalizationHandler,
+        ZipEntryHashingPool zipEntryHashingPool,
+        FileCollectionFingerprintCache fingerprintCache
     ) {
         return new FileCollectionFingerprinterRegistrations(
             stringInterner,
@@ -150,7 +156,9 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
             resourceSnapshotterCacheService,
             inputNormalizationHandler.getRuntimeClasspath().getClasspathResourceFilter(),
             inputNormalizationHandler.getRuntimeClasspath().getManifestAttributeResourceEntryFilter(),
-            inputNormalizationHandler.getRuntimeClasspath().getPropertiesFileFilters()
+            inputNormalizationHandler.getRuntimeClasspath().getPropertiesFileFilters(),
+            zipEntryHashingPool.getExecutor(),
+            fingerprintCache
         );
     }
 
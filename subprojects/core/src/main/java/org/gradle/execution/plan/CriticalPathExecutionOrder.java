@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Orders ready nodes so that the nodes with the longest remaining critical path are started first.
+ *
+ * <p>The remaining critical path of a node is its own estimated duration plus the longest remaining critical path of any node that
+ * has to run after it, as recorded by the {@link TaskDurationHistory}. Tasks without history are estimated using the average duration of the tasks
+ * in the plan that do have history. Nodes with the same remaining critical path, including all nodes when there is no history at all, keep
+ * the order of {@link DefaultFinalizedExecutionPlan#NODE_EXECUTION_ORDER}.</p>
+ *
+ * <p>This only changes which of the ready nodes is preferred. Dependency, ordering, finalizer and mutation constraints are still checked before
+ * a node is started. Because a node that has to run before another one never has a shorter remaining critical path, soft ordering constraints
+ * such as {@code shouldRunAfter} are also kept whenever both nodes are ready.</p>
+ */
+final class CriticalPathExecutionOrder implements Comparator<Node> {
+    private final Map<Node, Long> remainingCriticalPath = new IdentityHashMap<>();
+
+    CriticalPathExecutionOrder(List<Node> scheduledNodes, TaskDurationHistory durationHistory) {
+        long[] estimatedDurations = estimateDurations(scheduledNodes, durationHistory);
+        Map<Node, Integer> positions = new IdentityHashMap<>(scheduledNodes.size());
+        for (int i = 0; i < scheduledNodes.size(); i++) {
+            positions.put(scheduledNodes.get(i), i);
+        }
+
+        // The scheduled nodes are in execution order, so every node that has to run after a node comes later in the list.
+        // Visit the nodes in reverse order and push the remaining critical path of each node to the nodes that have to run before it.
+        // Relationships that point forward in the list, such as ignored `shouldRunAfter` cycles, do not affect the order and are ignored.
+        long[] longestTail = new long[scheduledNodes.size()];
+        for (int i = scheduledNodes.size() - 1; i >= 0; i--) {
+            Node node = scheduledNodes.get(i);
+            long remaining = estimatedDurations[i] + longestTail[i];
+            remainingCriticalPath.put(node, remaining);
+            for (Node predecessor : node.getAllSuccessors()) {
+                Integer position = positions.get(predecessor);
+                if (position != null && position < i) {
+                    longestTail[position] = Math.max(longestTail[position], remaining);
+                }
+            }
+        }
+    }
+
+    private static long[] estimateDurations(List<Node> scheduledNodes, TaskDurationHistory durationHistory) {
+        long[] estimatedDurations = new long[scheduledNodes.size()];
+        boolean[] unknown = new boolean[scheduledNodes.size()];
+        long knownTotal = 0;
+        int knownCount = 0;
+        for (int i = 0; i < scheduledNodes.size(); i++) {
+            Node node = scheduledNodes.get(i);
+            if (node instanceof LocalTaskNode) {
+                OptionalLong duration = durationHistory.getEstimatedDurationMillis(workIdentityOf((LocalTaskNode) node));
+                if (duration.isPresent()) {
+                    estimatedDurations[i] = duration.getAsLong();
+                    knownTotal += duration.getAsLong();
+                    knownCount++;
+                } else {
+                    unknown[i] = true;
+                }
+            }
+        }
+        long defaultDuration = knownCount == 0 ? 0 : knownTotal / knownCount;
+        for (int i = 0; i < scheduledNodes.size(); i++) {
+            if (unknown[i]) {
+                estimatedDurations[i] = defaultDuration;
+            }
+        }
+        return estimatedDurations;
+    }
+
+    static String workIdentityOf(LocalTaskNode node) {
+        return node.getTask().getIdentityPath().getPath();
+    }
+
+    /**
+     * Gives a node that is added to the plan while it executes, such as a pre- or post-execution node, the same priority as the node it was added for.
+     * Does nothing for nodes that already have a priority, as these may already be queued.
+     */
+    void addedFor(Node owner, Node node) {
+        remainingCriticalPath.putIfAbsent(node, getRemainingCriticalPath(owner));
+    }
+
+    long getRemainingCriticalPath(Node node) {
+        Long remaining = remainingCriticalPath.get(node);
+        return remaining == null ? 0 : remaining;
+    }
+
+    @Override
+    public int compare(Node node1, Node node2) {
+        if (node1.isPriority() == node2.isPriority()) {
+            int byRemainingCriticalPath = Long.compare(getRemainingCriticalPath(node2), getRemainingCriticalPath(node1));
+            if (byRemainingCriticalPath != 0) {
+                return byRemainingCriticalPath;
+            }
+        }
+        return DefaultFinalizedExecutionPlan.NODE_EXECUTION_ORDER.compare(node1, node2);
+    }
+}
@@ -21,6 +21,7 @@
 import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.NonNullApi;
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
 import org.gradle.internal.MutableBoolean;
 import org.gradle.internal.Pair;
 import org.gradle.internal.resources.ResourceLock;
@@ -35,11 +36,14 @@
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
@@ -67,7 +71,7 @@ public int compare(Node node1, Node node2) {
     };
 
     private final Set<Node> waitingToStartNodes = new HashSet<>();
-    private final ExecutionQueue readyNodes = new ExecutionQueue();
+    private final ExecutionQueue readyNodes;
     private final List<Throwable> failures = new ArrayList<>();
     private final List<DiagnosticEvent> diagnosticEvents = new ArrayList<>();
     private final String displayName;
@@ -84,6 +88,15 @@ public int compare(Node node1, Node node2) {
     private final Map<Pair<Node, Node>, Boolean> reachableCache = new HashMap<>();
     private final OrdinalNodeAccess ordinalNodeAccess;
     private final Consumer<LocalTaskNode> completionHandler;
+    @Nullable
+    private final CriticalPathExecutionOrder criticalPathOrder;
+    @Nullable
+    private final TaskDurationHistory durationHistory;
+    private final Map<Node, Long> executionStartTimes = new IdentityHashMap<>();
+    // The durations are written to the history when the plan is closed, as the history is a persistent cache and should not be accessed while holding the state lock
+    private final Map<String, Long> taskDurations = new LinkedHashMap<>();
+    @Nullable
+    private final TaskMemoryAdmission memoryAdmission;
 
     // When true, there may be nodes that are both ready and "selectable", which means their project and resources are able to be locked
     // When false, there are definitely no nodes that are "selectable"
@@ -100,7 +113,9 @@ public DefaultFinalizedExecutionPlan(
         List<Node> scheduledNodes,
         boolean continueOnFailure,
         QueryableExecutionPlan contents,
-        Consumer<LocalTaskNode> completionHandler
+        Consumer<LocalTaskNode> completionHandler,
+        @Nullable TaskDurationHistory durationHistory,
+        @Nullable TaskMemoryAdmission memoryAdmission
     ) {
         this.displayName = displayName;
         this.outputHierarchy = outputHierarchy;
@@ -110,6 +125,19 @@ public DefaultFinalizedExecutionPlan(
         this.continueOnFailure = continueOnFailure;
         this.contents = contents;
         this.completionHandler = completionHandler;
+        this.durationHistory = durationHistory;
+        this.memoryAdmission = memoryAdmission;
+        // When a duration history is available, prefer the ready nodes with the longest remaining critical path and record how long each task takes
+        if (durationHistory != null) {
+            this.criticalPathOrder = new CriticalPathExecutionOrder(scheduledNodes, durationHistory);
+            this.readyNodes = new ExecutionQueue(criticalPathOrder);
+        } else {
+            this.criticalPathOrder = null;
+            this.readyNodes = new ExecutionQueue(NODE_EXECUTION_ORDER);
+        }
+        if (memoryAdmission != null) {
+            memoryAdmission.estimate(scheduledNodes);
+        }
 
         SetMultimap<FinalizerGroup, FinalizerGroup> reachableGroups = LinkedHashMultimap.create();
         for (Node node : scheduledNodes) {
@@ -147,14 +175,33 @@ public WorkSource<Node> asWorkSource() {
     @Override
     public void close() {
         lockCoordinator.removeLockReleaseListener(resourceUnlockListener);
+        if (memoryAdmission != null) {
+            memoryAdmission.recordHistory();
+        }
+        if (durationHistory != null) {
+            taskDurations.forEach(durationHistory::recordDuration);
+        }
+        taskDurations.clear();
         waitingToStartNodes.clear();
         readyNodes.clear();
         runningNodes.clear();
         reachableCache.clear();
+        executionStartTimes.clear();
     }
 
     private void resourceUnlocked(ResourceLock resourceLock) {
-        if (!(resourceLock instanceof WorkerLeaseRegistry.WorkerLease) && !readyNodes.isEmpty()) {
+        if (!(resourceLock instanceof WorkerLeaseRegistry.WorkerLease)) {
+            unparkBlockedNodes();
+        }
+    }
+
+    /**
+     * Returns the nodes that could not be started because of their locks or conflicts with other nodes to the ready queue.
+     * Called whenever something happens that may unblock them.
+     */
+    private void unparkBlockedNodes() {
+        readyNodes.unparkAll();
+        if (!readyNodes.isEmpty()) {
             maybeNodesSelectable = true;
         }
     }
@@ -184,10 +231,13 @@ public Diagnostics healthDiagnostics() {
         for (Node node : waitingToStartNodes) {
             waitingToStartItems.add(node.healthDiagnostics());
         }
-        List<String> readyToStartItems = new ArrayList<>(readyNodes.size());
+        List<String> readyToStartItems = new ArrayList<>(readyNodes.size() + readyNodes.parked.size());
         for (Node node : readyNodes.nodes) {
             readyToStartItems.add(node.toString());
         }
+        for (Node node : readyNodes.parked) {
+            readyToStartItems.add(node.toString());
+        }
         List<String> otherWaitingItems = new ArrayList<>();
         visitWaitingNodes(node -> {
             if (!waitingToStartNodes.contains(node)) {
@@ -229,6 +279,12 @@ private void visitWaitingNodes(Consumer<Node> visitor) {
 
     @Override
     public Selection<Node> selectNext() {
+        return selectNext((node, reason) -> {
+        });
+    }
+
+    @Override
+    public Selection<Node> selectNext(SelectionListener<? super Node> listener) {
         lockCoordinator.assertHasStateLock();
         if (waitingToStartNodes.isEmpty()) {
             return Selection.noMoreWorkToStart();
@@ -265,7 +321,7 @@ public Selection<Node> selectNext() {
                         prepareNode.require();
                         prepareNode.updateAllDependenciesComplete();
                         node.addDependencySuccessor(prepareNode);
-                        addNodeToPlan(prepareNode);
+                        addNodeToPlan(node, prepareNode);
                     });
                     node.forceAllDependenciesCompleteUpdate();
                     if (!node.allDependenciesComplete()) {
@@ -276,12 +332,17 @@ public Selection<Node> selectNext() {
                 }
 
                 // Node is ready to execute and all dependencies and pre-execution nodes have completed
-                if (attemptToStart(node, resources)) {
+                if (attemptToStart(node, resources, listener)) {
                     readyNodes.remove();
                     waitingToStartNodes.remove(node);
                     node.getMutationInfo().started();
                     return Selection.of(node);
                 }
+                // Node cannot start until some lock is released or some other node finishes, so there is no point looking at it again until then.
+                // The lock that could not be acquired is not necessarily the one that has to be released (for example, project locks also wait for
+                // the "all projects" lock), so the parked nodes are returned to the queue on any lock release or node completion.
+                readyNodes.park();
+                continue;
             }
             if (node.isComplete()) {
                 // Is already complete, for example:
@@ -302,15 +363,20 @@ public Selection<Node> selectNext() {
         return Selection.noWorkReadyToStart();
     }
 
-    private void addNodeToPlan(Node node) {
+    private void addNodeToPlan(Node owner, Node node) {
+        if (criticalPathOrder != null) {
+            criticalPathOrder.addedFor(owner, node);
+        }
         maybeNodeReady(node);
         maybeWaitingForNewNode(node, "runtime");
     }
 
-    private boolean attemptToStart(Node node, List<ResourceLock> resources) {
+    private boolean attemptToStart(Node node, List<ResourceLock> resources, SelectionListener<? super Node> listener) {
         resources.clear();
-        if (!tryAcquireLocksForNode(node, resources)) {
+        BlockedReason blockedReason = tryAcquireLocksForNode(node, resources);
+        if (blockedReason != null) {
             releaseLocks(resources);
+            listener.blocked(node, blockedReason);
             return false;
         }
 
@@ -318,6 +384,7 @@ private boolean attemptToStart(Node node, List<ResourceLock> resources) {
 
         if (conflictsWithOtherNodes(node, mutations)) {
             releaseLocks(resources);
+            listener.blocked(node, BlockedReason.MutationConflict);
             return false;
         }
 
@@ -334,15 +401,24 @@ private void releaseLocks(List<ResourceLock> resources) {
         }
     }
 
-    private boolean tryAcquireLocksForNode(Node node, List<ResourceLock> resources) {
+    /**
+     * Attempts to lock the resources the given node needs, adding the locks that are acquired to the given list.
+     *
+     * @return the reason why the node cannot start, or null when all resources are locked.
+     */
+    @Nullable
+    private BlockedReason tryAcquireLocksForNode(Node node, List<ResourceLock> resources) {
         if (!tryLockProjectFor(node, resources)) {
             LOGGER.debug("Cannot acquire project lock for node {}", node);
-            return false;
+            return BlockedReason.ProjectLock;
         } else if (!tryLockSharedResourceFor(node, resources)) {
             LOGGER.debug("Cannot acquire shared resource lock for node {}", node);
-            return false;
+            return BlockedReason.SharedResource;
+        } else if (memoryAdmission != null && !memoryAdmission.tryAdmit(node, resources)) {
+            LOGGER.debug("Cannot admit node {} within the memory budget", node);
+            return BlockedReason.MemoryBudget;
         }
-        return true;
+        return null;
     }
 
     private boolean conflictsWithOtherNodes(Node node, MutationInfo mutations) {
@@ -506,11 +582,30 @@ private boolean doesConsumerDependOnDestroyer(Node consumer, Node destroyer) {
 
     private void recordNodeExecutionStarted(Node node) {
         runningNodes.add(node);
+        if (memoryAdmission != null) {
+            memoryAdmission.started(node);
+        }
+        if (durationHistory != null && node instanceof LocalTaskNode) {
+            executionStartTimes.put(node, System.nanoTime());
+        }
+    }
+
+    private void recordTaskDuration(Node node) {
+        Long startTime = executionStartTimes.remove(node);
+        // Only count tasks whose actions ran, as up-to-date or from-cache tasks take almost no time and would drag the estimate towards zero
+        if (startTime != null && !node.isFailed() && ((LocalTaskNode) node).getTask().getState().getOutcome() == TaskExecutionOutcome.EXECUTED) {
+            taskDurations.put(CriticalPathExecutionOrder.workIdentityOf((LocalTaskNode) node), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
     }
 
     private void recordNodeCompleted(Node node) {
         LOGGER.debug("Node {} completed, executed: {}", node, node.isExecuted());
         waitingToStartNodes.remove(node);
+        if (memoryAdmission != null) {
+            memoryAdmission.completed(node);
+        }
+        // The completed node may have been in conflict with parked nodes
+        unparkBlockedNodes();
         if (continueOnFailure && !node.allDependenciesComplete()) {
             // Wait for any dependencies of this node that have not started yet
             for (Node successor : node.getDependencySuccessors()) {
@@ -555,11 +650,8 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
                 throw new IllegalStateException(format("Cannot finish executing %s as it is in an unexpected state %s.", node, node.getState()));
             }
 
-            if (!readyNodes.isEmpty()) {
-                maybeNodesSelectable = true;
-            }
-
             node.finishExecution(this::recordNodeCompleted);
+            recordTaskDuration(node);
             if (node.isFailed()) {
                 LOGGER.debug("Node {} failed", node);
                 handleFailure(node);
@@ -569,7 +661,7 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
                     postNode.setIndex(node.getIndex());
                     postNode.require();
                     postNode.updateAllDependenciesComplete();
-                    addNodeToPlan(postNode);
+                    addNodeToPlan(node, postNode);
                     for (Node predecessor : node.getDependencyPredecessors()) {
                         predecessor.addDependencySuccessor(postNode);
                         predecessor.forceAllDependenciesCompleteUpdate();
@@ -582,7 +674,12 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
         } finally {
             unlockProjectFor(node);
             unlockSharedResourcesFor(node);
+            if (memoryAdmission != null) {
+                memoryAdmission.finished(node);
+            }
             invalidNodeRunning = false;
+            // Locks released here may not be reported to the lock release listener until the state lock is released
+            unparkBlockedNodes();
         }
     }
 
@@ -596,7 +693,7 @@ private void maybeNodeReady(Node node) {
     private void maybeWaitingForNewNode(Node node, String whenAdded) {
         // Add some diagnostics to track down sporadic issue
         if (node instanceof OrdinalNode) {
-            diagnosticEvents.add(new NodeAdded(node, whenAdded, readyNodes.nodes.contains(node)));
+            diagnosticEvents.add(new NodeAdded(node, whenAdded, readyNodes.contains(node)));
         }
         if (node.getDependencyPredecessors().isEmpty()) {
             waitingForNode(node, whenAdded, null);
@@ -606,7 +703,7 @@ private void maybeWaitingForNewNode(Node node, String whenAdded) {
     private void waitingForNode(Node node, String whenAdded, @Nullable Node waitingDueTo) {
         // Add some diagnostics to track down sporadic issue
         if (node instanceof OrdinalNode) {
-            diagnosticEvents.add(new WaitingForNode(node, waitingDueTo, whenAdded, readyNodes.nodes.contains(node)));
+            diagnosticEvents.add(new WaitingForNode(node, waitingDueTo, whenAdded, readyNodes.contains(node)));
         }
         waitingToStartNodes.add(node);
     }
@@ -679,15 +776,52 @@ public boolean allExecutionComplete() {
     }
 
     /**
-     * An ordered queue of nodes, sorted by {@link #NODE_EXECUTION_ORDER}.
+     * An ordered queue of nodes, sorted by {@link #NODE_EXECUTION_ORDER} or by {@link CriticalPathExecutionOrder}.
+     *
+     * <p>Nodes that were found to be blocked can be parked, which takes them out of the queue until they are unparked again.
+     * This avoids checking the locks and conflicts of blocked nodes on every selection.</p>
      */
     static class ExecutionQueue {
-        private final Set<Node> nodes = new TreeSet<>(NODE_EXECUTION_ORDER);
+        private final Set<Node> nodes;
+        private final Set<Node> parked = newIdentityHashSet();
         private Iterator<Node> current;
+        private Node currentNode;
+
+        ExecutionQueue(Comparator<Node> order) {
+            this.nodes = new TreeSet<>(order);
+        }
 
         public void clear() {
             nodes.clear();
+            parked.clear();
             current = null;
+            currentNode = null;
+        }
+
+        /**
+         * Returns true if the given node is either queued or parked.
+         */
+        public boolean contains(Node node) {
+            return parked.contains(node) || nodes.contains(node);
+        }
+
+        /**
+         * Moves the current node out of the queue, until {@link #unparkAll()} is called or the node is inserted again.
+         */
+        public void park() {
+            current.remove();
+            parked.add(currentNode);
+        }
+
+        /**
+         * Returns all parked nodes to the queue.
+         */
+        public void unparkAll() {
+            if (!parked.isEmpty()) {
+                nodes.addAll(parked);
+                parked.clear();
+                current = null;
+            }
         }
 
         public boolean isEmpty() {
@@ -713,7 +847,8 @@ public Node next() {
             if (current == null) {
                 throw new IllegalStateException();
             }
-            return current.next();
+            currentNode = current.next();
+            return currentNode;
         }
 
         /**
@@ -725,6 +860,7 @@ public void remove() {
 
         public void removeAndRestart(Node node) {
             nodes.remove(node);
+            parked.remove(node);
             restart();
         }
 
@@ -732,6 +868,7 @@ public void removeAndRestart(Node node) {
          * Insert the given node.
          */
         public void insert(Node node) {
+            parked.remove(node);
             if (nodes.add(node)) {
                 current = null;
             }
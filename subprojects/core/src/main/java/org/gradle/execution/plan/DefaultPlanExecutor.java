@@ -28,17 +28,21 @@
 import org.gradle.internal.build.ExecutionResult;
 import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.logging.text.TreeFormatter;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.operations.CurrentBuildOperationRef;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.internal.work.WorkerLeaseService;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -47,9 +51,11 @@
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
@@ -61,6 +67,11 @@
 @NonNullApi
 public class DefaultPlanExecutor implements PlanExecutor, Stoppable {
     public static final InternalFlag STATS = new InternalFlag("org.gradle.internal.executor.stats");
+    /**
+     * The file to write a trace of what the worker threads do to, when the executor is stopped. The trace is not recorded when empty.
+     */
+    public static final StringInternalOption TRACE = new StringInternalOption("org.gradle.internal.executor.trace", "");
+    private static final int TRACE_EVENTS_PER_WORKER = 16 * 1024;
     private static final Logger LOGGER = Logging.getLogger(DefaultPlanExecutor.class);
     private final int executorCount;
     private final WorkerLeaseService workerLeaseService;
@@ -88,7 +99,9 @@ public DefaultPlanExecutor(
 
         this.executorCount = numberOfParallelExecutors;
         this.workerLeaseService = workerLeaseService;
-        this.stats = internalOptions.getOption(STATS).get() ? new CollectingExecutorStats(state) : state;
+        ExecutorStats stats = internalOptions.getOption(STATS).get() ? new CollectingExecutorStats(state) : state;
+        String traceFile = internalOptions.getOption(TRACE).get();
+        this.stats = traceFile.isEmpty() ? stats : new TracingExecutorStats(stats, new File(traceFile));
         this.queue = new MergedQueues(coordinationService, false);
         this.executor = executorFactory.create("Execution worker");
     }
@@ -104,7 +117,7 @@ public void stop() {
 
     @Override
     public <T> ExecutionResult<Void> process(WorkSource<T> workSource, Action<T> worker) {
-        PlanDetails planDetails = new PlanDetails(Cast.uncheckedCast(workSource), Cast.uncheckedCast(worker));
+        PlanDetails planDetails = new PlanDetails(Cast.uncheckedCast(workSource), Cast.uncheckedCast(worker), CurrentBuildOperationRef.instance().get());
         queue.add(planDetails);
 
         maybeStartWorkers(queue, executor);
@@ -190,10 +203,14 @@ private void maybeStartWorkers(MergedQueues queue, Executor executor) {
     private static class PlanDetails {
         final WorkSource<Object> source;
         final Action<Object> worker;
+        // The operation that is running the plan, which selection runs under so that events emitted while selecting work are attributed to it
+        @Nullable
+        final BuildOperationRef buildOperation;
 
-        public PlanDetails(WorkSource<Object> source, Action<Object> worker) {
+        public PlanDetails(WorkSource<Object> source, Action<Object> worker, @Nullable BuildOperationRef buildOperation) {
             this.source = source;
             this.worker = worker;
+            this.buildOperation = buildOperation;
         }
     }
 
@@ -242,12 +259,12 @@ public WorkSource.State executionState() {
             }
         }
 
-        public WorkSource.Selection<WorkItem> selectNext() {
+        public WorkSource.Selection<WorkItem> selectNext(WorkSource.SelectionListener<Object> listener) {
             coordinationService.assertHasStateLock();
             Iterator<PlanDetails> iterator = queues.iterator();
             while (iterator.hasNext()) {
                 PlanDetails details = iterator.next();
-                WorkSource.Selection<Object> selection = details.source.selectNext();
+                WorkSource.Selection<Object> selection = selectNextFrom(details, listener);
                 if (selection.isNoMoreWorkToStart()) {
                     if (details.source.allExecutionComplete()) {
                         iterator.remove();
@@ -264,6 +281,17 @@ public WorkSource.Selection<WorkItem> selectNext() {
             }
         }
 
+        private static WorkSource.Selection<Object> selectNextFrom(PlanDetails details, WorkSource.SelectionListener<Object> listener) {
+            CurrentBuildOperationRef currentBuildOperationRef = CurrentBuildOperationRef.instance();
+            BuildOperationRef previous = currentBuildOperationRef.get();
+            currentBuildOperationRef.set(details.buildOperation);
+            try {
+                return details.source.selectNext(listener);
+            } finally {
+                currentBuildOperationRef.set(previous);
+            }
+        }
+
         private boolean nothingMoreToStart() {
             return finished || (autoFinish && queues.isEmpty());
         }
@@ -416,6 +444,7 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
                         // Do not call `startWaitingForNextItem()` as there may be work available but this worker cannot start it, and so should not be considered "waiting for work".
                         // The health monitoring is currently only concerned with whether work can be started.
                         // At some point it could be improved to track the health of all worker threads, not just the plan executor threads
+                        stats.startWaitingForWorkerLease();
                         return RETRY;
                     }
 
@@ -430,7 +459,7 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
 
                     WorkSource.Selection<WorkItem> workItem;
                     try {
-                        workItem = queue.selectNext();
+                        workItem = queue.selectNext(stats);
                     } catch (Throwable t) {
                         resourceLockState.releaseLocks();
                         queue.abortAllAndFail(t);
@@ -458,7 +487,7 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
         private void execute(Object selected, WorkSource<Object> executionPlan, Action<Object> worker) {
             Throwable failure = null;
             try {
-                stats.startExecute();
+                stats.startExecute(selected);
                 try {
                     worker.execute(selected);
                 } catch (Throwable t) {
@@ -511,12 +540,14 @@ private interface WorkerState {
     /**
      * Implementations are only used by the worker thead and do not need to be thread safe.
      */
-    private interface WorkerStats extends WorkerState {
+    private interface WorkerStats extends WorkerState, WorkSource.SelectionListener<Object> {
         void startSelect();
 
         void finishSelect();
 
-        void startExecute();
+        void startWaitingForWorkerLease();
+
+        void startExecute(Object item);
 
         void finishExecute();
 
@@ -615,7 +646,15 @@ public void finishSelect() {
             }
 
             @Override
-            public void startExecute() {
+            public void startWaitingForWorkerLease() {
+            }
+
+            @Override
+            public void blocked(Object item, WorkSource.BlockedReason reason) {
+            }
+
+            @Override
+            public void startExecute(Object item) {
             }
 
             @Override
@@ -723,7 +762,15 @@ public void finishSelect() {
         }
 
         @Override
-        public void startExecute() {
+        public void startWaitingForWorkerLease() {
+        }
+
+        @Override
+        public void blocked(Object item, WorkSource.BlockedReason reason) {
+        }
+
+        @Override
+        public void startExecute(Object item) {
             startCurrentOperation = System.nanoTime();
         }
 
@@ -758,4 +805,164 @@ public void finishWaitingForNextItem() {
             delegate.finishWaitingForNextItem();
         }
     }
+
+    private static class TracingExecutorStats implements ExecutorStats {
+        private final ExecutorStats delegate;
+        private final File traceFile;
+        private final SchedulingTrace trace = new SchedulingTrace(TRACE_EVENTS_PER_WORKER);
+
+        public TracingExecutorStats(ExecutorStats delegate, File traceFile) {
+            this.delegate = delegate;
+            this.traceFile = traceFile;
+        }
+
+        @Override
+        public WorkerStats startWorker() {
+            return new TracingWorkerStats(delegate.startWorker(), trace);
+        }
+
+        @Override
+        public void report() {
+            try {
+                delegate.report();
+            } finally {
+                if (!trace.isEmpty()) {
+                    try {
+                        trace.writeTo(traceFile);
+                        LOGGER.lifecycle("Scheduling trace written to {}", traceFile.getAbsolutePath());
+                    } catch (IOException e) {
+                        LOGGER.warn("Could not write scheduling trace to {}.", traceFile, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the events of a worker into the trace of the thread that runs the worker.
+     */
+    private static class TracingWorkerStats implements WorkerStats {
+        private static final String[] BLOCKED_EVENT_NAMES = blockedEventNames();
+        private final WorkerStats delegate;
+        private final SchedulingTrace schedulingTrace;
+        // Workers are created by one thread and run by another, so the trace of the worker thread is looked up on first use
+        private SchedulingTrace.WorkerTrace trace;
+        private long startSelect;
+        private long startWaiting;
+        @Nullable
+        private String waitingFor;
+        @Nullable
+        private String executing;
+        private long startExecute;
+        private long startMarkFinished;
+        // Items are usually blocked for the same reason on every selection, so only changes of the reason are recorded.
+        // Items are referred to by display name, so that the items aren't kept alive by the worker
+        private final Map<String, WorkSource.BlockedReason> lastBlockedReasons = new HashMap<>();
+
+        public TracingWorkerStats(WorkerStats delegate, SchedulingTrace schedulingTrace) {
+            this.delegate = delegate;
+            this.schedulingTrace = schedulingTrace;
+        }
+
+        private void record(String category, @Nullable String name, @Nullable String item, long startTime, long endTime) {
+            if (trace == null) {
+                trace = schedulingTrace.forCurrentThread();
+            }
+            trace.record(category, name, item, startTime, endTime);
+        }
+
+        private static String[] blockedEventNames() {
+            WorkSource.BlockedReason[] reasons = WorkSource.BlockedReason.values();
+            String[] names = new String[reasons.length];
+            for (WorkSource.BlockedReason reason : reasons) {
+                names[reason.ordinal()] = "blocked by " + reason.name();
+            }
+            return names;
+        }
+
+        @Override
+        public void startSelect() {
+            startSelect = System.nanoTime();
+            delegate.startSelect();
+        }
+
+        @Override
+        public void finishSelect() {
+            finishWaiting();
+            record("select", "select", null, startSelect, System.nanoTime());
+            delegate.finishSelect();
+        }
+
+        @Override
+        public void startWaitingForWorkerLease() {
+            startWaiting("waiting for worker lease");
+            delegate.startWaitingForWorkerLease();
+        }
+
+        @Override
+        public void startWaitingForNextItem() {
+            startWaiting("waiting for ready nodes");
+            delegate.startWaitingForNextItem();
+        }
+
+        @Override
+        public void finishWaitingForNextItem() {
+            finishWaiting();
+            delegate.finishWaitingForNextItem();
+        }
+
+        private void startWaiting(String reason) {
+            finishWaiting();
+            waitingFor = reason;
+            startWaiting = System.nanoTime();
+        }
+
+        private void finishWaiting() {
+            if (waitingFor != null) {
+                record("wait", waitingFor, null, startWaiting, System.nanoTime());
+                waitingFor = null;
+            }
+        }
+
+        @Override
+        public void blocked(Object item, WorkSource.BlockedReason reason) {
+            String displayName = item.toString();
+            if (lastBlockedReasons.put(displayName, reason) != reason) {
+                record("blocked", BLOCKED_EVENT_NAMES[reason.ordinal()], displayName, System.nanoTime(), -1);
+            }
+            delegate.blocked(item, reason);
+        }
+
+        @Override
+        public void startExecute(Object item) {
+            executing = item.toString();
+            lastBlockedReasons.remove(executing);
+            startExecute = System.nanoTime();
+            delegate.startExecute(item);
+        }
+
+        @Override
+        public void finishExecute() {
+            record("execute", null, executing, startExecute, System.nanoTime());
+            executing = null;
+            delegate.finishExecute();
+        }
+
+        @Override
+        public void startMarkFinished() {
+            startMarkFinished = System.nanoTime();
+            delegate.startMarkFinished();
+        }
+
+        @Override
+        public void finishMarkFinished() {
+            record("finish", "mark finished", null, startMarkFinished, System.nanoTime());
+            delegate.finishMarkFinished();
+        }
+
+        @Override
+        public void finish() {
+            delegate.finish();
+        }
+    }
 }
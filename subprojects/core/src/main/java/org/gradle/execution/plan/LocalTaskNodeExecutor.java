@@ -24,6 +24,11 @@
 import org.gradle.api.internal.tasks.execution.DefaultTaskExecutionContext;
 
 public class LocalTaskNodeExecutor implements NodeExecutor {
+    private final TaskMemoryAdmission memoryAdmission;
+
+    public LocalTaskNodeExecutor(TaskMemoryAdmission memoryAdmission) {
+        this.memoryAdmission = memoryAdmission;
+    }
 
     @Override
     public boolean execute(Node node, NodeExecutionContext context) {
@@ -38,6 +43,7 @@ public boolean execute(Node node, NodeExecutionContext context) {
                 localTaskNode.getValidationContext(),
                 typeValidationContext -> missingTaskDependencyDetector.detectMissingDependencies(localTaskNode, typeValidationContext)
             );
+            memoryAdmission.reportAdmission(localTaskNode);
             TaskExecuter taskExecuter = context.getService(TaskExecuter.class);
             taskExecuter.execute(task, state, ctx);
             return true;
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.IndexedCache;
+import org.gradle.cache.IndexedCacheParameters;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.scopes.ScopedCacheBuilderFactory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.OptionalLong;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A {@link TaskDurationHistory} that is persisted across builds in a build scoped cache.
+ *
+ * <p>The cache is only opened when the history is first used, so builds that do not use critical path scheduling do not pay for it.
+ * Each recorded duration is averaged with the previous estimate, so a single outlier does not dominate the estimate.</p>
+ */
+public class PersistentTaskDurationHistory implements TaskDurationHistory, Closeable {
+    private final ScopedCacheBuilderFactory cacheBuilderFactory;
+    private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
+    @Nullable
+    private PersistentCache cache;
+    @Nullable
+    private IndexedCache<String, Long> durations;
+
+    public PersistentTaskDurationHistory(ScopedCacheBuilderFactory cacheBuilderFactory, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.cacheBuilderFactory = cacheBuilderFactory;
+        this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
+    }
+
+    @Override
+    public OptionalLong getEstimatedDurationMillis(String workIdentity) {
+        Long duration = getDurations().getIfPresent(workIdentity);
+        return duration == null ? OptionalLong.empty() : OptionalLong.of(duration);
+    }
+
+    @Override
+    public void recordDuration(String workIdentity, long durationMillis) {
+        IndexedCache<String, Long> durations = getDurations();
+        Long previousDuration = durations.getIfPresent(workIdentity);
+        durations.put(workIdentity, previousDuration == null ? durationMillis : (previousDuration + durationMillis) / 2);
+    }
+
+    private synchronized IndexedCache<String, Long> getDurations() {
+        if (durations == null) {
+            cache = cacheBuilderFactory
+                .createCacheBuilder("taskDurations")
+                .withDisplayName("task duration history cache")
+                .withLockOptions(mode(FileLockManager.LockMode.OnDemand))
+                .open();
+            durations = cache.createIndexedCache(
+                IndexedCacheParameters.of("taskDurations", String.class, BaseSerializerFactory.LONG_SERIALIZER)
+                    .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(10000, true))
+            );
+        }
+        return durations;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.plan;
+
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.IndexedCache;
+import org.gradle.cache.IndexedCacheParameters;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.scopes.ScopedCacheBuilderFactory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.OptionalLong;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A {@link TaskMemoryHistory} that is persisted across builds in a build scoped cache.
+ *
+ * <p>The cache is only opened when the history is first used, so builds that do not use memory aware scheduling do not pay for it.
+ * An estimate grows as soon as more memory is observed, but only shrinks by half the difference per build, as running out of memory
+ * is more expensive than running work with less parallelism than possible.</p>
+ */
+public class PersistentTaskMemoryHistory implements TaskMemoryHistory, Closeable {
+    private final ScopedCacheBuilderFactory cacheBuilderFactory;
+    private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
+    @Nullable
+    private PersistentCache cache;
+    @Nullable
+    private IndexedCache<String, Long> memory;
+
+    public PersistentTaskMemoryHistory(ScopedCacheBuilderFactory cacheBuilderFactory, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.cacheBuilderFactory = cacheBuilderFactory;
+        this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
+    }
+
+    @Override
+    public OptionalLong getEstimatedMemoryBytes(String workIdentity) {
+        Long memoryBytes = getMemory().getIfPresent(workIdentity);
+        return memoryBytes == null ? OptionalLong.empty() : OptionalLong.of(memoryBytes);
+    }
+
+    @Override
+    public void recordMemory(String workIdentity, long memoryBytes) {
+        IndexedCache<String, Long> memory = getMemory();
+        Long previousMemoryBytes = memory.getIfPresent(workIdentity);
+        memory.put(workIdentity, previousMemoryBytes == null ? memoryBytes : Math.max(memoryBytes, (previousMemoryBytes + memoryBytes) / 2));
+    }
+
+    private synchronized IndexedCache<String, Long> getMemory() {
+        if (memory == null) {
+            cache = cacheBuilderFactory
+                .createCacheBuilder("taskMemory")
+                .withDisplayName("task memory history cache")
+                .withLockOptions(mode(FileLockManager.LockMode.OnDemand))
+                .open();
+            memory = cache.createIndexedCache(
+                IndexedCacheParameters.of("taskMemory", String.class, BaseSerializerFactory.LONG_SERIALIZER)
+                    .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(10000, true))
+            );
+        }
+        return memory;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+}
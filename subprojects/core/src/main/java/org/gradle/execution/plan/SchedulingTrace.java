@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.plan;
+
+import groovy.json.JsonOutput;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records what the worker threads of the plan executor do over time, and writes it as a trace in the trace event format that trace viewers
+ * such as {@code chrome://tracing} and Perfetto can open.
+ *
+ * <p>Each worker records into its own fixed size ring buffer, so recording does not need any locking. When a buffer is full,
+ * the oldest events of that worker are overwritten. The trace should only be written once the workers have finished recording.</p>
+ *
+ * <p>Events refer to the items they are about by display name, so the trace doesn't keep the items of the plan alive.</p>
+ */
+class SchedulingTrace {
+    private final long startTime = System.nanoTime();
+    private final int eventsPerWorker;
+    private final List<WorkerTrace> workers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<WorkerTrace> currentWorker = new ThreadLocal<>();
+
+    SchedulingTrace(int eventsPerWorker) {
+        this.eventsPerWorker = eventsPerWorker;
+    }
+
+    /**
+     * Returns the trace of the current thread, which must only be used by this thread.
+     */
+    WorkerTrace forCurrentThread() {
+        WorkerTrace worker = currentWorker.get();
+        if (worker == null) {
+            synchronized (workers) {
+                worker = new WorkerTrace(workers.size() + 1, Thread.currentThread().getName(), eventsPerWorker);
+                workers.add(worker);
+            }
+            currentWorker.set(worker);
+        }
+        return worker;
+    }
+
+    boolean isEmpty() {
+        for (WorkerTrace worker : workers) {
+            if (worker.recorded > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writeTo(writer);
+        }
+    }
+
+    void writeTo(Writer writer) throws IOException {
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (WorkerTrace worker : workers) {
+            first = worker.writeTo(writer, startTime, first);
+        }
+        writer.write("]}\n");
+        writer.flush();
+    }
+
+    static class WorkerTrace {
+        private final int id;
+        private final String threadName;
+        private final String[] names;
+        private final String[] categories;
+        private final String[] subjects;
+        private final long[] startTimes;
+        private final long[] endTimes;
+        // Written only by the owning thread
+        private volatile long recorded;
+
+        WorkerTrace(int id, String threadName, int capacity) {
+            this.id = id;
+            this.threadName = threadName;
+            this.names = new String[capacity];
+            this.categories = new String[capacity];
+            this.subjects = new String[capacity];
+            this.startTimes = new long[capacity];
+            this.endTimes = new long[capacity];
+        }
+
+        /**
+         * Records something that the worker did between the given times, or that happened at the given start time when the end time is negative.
+         *
+         * @param name the name of the event, or null to use the subject as the name.
+         * @param subject the display name of the item that the event is about, if any.
+         */
+        void record(String category, @Nullable String name, @Nullable String subject, long startTime, long endTime) {
+            long index = recorded;
+            int slot = (int) (index % names.length);
+            names[slot] = name;
+            categories[slot] = category;
+            subjects[slot] = subject;
+            startTimes[slot] = startTime;
+            endTimes[slot] = endTime;
+            // Publish the event
+            recorded = index + 1;
+        }
+
+        private boolean writeTo(Writer writer, long traceStartTime, boolean first) throws IOException {
+            long count = recorded;
+            startEvent(writer, first);
+            writer.write("\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + id + ",\"args\":{\"name\":" + JsonOutput.toJson(threadName) + "}}");
+            long firstIndex = Math.max(0, count - names.length);
+            if (firstIndex > 0) {
+                startEvent(writer, false);
+                writeCommon(writer, firstIndex + " earlier events dropped", "trace", micros(startTimes[(int) (firstIndex % names.length)], traceStartTime));
+                writer.write(",\"ph\":\"i\",\"s\":\"t\"}");
+            }
+            for (long index = firstIndex; index < count; index++) {
+                int slot = (int) (index % names.length);
+                startEvent(writer, false);
+                String name = names[slot] != null ? names[slot] : String.valueOf(subjects[slot]);
+                writeCommon(writer, name, categories[slot], micros(startTimes[slot], traceStartTime));
+                if (endTimes[slot] >= 0) {
+                    writer.write(",\"ph\":\"X\",\"dur\":" + micros(endTimes[slot], startTimes[slot]));
+                } else {
+                    writer.write(",\"ph\":\"i\",\"s\":\"t\"");
+                }
+                if (subjects[slot] != null) {
+                    writer.write(",\"args\":{\"item\":" + JsonOutput.toJson(subjects[slot]) + "}");
+                }
+                writer.write("}");
+            }
+            return false;
+        }
+
+        private static void startEvent(Writer writer, boolean first) throws IOException {
+            writer.write(first ? "\n{" : ",\n{");
+        }
+
+        private void writeCommon(Writer writer, String name, String category, long timestamp) throws IOException {
+            writer.write("\"name\":" + JsonOutput.toJson(name) + ",\"cat\":" + JsonOutput.toJson(category) + ",\"ts\":" + timestamp + ",\"pid\":1,\"tid\":" + id);
+        }
+
+        private static long micros(long time, long since) {
+            return TimeUnit.NANOSECONDS.toMicros(Math.max(0, time - since));
+        }
+    }
+}
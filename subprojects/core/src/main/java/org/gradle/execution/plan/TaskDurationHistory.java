@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.internal.service.scopes.Scopes;
+import org.gradle.internal.service.scopes.ServiceScope;
+
+import java.util.OptionalLong;
+
+/**
+ * Remembers how long work took to execute in previous builds, keyed by the identity of the work.
+ *
+ * <p>Used to estimate the remaining critical path of the nodes in an execution plan when critical path scheduling is enabled.</p>
+ */
+@ServiceScope(Scopes.Build.class)
+public interface TaskDurationHistory {
+    /**
+     * Returns the estimated duration of the given work in milliseconds, if it has been executed before.
+     */
+    OptionalLong getEstimatedDurationMillis(String workIdentity);
+
+    /**
+     * Records that the given work took the given time to execute.
+     */
+    void recordDuration(String workIdentity, long durationMillis);
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.plan;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.MemoryAdmission;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
+import org.gradle.process.internal.health.memory.OsMemoryStatusListener;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits tasks of an execution plan only while the memory they need fits into the budget of {@link MemoryAdmission}.
+ *
+ * <p>The memory a task needs is the maximum heap it declares for the JVM it forks, for tasks such as {@code Test} and {@code JavaExec}.
+ * Otherwise, it is learned from previous builds: while a task runs, the growth of the used physical memory of the machine is sampled
+ * from the {@link MemoryManager} and recorded in the {@link TaskMemoryHistory}. When several tasks run together, each of them is
+ * attributed the whole growth, so the estimates err on the side of too much memory.</p>
+ *
+ * <p>The methods that take a node are called by the execution plan while holding the state lock, except for {@link #reportAdmission(Node)}.
+ * They do not access the history, which is a persistent cache: the estimates are looked up by {@link #estimate(List)} when a plan is finalized,
+ * and the measurements are only written by {@link #recordHistory()} once the plan has finished executing. They do not emit progress events either:
+ * admissions are reported by {@link #reportAdmission(Node)} when the node executes.</p>
+ */
+public class TaskMemoryAdmission implements OsMemoryStatusListener, Closeable {
+    private final MemoryAdmission memoryAdmission;
+    private final TaskMemoryHistory history;
+    private final MemoryManager memoryManager;
+    private final Map<Node, NodeLease> leases = new IdentityHashMap<>();
+    // Guarded by this
+    private final Map<Node, Long> estimatedMemoryBytes = new IdentityHashMap<>();
+    // Guarded by this
+    private final Map<Node, MemorySample> samples = new IdentityHashMap<>();
+    // Guarded by this
+    private final List<MeasuredMemory> measuredMemory = new ArrayList<>();
+    // Guarded by this
+    private final Map<Node, MemoryAdmission.Admission> unreportedAdmissions = new IdentityHashMap<>();
+    private long lastUsedMemoryBytes = -1;
+
+    public TaskMemoryAdmission(MemoryAdmission memoryAdmission, TaskMemoryHistory history, MemoryManager memoryManager) {
+        this.memoryAdmission = memoryAdmission;
+        this.history = history;
+        this.memoryManager = memoryManager;
+        if (memoryAdmission.isEnabled()) {
+            memoryManager.addListener(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return memoryAdmission.isEnabled();
+    }
+
+    /**
+     * Looks up the estimated memory of the given nodes that do not declare how much memory they need. Called when the plan is finalized,
+     * before it starts executing. Nodes that are added to the plan later only use the memory they declare.
+     */
+    public void estimate(List<Node> nodes) {
+        Map<Node, Long> estimates = new IdentityHashMap<>();
+        for (Node node : nodes) {
+            if (node instanceof LocalTaskNode && declaredMemoryOf(((LocalTaskNode) node).getTask()) <= 0) {
+                history.getEstimatedMemoryBytes(CriticalPathExecutionOrder.workIdentityOf((LocalTaskNode) node))
+                    .ifPresent(memoryBytes -> estimates.put(node, memoryBytes));
+            }
+        }
+        synchronized (this) {
+            estimatedMemoryBytes.putAll(estimates);
+        }
+    }
+
+    /**
+     * Attempts to lease the memory the given node needs, adding the lease to the given resources when it is acquired.
+     *
+     * @return false when the node does not fit into the memory budget yet.
+     */
+    public boolean tryAdmit(Node node, List<ResourceLock> resources) {
+        if (!(node instanceof LocalTaskNode)) {
+            return true;
+        }
+        NodeLease nodeLease = leases.computeIfAbsent(node, n -> newLease((LocalTaskNode) n));
+        if (nodeLease.lease == null) {
+            return true;
+        }
+        if (!nodeLease.lease.tryLock()) {
+            if (nodeLease.firstRefusedAt == 0) {
+                nodeLease.firstRefusedAt = System.nanoTime();
+            }
+            return false;
+        }
+        resources.add(nodeLease.lease);
+        return true;
+    }
+
+    private NodeLease newLease(LocalTaskNode node) {
+        long declaredMemoryBytes = declaredMemoryOf(node.getTask());
+        long memoryWeightBytes = declaredMemoryBytes > 0
+            ? declaredMemoryBytes
+            : estimatedMemoryOf(node);
+        ResourceLock lease = memoryAdmission.requiresLease(memoryWeightBytes) ? memoryAdmission.newLease(node.toString(), memoryWeightBytes) : null;
+        return new NodeLease(lease, memoryWeightBytes, declaredMemoryBytes > 0);
+    }
+
+    private synchronized long estimatedMemoryOf(Node node) {
+        Long memoryBytes = estimatedMemoryBytes.remove(node);
+        return memoryBytes == null ? 0 : memoryBytes;
+    }
+
+    private static long declaredMemoryOf(TaskInternal task) {
+        if (task instanceof JavaForkOptions) {
+            try {
+                return MemoryAmount.parseNotation(((JavaForkOptions) task).getMaxHeapSize());
+            } catch (IllegalArgumentException e) {
+                // The forked JVM will fail to start, so it does not need any memory
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Called when the given node starts executing, after it has been admitted.
+     */
+    public void started(Node node) {
+        NodeLease nodeLease = leases.get(node);
+        if (nodeLease == null) {
+            return;
+        }
+        MemoryAdmission.Admission admission = null;
+        if (nodeLease.lease != null) {
+            long waitTimeMillis = nodeLease.firstRefusedAt == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nodeLease.firstRefusedAt);
+            admission = memoryAdmission.admitted(node.toString(), nodeLease.memoryWeightBytes, waitTimeMillis);
+        }
+        nodeLease.started = true;
+        synchronized (this) {
+            if (admission != null) {
+                unreportedAdmissions.put(node, admission);
+            }
+            if (!nodeLease.declared) {
+                samples.put(node, new MemorySample(lastUsedMemoryBytes));
+            }
+        }
+    }
+
+    /**
+     * Reports the admission of the given node to the current build operation, if it was admitted against the memory budget.
+     * Called when the node executes, without holding the state lock.
+     */
+    public void reportAdmission(Node node) {
+        MemoryAdmission.Admission admission;
+        synchronized (this) {
+            admission = unreportedAdmissions.remove(node);
+        }
+        if (admission != null) {
+            memoryAdmission.report(admission);
+        }
+    }
+
+    /**
+     * Called when the given node has finished executing. Releases the memory leased by the node.
+     */
+    public void finished(Node node) {
+        NodeLease nodeLease = leases.remove(node);
+        if (nodeLease == null) {
+            return;
+        }
+        if (nodeLease.lease != null) {
+            nodeLease.lease.unlock();
+        }
+        synchronized (this) {
+            unreportedAdmissions.remove(node);
+            MemorySample sample = samples.remove(node);
+            if (sample != null && sample.peakUsedMemoryBytes >= 0 && !node.isFailed()) {
+                measuredMemory.add(new MeasuredMemory(CriticalPathExecutionOrder.workIdentityOf((LocalTaskNode) node), Math.max(0, sample.peakUsedMemoryBytes - sample.usedMemoryBytesAtStart)));
+            }
+        }
+    }
+
+    /**
+     * Called when the given node has completed, whether or not it was executed. Forgets the nodes that complete without being started,
+     * for example because they were cancelled.
+     */
+    public void completed(Node node) {
+        NodeLease nodeLease = leases.get(node);
+        if (nodeLease != null && !nodeLease.started) {
+            leases.remove(node);
+        }
+        synchronized (this) {
+            estimatedMemoryBytes.remove(node);
+        }
+    }
+
+    /**
+     * Writes the memory measured for the nodes that have finished executing to the history. Called when the plan has finished executing,
+     * without holding the state lock.
+     */
+    public void recordHistory() {
+        List<MeasuredMemory> measurements;
+        synchronized (this) {
+            measurements = new ArrayList<>(measuredMemory);
+            measuredMemory.clear();
+        }
+        for (MeasuredMemory measurement : measurements) {
+            history.recordMemory(measurement.workIdentity, measurement.memoryBytes);
+        }
+    }
+
+    @Override
+    public synchronized void onOsMemoryStatus(OsMemoryStatus osMemoryStatus) {
+        lastUsedMemoryBytes = osMemoryStatus.getTotalPhysicalMemory() - osMemoryStatus.getFreePhysicalMemory();
+        for (MemorySample sample : samples.values()) {
+            sample.sample(lastUsedMemoryBytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (memoryAdmission.isEnabled()) {
+            memoryManager.removeListener(this);
+        }
+    }
+
+    private static class NodeLease {
+        @Nullable
+        final ResourceLock lease;
+        final long memoryWeightBytes;
+        final boolean declared;
+        long firstRefusedAt;
+        boolean started;
+
+        NodeLease(@Nullable ResourceLock lease, long memoryWeightBytes, boolean declared) {
+            this.lease = lease;
+            this.memoryWeightBytes = memoryWeightBytes;
+            this.declared = declared;
+        }
+    }
+
+    private static class MeasuredMemory {
+        final String workIdentity;
+        final long memoryBytes;
+
+        MeasuredMemory(String workIdentity, long memoryBytes) {
+            this.workIdentity = workIdentity;
+            this.memoryBytes = memoryBytes;
+        }
+    }
+
+    private static class MemorySample {
+        final long usedMemoryBytesAtStart;
+        long peakUsedMemoryBytes = -1;
+
+        MemorySample(long usedMemoryBytesAtStart) {
+            this.usedMemoryBytesAtStart = usedMemoryBytesAtStart;
+        }
+
+        void sample(long usedMemoryBytes) {
+            if (usedMemoryBytesAtStart >= 0) {
+                peakUsedMemoryBytes = Math.max(peakUsedMemoryBytes, usedMemoryBytes);
+            }
+        }
+    }
+}
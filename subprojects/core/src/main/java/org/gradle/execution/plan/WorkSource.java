@@ -48,6 +48,35 @@ enum State {
         NoMoreWorkToStart
     }
 
+    /**
+     * The reason why an item that is ready to start cannot be started yet.
+     */
+    enum BlockedReason {
+        /**
+         * The item cannot lock the project it belongs to.
+         */
+        ProjectLock,
+        /**
+         * The item cannot lock a shared build service resource it uses.
+         */
+        SharedResource,
+        /**
+         * The item does not fit into the memory budget.
+         */
+        MemoryBudget,
+        /**
+         * The item cannot run at the same time as some item that is running, for example because it destroys or produces outputs of that item.
+         */
+        MutationConflict
+    }
+
+    /**
+     * Receives the items that are ready to start but cannot be started yet, while selecting the next item.
+     */
+    interface SelectionListener<T> {
+        void blocked(T item, BlockedReason reason);
+    }
+
     abstract class Selection<T> {
         private static final Selection<Object> NO_WORK_READY_TO_START = new Selection<Object>() {
             @Override
@@ -185,6 +214,13 @@ public void describeTo(TreeFormatter formatter) {
      */
     Selection<T> selectNext();
 
+    /**
+     * Selects a work item to start, as for {@link #selectNext()}, and notifies the given listener of the items that are ready to start but cannot be started yet.
+     */
+    default Selection<T> selectNext(SelectionListener<? super T> listener) {
+        return selectNext();
+    }
+
     void finishedExecuting(T item, @Nullable Throwable failure);
 
     void abortAllAndFail(Throwable t);
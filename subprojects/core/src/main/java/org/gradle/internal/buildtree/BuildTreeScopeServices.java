@@ -50,6 +50,7 @@
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.internal.service.scopes.Scopes;
+import org.gradle.internal.work.MemoryAdmission;
 
 import java.util.List;
 
@@ -80,6 +81,7 @@ protected void configure(ServiceRegistration registration, List<PluginServiceReg
         registration.add(DeprecationsReporter.class);
         registration.add(TaskPathProjectEvaluator.class);
         registration.add(DefaultFeatureFlags.class);
+        registration.add(MemoryAdmission.class);
         registration.add(DefaultProblemLocationAnalyzer.class);
         registration.add(DefaultExceptionAnalyser.class);
         registration.add(ScriptUsageLocationReporter.class);
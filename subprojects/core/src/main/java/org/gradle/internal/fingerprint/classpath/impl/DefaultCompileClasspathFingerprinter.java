@@ -25,14 +25,29 @@
 import org.gradle.internal.fingerprint.FileNormalizer;
 import org.gradle.internal.fingerprint.classpath.CompileClasspathFingerprinter;
 import org.gradle.internal.fingerprint.impl.AbstractFileCollectionFingerprinter;
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Executor;
 
 public class DefaultCompileClasspathFingerprinter extends AbstractFileCollectionFingerprinter implements CompileClasspathFingerprinter {
     public DefaultCompileClasspathFingerprinter(ResourceSnapshotterCacheService cacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
+        this(cacheService, fileCollectionSnapshotter, stringInterner, null, null);
+    }
+
+    public DefaultCompileClasspathFingerprinter(
+        ResourceSnapshotterCacheService cacheService,
+        FileCollectionSnapshotter fileCollectionSnapshotter,
+        StringInterner stringInterner,
+        @Nullable Executor zipEntryHashingExecutor,
+        @Nullable FileCollectionFingerprintCache fingerprintCache
+    ) {
         super(ClasspathFingerprintingStrategy.compileClasspath(
             new CachingResourceHasher(AbiExtractingClasspathResourceHasher.DEFAULT, cacheService),
             cacheService,
-            stringInterner
-        ), fileCollectionSnapshotter);
+            stringInterner,
+            zipEntryHashingExecutor
+        ), fileCollectionSnapshotter, fingerprintCache);
     }
 
     @Override
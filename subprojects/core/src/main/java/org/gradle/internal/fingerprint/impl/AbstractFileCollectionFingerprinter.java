@@ -35,10 +35,20 @@ public abstract class AbstractFileCollectionFingerprinter implements FileCollect
 
     private final FileCollectionSnapshotter fileCollectionSnapshotter;
     private final FingerprintingStrategy fingerprintingStrategy;
+    @Nullable
+    private final FileCollectionFingerprintCache fingerprintCache;
 
     public AbstractFileCollectionFingerprinter(FingerprintingStrategy fingerprintingStrategy, FileCollectionSnapshotter fileCollectionSnapshotter) {
+        this(fingerprintingStrategy, fileCollectionSnapshotter, null);
+    }
+
+    /**
+     * Creates a fingerprinter that reuses fingerprints from the given cache, if there is one.
+     */
+    public AbstractFileCollectionFingerprinter(FingerprintingStrategy fingerprintingStrategy, FileCollectionSnapshotter fileCollectionSnapshotter, @Nullable FileCollectionFingerprintCache fingerprintCache) {
         this.fingerprintingStrategy = fingerprintingStrategy;
         this.fileCollectionSnapshotter = fileCollectionSnapshotter;
+        this.fingerprintCache = fingerprintCache;
     }
 
     @Override
@@ -49,6 +59,9 @@ public CurrentFileCollectionFingerprint fingerprint(FileCollection files) {
 
     @Override
     public CurrentFileCollectionFingerprint fingerprint(FileSystemSnapshot snapshot, @Nullable FileCollectionFingerprint previousFingerprint) {
+        if (fingerprintCache != null) {
+            return fingerprintCache.fingerprint(snapshot, fingerprintingStrategy, previousFingerprint);
+        }
         return DefaultCurrentFileCollectionFingerprint.from(snapshot, fingerprintingStrategy, previousFingerprint);
     }
 
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.fingerprint.impl;
+
+import com.google.common.collect.ImmutableMultimap;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.execution.history.impl.SerializableFileCollectionFingerprint;
+import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
+import org.gradle.internal.fingerprint.FileCollectionFingerprint;
+import org.gradle.internal.fingerprint.FingerprintingStrategy;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.gradle.internal.snapshot.SnapshotUtil;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Map;
+
+/**
+ * Reuses the fingerprints of file collections across fingerprinters and builds.
+ *
+ * <p>Fingerprints are keyed by the configuration hash of the fingerprinting strategy, which covers the normalizer as well as
+ * the directory and line ending sensitivity, and by the paths and hashes of the snapshot roots.
+ * Only the archived form of a fingerprint is retained, so the cache doesn't keep snapshots alive.</p>
+ *
+ * <p>Hits and misses are counted per thread, so that they can be attributed to the work fingerprinting its inputs on that thread.</p>
+ */
+@ThreadSafe
+@ServiceScope(Scope.Global.class)
+public class FileCollectionFingerprintCache {
+    private final CrossBuildInMemoryCache<HashCode, FileCollectionFingerprint> cache;
+    private final ThreadLocal<long[]> hitsAndMisses = ThreadLocal.withInitial(() -> new long[2]);
+
+    public FileCollectionFingerprintCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache();
+    }
+
+    public CurrentFileCollectionFingerprint fingerprint(FileSystemSnapshot roots, FingerprintingStrategy strategy, @Nullable FileCollectionFingerprint previousFingerprint) {
+        if (roots == FileSystemSnapshot.EMPTY) {
+            return strategy.getEmptyFingerprint();
+        }
+        HashCode key = cacheKey(SnapshotUtil.getRootHashes(roots), strategy);
+        FileCollectionFingerprint cachedFingerprint = cache.getIfPresent(key);
+        long[] statistics = hitsAndMisses.get();
+        if (cachedFingerprint != null) {
+            statistics[0]++;
+            // Still verified against the strategy and the root hashes before being reused
+            return DefaultCurrentFileCollectionFingerprint.from(roots, strategy, cachedFingerprint);
+        }
+        statistics[1]++;
+        CurrentFileCollectionFingerprint fingerprint = DefaultCurrentFileCollectionFingerprint.from(roots, strategy, previousFingerprint);
+        if (!fingerprint.isEmpty()) {
+            cache.put(key, fingerprint.archive(SerializableFileCollectionFingerprint::new));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of fingerprints reused and computed by the current thread so far.
+     */
+    public Statistics getCurrentThreadStatistics() {
+        long[] statistics = hitsAndMisses.get();
+        return new Statistics(statistics[0], statistics[1]);
+    }
+
+    private static HashCode cacheKey(ImmutableMultimap<String, HashCode> rootHashes, FingerprintingStrategy strategy) {
+        Hasher hasher = Hashing.newHasher();
+        hasher.putHash(strategy.getConfigurationHash());
+        // The order of the roots matters for some strategies
+        for (Map.Entry<String, HashCode> rootHash : rootHashes.entries()) {
+            hasher.putString(rootHash.getKey());
+            hasher.putHash(rootHash.getValue());
+        }
+        return hasher.hash();
+    }
+
+    public static class Statistics {
+        public static final Statistics NONE = new Statistics(0, 0);
+
+        private final long hits;
+        private final long misses;
+
+        public Statistics(long hits, long misses) {
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public Statistics since(Statistics earlier) {
+            return new Statistics(hits - earlier.hits, misses - earlier.misses);
+        }
+    }
+}
@@ -32,10 +32,12 @@
 import org.gradle.internal.fingerprint.classpath.impl.DefaultCompileClasspathFingerprinter;
 import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -52,10 +54,12 @@ public FileCollectionFingerprinterRegistrations(
         ResourceSnapshotterCacheService resourceSnapshotterCacheService,
         ResourceFilter resourceFilter,
         ResourceEntryFilter metaInfFilter,
-        Map<String, ResourceEntryFilter> propertiesFileFilters
+        Map<String, ResourceEntryFilter> propertiesFileFilters,
+        @Nullable Executor zipEntryHashingExecutor,
+        FileCollectionFingerprintCache fingerprintCache
         ) {
 
-        List<? extends FileCollectionFingerprinter> insensitiveFingerprinters = insensitiveFingerprinters(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner);
+        List<? extends FileCollectionFingerprinter> insensitiveFingerprinters = insensitiveFingerprinters(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner, zipEntryHashingExecutor, fingerprintCache);
         this.registrants =
             withAllLineEndingSensitivities(lineEndingSensitivity -> {
                 FileSystemLocationSnapshotHasher normalizedContentHasher = normalizedContentHasher(lineEndingSensitivity, resourceSnapshotterCacheService);
@@ -68,7 +72,9 @@ public FileCollectionFingerprinterRegistrations(
                     resourceFilter,
                     metaInfFilter,
                     propertiesFileFilters,
-                    stringInterner
+                    stringInterner,
+                    zipEntryHashingExecutor,
+                    fingerprintCache
                 );
 
                 return withAllDirectorySensitivities(directorySensitivity ->
@@ -80,7 +86,8 @@ public FileCollectionFingerprinterRegistrations(
                                 directorySensitivity,
                                 stringInterner,
                                 fileCollectionSnapshotter,
-                                normalizedContentHasher
+                                normalizedContentHasher,
+                                fingerprintCache
                             ),
                             directoryInsensitiveFingerprinters,
                             insensitiveFingerprinters
@@ -97,12 +104,13 @@ private static List<? extends FileCollectionFingerprinter> fullySensitiveFingerp
         DirectorySensitivity directorySensitivity,
         StringInterner stringInterner,
         FileCollectionSnapshotter fileCollectionSnapshotter,
-        FileSystemLocationSnapshotHasher normalizedContentHasher
+        FileSystemLocationSnapshotHasher normalizedContentHasher,
+        FileCollectionFingerprintCache fingerprintCache
     ) {
         return Lists.newArrayList(
-            new AbsolutePathFileCollectionFingerprinter(directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher),
-            new RelativePathFileCollectionFingerprinter(stringInterner, directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher),
-            new NameOnlyFileCollectionFingerprinter(directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher)
+            new AbsolutePathFileCollectionFingerprinter(directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher, fingerprintCache),
+            new RelativePathFileCollectionFingerprinter(stringInterner, directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher, fingerprintCache),
+            new NameOnlyFileCollectionFingerprinter(directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher, fingerprintCache)
         );
     }
 
@@ -117,10 +125,12 @@ private static List<? extends FileCollectionFingerprinter> directoryInsensitiveF
         ResourceFilter resourceFilter,
         ResourceEntryFilter metaInfFilter,
         Map<String, ResourceEntryFilter> propertiesFileFilters,
-        StringInterner stringInterner
+        StringInterner stringInterner,
+        @Nullable Executor zipEntryHashingExecutor,
+        FileCollectionFingerprintCache fingerprintCache
     ) {
         return Lists.newArrayList(
-            new IgnoredPathFileCollectionFingerprinter(fileCollectionSnapshotter, normalizedContentHasher),
+            new IgnoredPathFileCollectionFingerprinter(fileCollectionSnapshotter, normalizedContentHasher, fingerprintCache),
             new DefaultClasspathFingerprinter(
                 resourceSnapshotterCacheService,
                 fileCollectionSnapshotter,
@@ -128,7 +138,9 @@ private static List<? extends FileCollectionFingerprinter> directoryInsensitiveF
                 metaInfFilter,
                 propertiesFileFilters,
                 stringInterner,
-                lineEndingSensitivity
+                lineEndingSensitivity,
+                zipEntryHashingExecutor,
+                fingerprintCache
             )
         );
     }
@@ -136,9 +148,15 @@ private static List<? extends FileCollectionFingerprinter> directoryInsensitiveF
     /**
      * These fingerprinters do not care about line ending or directory sensitivity at all
      */
-    private static List<? extends FileCollectionFingerprinter> insensitiveFingerprinters(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
+    private static List<? extends FileCollectionFingerprinter> insensitiveFingerprinters(
+        ResourceSnapshotterCacheService resourceSnapshotterCacheService,
+        FileCollectionSnapshotter fileCollectionSnapshotter,
+        StringInterner stringInterner,
+        @Nullable Executor zipEntryHashingExecutor,
+        FileCollectionFingerprintCache fingerprintCache
+    ) {
         return Lists.newArrayList(
-            new DefaultCompileClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner)
+            new DefaultCompileClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner, zipEntryHashingExecutor, fingerprintCache)
         );
     }
 
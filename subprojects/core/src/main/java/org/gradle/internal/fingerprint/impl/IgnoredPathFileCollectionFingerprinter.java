@@ -21,10 +21,16 @@
 import org.gradle.internal.fingerprint.FileNormalizer;
 import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher;
 
+import javax.annotation.Nullable;
+
 public class IgnoredPathFileCollectionFingerprinter extends AbstractFileCollectionFingerprinter {
 
     public IgnoredPathFileCollectionFingerprinter(FileCollectionSnapshotter fileCollectionSnapshotter, FileSystemLocationSnapshotHasher normalizedContentHasher) {
-        super(new IgnoredPathFingerprintingStrategy(normalizedContentHasher), fileCollectionSnapshotter);
+        this(fileCollectionSnapshotter, normalizedContentHasher, null);
+    }
+
+    public IgnoredPathFileCollectionFingerprinter(FileCollectionSnapshotter fileCollectionSnapshotter, FileSystemLocationSnapshotHasher normalizedContentHasher, @Nullable FileCollectionFingerprintCache fingerprintCache) {
+        super(new IgnoredPathFingerprintingStrategy(normalizedContentHasher), fileCollectionSnapshotter, fingerprintCache);
     }
 
     @Override
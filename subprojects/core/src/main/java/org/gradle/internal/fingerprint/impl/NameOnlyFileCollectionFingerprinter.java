@@ -22,10 +22,16 @@
 import org.gradle.internal.fingerprint.FileNormalizer;
 import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher;
 
+import javax.annotation.Nullable;
+
 public class NameOnlyFileCollectionFingerprinter extends AbstractFileCollectionFingerprinter {
 
     public NameOnlyFileCollectionFingerprinter(DirectorySensitivity directorySensitivity, FileCollectionSnapshotter fileCollectionSnapshotter, FileSystemLocationSnapshotHasher normalizedContentHasher) {
-        super(new NameOnlyFingerprintingStrategy(directorySensitivity, normalizedContentHasher), fileCollectionSnapshotter);
+        this(directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher, null);
+    }
+
+    public NameOnlyFileCollectionFingerprinter(DirectorySensitivity directorySensitivity, FileCollectionSnapshotter fileCollectionSnapshotter, FileSystemLocationSnapshotHasher normalizedContentHasher, @Nullable FileCollectionFingerprintCache fingerprintCache) {
+        super(new NameOnlyFingerprintingStrategy(directorySensitivity, normalizedContentHasher), fileCollectionSnapshotter, fingerprintCache);
     }
 
     @Override
@@ -23,10 +23,16 @@
 import org.gradle.internal.fingerprint.FileNormalizer;
 import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher;
 
+import javax.annotation.Nullable;
+
 public class RelativePathFileCollectionFingerprinter extends AbstractFileCollectionFingerprinter {
 
     public RelativePathFileCollectionFingerprinter(StringInterner stringInterner, DirectorySensitivity directorySensitivity, FileCollectionSnapshotter fileCollectionSnapshotter, FileSystemLocationSnapshotHasher normalizedContentHasher) {
-        super(new RelativePathFingerprintingStrategy(stringInterner, directorySensitivity, normalizedContentHasher), fileCollectionSnapshotter);
+        this(stringInterner, directorySensitivity, fileCollectionSnapshotter, normalizedContentHasher, null);
+    }
+
+    public RelativePathFileCollectionFingerprinter(StringInterner stringInterner, DirectorySensitivity directorySensitivity, FileCollectionSnapshotter fileCollectionSnapshotter, FileSystemLocationSnapshotHasher normalizedContentHasher, @Nullable FileCollectionFingerprintCache fingerprintCache) {
+        super(new RelativePathFingerprintingStrategy(stringInterner, directorySensitivity, normalizedContentHasher), fileCollectionSnapshotter, fingerprintCache);
     }
 
     @Override
@@ -60,7 +60,7 @@ public DefaultBuildOperationExecutor(
         );
         this.buildOperationQueueFactory = buildOperationQueueFactory;
         managedExecutors.put(BuildOperationConstraint.MAX_WORKERS, executorFactory.create("Build operations", parallelismConfiguration.getMaxWorkerCount()));
-        managedExecutors.put(BuildOperationConstraint.UNCONSTRAINED, executorFactory.create("Unconstrained build operations", parallelismConfiguration.getMaxWorkerCount() * 10));
+        managedExecutors.put(BuildOperationConstraint.UNCONSTRAINED, executorFactory.createForBlockingWork("Unconstrained build operations", parallelismConfiguration.getMaxWorkerCount() * 10));
     }
 
     @Override
@@ -17,6 +17,7 @@
 package org.gradle.internal.operations;
 
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.VirtualThreads;
 import org.gradle.internal.work.WorkerLeaseService;
 
 import javax.annotation.Nullable;
@@ -215,31 +216,42 @@ private T waitForNextOperation() {
         }
 
         private void runBatch(final T firstOperation) {
+            if (VirtualThreads.isVirtual(Thread.currentThread())) {
+                // Virtual threads are only used for work that mostly blocks on I/O, so do not take one of the worker leases
+                // that limit the CPU bound work. A temporary lease is granted instead, so the work can still acquire locks.
+                int[] operationCount = new int[1];
+                workerLeases.runAsUnmanagedWorkerThread(() -> operationCount[0] = runWithProjectLockPolicy(firstOperation));
+                // Update the pending count after the temporary lease has been released, for the same reason as below.
+                completeOperations(operationCount[0]);
+                return;
+            }
             // We need to update pending count outside of withLocks() so that we don't have a race
             // condition where the pending count is 0, but a child worker lease is still held when
             // the parent lease is released.
             completeOperations(
                 // Run while holding worker lease.
-                workerLeases.runAsWorkerThread(() -> {
-                    if (allowAccessToProjectState) {
-                        return doRunBatch(firstOperation);
-                    } else {
-                        // Disallow this thread from making any changes to the project locks while it is running the work. This implies that this thread will not
-                        // block waiting for access to some other project, which means it can proceed even if some other thread is waiting for a project lock it
-                        // holds without causing a deadlock. This in turn implies that this thread does not need to release the project locks it holds while
-                        // blocking waiting for an operation to complete and does not need to deal with another thread stealing its project lock(s) while blocking.
-                        //
-                        // Eventually, this should become the default and only behaviour for all worker threads and changes to locks made only when starting or
-                        // finishing an execution node. Adding this constraint here means that we can make all build operation queue workers compliant with this
-                        // constraint and then gradually roll this out to other worker threads, such as task action workers.
-                        //
-                        // See {@link ProjectLeaseRegistry#whileDisallowingProjectLockChanges} for more details
-                        return workerLeases.whileDisallowingProjectLockChanges(() -> doRunBatch(firstOperation));
-                    }
-                })
+                workerLeases.runAsWorkerThread(() -> runWithProjectLockPolicy(firstOperation))
             );
         }
 
+        private int runWithProjectLockPolicy(T firstOperation) {
+            if (allowAccessToProjectState) {
+                return doRunBatch(firstOperation);
+            } else {
+                // Disallow this thread from making any changes to the project locks while it is running the work. This implies that this thread will not
+                // block waiting for access to some other project, which means it can proceed even if some other thread is waiting for a project lock it
+                // holds without causing a deadlock. This in turn implies that this thread does not need to release the project locks it holds while
+                // blocking waiting for an operation to complete and does not need to deal with another thread stealing its project lock(s) while blocking.
+                //
+                // Eventually, this should become the default and only behaviour for all worker threads and changes to locks made only when starting or
+                // finishing an execution node. Adding this constraint here means that we can make all build operation queue workers compliant with this
+                // constraint and then gradually roll this out to other worker threads, such as task action workers.
+                //
+                // See {@link ProjectLeaseRegistry#whileDisallowingProjectLockChanges} for more details
+                return workerLeases.whileDisallowingProjectLockChanges(() -> doRunBatch(firstOperation));
+            }
+        }
+
         private int doRunBatch(T firstOperation) {
             int operationCount = 0;
             T operation = firstOperation;
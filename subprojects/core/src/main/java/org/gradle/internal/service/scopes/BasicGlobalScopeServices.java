@@ -35,6 +35,7 @@
 import org.gradle.cache.internal.DefaultProcessMetaDataProvider;
 import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
 import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
+import org.gradle.initialization.GradleUserHomeDirProvider;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -58,6 +59,8 @@
 import org.gradle.process.internal.ExecFactory;
 import org.gradle.process.internal.ExecHandleFactory;
 
+import java.io.File;
+
 /**
  * Defines the basic global services of a given process. This includes the Gradle CLI, daemon and tooling API provider. These services
  * should be as few as possible to keep the CLI startup fast. Global services that are only needed for the process running the build should go in
@@ -77,10 +80,15 @@ FileLockManager createFileLockManager(ProcessEnvironment processEnvironment, Fil
     }
 
 
-    DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
+    DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory, GradleUserHomeDirProvider gradleUserHomeDirProvider) {
+        File lockTableFile = null;
+        if (Boolean.getBoolean(DefaultFileLockContentionHandler.LOCK_TABLE_SYSTEM_PROPERTY)) {
+            lockTableFile = new File(gradleUserHomeDirProvider.getGradleUserHomeDirectory(), "caches/" + DefaultFileLockContentionHandler.LOCK_TABLE_FILE_NAME);
+        }
         return new DefaultFileLockContentionHandler(
             executorFactory,
-            inetAddressFactory);
+            inetAddressFactory,
+            lockTableFile);
     }
 
     ExecutorFactory createExecutorFactory() {
@@ -68,12 +68,16 @@
 import org.gradle.internal.execution.timeout.TimeoutHandler;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.CurrentBuildOperationRef;
 import org.gradle.internal.scopeids.id.BuildInvocationScopeId;
 import org.gradle.internal.vfs.VirtualFileSystem;
 import org.gradle.util.GradleVersion;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.function.Supplier;
 
@@ -131,7 +135,8 @@ public ExecutionEngine createExecutionEngine(
         TimeoutHandler timeoutHandler,
         ValidateStep.ValidationWarningRecorder validationWarningRecorder,
         VirtualFileSystem virtualFileSystem,
-        DocumentationRegistry documentationRegistry
+        DocumentationRegistry documentationRegistry,
+        StreamHasher streamHasher
     ) {
         Supplier<OutputsCleaner> skipEmptyWorkOutputsCleanerSupplier = () -> new OutputsCleaner(deleter, buildOutputCleanupRegistry::isOutputOwnedByBuild, buildOutputCleanupRegistry::isOutputOwnedByBuild);
         // @formatter:off
@@ -146,7 +151,7 @@ public ExecutionEngine createExecutionEngine(
             new SkipEmptyWorkStep(outputChangeListener, workInputListeners, skipEmptyWorkOutputsCleanerSupplier,
             new CaptureStateBeforeExecutionStep<>(buildOperationExecutor, classLoaderHierarchyHasher, outputSnapshotter, overlappingOutputDetector,
             new ValidateStep<>(virtualFileSystem, validationWarningRecorder,
-            new ResolveCachingStateStep<>(buildCacheController, gradleEnterprisePluginManager.isPresent(),
+            new ResolveCachingStateStep<>(buildCacheController, gradleEnterprisePluginManager.isPresent(), cacheKeySalt(streamHasher),
             new MarkSnapshottingInputsFinishedStep<>(
             new ResolveChangesStep<>(changeDetector,
             new SkipUpToDateStep<>(
@@ -163,4 +168,15 @@ public ExecutionEngine createExecutionEngine(
         )))))))))))))))))))))))));
         // @formatter:on
     }
+
+    /**
+     * Separates the build cache keys of builds hashing file content in a non-default way, as their input fingerprints differ.
+     */
+    @Nullable
+    private static HashCode cacheKeySalt(StreamHasher streamHasher) {
+        String variant = streamHasher.getVariant();
+        return variant == null
+            ? null
+            : Hashing.signature("CONTENT_HASH:" + variant);
+    }
 }
@@ -50,6 +50,7 @@
 import org.gradle.execution.plan.LocalTaskNodeExecutor;
 import org.gradle.execution.plan.NodeExecutor;
 import org.gradle.execution.plan.PlanExecutor;
+import org.gradle.execution.plan.TaskMemoryAdmission;
 import org.gradle.execution.plan.WorkNodeExecutor;
 import org.gradle.execution.selection.BuildTaskSelector;
 import org.gradle.execution.taskgraph.DefaultTaskExecutionGraph;
@@ -116,8 +117,8 @@ ProjectFinder createProjectFinder(final GradleInternal gradle) {
         return new DefaultProjectFinder(gradle::getRootProject);
     }
 
-    LocalTaskNodeExecutor createLocalTaskNodeExecutor() {
-        return new LocalTaskNodeExecutor();
+    LocalTaskNodeExecutor createLocalTaskNodeExecutor(TaskMemoryAdmission memoryAdmission) {
+        return new LocalTaskNodeExecutor(memoryAdmission);
     }
 
     WorkNodeExecutor createWorkNodeExecutor() {
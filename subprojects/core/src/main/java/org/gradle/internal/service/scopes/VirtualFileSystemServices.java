@@ -34,11 +34,14 @@
 import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheService;
 import org.gradle.api.internal.changedetection.state.SplitFileHasher;
 import org.gradle.api.internal.changedetection.state.SplitResourceSnapshotterCacheService;
+import org.gradle.api.internal.changedetection.state.ZipEntryHashingPool;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
 import org.gradle.cache.GlobalCacheLocations;
 import org.gradle.cache.IndexedCache;
+import org.gradle.cache.IndexedCacheEngine;
 import org.gradle.cache.IndexedCacheParameters;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.scopes.BuildTreeScopedCacheBuilderFactory;
 import org.gradle.cache.scopes.GlobalScopedCacheBuilderFactory;
@@ -47,6 +50,7 @@
 import org.gradle.internal.buildoption.IntegerInternalOption;
 import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
 import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.FileCollectionFingerprinterRegistry;
@@ -64,6 +68,7 @@
 import org.gradle.internal.fingerprint.classpath.ClasspathFingerprinter;
 import org.gradle.internal.fingerprint.classpath.impl.DefaultClasspathFingerprinter;
 import org.gradle.internal.fingerprint.impl.DefaultFileCollectionSnapshotter;
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache;
 import org.gradle.internal.fingerprint.impl.FileCollectionFingerprinterRegistrations;
 import org.gradle.internal.hash.DefaultFileHasher;
 import org.gradle.internal.hash.FileHasher;
@@ -78,11 +83,15 @@
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.snapshot.ValueSnapshotter;
 import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
+import org.gradle.internal.snapshot.impl.ParallelSnapshottingPool;
 import org.gradle.internal.vfs.FileSystemAccess;
 import org.gradle.internal.vfs.VirtualFileSystem;
+import org.gradle.internal.vfs.VirtualFileSystemStatistics;
+import org.gradle.internal.vfs.impl.CompactSnapshotHierarchy;
 import org.gradle.internal.vfs.impl.DefaultFileSystemAccess;
 import org.gradle.internal.vfs.impl.DefaultSnapshotHierarchy;
 import org.gradle.internal.watch.registry.FileWatcherRegistryFactory;
+import org.gradle.internal.watch.registry.WatchBudgetUsage;
 import org.gradle.internal.watch.registry.impl.DarwinFileWatcherRegistryFactory;
 import org.gradle.internal.watch.registry.impl.LinuxFileWatcherRegistryFactory;
 import org.gradle.internal.watch.registry.impl.WindowsFileWatcherRegistryFactory;
@@ -96,6 +105,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -116,15 +126,82 @@ public class VirtualFileSystemServices extends AbstractPluginServiceRegistry {
     private static final int DEFAULT_MAX_HIERARCHIES_TO_WATCH = 50;
     public static final IntegerInternalOption MAX_HIERARCHIES_TO_WATCH_PROPERTY = new IntegerInternalOption("org.gradle.vfs.watch.hierarchies.max", DEFAULT_MAX_HIERARCHIES_TO_WATCH);
     private static final int FILE_HASHER_MEMORY_CACHE_SIZE = 400000;
+    /**
+     * Snapshot directories and hash the files in them in parallel.
+     */
+    public static final String PARALLEL_SNAPSHOTTING_PROPERTY = "org.gradle.vfs.snapshot.parallel";
+    /**
+     * Hash the entries of jars on classpaths in parallel, and cache the entry hashes across jars.
+     */
+    public static final String PARALLEL_ZIP_HASHING_PROPERTY = "org.gradle.normalization.zip.parallel";
+    /**
+     * Snapshot directories by listing the entries of each directory together with their metadata via the native file system integration,
+     * instead of walking them via the JDK.
+     */
+    public static final String BULK_DIRECTORY_LISTING_PROPERTY = "org.gradle.vfs.snapshot.bulk-listing";
+    /**
+     * Store the hashes of resources in jars on classpaths in a log-structured cache instead of a B-tree.
+     */
+    public static final String LOG_STRUCTURED_RESOURCE_HASHES_PROPERTY = "org.gradle.normalization.resource-hashes.log-structured";
+    /**
+     * Keep the VFS of the root build in the project cache directory between builds, so a new daemon doesn't start with an empty VFS.
+     */
+    public static final InternalFlag VFS_PERSIST_PROPERTY = new InternalFlag("org.gradle.vfs.persist");
+    /**
+     * Keep the directory trees in the VFS in a compact representation, trading heap for the cost of recreating snapshots on access.
+     */
+    public static final String COMPACT_VFS_PROPERTY = "org.gradle.vfs.compact";
+    /**
+     * The maximum number of directories to watch on Linux, where each watched directory uses one of the inotify watches available to the user.
+     * Not limited by default, a negative value removes the limit.
+     */
+    public static final IntegerInternalOption MAX_WATCHED_DIRECTORIES_PROPERTY = new IntegerInternalOption("org.gradle.vfs.watch.directories.max", WatchBudgetUsage.NO_WATCH_BUDGET);
+    /**
+     * A file to write the statistics of the virtual file system to as JSON at the end of each build, resolved relative to the current directory of the build.
+     */
+    public static final StringInternalOption STATISTICS_FILE_PROPERTY = new StringInternalOption("org.gradle.vfs.statistics.file", "");
 
     public static boolean isDropVfs(InternalOptions options) {
         return options.getOption(VFS_DROP_PROPERTY).get();
     }
 
+    public static boolean isPersistVfs(InternalOptions options) {
+        return options.getOption(VFS_PERSIST_PROPERTY).get();
+    }
+
     public static int getMaximumNumberOfWatchedHierarchies(InternalOptions options) {
         return options.getOption(MAX_HIERARCHIES_TO_WATCH_PROPERTY).get();
     }
 
+    public static int getWatchBudget(InternalOptions options) {
+        return Math.max(options.getOption(MAX_WATCHED_DIRECTORIES_PROPERTY).get(), WatchBudgetUsage.NO_WATCH_BUDGET);
+    }
+
+    @Nullable
+    public static String getStatisticsFile(InternalOptions options) {
+        String statisticsFile = options.getOption(STATISTICS_FILE_PROPERTY).get();
+        return statisticsFile.isEmpty() ? null : statisticsFile;
+    }
+
+    /**
+     * Returns the name of an indexed cache keyed or valued by file content hashes, so hashes calculated with different functions are never mixed.
+     */
+    public static String contentHashCacheName(String name, StreamHasher streamHasher) {
+        String variant = streamHasher.getVariant();
+        return variant == null ? name : name + "-" + variant;
+    }
+
+    private static IndexedCacheParameters<HashCode, HashCode> resourceHashesCacheParameters(StreamHasher streamHasher) {
+        IndexedCacheParameters<HashCode, HashCode> parameters = IndexedCacheParameters.of(contentHashCacheName("resourceHashesCache", streamHasher), HashCode.class, new HashCodeSerializer());
+        return Boolean.getBoolean(LOG_STRUCTURED_RESOURCE_HASHES_PROPERTY) ? parameters.withEngine(IndexedCacheEngine.LOG_STRUCTURED) : parameters;
+    }
+
+    private static FileHasher createContentHasher(StreamHasher streamHasher) {
+        // Mapped files can't be deleted on Windows until the mapping is garbage collected
+        long mappedReadThreshold = OperatingSystem.current().isWindows() ? Long.MAX_VALUE : DefaultFileHasher.DEFAULT_MAPPED_READ_THRESHOLD;
+        return new DefaultFileHasher(streamHasher, mappedReadThreshold);
+    }
+
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.addProvider(new GlobalScopeServices());
@@ -148,6 +225,22 @@ FileHasherStatistics.Collector createCachingFileHasherStatisticsCollector() {
         DirectorySnapshotterStatistics.Collector createDirectorySnapshotterStatisticsCollector() {
             return new DirectorySnapshotterStatistics.Collector();
         }
+
+        VirtualFileSystemStatistics.Collector createVirtualFileSystemStatisticsCollector() {
+            return new VirtualFileSystemStatistics.Collector();
+        }
+
+        ParallelSnapshottingPool createParallelSnapshottingPool() {
+            return new ParallelSnapshottingPool(Boolean.getBoolean(PARALLEL_SNAPSHOTTING_PROPERTY));
+        }
+
+        ZipEntryHashingPool createZipEntryHashingPool() {
+            return new ZipEntryHashingPool(Boolean.getBoolean(PARALLEL_ZIP_HASHING_PROPERTY));
+        }
+
+        FileCollectionFingerprintCache createFileCollectionFingerprintCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+            return new FileCollectionFingerprintCache(cacheFactory);
+        }
     }
 
     @VisibleForTesting
@@ -165,7 +258,7 @@ FileHasher createCachingFileHasher(
             StreamHasher streamHasher,
             StringInterner stringInterner
         ) {
-            CachingFileHasher fileHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher fileHasher = new CachingFileHasher(createContentHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, contentHashCacheName("fileHashes", streamHasher), fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             fileTimeStampInspector.attach(fileHasher);
             return fileHasher;
         }
@@ -198,10 +291,14 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
             FileChangeListeners fileChangeListeners,
             FileSystem fileSystem,
             GlobalCacheLocations globalCacheLocations,
-            WatchableFileSystemDetector watchableFileSystemDetector
+            WatchableFileSystemDetector watchableFileSystemDetector,
+            StringInterner stringInterner,
+            VirtualFileSystemStatistics.Collector vfsStatisticsCollector
         ) {
             CaseSensitivity caseSensitivity = fileSystem.isCaseSensitive() ? CASE_SENSITIVE : CASE_INSENSITIVE;
-            SnapshotHierarchy root = DefaultSnapshotHierarchy.empty(caseSensitivity);
+            SnapshotHierarchy root = Boolean.getBoolean(COMPACT_VFS_PROPERTY)
+                ? CompactSnapshotHierarchy.empty(caseSensitivity, stringInterner)
+                : DefaultSnapshotHierarchy.empty(caseSensitivity);
             // All the changes in global caches should be done by Gradle itself, so in order
             // to minimize the number of watches we don't watch anything within the global caches.
             Predicate<String> watchFilter = path -> !globalCacheLocations.isInsideGlobalCache(path);
@@ -216,7 +313,8 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
                     sectionId -> documentationRegistry.getDocumentationFor("gradle_daemon", sectionId),
                     locationsWrittenByCurrentBuild,
                     watchableFileSystemDetector,
-                    fileChangeListeners
+                    fileChangeListeners,
+                    vfsStatisticsCollector
                 ))
                 .orElse(new WatchingNotSupportedVirtualFileSystem(root));
             listenerManager.addListener((BuildAddedListener) buildState -> {
@@ -234,7 +332,10 @@ FileSystemAccess createFileSystemAccess(
             StringInterner stringInterner,
             FileSystemAccess.WriteListener writeListener,
             DirectorySnapshotterStatistics.Collector statisticsCollector,
-            ListenerManager listenerManager
+            VirtualFileSystemStatistics.Collector vfsStatisticsCollector,
+            ParallelSnapshottingPool parallelSnapshottingPool,
+            ListenerManager listenerManager,
+            FileSystem fileSystem
         ) {
             DefaultFileSystemAccess defaultFileSystemAccess = new DefaultFileSystemAccess(
                 hasher,
@@ -243,6 +344,9 @@ FileSystemAccess createFileSystemAccess(
                 virtualFileSystem,
                 writeListener,
                 statisticsCollector,
+                vfsStatisticsCollector,
+                parallelSnapshottingPool.getPool(),
+                Boolean.getBoolean(BULK_DIRECTORY_LISTING_PROPERTY) ? fileSystem : null,
                 DirectoryScanner.getDefaultExcludes()
             );
             listenerManager.addListener(defaultFileSystemAccess);
@@ -275,16 +379,29 @@ FileCollectionSnapshotter createFileCollectionSnapshotter(FileSystemAccess fileS
             return new DefaultFileCollectionSnapshotter(fileSystemAccess, stat);
         }
 
-        ResourceSnapshotterCacheService createResourceSnapshotterCacheService(CrossBuildFileHashCache store) {
-            IndexedCache<HashCode, HashCode> resourceHashesCache = store.createIndexedCache(
-                IndexedCacheParameters.of("resourceHashesCache", HashCode.class, new HashCodeSerializer()),
-                400000,
-                true);
+        ResourceSnapshotterCacheService createResourceSnapshotterCacheService(CrossBuildFileHashCache store, StreamHasher streamHasher) {
+            IndexedCache<HashCode, HashCode> resourceHashesCache = store.createIndexedCache(resourceHashesCacheParameters(streamHasher), 400000, true);
             return new DefaultResourceSnapshotterCacheService(resourceHashesCache);
         }
 
-        ClasspathFingerprinter createClasspathFingerprinter(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
-            return new DefaultClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, ResourceFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING, PropertiesFileFilter.FILTER_NOTHING, stringInterner, LineEndingSensitivity.DEFAULT);
+        ClasspathFingerprinter createClasspathFingerprinter(
+            ResourceSnapshotterCacheService resourceSnapshotterCacheService,
+            FileCollectionSnapshotter fileCollectionSnapshotter,
+            StringInterner stringInterner,
+            ZipEntryHashingPool zipEntryHashingPool,
+            FileCollectionFingerprintCache fingerprintCache
+        ) {
+            return new DefaultClasspathFingerprinter(
+                resourceSnapshotterCacheService,
+                fileCollectionSnapshotter,
+                ResourceFilter.FILTER_NOTHING,
+                ResourceEntryFilter.FILTER_NOTHING,
+                PropertiesFileFilter.FILTER_NOTHING,
+                stringInterner,
+                LineEndingSensitivity.DEFAULT,
+                zipEntryHashingPool.getExecutor(),
+                fingerprintCache
+            );
         }
 
         ClasspathHasher createClasspathHasher(ClasspathFingerprinter fingerprinter, FileCollectionFactory fileCollectionFactory) {
@@ -318,7 +435,7 @@ FileHasher createFileHasher(
             StringInterner stringInterner,
             FileHasherStatistics.Collector statisticsCollector
         ) {
-            CachingFileHasher localHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher localHasher = new CachingFileHasher(createContentHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, contentHashCacheName("fileHashes", streamHasher), fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             return new SplitFileHasher(globalHasher, localHasher, globalCacheLocations);
         }
 
@@ -329,7 +446,10 @@ FileSystemAccess createFileSystemAccess(
             StringInterner stringInterner,
             VirtualFileSystem root,
             FileSystemAccess.WriteListener writeListener,
-            DirectorySnapshotterStatistics.Collector statisticsCollector
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            VirtualFileSystemStatistics.Collector vfsStatisticsCollector,
+            ParallelSnapshottingPool parallelSnapshottingPool,
+            FileSystem fileSystem
         ) {
             DefaultFileSystemAccess buildSessionsScopedVirtualFileSystem = new DefaultFileSystemAccess(
                 hasher,
@@ -338,6 +458,9 @@ FileSystemAccess createFileSystemAccess(
                 root,
                 writeListener,
                 statisticsCollector,
+                vfsStatisticsCollector,
+                parallelSnapshottingPool.getPool(),
+                Boolean.getBoolean(BULK_DIRECTORY_LISTING_PROPERTY) ? fileSystem : null,
                 DirectoryScanner.getDefaultExcludes()
             );
 
@@ -359,7 +482,9 @@ OutputSnapshotter createOutputSnapshotter(FileCollectionSnapshotter fileCollecti
         FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegistrations(
             StringInterner stringInterner,
             FileCollectionSnapshotter fileCollectionSnapshotter,
-            ResourceSnapshotterCacheService resourceSnapshotterCacheService
+            ResourceSnapshotterCacheService resourceSnapshotterCacheService,
+            ZipEntryHashingPool zipEntryHashingPool,
+            FileCollectionFingerprintCache fingerprintCache
         ) {
             return new FileCollectionFingerprinterRegistrations(
                 stringInterner,
@@ -367,7 +492,9 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
                 resourceSnapshotterCacheService,
                 ResourceFilter.FILTER_NOTHING,
                 ResourceEntryFilter.FILTER_NOTHING,
-                PropertiesFileFilter.FILTER_NOTHING
+                PropertiesFileFilter.FILTER_NOTHING,
+                zipEntryHashingPool.getExecutor(),
+                fingerprintCache
             );
         }
 
@@ -386,9 +513,10 @@ InputFingerprinter createInputFingerprinter(
         ResourceSnapshotterCacheService createResourceSnapshotterCacheService(
             GlobalCacheLocations globalCacheLocations,
             CrossBuildFileHashCache store,
+            StreamHasher streamHasher,
             ResourceSnapshotterCacheService globalCache
         ) {
-            IndexedCache<HashCode, HashCode> resourceHashesCache = store.createIndexedCache(IndexedCacheParameters.of("resourceHashesCache", HashCode.class, new HashCodeSerializer()), 800000, true);
+            IndexedCache<HashCode, HashCode> resourceHashesCache = store.createIndexedCache(resourceHashesCacheParameters(streamHasher), 800000, true);
             DefaultResourceSnapshotterCacheService localCache = new DefaultResourceSnapshotterCacheService(resourceHashesCache);
             return new SplitResourceSnapshotterCacheService(globalCache, localCache, globalCacheLocations);
         }
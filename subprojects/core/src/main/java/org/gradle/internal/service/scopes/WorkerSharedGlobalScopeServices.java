@@ -39,6 +39,8 @@
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.impl.DefaultDeleter;
 import org.gradle.internal.hash.DefaultStreamHasher;
+import org.gradle.internal.hash.HashFunction;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.instantiation.InstantiatorFactory;
 import org.gradle.internal.logging.events.OutputEventListener;
@@ -66,6 +68,17 @@
 import static org.gradle.api.internal.provider.ManagedFactories.SetPropertyManagedFactory;
 
 public class WorkerSharedGlobalScopeServices extends BasicGlobalScopeServices {
+    /**
+     * When set, file content is hashed with XXH128 instead of MD5.
+     * File hashes are stored in caches separate from the MD5 based ones, and build cache keys differ from the ones calculated with MD5.
+     */
+    public static final String FAST_CONTENT_HASHING_PROPERTY = "org.gradle.internal.hash.content.fast";
+    /**
+     * When set, file content is hashed as a sequence of chunks, so the chunks of large files can be hashed in parallel.
+     * Like with {@link #FAST_CONTENT_HASHING_PROPERTY}, the resulting hashes are kept apart from the default ones.
+     */
+    public static final String TREE_CONTENT_HASHING_PROPERTY = "org.gradle.internal.hash.content.tree";
+    private static final int TREE_HASH_CHUNK_SIZE = 64 * 1024 * 1024;
 
     protected CacheFactory createCacheFactory(FileLockManager fileLockManager, ExecutorFactory executorFactory, ProgressLoggerFactory progressLoggerFactory) {
         return new DefaultCacheFactory(fileLockManager, executorFactory, progressLoggerFactory);
@@ -103,8 +116,12 @@ DefaultFilePropertyFactory createFilePropertyFactory(PropertyHost propertyHost,
         return new DefaultFilePropertyFactory(propertyHost, fileResolver, fileCollectionFactory);
     }
 
-    StreamHasher createStreamHasher() {
-        return new DefaultStreamHasher();
+    StreamHasher createStreamHasher(ExecutorFactory executorFactory) {
+        HashFunction hashFunction = Boolean.getBoolean(FAST_CONTENT_HASHING_PROPERTY) ? Hashing.xxh128() : Hashing.defaultFunction();
+        if (Boolean.getBoolean(TREE_CONTENT_HASHING_PROPERTY)) {
+            return new DefaultStreamHasher(hashFunction, TREE_HASH_CHUNK_SIZE, executorFactory.create("File content hasher", Runtime.getRuntime().availableProcessors()));
+        }
+        return new DefaultStreamHasher(hashFunction);
     }
 
     Deleter createDeleter(Clock clock, FileSystem fileSystem, OperatingSystem os) {
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.work;
+
+import org.gradle.internal.Factory;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
+import org.gradle.internal.operations.BuildOperationProgressEventEmitter;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.resources.MemoryLeaseRegistry;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.service.scopes.Scopes;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.OsMemoryInfo;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the total memory needed by work that runs concurrently in the build tree, when memory aware scheduling is enabled.
+ *
+ * <p>Work that needs a significant amount of memory takes a lease for that amount before it starts, and waits while the lease would
+ * exceed the budget. This applies to tasks in the execution plan and to work items that run in worker daemons. The budget defaults to the
+ * physical memory of the machine minus the maximum heap of this process.</p>
+ *
+ * <p>Work that is started by work which already holds a lease, such as the work items submitted by a task, runs under the lease of its parent.
+ * Otherwise, the parent could wait for work that cannot be admitted until the parent completes.</p>
+ */
+@ServiceScope(Scopes.BuildTree.class)
+public class MemoryAdmission {
+    /**
+     * When enabled, tasks and worker daemon work items only start while the memory they need fits into the memory budget.
+     */
+    public static final InternalFlag MEMORY_AWARE_SCHEDULING = new InternalFlag("org.gradle.internal.scheduling.memory-aware");
+    /**
+     * Overrides the memory budget used by memory aware scheduling, for example {@code 48g}.
+     */
+    public static final StringInternalOption MEMORY_BUDGET = new StringInternalOption("org.gradle.internal.scheduling.memory-budget", "");
+    /**
+     * Work that needs less memory than this is always admitted, as it does not put the machine at risk on its own.
+     */
+    public static final long SIGNIFICANT_MEMORY_BYTES = 128 * 1024 * 1024;
+
+    private final MemoryLeaseRegistry leaseRegistry;
+    private final ResourceLockCoordinationService coordinationService;
+    private final WorkerLeaseService workerLeaseService;
+    private final BuildOperationProgressEventEmitter progressEventEmitter;
+    private final Clock clock;
+    private final boolean enabled;
+
+    public MemoryAdmission(
+        InternalOptions options,
+        OsMemoryInfo osMemoryInfo,
+        ResourceLockCoordinationService coordinationService,
+        WorkerLeaseService workerLeaseService,
+        BuildOperationProgressEventEmitter progressEventEmitter,
+        Clock clock
+    ) {
+        long budgetBytes = options.getOption(MEMORY_AWARE_SCHEDULING).get() ? budgetFrom(options.getOption(MEMORY_BUDGET).get(), osMemoryInfo) : -1;
+        this.enabled = budgetBytes > 0;
+        this.leaseRegistry = new MemoryLeaseRegistry(coordinationService, budgetBytes);
+        this.coordinationService = coordinationService;
+        this.workerLeaseService = workerLeaseService;
+        this.progressEventEmitter = progressEventEmitter;
+        this.clock = clock;
+    }
+
+    private static long budgetFrom(String configuredBudget, OsMemoryInfo osMemoryInfo) {
+        if (!configuredBudget.isEmpty()) {
+            return MemoryAmount.parseNotation(configuredBudget);
+        }
+        try {
+            return osMemoryInfo.getOsSnapshot().getTotalPhysicalMemory() - Runtime.getRuntime().maxMemory();
+        } catch (UnsupportedOperationException e) {
+            // Cannot determine how much memory there is, so cannot derive a budget
+            return -1;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns true when work that needs the given amount of memory must take a lease before it starts.
+     */
+    public boolean requiresLease(long memoryWeightBytes) {
+        return enabled && memoryWeightBytes >= SIGNIFICANT_MEMORY_BYTES;
+    }
+
+    /**
+     * Creates a lease for the given amount of memory. The work is admitted once the lease has been locked.
+     */
+    public ResourceLock newLease(String workDisplayName, long memoryWeightBytes) {
+        return leaseRegistry.newMemoryLease(workDisplayName, memoryWeightBytes);
+    }
+
+    /**
+     * Returns true when the current thread holds a memory lease.
+     */
+    public boolean holdsLease() {
+        return leaseRegistry.holdsLock();
+    }
+
+    /**
+     * Runs the given action once the memory it needs fits into the budget. The worker lease of the current thread is released while waiting.
+     *
+     * @param parentOperation the operation that started the work, which the admission is reported to.
+     */
+    public <T> T whileAdmitted(String workDisplayName, long memoryWeightBytes, BuildOperationRef parentOperation, Factory<T> action) {
+        if (!requiresLease(memoryWeightBytes)) {
+            return action.create();
+        }
+        long startTime = System.nanoTime();
+        return workerLeaseService.withLocks(Collections.singletonList(newLease(workDisplayName, memoryWeightBytes)), () -> {
+            long waitTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            Admission admission = coordinationService.withStateLock(() -> admitted(workDisplayName, memoryWeightBytes, waitTimeMillis));
+            progressEventEmitter.emit(parentOperation.getId(), admission.timestamp, admission.details);
+            return action.create();
+        });
+    }
+
+    /**
+     * Records that the given work was admitted. Should be called while holding the state lock, after locking the lease of the work.
+     * The admission is reported with {@link #report(Admission)} once the state lock has been released.
+     */
+    public Admission admitted(String workDisplayName, long memoryWeightBytes, long waitTimeMillis) {
+        return new Admission(clock.getCurrentTime(), detailsFor(workDisplayName, memoryWeightBytes, waitTimeMillis));
+    }
+
+    /**
+     * Reports the given admission to the current build operation, if any. Should be called without holding the state lock.
+     */
+    public void report(Admission admission) {
+        progressEventEmitter.emitIfCurrent(admission.timestamp, admission.details);
+    }
+
+    private MemoryAdmissionProgressDetails detailsFor(String workDisplayName, long memoryWeightBytes, long waitTimeMillis) {
+        return new DefaultMemoryAdmissionProgressDetails(
+            workDisplayName,
+            memoryWeightBytes,
+            leaseRegistry.getLeasedBytes() - memoryWeightBytes,
+            leaseRegistry.getBudgetBytes(),
+            waitTimeMillis
+        );
+    }
+
+    /**
+     * The admission of some work, recorded while holding the state lock.
+     */
+    public static class Admission {
+        private final long timestamp;
+        private final MemoryAdmissionProgressDetails details;
+
+        private Admission(long timestamp, MemoryAdmissionProgressDetails details) {
+            this.timestamp = timestamp;
+            this.details = details;
+        }
+    }
+
+    private static class DefaultMemoryAdmissionProgressDetails implements MemoryAdmissionProgressDetails {
+        private final String workDisplayName;
+        private final long memoryWeightBytes;
+        private final long leasedMemoryBytes;
+        private final long memoryBudgetBytes;
+        private final long waitTimeMillis;
+
+        DefaultMemoryAdmissionProgressDetails(String workDisplayName, long memoryWeightBytes, long leasedMemoryBytes, long memoryBudgetBytes, long waitTimeMillis) {
+            this.workDisplayName = workDisplayName;
+            this.memoryWeightBytes = memoryWeightBytes;
+            this.leasedMemoryBytes = leasedMemoryBytes;
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            this.waitTimeMillis = waitTimeMillis;
+        }
+
+        @Override
+        public String getWorkDisplayName() {
+            return workDisplayName;
+        }
+
+        @Override
+        public long getMemoryWeightBytes() {
+            return memoryWeightBytes;
+        }
+
+        @Override
+        public long getLeasedMemoryBytes() {
+            return leasedMemoryBytes;
+        }
+
+        @Override
+        public long getMemoryBudgetBytes() {
+            return memoryBudgetBytes;
+        }
+
+        @Override
+        public long getWaitTimeMillis() {
+            return waitTimeMillis;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.work;
+
+/**
+ * Describes the admission of work that needs a significant amount of memory, when memory aware scheduling is enabled.
+ *
+ * <p>Emitted as a progress event of the build operation that started the work.</p>
+ *
+ * @see MemoryAdmission
+ */
+public interface MemoryAdmissionProgressDetails {
+    String getWorkDisplayName();
+
+    /**
+     * The amount of memory the work is expected to need, in bytes.
+     */
+    long getMemoryWeightBytes();
+
+    /**
+     * The amount of memory leased by other running work when this work was admitted, in bytes.
+     */
+    long getLeasedMemoryBytes();
+
+    /**
+     * The total amount of memory that running work may lease, in bytes.
+     */
+    long getMemoryBudgetBytes();
+
+    /**
+     * How long the work waited for memory to become available before it was admitted, in milliseconds.
+     */
+    long getWaitTimeMillis();
+}
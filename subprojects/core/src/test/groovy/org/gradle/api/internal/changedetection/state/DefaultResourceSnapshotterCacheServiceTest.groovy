@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.changedetection.state
 
+import org.gradle.api.internal.file.archive.ZipEntry
 import org.gradle.internal.file.FileMetadata
 import org.gradle.internal.file.impl.DefaultFileMetadata
 import org.gradle.internal.fingerprint.hashing.ResourceHasher
@@ -78,6 +79,61 @@ class DefaultResourceSnapshotterCacheServiceTest extends Specification {
         0 * _
     }
 
+    def "caches zip entry hashes by name, CRC and size"() {
+        def expectedHash = TestHashCodes.hashCodeFrom(123)
+        def entryContext = zipEntryContext("org/gradle/Foo.class", 42, 100, "first.jar")
+        def sameEntryInOtherJar = zipEntryContext("org/gradle/Foo.class", 42, 100, "second.jar")
+
+        when:
+        def actualHash = snapshotterCache.hashZipEntry(entryContext, delegate, configurationHash)
+        then:
+        1 * delegate.hash(entryContext) >> expectedHash
+        actualHash == expectedHash
+        0 * delegate._
+
+        when:
+        actualHash = snapshotterCache.hashZipEntry(sameEntryInOtherJar, delegate, configurationHash)
+        then:
+        actualHash == expectedHash
+        0 * delegate._
+    }
+
+    def "does not reuse zip entry hashes for different entries"() {
+        def entryContext = zipEntryContext("org/gradle/Foo.class", 42, 100, "first.jar")
+        def otherEntryContext = zipEntryContext(name, crc, size, "first.jar")
+        snapshotterCache.hashZipEntry(entryContext, delegate, configurationHash)
+
+        when:
+        snapshotterCache.hashZipEntry(otherEntryContext, delegate, configurationHash)
+        then:
+        1 * delegate.hash(otherEntryContext) >> TestHashCodes.hashCodeFrom(1)
+
+        where:
+        name                   | crc | size
+        "org/gradle/Bar.class" | 42  | 100
+        "org/gradle/Foo.class" | 43  | 100
+        "org/gradle/Foo.class" | 42  | 101
+    }
+
+    def "does not cache zip entries without CRC"() {
+        def entryContext = zipEntryContext("org/gradle/Foo.class", -1, 100, "first.jar")
+
+        when:
+        snapshotterCache.hashZipEntry(entryContext, delegate, configurationHash)
+        snapshotterCache.hashZipEntry(entryContext, delegate, configurationHash)
+        then:
+        2 * delegate.hash(entryContext) >> TestHashCodes.hashCodeFrom(1)
+    }
+
+    private DefaultZipEntryContext zipEntryContext(String name, long crc, int size, String jar) {
+        def entry = Stub(ZipEntry) {
+            getName() >> name
+            getCrc() >> crc
+            size() >> size
+        }
+        return new DefaultZipEntryContext(entry, name, jar)
+    }
+
     private HashCode getConfigurationHash() {
         def hasher = Hashing.newHasher()
         hasher.putString(delegate.getClass().getName())
@@ -45,6 +45,7 @@ import org.gradle.internal.fingerprint.DirectorySensitivity
 import org.gradle.internal.fingerprint.FileNormalizer
 import org.gradle.internal.fingerprint.LineEndingSensitivity
 import org.gradle.internal.fingerprint.impl.DefaultFileSystemLocationFingerprint
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache
 import org.gradle.internal.hash.TestHashCodes
 import org.gradle.internal.snapshot.TestSnapshotFixture
 import org.gradle.util.Requires
@@ -137,7 +138,8 @@ class SnapshotTaskInputsBuildOperationResultTest extends Specification implement
         def cachingState = CachingState.enabled(Mock(BuildCacheKey), beforeExecutionState)
         def buildOpResult = new SnapshotTaskInputsBuildOperationResult(
             cachingState,
-            [inputFileProperty] as Set
+            [inputFileProperty] as Set,
+            FileCollectionFingerprintCache.Statistics.NONE
         )
 
         when:
@@ -195,7 +197,8 @@ class SnapshotTaskInputsBuildOperationResultTest extends Specification implement
         def cachingState = CachingState.enabled(Mock(BuildCacheKey), beforeExecutionState)
         def buildOpResult = new SnapshotTaskInputsBuildOperationResult(
             cachingState,
-            [inputFileProperty] as Set
+            [inputFileProperty] as Set,
+            FileCollectionFingerprintCache.Statistics.NONE
         )
 
         when:
@@ -258,7 +261,8 @@ class SnapshotTaskInputsBuildOperationResultTest extends Specification implement
         def cachingState = CachingState.enabled(Mock(BuildCacheKey), beforeExecutionState)
         def buildOpResult = new SnapshotTaskInputsBuildOperationResult(
             cachingState,
-            [inputFileProperty] as Set
+            [inputFileProperty] as Set,
+            FileCollectionFingerprintCache.Statistics.NONE
         )
 
         when:
@@ -301,4 +305,18 @@ class SnapshotTaskInputsBuildOperationResultTest extends Specification implement
         0 * visitor._
     }
 
+    def "reports fingerprint cache statistics"() {
+        def buildOpResult = new SnapshotTaskInputsBuildOperationResult(
+            CachingState.NOT_DETERMINED,
+            [] as Set,
+            new FileCollectionFingerprintCache.Statistics(3, 2)
+        )
+
+        expect:
+        buildOpResult.fingerprintCacheHits == 3
+        buildOpResult.fingerprintCacheMisses == 2
+        buildOpResult.customOperationTraceSerializableModel.fingerprintCacheHits == 3
+        buildOpResult.customOperationTraceSerializableModel.fingerprintCacheMisses == 2
+    }
+
 }
@@ -74,6 +74,7 @@ import org.gradle.internal.fingerprint.DirectorySensitivity
 import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher
 import org.gradle.internal.fingerprint.impl.AbsolutePathFileCollectionFingerprinter
 import org.gradle.internal.fingerprint.impl.DefaultFileCollectionSnapshotter
+import org.gradle.internal.fingerprint.impl.FileCollectionFingerprintCache
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher
 import org.gradle.internal.hash.HashCode
 import org.gradle.internal.hash.TestHashCodes
@@ -200,7 +201,8 @@ class ExecuteActionsTaskExecuterTest extends Specification {
         reservedFileSystemLocationRegistry,
         fileCollectionFactory,
         TestFiles.taskDependencyFactory(),
-        Stub(PathToFileResolver)
+        Stub(PathToFileResolver),
+        Stub(FileCollectionFingerprintCache)
     )
 
     def setup() {
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.Task
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.TaskInternal
+import org.gradle.composite.internal.BuildTreeWorkGraphController
+import org.gradle.internal.file.Stat
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.util.Path
+
+import static org.gradle.internal.snapshot.CaseSensitivity.CASE_SENSITIVE
+
+/**
+ * Replays recorded plans through {@link DefaultFinalizedExecutionPlan} using simulated time, to compare the makespan of
+ * critical path scheduling with executing ready nodes in plan order.
+ *
+ * <p>Recorded plans live next to this class, see {@code long-pole.plan} for the format.</p>
+ */
+class CriticalPathSchedulingSimulationTest extends AbstractExecutionPlanSpec {
+    def accessHierarchies = new ExecutionNodeAccessHierarchies(CASE_SENSITIVE, Stub(Stat))
+
+    def "critical path scheduling starts the long pole first"() {
+        when:
+        def planOrder = simulate("long-pole", 2, false)
+        def criticalPath = simulate("long-pole", 2, true)
+
+        then:
+        planOrder.makespan == 140000
+        criticalPath.makespan == 120000
+        criticalPath.startTimes["testFixturesCompileKotlin"] == 0
+    }
+
+    def "critical path scheduling does not increase the makespan of #plan with #workers workers"() {
+        when:
+        def planOrder = simulate(plan, workers, false)
+        def criticalPath = simulate(plan, workers, true)
+
+        then:
+        criticalPath.makespan <= planOrder.makespan
+        planOrder.checkConstraints()
+        criticalPath.checkConstraints()
+
+        where:
+        plan            | workers
+        "long-pole"     | 1
+        "long-pole"     | 2
+        "long-pole"     | 4
+        "multi-project" | 1
+        "multi-project" | 2
+        "multi-project" | 3
+        "multi-project" | 8
+    }
+
+    def "executes in plan order when no durations have been recorded"() {
+        when:
+        def planOrder = simulate("multi-project", 2, false)
+        def withoutHistory = simulate("multi-project", 2, true, [:])
+
+        then:
+        withoutHistory.startOrder == planOrder.startOrder
+        withoutHistory.makespan == planOrder.makespan
+    }
+
+    private SimulationResult simulate(String planName, int workers, boolean criticalPathScheduling, Map<String, Long> history = null) {
+        def recordedPlan = RecordedPlan.load(planName)
+        def tasks = createTasks(recordedPlan)
+        def durations = tasks.collectEntries { name, task -> [task.identityPath.path, recordedPlan.durations[name]] }
+        def durationHistory = criticalPathScheduling ? new InMemoryTaskDurationHistory(history == null ? durations : history) : null
+        def taskNodeFactory = new TaskNodeFactory(project.gradle, Stub(DocumentationRegistry), Stub(BuildTreeWorkGraphController), nodeValidator, new TestBuildOperationExecutor(), accessHierarchies)
+        def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
+        def executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, durationHistory, null)
+        executionPlan.addEntryTasks(tasks.values())
+        executionPlan.determineExecutionPlan()
+        def finalizedPlan = executionPlan.finalizePlan()
+
+        def result = new SimulationResult(recordedPlan)
+        def running = new PriorityQueue<RunningTask>()
+        long now = 0
+        while (true) {
+            coordinator.withStateLock {
+                while (running.size() < workers) {
+                    WorkSource.Selection<Node> selection = null
+                    recordLocks {
+                        selection = finalizedPlan.selectNext()
+                    }
+                    if (selection.noMoreWorkToStart || selection.noWorkReadyToStart) {
+                        break
+                    }
+                    def node = selection.item
+                    if (node instanceof LocalTaskNode) {
+                        // Tasks run without holding the project lock, so tasks of the same project can run in parallel
+                        node.projectToLock?.unlock()
+                        def name = node.task.name
+                        result.started(name, now)
+                        running.add(new RunningTask(node, name, now + recordedPlan.durations[name], result.startOrder.size()))
+                    } else {
+                        // Nodes that are not tasks take no time
+                        finalizedPlan.finishedExecuting(node, null)
+                    }
+                }
+            }
+            if (running.isEmpty()) {
+                break
+            }
+            def next = running.poll()
+            now = next.finishTime
+            result.finished(next.name, now)
+            coordinator.withStateLock {
+                finalizedPlan.finishedExecuting(next.node, null)
+            }
+        }
+        coordinator.withStateLock {
+            assert finalizedPlan.allExecutionComplete()
+        }
+        result.makespan = now
+        executionPlan.close()
+        return result
+    }
+
+    private Map<String, TaskInternal> createTasks(RecordedPlan recordedPlan) {
+        Map<String, TaskInternal> tasks = [:]
+        recordedPlan.durations.keySet().each { name ->
+            tasks[name] = createTask(name, project(project, name), DefaultTask)
+        }
+        recordedPlan.durations.keySet().each { name ->
+            def task = tasks[name]
+            relationships(task,
+                dependsOn: recordedPlan.dependencies[name].collect { tasks[it] } as List<Task>,
+                mustRunAfter: recordedPlan.mustRunAfter[name].collect { tasks[it] } as List<Task>,
+                finalizedBy: recordedPlan.finalizedBy[name].collect { tasks[it] } as List<Task>
+            )
+        }
+        return tasks
+    }
+
+    private static class RecordedPlan {
+        final Map<String, Long> durations = [:]
+        final Map<String, List<String>> dependencies = [:].withDefault { [] }
+        final Map<String, List<String>> mustRunAfter = [:].withDefault { [] }
+        final Map<String, List<String>> finalizedBy = [:].withDefault { [] }
+
+        static RecordedPlan load(String name) {
+            def plan = new RecordedPlan()
+            CriticalPathSchedulingSimulationTest.getResource("${name}.plan").eachLine { line ->
+                line = line.trim()
+                if (line.isEmpty() || line.startsWith("#")) {
+                    return
+                }
+                def tokens = line.split(/\s+/)
+                def task = tokens[0]
+                plan.durations[task] = Long.parseLong(tokens[1])
+                tokens.drop(2).each { token ->
+                    if (token.startsWith("mustRunAfter:")) {
+                        plan.mustRunAfter[task] << token.substring("mustRunAfter:".length())
+                    } else if (token.startsWith("finalizedBy:")) {
+                        plan.finalizedBy[task] << token.substring("finalizedBy:".length())
+                    } else {
+                        plan.dependencies[task] << token
+                    }
+                }
+            }
+            return plan
+        }
+    }
+
+    private static class SimulationResult {
+        final RecordedPlan plan
+        final Map<String, Long> startTimes = [:]
+        final Map<String, Long> finishTimes = [:]
+        final List<String> startOrder = []
+        long makespan
+
+        SimulationResult(RecordedPlan plan) {
+            this.plan = plan
+        }
+
+        void started(String task, long time) {
+            startTimes[task] = time
+            startOrder << task
+        }
+
+        void finished(String task, long time) {
+            finishTimes[task] = time
+        }
+
+        boolean checkConstraints() {
+            assert startTimes.keySet() == plan.durations.keySet()
+            plan.durations.keySet().each { task ->
+                (plan.dependencies[task] + plan.mustRunAfter[task]).each { before ->
+                    assert finishTimes[before] <= startTimes[task]: "$task started before $before finished"
+                }
+                plan.finalizedBy[task].each { finalizer ->
+                    assert finishTimes[task] <= startTimes[finalizer]: "$finalizer started before $task finished"
+                }
+            }
+            return true
+        }
+    }
+
+    private static class RunningTask implements Comparable<RunningTask> {
+        final Node node
+        final String name
+        final long finishTime
+        final int sequence
+
+        RunningTask(Node node, String name, long finishTime, int sequence) {
+            this.node = node
+            this.name = name
+            this.finishTime = finishTime
+            this.sequence = sequence
+        }
+
+        @Override
+        int compareTo(RunningTask other) {
+            return finishTime == other.finishTime ? Integer.compare(sequence, other.sequence) : Long.compare(finishTime, other.finishTime)
+        }
+    }
+
+    private static class InMemoryTaskDurationHistory implements TaskDurationHistory {
+        private final Map<String, Long> durations
+
+        InMemoryTaskDurationHistory(Map<String, Long> durations) {
+            this.durations = durations
+        }
+
+        @Override
+        OptionalLong getEstimatedDurationMillis(String workIdentity) {
+            def duration = durations[workIdentity]
+            return duration == null ? OptionalLong.empty() : OptionalLong.of(duration)
+        }
+
+        @Override
+        void recordDuration(String workIdentity, long durationMillis) {
+            // Durations measured during the simulation are meaningless, so keep the recorded ones
+        }
+    }
+}
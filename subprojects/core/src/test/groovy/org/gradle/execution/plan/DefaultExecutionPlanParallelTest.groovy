@@ -23,6 +23,7 @@ import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.project.taskfactory.TaskIdentity
 import org.gradle.api.internal.tasks.NodeExecutionContext
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.tasks.Destroys
 import org.gradle.api.tasks.InputDirectory
@@ -34,7 +35,9 @@ import org.gradle.api.tasks.OutputFiles
 import org.gradle.api.tasks.TaskAction
 import org.gradle.composite.internal.BuildTreeWorkGraphController
 import org.gradle.internal.file.Stat
+import org.gradle.internal.logging.text.TreeFormatter
 import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ResourceLock
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.util.Path
 import org.gradle.util.Requires
@@ -1012,6 +1015,59 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         lockedProjects.empty
     }
 
+    def "a task waiting for a project lock starts once another thread releases the lock"() {
+        given:
+        def a = task("a")
+        def projectLock = project.owner.taskExecutionLock
+
+        when:
+        addToGraphAndPopulate(a)
+        recordLocks {
+            // Some other worker holds the project lock
+            assert projectLock.tryLock()
+        }
+
+        then:
+        assertNoWorkReadyToStartAfterSelect()
+        assertNoWorkReadyToStart()
+
+        when:
+        releaseOnAnotherThread(projectLock)
+
+        then:
+        assertWorkReadyToStart()
+        selectNextTask() == a
+        lockedProjects == [project] as Set
+    }
+
+    def "execution state and diagnostics include tasks that are waiting for a project lock"() {
+        given:
+        def a = task("a")
+        def b = task("b")
+        def projectLock = project.owner.taskExecutionLock
+
+        when:
+        addToGraphAndPopulate(a, b)
+        recordLocks {
+            assert projectLock.tryLock()
+        }
+
+        then:
+        assertNoWorkReadyToStartAfterSelect()
+
+        when:
+        def formatter = new TreeFormatter()
+        coordinator.withStateLock {
+            finalizedPlan.healthDiagnostics().describeTo(formatter)
+        }
+        def diagnostics = formatter.toString()
+        def readyToStart = diagnostics.substring(diagnostics.indexOf("Nodes ready to start"), diagnostics.indexOf("Ordinal groups"))
+
+        then:
+        readyToStart.contains(":a")
+        readyToStart.contains(":b")
+    }
+
     def "two tasks with #relation relationship are not executed in parallel"() {
         given:
         Task a = task("a", type: Async)
@@ -1091,6 +1147,41 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         tasksAreNotExecutedInParallel(a, b)
     }
 
+    def "a task that has the same output as a running task starts once the running task completes"() {
+        def sharedFile = file("output")
+
+        given:
+        Task a = task("a", type: AsyncWithOutputFile)
+        _ * a.outputFile >> sharedFile
+        Task b = task("b", type: AsyncWithOutputFile)
+        _ * b.outputFile >> sharedFile
+        def otherProject = project(project, "other")
+
+        when:
+        addToGraphAndPopulate(a, b)
+        def first = selectNextTaskNode()
+
+        then:
+        first.task == a
+        assertNoTaskReadyToStart()
+
+        when:
+        // Releasing an unrelated lock does not resolve the conflict
+        recordLocks {
+            assert otherProject.owner.taskExecutionLock.tryLock()
+        }
+        releaseOnAnotherThread(otherProject.owner.taskExecutionLock)
+
+        then:
+        assertNoTaskReadyToStart()
+
+        when:
+        finishedExecuting(first)
+
+        then:
+        selectNextTask() == b
+    }
+
     def "two tasks that have the same file as output and local state are not executed in parallel"() {
         def sharedFile = file("output")
 
@@ -2061,6 +2152,33 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         continueOnFailure << [false, true]
     }
 
+    def "records the duration of executed tasks when the plan is closed"() {
+        given:
+        def durationHistory = Mock(TaskDurationHistory)
+        def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
+        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, durationHistory, null)
+        def a = task("a", type: Async)
+        def b = task("b", type: Async)
+        _ * a.state.outcome >> TaskExecutionOutcome.EXECUTED
+        _ * b.state.outcome >> TaskExecutionOutcome.UP_TO_DATE
+        _ * durationHistory.getEstimatedDurationMillis(_) >> OptionalLong.empty()
+
+        when:
+        addToGraphAndPopulate(a, b)
+        finishedExecuting(selectNextTaskNode())
+        finishedExecuting(selectNextTaskNode())
+
+        then:
+        0 * durationHistory.recordDuration(_, _)
+
+        when:
+        executionPlan.close()
+
+        then:
+        1 * durationHistory.recordDuration(":a", _)
+        0 * durationHistory.recordDuration(_, _)
+    }
+
     private void tasksAreNotExecutedInParallel(Task first, Task second) {
         addToGraphAndPopulate(first, second)
 
@@ -2075,6 +2193,18 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         assert [firstTaskNode.task, secondTask] as Set == [first, second] as Set
     }
 
+    private void releaseOnAnotherThread(ResourceLock lock) {
+        def thread = new Thread({
+            coordinator.withStateLock {
+                lock.unlock()
+                // The test locks do not register themselves with the coordination service when they are released
+                coordinator.current.registerUnlocked(lock)
+            }
+        })
+        thread.start()
+        thread.join()
+    }
+
     private void tasksAreExecutedInParallel(Task first, Task second) {
         addToGraphAndPopulate(first, second)
 
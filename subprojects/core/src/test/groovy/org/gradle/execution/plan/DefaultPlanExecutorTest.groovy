@@ -16,6 +16,7 @@
 
 package org.gradle.execution.plan
 
+import groovy.json.JsonSlurper
 import org.gradle.api.Action
 import org.gradle.api.Project
 import org.gradle.api.internal.TaskInternal
@@ -28,9 +29,13 @@ import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.resources.DefaultResourceLockCoordinationService
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultPlanExecutorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
     def workSource = Mock(WorkSource)
     def worker = Mock(Action)
     def executorFactory = Mock(ExecutorFactory)
@@ -62,7 +67,7 @@ class DefaultPlanExecutorTest extends Specification {
         1 * cancellationHandler.isCancellationRequested() >> false
         1 * workerLease.tryLock() >> true
         1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
-        1 * workSource.selectNext() >> WorkSource.Selection.of(node)
+        1 * workSource.selectNext(_) >> WorkSource.Selection.of(node)
         1 * worker.execute(node)
         1 * workSource.finishedExecuting(node, null)
 
@@ -98,7 +103,7 @@ class DefaultPlanExecutorTest extends Specification {
         1 * cancellationHandler.isCancellationRequested() >> false
         1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
         1 * workerLease.tryLock() >> true
-        1 * workSource.selectNext() >> WorkSource.Selection.of(node)
+        1 * workSource.selectNext(_) >> WorkSource.Selection.of(node)
         1 * worker.execute(node)
         1 * workSource.finishedExecuting(node, null)
 
@@ -113,4 +118,36 @@ class DefaultPlanExecutorTest extends Specification {
         1 * workSource.collectFailures([])
         0 * workSource._
     }
+
+    def "writes a trace of the worker threads when stopped"() {
+        def traceFile = temporaryFolder.file("trace/scheduling.json")
+        def tracingExecutor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, workerLeaseService, cancellationHandler, coordinationService, new DefaultInternalOptions([(DefaultPlanExecutor.TRACE.systemPropertyName): traceFile.path]))
+        def node = "task :a"
+        def blockedNode = "task :b"
+        workerLeaseService.currentWorkerLease >> workerLease
+        workerLease.tryLock() >> true
+        workSource.executionState() >>> [WorkSource.State.MaybeWorkReadyToStart, WorkSource.State.NoMoreWorkToStart]
+        workSource.selectNext(_) >> { WorkSource.SelectionListener listener ->
+            listener.blocked(blockedNode, WorkSource.BlockedReason.ProjectLock)
+            listener.blocked(blockedNode, WorkSource.BlockedReason.ProjectLock)
+            WorkSource.Selection.of(node)
+        }
+        workSource.allExecutionComplete() >> true
+
+        when:
+        tracingExecutor.process(workSource, worker)
+        tracingExecutor.stop()
+
+        then:
+        1 * worker.execute(node)
+
+        and:
+        def events = new JsonSlurper().parse(traceFile).traceEvents
+        events.find { it.ph == "M" }.args.name == Thread.currentThread().name
+        events.find { it.cat == "execute" }.name == "task :a"
+        events.findAll { it.cat == "blocked" }.size() == 1
+        events.find { it.cat == "blocked" }.name == "blocked by ProjectLock"
+        events.find { it.cat == "blocked" }.args.item == "task :b"
+        events.findAll { it.cat == "select" }.size() == 2
+    }
 }
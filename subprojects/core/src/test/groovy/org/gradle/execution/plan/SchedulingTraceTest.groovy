@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan
+
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+class SchedulingTraceTest extends Specification {
+    def trace = new SchedulingTrace(3)
+
+    def "writes events of each thread"() {
+        def start = System.nanoTime()
+        trace.forCurrentThread().record("execute", null, "task :a", start, start + 2000)
+        def thread = new Thread({ trace.forCurrentThread().record("blocked", "blocked by ProjectLock", "task :b", start + 1000, -1) }, "other worker")
+        thread.start()
+        thread.join()
+
+        when:
+        def events = parse()
+
+        then:
+        events.size() == 4
+        events[0] == [name: "thread_name", ph: "M", pid: 1, tid: 1, args: [name: Thread.currentThread().name]]
+        events[1].name == "task :a"
+        events[1].cat == "execute"
+        events[1].ph == "X"
+        events[1].dur == 2
+        events[1].tid == 1
+        events[2] == [name: "thread_name", ph: "M", pid: 1, tid: 2, args: [name: "other worker"]]
+        events[3].name == "blocked by ProjectLock"
+        events[3].ph == "i"
+        events[3].args.item == "task :b"
+        events[3].tid == 2
+        events[3].ts == events[1].ts + 1
+    }
+
+    def "keeps the most recent events of a thread"() {
+        def worker = trace.forCurrentThread()
+        def start = System.nanoTime()
+        5.times {
+            worker.record("execute", "event ${it}", null, start + it * 1000, start + it * 1000 + 500)
+        }
+
+        when:
+        def events = parse()
+
+        then:
+        events*.name == ["thread_name", "2 earlier events dropped", "event 2", "event 3", "event 4"]
+    }
+
+    def "uses the same trace for a thread"() {
+        expect:
+        trace.forCurrentThread().is(trace.forCurrentThread())
+        trace.empty
+    }
+
+    private List<Map<String, Object>> parse() {
+        def writer = new StringWriter()
+        trace.writeTo(writer)
+        return new JsonSlurper().parseText(writer.toString()).traceEvents
+    }
+}
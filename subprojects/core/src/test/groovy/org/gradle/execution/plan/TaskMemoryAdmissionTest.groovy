@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.TaskInternal
+import org.gradle.composite.internal.BuildTreeWorkGraphController
+import org.gradle.internal.buildoption.DefaultInternalOptions
+import org.gradle.internal.file.Stat
+import org.gradle.internal.operations.BuildOperationProgressEventEmitter
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.time.MockClock
+import org.gradle.internal.work.MemoryAdmission
+import org.gradle.internal.work.MemoryAdmissionProgressDetails
+import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryInfo
+import org.gradle.process.internal.health.memory.OsMemoryStatus
+import org.gradle.util.Path
+
+import static org.gradle.internal.snapshot.CaseSensitivity.CASE_SENSITIVE
+
+class TaskMemoryAdmissionTest extends AbstractExecutionPlanSpec {
+    static final long MB = 1024 * 1024
+
+    def accessHierarchies = new ExecutionNodeAccessHierarchies(CASE_SENSITIVE, Stub(Stat))
+    def taskNodeFactory = new TaskNodeFactory(project.gradle, Stub(DocumentationRegistry), Stub(BuildTreeWorkGraphController), nodeValidator, new TestBuildOperationExecutor(), accessHierarchies)
+    def history = Mock(TaskMemoryHistory)
+    def progressEventEmitter = Mock(BuildOperationProgressEventEmitter)
+    def options = new DefaultInternalOptions([
+        (MemoryAdmission.MEMORY_AWARE_SCHEDULING.systemPropertyName): "true",
+        (MemoryAdmission.MEMORY_BUDGET.systemPropertyName): "1g"
+    ])
+    def memoryAdmission = new MemoryAdmission(options, Stub(OsMemoryInfo), coordinator, Stub(WorkerLeaseService), progressEventEmitter, new MockClock())
+    def taskMemoryAdmission = new TaskMemoryAdmission(memoryAdmission, history, Stub(MemoryManager))
+    DefaultExecutionPlan executionPlan
+    DefaultFinalizedExecutionPlan finalizedPlan
+
+    def setup() {
+        def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
+        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, null, taskMemoryAdmission)
+    }
+
+    def "does not start a task that does not fit into the memory budget until the running task completes"() {
+        given:
+        def a = task("a")
+        def b = task("b")
+
+        when:
+        addToGraphAndPopulate(a, b)
+
+        then:
+        1 * history.getEstimatedMemoryBytes(":a:a") >> OptionalLong.of(768 * MB)
+        1 * history.getEstimatedMemoryBytes(":b:b") >> OptionalLong.of(512 * MB)
+
+        when:
+        def nodeA = selectNextTaskNode()
+
+        then:
+        nodeA.task == a
+        0 * progressEventEmitter._
+
+        when:
+        taskMemoryAdmission.reportAdmission(nodeA)
+
+        then:
+        1 * progressEventEmitter.emitIfCurrent(_, { MemoryAdmissionProgressDetails details ->
+            details.workDisplayName == ":a:a" &&
+                details.memoryWeightBytes == 768 * MB &&
+                details.leasedMemoryBytes == 0 &&
+                details.memoryBudgetBytes == 1024 * MB &&
+                details.waitTimeMillis == 0
+        })
+        0 * history._
+
+        when:
+        assertNoWorkReadyToStart()
+        finishedExecuting(nodeA)
+        def nodeB = selectNextTaskNode()
+        taskMemoryAdmission.reportAdmission(nodeB)
+
+        then:
+        nodeB.task == b
+        1 * progressEventEmitter.emitIfCurrent(_, { MemoryAdmissionProgressDetails details ->
+            details.workDisplayName == ":b:b" &&
+                details.memoryWeightBytes == 512 * MB &&
+                details.leasedMemoryBytes == 0 &&
+                details.memoryBudgetBytes == 1024 * MB &&
+                details.waitTimeMillis >= 0
+        })
+        0 * history._
+    }
+
+    def "records the memory used by executed tasks once the plan is closed"() {
+        given:
+        def a = task("a")
+        history.getEstimatedMemoryBytes(_) >> OptionalLong.empty()
+        addToGraphAndPopulate(a)
+
+        when:
+        usedMemory(1024 * MB)
+        def nodeA = selectNextTaskNode()
+        usedMemory(1536 * MB)
+        usedMemory(1280 * MB)
+        finishedExecuting(nodeA)
+
+        then:
+        0 * history.recordMemory(_, _)
+
+        when:
+        executionPlan.close()
+
+        then:
+        1 * history.recordMemory(":a:a", 512 * MB)
+    }
+
+    def "forgets a task that does not fit into the memory budget when it is cancelled"() {
+        given:
+        def a = task("a")
+        def b = task("b")
+        history.getEstimatedMemoryBytes(_) >> OptionalLong.of(768 * MB)
+
+        when:
+        addToGraphAndPopulate(a, b)
+        def nodeA = selectNextTaskNode()
+        assertNoWorkReadyToStart()
+
+        then:
+        taskMemoryAdmission.leases.size() == 2
+
+        when:
+        coordinator.withStateLock {
+            finalizedPlan.cancelExecution()
+        }
+        finishedExecuting(nodeA)
+
+        then:
+        taskMemoryAdmission.leases.isEmpty()
+    }
+
+    private TaskInternal task(String name) {
+        def task = createTask(name, project(project, name), DefaultTask)
+        relationships([:], task)
+        return task
+    }
+
+    private void addToGraphAndPopulate(TaskInternal... tasks) {
+        executionPlan.addEntryTasks(tasks as List)
+        executionPlan.determineExecutionPlan()
+        finalizedPlan = executionPlan.finalizePlan()
+    }
+
+    private void usedMemory(long usedMemoryBytes) {
+        taskMemoryAdmission.onOsMemoryStatus(Stub(OsMemoryStatus) {
+            getTotalPhysicalMemory() >> 16 * 1024 * MB
+            getFreePhysicalMemory() >> 16 * 1024 * MB - usedMemoryBytes
+        })
+    }
+
+    private LocalTaskNode selectNextTaskNode() {
+        LocalTaskNode result = null
+        coordinator.withStateLock {
+            while (result == null) {
+                WorkSource.Selection<Node> selection = null
+                recordLocks {
+                    selection = finalizedPlan.selectNext()
+                }
+                assert !selection.noMoreWorkToStart && !selection.noWorkReadyToStart
+                if (selection.item instanceof LocalTaskNode) {
+                    result = selection.item
+                } else {
+                    // Nodes that are not tasks do not need any memory
+                    finalizedPlan.finishedExecuting(selection.item, null)
+                }
+            }
+        }
+        return result
+    }
+
+    private void assertNoWorkReadyToStart() {
+        coordinator.withStateLock {
+            while (true) {
+                WorkSource.Selection<Node> selection = null
+                recordLocks {
+                    selection = finalizedPlan.selectNext()
+                }
+                if (selection.noWorkReadyToStart) {
+                    break
+                }
+                assert !(selection.item instanceof LocalTaskNode)
+                finalizedPlan.finishedExecuting(selection.item, null)
+            }
+        }
+    }
+
+    private void finishedExecuting(Node node) {
+        coordinator.withStateLock {
+            finalizedPlan.finishedExecuting(node, null)
+        }
+    }
+}
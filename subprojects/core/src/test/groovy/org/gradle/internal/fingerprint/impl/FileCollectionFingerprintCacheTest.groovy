@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.fingerprint.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.internal.fingerprint.DirectorySensitivity
+import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class FileCollectionFingerprintCacheTest extends Specification {
+    def virtualFileSystem = TestFiles.virtualFileSystem()
+    def fileSystemAccess = TestFiles.fileSystemAccess(virtualFileSystem)
+    def fileCollectionSnapshotter = new DefaultFileCollectionSnapshotter(fileSystemAccess, TestFiles.fileSystem())
+    def cache = new FileCollectionFingerprintCache(new TestCrossBuildInMemoryCacheFactory())
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def "reuses fingerprint computed by another fingerprinter with the same strategy"() {
+        def dir = tmpDir.createDir("dir")
+        dir.createFile("file1").text = "first"
+        dir.createFile("sub/file2").text = "second"
+        def before = cache.currentThreadStatistics
+
+        when:
+        def fingerprint = fingerprinter(DirectorySensitivity.DEFAULT).fingerprint(TestFiles.fixed(dir))
+        def reused = fingerprinter(DirectorySensitivity.DEFAULT).fingerprint(TestFiles.fixed(dir))
+        def statistics = cache.currentThreadStatistics.since(before)
+
+        then:
+        reused.fingerprints == fingerprint.fingerprints
+        reused.hash == fingerprint.hash
+        reused.rootHashes == fingerprint.rootHashes
+        statistics.hits == 1
+        statistics.misses == 1
+    }
+
+    def "does not reuse fingerprint for a different directory sensitivity"() {
+        def dir = tmpDir.createDir("dir")
+        dir.createFile("file1").text = "first"
+        dir.createDir("empty")
+        def before = cache.currentThreadStatistics
+
+        when:
+        def fingerprint = fingerprinter(DirectorySensitivity.DEFAULT).fingerprint(TestFiles.fixed(dir))
+        def ignoringDirectories = fingerprinter(DirectorySensitivity.IGNORE_DIRECTORIES).fingerprint(TestFiles.fixed(dir))
+        def statistics = cache.currentThreadStatistics.since(before)
+
+        then:
+        ignoringDirectories.fingerprints.size() == fingerprint.fingerprints.size() - 2
+        statistics.hits == 0
+        statistics.misses == 2
+    }
+
+    def "does not reuse fingerprint when the contents of the roots changed"() {
+        def file = tmpDir.createFile("file")
+        file.text = "first"
+        def fingerprinter = fingerprinter(DirectorySensitivity.DEFAULT)
+        def before = cache.currentThreadStatistics
+
+        when:
+        def fingerprint = fingerprinter.fingerprint(TestFiles.fixed(file))
+        file.text = "changed"
+        virtualFileSystem.invalidateAll()
+        def changed = fingerprinter.fingerprint(TestFiles.fixed(file))
+        def statistics = cache.currentThreadStatistics.since(before)
+
+        then:
+        changed.hash != fingerprint.hash
+        statistics.hits == 0
+        statistics.misses == 2
+    }
+
+    def "counts hits and misses per thread"() {
+        def file = tmpDir.createFile("file")
+        file.text = "content"
+        def fingerprinter = fingerprinter(DirectorySensitivity.DEFAULT)
+        def before = cache.currentThreadStatistics
+        FileCollectionFingerprintCache.Statistics otherThreadStatistics = null
+
+        when:
+        fingerprinter.fingerprint(TestFiles.fixed(file))
+        def thread = new Thread({ otherThreadStatistics = cache.currentThreadStatistics })
+        thread.start()
+        thread.join()
+
+        then:
+        cache.currentThreadStatistics.since(before).misses == 1
+        otherThreadStatistics.hits == 0
+        otherThreadStatistics.misses == 0
+    }
+
+    private RelativePathFileCollectionFingerprinter fingerprinter(DirectorySensitivity directorySensitivity) {
+        new RelativePathFileCollectionFingerprinter(new StringInterner(), directorySensitivity, fileCollectionSnapshotter, FileSystemLocationSnapshotHasher.DEFAULT, cache)
+    }
+}
@@ -18,11 +18,13 @@ package org.gradle.internal.operations
 
 import org.gradle.api.GradleException
 import org.gradle.internal.concurrent.DefaultParallelismConfiguration
+import org.gradle.internal.concurrent.VirtualThreads
 import org.gradle.internal.resources.DefaultResourceLockCoordinationService
 import org.gradle.internal.resources.ResourceLockCoordinationService
 import org.gradle.internal.work.DefaultWorkerLeaseService
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseService
+import spock.lang.IgnoreIf
 import spock.lang.Specification
 
 import java.util.concurrent.CountDownLatch
@@ -201,6 +203,23 @@ class DefaultBuildOperationQueueTest extends Specification {
         5    | 10
     }
 
+    @IgnoreIf({ !VirtualThreads.supported })
+    def "operations running on virtual threads do not use worker leases"() {
+        given:
+        setupQueue(1)
+        operationQueue = new DefaultBuildOperationQueue(false, workerRegistry, Executors.newFixedThreadPool(4, VirtualThreads.newThreadFactory("test", null)), new SimpleWorker())
+        def operationAction = Mock(Runnable)
+        // Each operation waits for all the others to start, which requires more concurrent operations than there are worker leases
+        def allStarted = new CountDownLatch(4)
+
+        when:
+        4.times { operationQueue.add(new SynchronizedBuildOperation(operationAction, allStarted, allStarted)) }
+        operationQueue.waitForCompletion()
+
+        then:
+        4 * operationAction.run()
+    }
+
     static class SynchronizedBuildOperation extends TestBuildOperation {
         final Runnable operationAction
         final CountDownLatch startedLatch
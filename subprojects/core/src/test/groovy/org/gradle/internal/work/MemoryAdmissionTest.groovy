@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.work
+
+import org.gradle.internal.Factory
+import org.gradle.internal.buildoption.DefaultInternalOptions
+import org.gradle.internal.operations.BuildOperationProgressEventEmitter
+import org.gradle.internal.operations.BuildOperationRef
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.time.MockClock
+import org.gradle.process.internal.health.memory.OsMemoryInfo
+import spock.lang.Specification
+
+import java.util.function.Supplier
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.tryLock
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock
+
+class MemoryAdmissionTest extends Specification {
+    static final long MB = 1024 * 1024
+
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = Mock(WorkerLeaseService)
+    def progressEventEmitter = Mock(BuildOperationProgressEventEmitter)
+    def clock = new MockClock()
+    def parentOperation = Stub(BuildOperationRef) {
+        getId() >> new OperationIdentifier(12)
+    }
+
+    def "is disabled unless memory aware scheduling is enabled"() {
+        def admission = memoryAdmission([:])
+
+        expect:
+        !admission.enabled
+        !admission.requiresLease(1024 * MB)
+    }
+
+    def "requires a lease only for work that needs a significant amount of memory"() {
+        def admission = memoryAdmission(enabledWithBudget("1g"))
+
+        expect:
+        admission.enabled
+        !admission.requiresLease(MemoryAdmission.SIGNIFICANT_MEMORY_BYTES - 1)
+        admission.requiresLease(MemoryAdmission.SIGNIFICANT_MEMORY_BYTES)
+    }
+
+    def "runs work that does not need a significant amount of memory without a lease"() {
+        def admission = memoryAdmission(enabledWithBudget("1g"))
+        def action = Mock(Factory)
+
+        when:
+        def result = admission.whileAdmitted("work", MB, parentOperation, action)
+
+        then:
+        result == "result"
+        1 * action.create() >> "result"
+        0 * workerLeaseService._
+        0 * progressEventEmitter._
+    }
+
+    def "reports the admission of work to the operation that submitted it"() {
+        def admission = memoryAdmission(enabledWithBudget("1g"))
+        def other = admission.newLease("other", 256 * MB)
+        coordinationService.withStateLock(tryLock(other))
+
+        when:
+        def result = admission.whileAdmitted("work", 512 * MB, parentOperation, { "result" } as Factory)
+
+        then:
+        result == "result"
+        1 * workerLeaseService.withLocks(_, _ as Factory) >> { locks, Factory action ->
+            assert coordinationService.withStateLock(tryLock(locks))
+            try {
+                return action.create()
+            } finally {
+                coordinationService.withStateLock(unlock(locks))
+            }
+        }
+        1 * progressEventEmitter.emit(new OperationIdentifier(12), _, { MemoryAdmissionProgressDetails details ->
+            details.workDisplayName == "work" &&
+                details.memoryWeightBytes == 512 * MB &&
+                details.leasedMemoryBytes == 256 * MB &&
+                details.memoryBudgetBytes == 1024 * MB &&
+                details.waitTimeMillis >= 0
+        })
+    }
+
+    def "reports the admission of a task to the current operation"() {
+        def admission = memoryAdmission(enabledWithBudget("1g"))
+        def lease = admission.newLease("task", 512 * MB)
+        coordinationService.withStateLock(tryLock(lease))
+
+        when:
+        def admitted = coordinationService.withStateLock({ admission.admitted("task", 512 * MB, 42) } as Supplier)
+
+        then:
+        0 * progressEventEmitter._
+
+        when:
+        admission.report(admitted)
+
+        then:
+        1 * progressEventEmitter.emitIfCurrent(_, { MemoryAdmissionProgressDetails details ->
+            details.workDisplayName == "task" &&
+                details.memoryWeightBytes == 512 * MB &&
+                details.leasedMemoryBytes == 0 &&
+                details.memoryBudgetBytes == 1024 * MB &&
+                details.waitTimeMillis == 42
+        })
+    }
+
+    private static Map<String, String> enabledWithBudget(String budget) {
+        return [
+            (MemoryAdmission.MEMORY_AWARE_SCHEDULING.systemPropertyName): "true",
+            (MemoryAdmission.MEMORY_BUDGET.systemPropertyName): budget
+        ]
+    }
+
+    private MemoryAdmission memoryAdmission(Map<String, String> options) {
+        return new MemoryAdmission(new DefaultInternalOptions(options), Stub(OsMemoryInfo), coordinationService, workerLeaseService, progressEventEmitter, clock)
+    }
+}
@@ -243,6 +243,21 @@ interface VisitState {
         @Nullable
         List<String> getOutputPropertyNames();
 
+        /**
+         * The number of input file fingerprints that were reused from the in-memory fingerprint cache,
+         * instead of being computed from the file system snapshots.
+         *
+         * @since 8.1
+         */
+        long getFingerprintCacheHits();
+
+        /**
+         * The number of input file fingerprints that were computed because no matching fingerprint was found in the in-memory fingerprint cache.
+         *
+         * @since 8.1
+         */
+        long getFingerprintCacheMisses();
+
     }
 
     private SnapshotTaskInputsBuildOperationType() {
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.operations;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+import java.util.List;
+
+/**
+ * A query for which of a batch of entries exist in the remote build cache, answered with a single request.
+ *
+ * Only fired for remote build caches that support batched queries.
+ * Query results and failures are mutually exclusive.
+ */
+public final class BuildCacheRemoteFindExistingBuildOperationType implements BuildOperationType<BuildCacheRemoteFindExistingBuildOperationType.Details, BuildCacheRemoteFindExistingBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The cache keys queried.
+         */
+        List<String> getCacheKeys();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The number of queried entries that exist in the cache.
+         */
+        int getExistingCount();
+
+    }
+
+    private BuildCacheRemoteFindExistingBuildOperationType() {
+    }
+}
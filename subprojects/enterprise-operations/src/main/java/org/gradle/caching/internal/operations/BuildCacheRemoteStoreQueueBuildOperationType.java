@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.operations;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Interaction with the queue of entries waiting to be stored in the remote build cache in the background.
+ *
+ * Fired when an entry is added to the queue, and when the build waits for the queue to drain at the end of the build.
+ */
+public final class BuildCacheRemoteStoreQueueBuildOperationType implements BuildOperationType<BuildCacheRemoteStoreQueueBuildOperationType.Details, BuildCacheRemoteStoreQueueBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The number of entries waiting to be stored, including entries currently being uploaded.
+         */
+        int getQueueDepth();
+
+        /**
+         * The total size in bytes of the entries waiting to be stored.
+         */
+        long getBytesPending();
+
+    }
+
+    public interface Result {
+    }
+
+    private BuildCacheRemoteStoreQueueBuildOperationType() {
+    }
+}
@@ -27,17 +27,33 @@
 import org.gradle.internal.hash.Hashing;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+
 public class DefaultCachingStateFactory implements CachingStateFactory {
     private final Logger logger;
+    private final HashCode cacheKeySalt;
 
     public DefaultCachingStateFactory(Logger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param cacheKeySalt hashed into every cache key first, so keys calculated from differently hashed inputs never match; {@code null} for no salt.
+     */
+    public DefaultCachingStateFactory(Logger logger, @Nullable HashCode cacheKeySalt) {
         this.logger = logger;
+        this.cacheKeySalt = cacheKeySalt;
     }
 
     @Override
     public final CachingState createCachingState(BeforeExecutionState beforeExecutionState, ImmutableList<CachingDisabledReason> cachingDisabledReasons) {
         Hasher cacheKeyHasher = Hashing.newHasher();
 
+        if (cacheKeySalt != null) {
+            logger.warn("Appending salt to build cache key: {}", cacheKeySalt);
+            cacheKeyHasher.putHash(cacheKeySalt);
+        }
+
         logger.warn("Appending implementation to build cache key: {}",
             beforeExecutionState.getImplementation());
         beforeExecutionState.getImplementation().appendToHasher(cacheKeyHasher);
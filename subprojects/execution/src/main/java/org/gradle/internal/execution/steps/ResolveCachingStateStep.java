@@ -27,10 +27,12 @@
 import org.gradle.internal.execution.caching.impl.DefaultCachingStateFactory;
 import org.gradle.internal.execution.history.BeforeExecutionState;
 import org.gradle.internal.execution.history.OverlappingOutputs;
+import org.gradle.internal.hash.HashCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.helpers.NOPLogger;
 
+import javax.annotation.Nullable;
 import java.util.Formatter;
 import java.util.List;
 
@@ -43,15 +45,26 @@
 
     private final BuildCacheController buildCache;
     private final boolean buildScansEnabled;
+    private final HashCode cacheKeySalt;
     private final Step<? super CachingContext, ? extends UpToDateResult> delegate;
 
     public ResolveCachingStateStep(
         BuildCacheController buildCache,
         boolean buildScansEnabled,
         Step<? super CachingContext, ? extends UpToDateResult> delegate
+    ) {
+        this(buildCache, buildScansEnabled, null, delegate);
+    }
+
+    public ResolveCachingStateStep(
+        BuildCacheController buildCache,
+        boolean buildScansEnabled,
+        @Nullable HashCode cacheKeySalt,
+        Step<? super CachingContext, ? extends UpToDateResult> delegate
     ) {
         this.buildCache = buildCache;
         this.buildScansEnabled = buildScansEnabled;
+        this.cacheKeySalt = cacheKeySalt;
         this.delegate = delegate;
     }
 
@@ -81,7 +94,7 @@ private CachingState calculateCachingState(UnitOfWork work, BeforeExecutionState
         Logger logger = buildCache.isEmitDebugLogging()
             ? LOGGER
             : NOPLogger.NOP_LOGGER;
-        CachingStateFactory cachingStateFactory = new DefaultCachingStateFactory(logger);
+        CachingStateFactory cachingStateFactory = new DefaultCachingStateFactory(logger, cacheKeySalt);
 
         ImmutableList.Builder<CachingDisabledReason> cachingDisabledReasonsBuilder = ImmutableList.builder();
         if (!buildCache.isEnabled()) {
@@ -80,7 +80,7 @@ enum Type {
      * @return the snapshot hierarchy without snapshots which can't be kept till the next build.
      */
     @CheckReturnValue
-    SnapshotHierarchy updateVfsOnBuildFinished(SnapshotHierarchy root, WatchMode watchMode, int maximumNumberOfWatchedHierarchies, List<File> unsupportedFileSystems);
+    SnapshotHierarchy updateVfsOnBuildFinished(SnapshotHierarchy root, WatchMode watchMode, int maximumNumberOfWatchedHierarchies, int watchBudget, List<File> unsupportedFileSystems);
 
     /**
      * Get statistics about the received changes.
@@ -105,5 +105,10 @@ interface FileWatchingStatistics {
         boolean isUnknownEventEncountered();
         int getNumberOfReceivedEvents();
         int getNumberOfWatchedHierarchies();
+
+        /**
+         * The current usage of the watch budget.
+         */
+        WatchBudgetUsage getWatchBudgetUsage();
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.watch.registry;
+
+import java.text.MessageFormat;
+
+/**
+ * How many of the directories that can be watched are in use, and what was dropped from the virtual file system to stay within that budget.
+ */
+public class WatchBudgetUsage {
+    public static final int NO_WATCH_BUDGET = -1;
+
+    public static final WatchBudgetUsage NOT_ENFORCED = new WatchBudgetUsage(NO_WATCH_BUDGET, -1, 0, 0);
+
+    private final int watchBudget;
+    private final int numberOfWatchedDirectories;
+    private final int numberOfDroppedHierarchies;
+    private final int numberOfCoarsenedHierarchies;
+
+    public WatchBudgetUsage(int watchBudget, int numberOfWatchedDirectories, int numberOfDroppedHierarchies, int numberOfCoarsenedHierarchies) {
+        this.watchBudget = watchBudget;
+        this.numberOfWatchedDirectories = numberOfWatchedDirectories;
+        this.numberOfDroppedHierarchies = numberOfDroppedHierarchies;
+        this.numberOfCoarsenedHierarchies = numberOfCoarsenedHierarchies;
+    }
+
+    /**
+     * The maximum number of directories to watch, or {@value #NO_WATCH_BUDGET} if the number of watched directories isn't limited.
+     */
+    public int getWatchBudget() {
+        return watchBudget;
+    }
+
+    /**
+     * The number of directories watched after the budget was last enforced, or -1 if the number of watched directories isn't limited.
+     */
+    public int getNumberOfWatchedDirectories() {
+        return numberOfWatchedDirectories;
+    }
+
+    /**
+     * The number of watched hierarchies that were removed from the virtual file system when the budget was last enforced.
+     */
+    public int getNumberOfDroppedHierarchies() {
+        return numberOfDroppedHierarchies;
+    }
+
+    /**
+     * The number of watched hierarchies of which only some parts were removed from the virtual file system when the budget was last enforced.
+     */
+    public int getNumberOfCoarsenedHierarchies() {
+        return numberOfCoarsenedHierarchies;
+    }
+
+    @Override
+    public String toString() {
+        if (watchBudget == NO_WATCH_BUDGET) {
+            return "no watch budget";
+        }
+        return MessageFormat.format("{0,number,integer} of {1,number,integer} directories watched, {2,number,integer} hierarchies dropped, {3,number,integer} hierarchies coarsened",
+            numberOfWatchedDirectories, watchBudget, numberOfDroppedHierarchies, numberOfCoarsenedHierarchies
+        );
+    }
+}
@@ -25,6 +25,7 @@
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.watch.registry.FileWatcherProbeRegistry;
 import org.gradle.internal.watch.registry.FileWatcherUpdater;
+import org.gradle.internal.watch.registry.WatchBudgetUsage;
 import org.gradle.internal.watch.registry.WatchMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -93,11 +94,12 @@ public void virtualFileSystemContentsChanged(Collection<FileSystemLocationSnapsh
     protected abstract boolean handleVirtualFileSystemContentsChanged(Collection<FileSystemLocationSnapshot> removedSnapshots, Collection<FileSystemLocationSnapshot> addedSnapshots, SnapshotHierarchy root);
 
     @Override
-    public SnapshotHierarchy updateVfsOnBuildFinished(SnapshotHierarchy root, WatchMode watchMode, int maximumNumberOfWatchedHierarchies, List<File> unsupportedFileSystems) {
+    public SnapshotHierarchy updateVfsOnBuildFinished(SnapshotHierarchy root, WatchMode watchMode, int maximumNumberOfWatchedHierarchies, int watchBudget, List<File> unsupportedFileSystems) {
         SnapshotHierarchy newRoot = watchableHierarchies.removeUnwatchableContentOnBuildFinished(
             root,
             watchedFiles::contains,
             maximumNumberOfWatchedHierarchies,
+            watchBudget,
             unsupportedFileSystems,
             createInvalidator()
         );
@@ -113,6 +115,11 @@ public FileHierarchySet getWatchedFiles() {
         return watchedFiles;
     }
 
+    @Override
+    public WatchBudgetUsage getWatchBudgetUsage() {
+        return watchableHierarchies.getWatchBudgetUsage();
+    }
+
     @Override
     public void triggerWatchProbe(String path) {
         probeRegistry.triggerWatchProbe(path);
@@ -18,11 +18,14 @@
 
 import org.gradle.internal.file.FileHierarchySet;
 import org.gradle.internal.file.FileMetadata;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.snapshot.DirectorySnapshot;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor;
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.snapshot.SnapshotVisitResult;
 import org.gradle.internal.watch.registry.FileWatcherProbeRegistry;
+import org.gradle.internal.watch.registry.WatchBudgetUsage;
 import org.gradle.internal.watch.registry.WatchMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,9 +35,16 @@
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.gradle.internal.watch.registry.impl.Combiners.nonCombining;
@@ -47,6 +57,8 @@ public class WatchableHierarchies {
     private final FileWatcherProbeRegistry probeRegistry;
     private final Predicate<String> watchFilter;
 
+    private WatchBudgetUsage watchBudgetUsage = WatchBudgetUsage.NOT_ENFORCED;
+
     /**
      * Files that can be watched.
      *
@@ -109,6 +121,7 @@ public SnapshotHierarchy removeUnwatchableContentOnBuildFinished(
         SnapshotHierarchy root,
         Predicate<File> isWatchedHierarchy,
         int maximumNumberOfWatchedHierarchies,
+        int watchBudget,
         List<File> unsupportedFileSystems,
         Invalidator invalidator
     ) {
@@ -118,6 +131,11 @@ public SnapshotHierarchy removeUnwatchableContentOnBuildFinished(
         if (!unsupportedFileSystems.isEmpty()) {
             newRoot = removeUnwatchableFileSystems(newRoot, unsupportedFileSystems, invalidator);
         }
+        if (watchBudget == WatchBudgetUsage.NO_WATCH_BUDGET) {
+            watchBudgetUsage = WatchBudgetUsage.NOT_ENFORCED;
+        } else {
+            newRoot = removeWatchedDirectoriesOverBudget(newRoot, watchBudget, invalidator);
+        }
         watchableHierarchiesSinceLastBuildFinish.clear();
         return newRoot;
     }
@@ -150,6 +168,152 @@ private SnapshotHierarchy removeWatchedHierarchiesOverLimit(SnapshotHierarchy ro
         return result;
     }
 
+    /**
+     * Removes content from the VFS until the directories to watch fit into the watch budget.
+     *
+     * Hierarchies are considered least recently used first.
+     * A hierarchy not used by the current build is dropped completely if that doesn't free more watches than necessary.
+     * Otherwise, the hierarchy is coarsened by dropping its largest subtrees until enough watches are freed,
+     * so the hierarchy itself stays watched.
+     */
+    @CheckReturnValue
+    private SnapshotHierarchy removeWatchedDirectoriesOverBudget(SnapshotHierarchy root, int watchBudget, Invalidator invalidator) {
+        Set<String> hierarchyPaths = hierarchies.stream()
+            .map(File::getAbsolutePath)
+            .collect(Collectors.toSet());
+        Map<File, Integer> watchedDirectories = new LinkedHashMap<>();
+        int totalWatchedDirectories = 0;
+        for (File hierarchy : hierarchies) {
+            int watchedDirectoriesInHierarchy = countWatchedDirectories(hierarchy, root, hierarchyPaths);
+            watchedDirectories.put(hierarchy, watchedDirectoriesInHierarchy);
+            totalWatchedDirectories += watchedDirectoriesInHierarchy;
+        }
+        if (totalWatchedDirectories <= watchBudget) {
+            watchBudgetUsage = new WatchBudgetUsage(watchBudget, totalWatchedDirectories, 0, 0);
+            return root;
+        }
+
+        LOGGER.info("Watching {} directories, which is over the budget of {} directories, dropping some state from the virtual file system", totalWatchedDirectories, watchBudget);
+        SnapshotHierarchy result = root;
+        int droppedHierarchies = 0;
+        int coarsenedHierarchies = 0;
+        List<File> leastRecentlyUsedFirst = new ArrayList<>(hierarchies);
+        Collections.reverse(leastRecentlyUsedFirst);
+        for (File hierarchy : leastRecentlyUsedFirst) {
+            int excess = totalWatchedDirectories - watchBudget;
+            if (excess <= 0) {
+                break;
+            }
+            int watchedDirectoriesInHierarchy = watchedDirectories.get(hierarchy);
+            if (watchedDirectoriesInHierarchy == 0) {
+                continue;
+            }
+            if (watchedDirectoriesInHierarchy <= excess && !watchableHierarchiesSinceLastBuildFinish.contains(hierarchy)) {
+                LOGGER.info("Dropping hierarchy {} with {} watched directories from the virtual file system", hierarchy, watchedDirectoriesInHierarchy);
+                hierarchies.remove(hierarchy);
+                result = invalidator.invalidate(hierarchy.getAbsolutePath(), result);
+                totalWatchedDirectories -= watchedDirectoriesInHierarchy;
+                droppedHierarchies++;
+            } else {
+                Coarsening coarsening = coarsen(hierarchy, excess, result, invalidator, hierarchyPaths);
+                result = coarsening.root;
+                if (coarsening.freedDirectories > 0) {
+                    totalWatchedDirectories -= coarsening.freedDirectories;
+                    coarsenedHierarchies++;
+                }
+            }
+        }
+        watchableFiles = buildWatchableFilesFromHierarchies(hierarchies);
+        watchBudgetUsage = new WatchBudgetUsage(watchBudget, totalWatchedDirectories, droppedHierarchies, coarsenedHierarchies);
+        return result;
+    }
+
+    private Coarsening coarsen(File hierarchy, int excess, SnapshotHierarchy root, Invalidator invalidator, Set<String> hierarchyPaths) {
+        String hierarchyPath = hierarchy.getAbsolutePath();
+        List<DirectorySnapshot> subtreeRoots = new ArrayList<>();
+        root.rootSnapshotsUnder(hierarchyPath)
+            .filter(snapshot -> snapshot instanceof DirectorySnapshot && !ignoredForWatching(snapshot) && !isInNestedHierarchy(snapshot.getAbsolutePath(), hierarchy))
+            .forEach(snapshot -> {
+                if (snapshot.getAbsolutePath().equals(hierarchyPath)) {
+                    ((DirectorySnapshot) snapshot).getChildren().stream()
+                        .filter(child -> child instanceof DirectorySnapshot && !ignoredForWatching(child))
+                        .forEach(child -> subtreeRoots.add((DirectorySnapshot) child));
+                } else {
+                    subtreeRoots.add((DirectorySnapshot) snapshot);
+                }
+            });
+        List<Subtree> subtrees = new ArrayList<>(subtreeRoots.size());
+        for (DirectorySnapshot subtreeRoot : subtreeRoots) {
+            WatchedDirectoryCounter counter = new WatchedDirectoryCounter(hierarchyPath, hierarchyPaths);
+            subtreeRoot.accept(counter);
+            subtrees.add(new Subtree(subtreeRoot.getAbsolutePath(), counter.directories));
+        }
+        // Largest first, so as few parts of the hierarchy as possible are dropped
+        subtrees.sort(Comparator.comparingInt((Subtree subtree) -> subtree.watchedDirectories).reversed());
+
+        SnapshotHierarchy result = root;
+        int freedDirectories = 0;
+        for (Subtree subtree : subtrees) {
+            if (freedDirectories >= excess) {
+                break;
+            }
+            result = invalidator.invalidate(subtree.absolutePath, result);
+            freedDirectories += subtree.watchedDirectories;
+        }
+        LOGGER.info("Coarsened hierarchy {} by dropping {} watched directories from the virtual file system", hierarchy, freedDirectories);
+        return new Coarsening(result, freedDirectories);
+    }
+
+    /**
+     * Counts the directories that need a watch for the content of a hierarchy, including the hierarchy itself and its probe.
+     *
+     * Directories in hierarchies nested in the hierarchy are counted for the nested hierarchy.
+     */
+    private int countWatchedDirectories(File hierarchy, SnapshotHierarchy root, Set<String> hierarchyPaths) {
+        String hierarchyPath = hierarchy.getAbsolutePath();
+        WatchedDirectoryCounter counter = new WatchedDirectoryCounter(hierarchyPath, hierarchyPaths);
+        Set<String> parentsOfWatchedFiles = new HashSet<>();
+        root.rootSnapshotsUnder(hierarchyPath)
+            .filter(snapshot -> !ignoredForWatching(snapshot) && !isInNestedHierarchy(snapshot.getAbsolutePath(), hierarchy))
+            .forEach(snapshot -> {
+                if (snapshot instanceof DirectorySnapshot) {
+                    snapshot.accept(counter);
+                } else {
+                    // Non-existing roots are watched via their closest existing ancestor, the parent is a cheap approximation
+                    parentsOfWatchedFiles.add(new File(snapshot.getAbsolutePath()).getParent());
+                }
+            });
+        int watchedDirectories = counter.directories + parentsOfWatchedFiles.size();
+        if (watchedDirectories == 0) {
+            return 0;
+        }
+        boolean hierarchyRootCounted = counter.hierarchyRootVisited || parentsOfWatchedFiles.contains(hierarchyPath);
+        // The probe directory is watched, too
+        return watchedDirectories + (hierarchyRootCounted ? 0 : 1) + 1;
+    }
+
+    private boolean isInNestedHierarchy(String path, File hierarchy) {
+        String hierarchyPath = hierarchy.getAbsolutePath();
+        for (File other : hierarchies) {
+            String otherPath = other.getAbsolutePath();
+            if (otherPath.length() > hierarchyPath.length() && isAncestorOrSelf(otherPath, path) && isAncestorOrSelf(hierarchyPath, otherPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAncestorOrSelf(String ancestor, String path) {
+        return path.equals(ancestor) || (path.startsWith(ancestor) && path.charAt(ancestor.length()) == File.separatorChar);
+    }
+
+    /**
+     * The usage of the watch budget after it was last enforced.
+     */
+    public WatchBudgetUsage getWatchBudgetUsage() {
+        return watchBudgetUsage;
+    }
+
     private static FileHierarchySet buildWatchableFilesFromHierarchies(Collection<File> hierarchies) {
         return hierarchies.stream()
             .reduce(FileHierarchySet.empty(), FileHierarchySet::plus, Combiners.nonCombining());
@@ -257,6 +421,54 @@ public boolean shouldWatch(FileSystemLocationSnapshot snapshot) {
         return !ignoredForWatching(snapshot) && isInWatchableHierarchy(snapshot.getAbsolutePath());
     }
 
+    private static class Coarsening {
+        private final SnapshotHierarchy root;
+        private final int freedDirectories;
+
+        public Coarsening(SnapshotHierarchy root, int freedDirectories) {
+            this.root = root;
+            this.freedDirectories = freedDirectories;
+        }
+    }
+
+    private static class Subtree {
+        private final String absolutePath;
+        private final int watchedDirectories;
+
+        public Subtree(String absolutePath, int watchedDirectories) {
+            this.absolutePath = absolutePath;
+            this.watchedDirectories = watchedDirectories;
+        }
+    }
+
+    private class WatchedDirectoryCounter implements FileSystemSnapshotHierarchyVisitor {
+        private final String hierarchyPath;
+        private final Set<String> hierarchyPaths;
+        private int directories;
+        private boolean hierarchyRootVisited;
+
+        public WatchedDirectoryCounter(String hierarchyPath, Set<String> hierarchyPaths) {
+            this.hierarchyPath = hierarchyPath;
+            this.hierarchyPaths = hierarchyPaths;
+        }
+
+        @Override
+        public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot snapshot) {
+            if (snapshot.getType() != FileType.Directory) {
+                return SnapshotVisitResult.CONTINUE;
+            }
+            String path = snapshot.getAbsolutePath();
+            if (path.equals(hierarchyPath)) {
+                hierarchyRootVisited = true;
+            } else if (ignoredForWatching(snapshot) || hierarchyPaths.contains(path)) {
+                // Nested hierarchies are counted separately
+                return SnapshotVisitResult.SKIP_SUBTREE;
+            }
+            directories++;
+            return SnapshotVisitResult.CONTINUE;
+        }
+    }
+
     private static class InvalidatingRootVisitor implements FileHierarchySet.RootVisitor {
         private SnapshotHierarchy newRoot;
         private final Invalidator invalidator;
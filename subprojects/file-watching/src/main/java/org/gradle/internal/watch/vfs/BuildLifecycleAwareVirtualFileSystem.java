@@ -19,10 +19,12 @@
 import org.gradle.internal.operations.BuildOperationRunner;
 import org.gradle.internal.service.scopes.Scopes;
 import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.vfs.VirtualFileSystem;
 import org.gradle.internal.watch.registry.WatchMode;
 
 import java.io.File;
+import java.util.stream.Stream;
 
 /**
  * Controls the lifecycle and book-keeping for file system watching.
@@ -50,7 +52,15 @@ public interface BuildLifecycleAwareVirtualFileSystem extends VirtualFileSystem,
 
     /**
      * Called when the build is finished.
+     *
+     * @param watchBudget the maximum number of directories to watch, or {@link org.gradle.internal.watch.registry.WatchBudgetUsage#NO_WATCH_BUDGET}.
+     * Only enforced by watchers which need a watch per directory.
+     */
+    void beforeBuildFinished(WatchMode watchMode, VfsLogging vfsLogging, WatchLogging watchLogging, BuildOperationRunner buildOperationRunner, int maximumNumberOfWatchedHierarchies, int watchBudget);
+
+    /**
+     * Returns all root snapshots currently stored below {@code absolutePath}.
      */
-    void beforeBuildFinished(WatchMode watchMode, VfsLogging vfsLogging, WatchLogging watchLogging, BuildOperationRunner buildOperationRunner, int maximumNumberOfWatchedHierarchies);
+    Stream<FileSystemLocationSnapshot> rootSnapshotsUnder(String absolutePath);
 
 }
@@ -20,6 +20,26 @@ public interface FileSystemWatchingStatistics {
     int getNumberOfReceivedEvents();
     int getNumberOfWatchedHierarchies();
 
+    /**
+     * The maximum number of directories to watch, or -1 if the number of watched directories isn't limited.
+     */
+    int getWatchBudget();
+
+    /**
+     * The number of watched directories, or -1 if the number of watched directories isn't limited.
+     */
+    int getNumberOfWatchedDirectories();
+
+    /**
+     * The number of hierarchies removed from the virtual file system to stay within the watch budget.
+     */
+    int getNumberOfHierarchiesDroppedForWatchBudget();
+
+    /**
+     * The number of hierarchies partially removed from the virtual file system to stay within the watch budget.
+     */
+    int getNumberOfHierarchiesCoarsenedForWatchBudget();
+
     int getRetainedRegularFiles();
     int getRetainedDirectories();
     int getRetainedMissingFiles();
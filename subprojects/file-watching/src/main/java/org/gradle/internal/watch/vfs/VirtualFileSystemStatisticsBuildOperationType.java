@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.watch.vfs;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Publishes the statistics of the virtual file system, file hashing and directory snapshotting at the end of a build.
+ */
+public interface VirtualFileSystemStatisticsBuildOperationType extends BuildOperationType<VirtualFileSystemStatisticsBuildOperationType.Details, VirtualFileSystemStatisticsBuildOperationType.Result> {
+    String DISPLAY_NAME = "Collect virtual file system statistics";
+
+    interface Details {
+        Details INSTANCE = new Details() {};
+    }
+
+    interface Result {
+        /**
+         * Statistics collected between the end of the previous build and the start of this build.
+         */
+        Statistics getStatisticsSinceLastBuild();
+
+        /**
+         * Statistics collected during this build.
+         */
+        Statistics getStatisticsDuringBuild();
+    }
+
+    interface Statistics {
+        /**
+         * Number of reads answered from the virtual file system.
+         */
+        long getVfsHitCount();
+
+        /**
+         * Number of reads which had to access the file system.
+         */
+        long getVfsMissCount();
+
+        /**
+         * Number of file system watching events which invalidated content of the virtual file system.
+         */
+        long getInvalidatingWatchEventCount();
+
+        long getStatCount();
+
+        long getUnixModeCount();
+
+        long getHashedFileCount();
+
+        long getHashedContentLength();
+
+        long getSnapshottedHierarchyCount();
+
+        long getVisitedDirectoryCount();
+
+        long getVisitedFileCount();
+
+        long getFailedFileCount();
+
+        /**
+         * The time spent snapshotting directory trees, summed over all snapshotting threads.
+         */
+        long getSnapshottingTimeMillis();
+    }
+}
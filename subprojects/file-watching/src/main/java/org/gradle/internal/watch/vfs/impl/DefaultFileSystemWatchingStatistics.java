@@ -21,12 +21,14 @@
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.watch.registry.FileWatcherRegistry;
+import org.gradle.internal.watch.registry.WatchBudgetUsage;
 import org.gradle.internal.watch.vfs.FileSystemWatchingStatistics;
 
 import static org.gradle.internal.snapshot.SnapshotVisitResult.CONTINUE;
 
 public class DefaultFileSystemWatchingStatistics implements FileSystemWatchingStatistics {
     private final FileWatcherRegistry.FileWatchingStatistics fileWatchingStatistics;
+    private final WatchBudgetUsage watchBudgetUsage;
     private final VirtualFileSystemStatistics vfsStatistics;
 
     public DefaultFileSystemWatchingStatistics(
@@ -34,6 +36,7 @@ public DefaultFileSystemWatchingStatistics(
         SnapshotHierarchy vfsRoot
     ) {
         this.fileWatchingStatistics = fileWatchingStatistics;
+        this.watchBudgetUsage = fileWatchingStatistics.getWatchBudgetUsage();
         this.vfsStatistics = getStatistics(vfsRoot);
     }
 
@@ -47,6 +50,26 @@ public int getNumberOfWatchedHierarchies() {
         return fileWatchingStatistics.getNumberOfWatchedHierarchies();
     }
 
+    @Override
+    public int getWatchBudget() {
+        return watchBudgetUsage.getWatchBudget();
+    }
+
+    @Override
+    public int getNumberOfWatchedDirectories() {
+        return watchBudgetUsage.getNumberOfWatchedDirectories();
+    }
+
+    @Override
+    public int getNumberOfHierarchiesDroppedForWatchBudget() {
+        return watchBudgetUsage.getNumberOfDroppedHierarchies();
+    }
+
+    @Override
+    public int getNumberOfHierarchiesCoarsenedForWatchBudget() {
+        return watchBudgetUsage.getNumberOfCoarsenedHierarchies();
+    }
+
     @Override
     public int getRetainedRegularFiles() {
         return vfsStatistics.getRetained(FileType.RegularFile);
@@ -87,7 +87,8 @@ public void beforeBuildFinished(
         VfsLogging vfsLogging,
         WatchLogging watchLogging,
         BuildOperationRunner buildOperationRunner,
-        int maximumNumberOfWatchedHierarchies
+        int maximumNumberOfWatchedHierarchies,
+        int watchBudget
     ) {
         updateRootUnderLock(vfsRoot -> buildOperationRunner.call(new CallableBuildOperation<SnapshotHierarchy>() {
             @Override
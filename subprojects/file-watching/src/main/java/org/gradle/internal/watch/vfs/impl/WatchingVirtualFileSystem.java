@@ -26,6 +26,7 @@
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.snapshot.FileSystemNode;
 import org.gradle.internal.snapshot.SnapshotHierarchy;
+import org.gradle.internal.vfs.VirtualFileSystemStatistics;
 import org.gradle.internal.vfs.impl.AbstractVirtualFileSystem;
 import org.gradle.internal.watch.WatchingNotSupportedException;
 import org.gradle.internal.watch.registry.FileWatcherRegistry;
@@ -67,6 +68,7 @@ public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem impleme
     private final LocationsWrittenByCurrentBuild locationsWrittenByCurrentBuild;
     private final WatchableFileSystemDetector watchableFileSystemDetector;
     private final FileChangeListeners fileChangeListeners;
+    private final VirtualFileSystemStatistics.Collector statisticsCollector;
     private final List<File> unsupportedFileSystems = new ArrayList<>();
     private Logger warningLogger = LOGGER;
 
@@ -85,7 +87,8 @@ public WatchingVirtualFileSystem(
         DaemonDocumentationIndex daemonDocumentationIndex,
         LocationsWrittenByCurrentBuild locationsWrittenByCurrentBuild,
         WatchableFileSystemDetector watchableFileSystemDetector,
-        FileChangeListeners fileChangeListeners
+        FileChangeListeners fileChangeListeners,
+        VirtualFileSystemStatistics.Collector statisticsCollector
     ) {
         super(root);
         this.watcherRegistryFactory = watcherRegistryFactory;
@@ -93,6 +96,7 @@ public WatchingVirtualFileSystem(
         this.locationsWrittenByCurrentBuild = locationsWrittenByCurrentBuild;
         this.watchableFileSystemDetector = watchableFileSystemDetector;
         this.fileChangeListeners = fileChangeListeners;
+        this.statisticsCollector = statisticsCollector;
     }
 
     @Override
@@ -222,7 +226,8 @@ public void beforeBuildFinished(
         VfsLogging vfsLogging,
         WatchLogging watchLogging,
         BuildOperationRunner buildOperationRunner,
-        int maximumNumberOfWatchedHierarchies
+        int maximumNumberOfWatchedHierarchies,
+        int watchBudget
     ) {
         updateRootUnderLock(currentRoot -> buildOperationRunner.call(new CallableBuildOperation<SnapshotHierarchy>() {
             @Override
@@ -244,7 +249,7 @@ public SnapshotHierarchy call(BuildOperationContext context) {
                         if (hasDroppedStateBecauseOfErrorsReceivedWhileWatching(statistics)) {
                             newRoot = stopWatchingAndInvalidateHierarchyAfterError(currentRoot);
                         } else {
-                            newRoot = withWatcherChangeErrorHandling(currentRoot, () -> watchRegistry.updateVfsOnBuildFinished(currentRoot, watchMode, maximumNumberOfWatchedHierarchies, unsupportedFileSystems));
+                            newRoot = withWatcherChangeErrorHandling(currentRoot, () -> watchRegistry.updateVfsOnBuildFinished(currentRoot, watchMode, maximumNumberOfWatchedHierarchies, watchBudget, unsupportedFileSystems));
                         }
                         statisticsDuringBuild = new DefaultFileSystemWatchingStatistics(statistics, newRoot);
                         if (vfsLogging == VfsLogging.VERBOSE) {
@@ -256,6 +261,13 @@ public SnapshotHierarchy call(BuildOperationContext context) {
                                 statisticsDuringBuild.getRetainedDirectories(),
                                 statisticsDuringBuild.getRetainedMissingFiles()
                             );
+                            if (statisticsDuringBuild.getNumberOfHierarchiesDroppedForWatchBudget() > 0 || statisticsDuringBuild.getNumberOfHierarchiesCoarsenedForWatchBudget() > 0) {
+                                LOGGER.warn("Dropped {} and coarsened {} hierarchies from the virtual file system to watch at most {} directories",
+                                    statisticsDuringBuild.getNumberOfHierarchiesDroppedForWatchBudget(),
+                                    statisticsDuringBuild.getNumberOfHierarchiesCoarsenedForWatchBudget(),
+                                    statisticsDuringBuild.getWatchBudget()
+                                );
+                            }
                             if (stateInvalidatedAtStartOfBuild) {
                                 LOGGER.warn("Parts of the virtual file system have been removed at the start of the build since they didn't support watching");
                             }
@@ -359,7 +371,7 @@ private class InvalidateVfsChangeHandler implements FileWatcherRegistry.ChangeHa
         @Override
         public void handleChange(FileWatcherRegistry.Type type, Path path) {
             updateRootUnderLock(root -> updateNotifyingListeners(
-                diffListener -> root.invalidate(path.toString(), new VfsChangeLoggingNodeDiffListener(type, path, diffListener))
+                diffListener -> root.invalidate(path.toString(), new VfsChangeRecordingNodeDiffListener(type, path, diffListener))
             ));
         }
 
@@ -399,13 +411,13 @@ public void stopWatchingAfterError() {
         }
     }
 
-    private static class VfsChangeLoggingNodeDiffListener implements SnapshotHierarchy.NodeDiffListener {
+    private class VfsChangeRecordingNodeDiffListener implements SnapshotHierarchy.NodeDiffListener {
         private final FileWatcherRegistry.Type type;
         private final Path path;
         private final SnapshotHierarchy.NodeDiffListener delegate;
-        private boolean alreadyLogged;
+        private boolean alreadyRecorded;
 
-        public VfsChangeLoggingNodeDiffListener(FileWatcherRegistry.Type type, Path path, SnapshotHierarchy.NodeDiffListener delegate) {
+        public VfsChangeRecordingNodeDiffListener(FileWatcherRegistry.Type type, Path path, SnapshotHierarchy.NodeDiffListener delegate) {
             this.type = type;
             this.path = path;
             this.delegate = delegate;
@@ -413,19 +425,20 @@ public VfsChangeLoggingNodeDiffListener(FileWatcherRegistry.Type type, Path path
 
         @Override
         public void nodeRemoved(FileSystemNode node) {
-            maybeLogVfsChangeMessage();
+            maybeRecordVfsChange();
             delegate.nodeRemoved(node);
         }
 
         @Override
         public void nodeAdded(FileSystemNode node) {
-            maybeLogVfsChangeMessage();
+            maybeRecordVfsChange();
             delegate.nodeAdded(node);
         }
 
-        private void maybeLogVfsChangeMessage() {
-            if (!alreadyLogged) {
-                alreadyLogged = true;
+        private void maybeRecordVfsChange() {
+            if (!alreadyRecorded) {
+                alreadyRecorded = true;
+                statisticsCollector.recordInvalidatingWatchEvent();
                 LOGGER.debug("Handling VFS change {} {}", type, path);
             }
         }
@@ -20,6 +20,7 @@ import net.rubygrapefruit.platform.file.FileWatcher
 import org.gradle.internal.file.FileMetadata.AccessType
 import org.gradle.internal.snapshot.MissingFileSnapshot
 import org.gradle.internal.watch.registry.FileWatcherUpdater
+import org.gradle.internal.watch.registry.WatchBudgetUsage
 import org.gradle.internal.watch.registry.WatchMode
 
 import static org.gradle.internal.watch.registry.impl.HierarchicalFileWatcherUpdater.FileSystemLocationToWatchValidator.NO_VALIDATION
@@ -369,6 +370,20 @@ class HierarchicalFileWatcherUpdaterTest extends AbstractFileWatcherUpdaterTest
         0 * _
     }
 
+    def "does not enforce a watch budget"() {
+        watchBudget = 1
+        def watchableHierarchy = file("watchable").createDir()
+        def subdirectory = watchableHierarchy.createDir("sub")
+
+        when:
+        registerWatchableHierarchies([watchableHierarchy])
+        addSnapshot(snapshotDirectory(watchableHierarchy))
+        buildFinished()
+        then:
+        vfsHasSnapshotsAt(subdirectory)
+        updater.watchBudgetUsage == WatchBudgetUsage.NOT_ENFORCED
+    }
+
     private static MissingFileSnapshot missingFileSnapshot(File location) {
         new MissingFileSnapshot(location.getAbsolutePath(), AccessType.DIRECT)
     }
@@ -18,6 +18,7 @@ package org.gradle.internal.watch.registry.impl
 
 import net.rubygrapefruit.platform.file.FileWatcher
 import org.gradle.internal.watch.registry.FileWatcherUpdater
+import org.gradle.internal.watch.registry.WatchBudgetUsage
 import org.gradle.internal.watch.registry.WatchMode
 
 class NonHierarchicalFileWatcherUpdaterTest extends AbstractFileWatcherUpdaterTest {
@@ -122,4 +123,78 @@ class NonHierarchicalFileWatcherUpdaterTest extends AbstractFileWatcherUpdaterTe
         1 * watcher.stopWatching({ equalIgnoringOrder(it, [unwatchableContent.parentFile]) })
         0 * _
     }
+
+    def "drops least recently used hierarchy not used by the current build when over the watch budget"() {
+        useWatchBudget(4)
+        def coldHierarchy = file("cold").createDir()
+        coldHierarchy.createDir("sub")
+        def hotHierarchy = file("hot").createDir()
+        hotHierarchy.createDir("a")
+        hotHierarchy.createDir("b")
+
+        when:
+        registerWatchableHierarchies([coldHierarchy])
+        addSnapshot(snapshotDirectory(coldHierarchy))
+        buildFinished()
+        then:
+        vfsHasSnapshotsAt(coldHierarchy)
+        updater.watchBudgetUsage.numberOfWatchedDirectories == 3
+        updater.watchBudgetUsage.numberOfDroppedHierarchies == 0
+
+        when:
+        registerWatchableHierarchies([hotHierarchy])
+        addSnapshot(snapshotDirectory(hotHierarchy))
+        buildFinished()
+        then:
+        !vfsHasSnapshotsAt(coldHierarchy)
+        vfsHasSnapshotsAt(hotHierarchy)
+        !updater.watchedFiles.contains(coldHierarchy.absolutePath)
+        updater.watchedFiles.contains(hotHierarchy.absolutePath)
+        with(updater.watchBudgetUsage) {
+            watchBudget == 4
+            numberOfWatchedDirectories == 4
+            numberOfDroppedHierarchies == 1
+            numberOfCoarsenedHierarchies == 0
+        }
+    }
+
+    def "coarsens hierarchy used by the current build by dropping its largest subtrees when over the watch budget"() {
+        useWatchBudget(5)
+        def watchableHierarchy = file("watchable").createDir()
+        def largeSubtree = watchableHierarchy.createDir("large")
+        ["x", "y", "z"].each { largeSubtree.createDir(it) }
+        def smallSubtree = watchableHierarchy.createDir("small")
+
+        when:
+        registerWatchableHierarchies([watchableHierarchy])
+        addSnapshot(snapshotDirectory(watchableHierarchy))
+        buildFinished()
+        then:
+        !vfsHasSnapshotsAt(largeSubtree)
+        vfsHasSnapshotsAt(smallSubtree)
+        updater.watchedFiles.contains(watchableHierarchy.absolutePath)
+        with(updater.watchBudgetUsage) {
+            watchBudget == 5
+            numberOfWatchedDirectories == 3
+            numberOfDroppedHierarchies == 0
+            numberOfCoarsenedHierarchies == 1
+        }
+    }
+
+    def "does not count watched directories without a watch budget"() {
+        def watchableHierarchy = file("watchable").createDir()
+        watchableHierarchy.createDir("sub")
+
+        when:
+        registerWatchableHierarchies([watchableHierarchy])
+        addSnapshot(snapshotDirectory(watchableHierarchy))
+        buildFinished()
+        then:
+        vfsHasSnapshotsAt(watchableHierarchy)
+        updater.watchBudgetUsage == WatchBudgetUsage.NOT_ENFORCED
+    }
+
+    private void useWatchBudget(int watchBudget) {
+        this.watchBudget = watchBudget
+    }
 }
@@ -20,6 +20,7 @@ import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.snapshot.CaseSensitivity
 import org.gradle.internal.snapshot.SnapshotHierarchy
 import org.gradle.internal.vfs.impl.DefaultSnapshotHierarchy
+import org.gradle.internal.watch.registry.WatchBudgetUsage
 import org.gradle.internal.watch.registry.WatchMode
 import org.gradle.internal.watch.vfs.VfsLogging
 import org.gradle.internal.watch.vfs.WatchLogging
@@ -41,7 +42,7 @@ class WatchingNotSupportedVirtualFileSystemTest extends Specification {
 
         when:
         watchingNotSupportedVfs.updateRootUnderLock { root -> nonEmptySnapshotHierarchy }
-        watchingNotSupportedVfs.beforeBuildFinished(watchMode, VfsLogging.NORMAL, WatchLogging.NORMAL, buildOperationRunner, Integer.MAX_VALUE)
+        watchingNotSupportedVfs.beforeBuildFinished(watchMode, VfsLogging.NORMAL, WatchLogging.NORMAL, buildOperationRunner, Integer.MAX_VALUE, WatchBudgetUsage.NO_WATCH_BUDGET)
         then:
         watchingNotSupportedVfs.root == emptySnapshotHierarchy
 
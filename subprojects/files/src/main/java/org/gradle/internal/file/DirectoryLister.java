@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.file;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Lists the entries of a directory together with their metadata.
+ *
+ * Implementations should read the metadata of all entries with as few system calls as the platform allows,
+ * instead of querying the metadata of each entry separately.
+ */
+public interface DirectoryLister {
+    /**
+     * Lists the entries of the given directory.
+     *
+     * Symlinks are not followed, i.e. the attributes of an entry which is a symlink are the attributes of the symlink itself.
+     * The order of the returned entries is unspecified.
+     *
+     * @throws IOException if the directory cannot be listed.
+     */
+    List<Entry> listDirectory(Path directory) throws IOException;
+
+    /**
+     * An entry of a listed directory.
+     */
+    final class Entry {
+        private final String name;
+        private final BasicFileAttributes attributes;
+        private final IOException failure;
+
+        private Entry(String name, @Nullable BasicFileAttributes attributes, @Nullable IOException failure) {
+            this.name = name;
+            this.attributes = attributes;
+            this.failure = failure;
+        }
+
+        public static Entry of(String name, BasicFileAttributes attributes) {
+            return new Entry(name, attributes, null);
+        }
+
+        /**
+         * An entry whose attributes could not be read, for example because it has been removed while listing the directory.
+         */
+        public static Entry failed(String name, IOException failure) {
+            return new Entry(name, null, failure);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The attributes of the entry, or {@code null} if they could not be read.
+         */
+        @Nullable
+        public BasicFileAttributes getAttributes() {
+            return attributes;
+        }
+
+        /**
+         * Why the attributes of the entry could not be read, or {@code null} if they could be read.
+         */
+        @Nullable
+        public IOException getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.file.impl;
+
+import org.gradle.internal.file.DirectoryLister;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Walks a file tree like {@link Files#walkFileTree(Path, java.util.Set, int, FileVisitor)} does,
+ * though reads the metadata of the entries of each directory in bulk via a {@link DirectoryLister}.
+ *
+ * The visitor sees the same sequence of callbacks as with {@link Files#walkFileTree(Path, java.util.Set, int, FileVisitor)}.
+ * The entries of a directory are only listed once {@link FileVisitor#preVisitDirectory(Object, BasicFileAttributes)} continues into it,
+ * so a directory which cannot be listed is reported via {@link FileVisitor#postVisitDirectory(Object, IOException)},
+ * like a directory whose entries cannot be read by {@link Files#walkFileTree(Path, java.util.Set, int, FileVisitor)}.
+ * When following symlinks, the attributes of the entries which are symlinks are read separately.
+ */
+public class DirectoryListingFileTreeWalker {
+    private final DirectoryLister directoryLister;
+    private final boolean followLinks;
+    private final FileVisitor<? super Path> visitor;
+    private final Deque<Ancestor> ancestors = new ArrayDeque<>();
+    // Number of directories on the current path which have been reached via a symlink
+    private int directoriesViaSymlink;
+
+    private DirectoryListingFileTreeWalker(DirectoryLister directoryLister, boolean followLinks, FileVisitor<? super Path> visitor) {
+        this.directoryLister = directoryLister;
+        this.followLinks = followLinks;
+        this.visitor = visitor;
+    }
+
+    public static void walkFileTree(DirectoryLister directoryLister, Path start, boolean followLinks, FileVisitor<? super Path> visitor) throws IOException {
+        new DirectoryListingFileTreeWalker(directoryLister, followLinks, visitor).walk(start);
+    }
+
+    private void walk(Path start) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = readStartAttributes(start);
+        } catch (IOException e) {
+            visitor.visitFileFailed(start, e);
+            return;
+        }
+        visit(start, attributes, false);
+    }
+
+    private BasicFileAttributes readStartAttributes(Path start) throws IOException {
+        if (followLinks) {
+            try {
+                return Files.readAttributes(start, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // Broken symlinks are visited as files, same as Files.walkFileTree does
+            }
+        }
+        return Files.readAttributes(start, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    private FileVisitResult visit(Path path, BasicFileAttributes attributes, boolean viaSymlink) throws IOException {
+        if (!attributes.isDirectory()) {
+            return normalize(visitor.visitFile(path, attributes));
+        }
+        // Without following a symlink, the walk cannot reach any of the directories on the current path again
+        if (followLinks && (viaSymlink || directoriesViaSymlink > 0) && wouldLoop(path, attributes)) {
+            return normalize(visitor.visitFileFailed(path, new FileSystemLoopException(path.toString())));
+        }
+
+        FileVisitResult preVisitResult = visitor.preVisitDirectory(path, attributes);
+        if (preVisitResult != FileVisitResult.CONTINUE) {
+            return normalize(preVisitResult);
+        }
+
+        List<DirectoryLister.Entry> entries;
+        try {
+            entries = directoryLister.listDirectory(path);
+        } catch (IOException e) {
+            return normalize(visitor.postVisitDirectory(path, e));
+        }
+
+        ancestors.push(new Ancestor(path, attributes.fileKey()));
+        if (viaSymlink) {
+            directoriesViaSymlink++;
+        }
+        try {
+            for (DirectoryLister.Entry entry : entries) {
+                FileVisitResult entryResult = visitEntry(path.resolve(entry.getName()), entry);
+                if (entryResult == FileVisitResult.TERMINATE) {
+                    return FileVisitResult.TERMINATE;
+                }
+                if (entryResult == FileVisitResult.SKIP_SIBLINGS) {
+                    break;
+                }
+            }
+        } finally {
+            ancestors.pop();
+            if (viaSymlink) {
+                directoriesViaSymlink--;
+            }
+        }
+        return normalize(visitor.postVisitDirectory(path, null));
+    }
+
+    private FileVisitResult visitEntry(Path path, DirectoryLister.Entry entry) throws IOException {
+        BasicFileAttributes attributes = entry.getAttributes();
+        if (attributes == null) {
+            IOException failure = entry.getFailure();
+            assert failure != null;
+            return normalize(visitor.visitFileFailed(path, failure));
+        }
+        if (followLinks && attributes.isSymbolicLink()) {
+            try {
+                return visit(path, Files.readAttributes(path, BasicFileAttributes.class), true);
+            } catch (IOException e) {
+                // Broken symlinks are visited as files, same as Files.walkFileTree does
+            }
+        }
+        return visit(path, attributes, false);
+    }
+
+    private boolean wouldLoop(Path directory, BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey() != null ? attributes.fileKey() : readFileKey(directory);
+        for (Ancestor ancestor : ancestors) {
+            Object ancestorFileKey = ancestor.getFileKey();
+            if (fileKey != null && ancestorFileKey != null) {
+                if (fileKey.equals(ancestorFileKey)) {
+                    return true;
+                }
+            } else if (isSameFile(ancestor.path, directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns the result of a visitor callback into what the walk should do with the siblings of the visited path.
+     */
+    private static FileVisitResult normalize(FileVisitResult result) {
+        return result == FileVisitResult.SKIP_SUBTREE ? FileVisitResult.CONTINUE : result;
+    }
+
+    @Nullable
+    private static Object readFileKey(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSameFile(Path first, Path second) {
+        try {
+            return Files.isSameFile(first, second);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static class Ancestor {
+        private final Path path;
+        @Nullable
+        private Object fileKey;
+        private boolean fileKeyRead;
+
+        public Ancestor(Path path, @Nullable Object fileKey) {
+            this.path = path;
+            this.fileKey = fileKey;
+            this.fileKeyRead = fileKey != null;
+        }
+
+        @Nullable
+        public Object getFileKey() {
+            if (!fileKeyRead) {
+                fileKey = readFileKey(path);
+                fileKeyRead = true;
+            }
+            return fileKey;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.file.impl
+
+import org.gradle.internal.file.DirectoryLister
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.FileVisitOption
+import java.nio.file.FileVisitResult
+import java.nio.file.FileVisitor
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.BasicFileAttributes
+
+class DirectoryListingFileTreeWalkerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    TestFile rootDir
+
+    def setup() {
+        rootDir = temporaryFolder.createDir("root")
+    }
+
+    def "visits the same paths as Files.walkFileTree (followLinks: #followLinks)"() {
+        rootDir.createFile("a.txt") << "a"
+        rootDir.createFile("sub/b.txt") << "bb"
+        rootDir.createFile("sub/nested/c.txt") << "ccc"
+        rootDir.createDir("empty")
+
+        expect:
+        walkWithLister(followLinks) == walkWithJdk(followLinks)
+
+        where:
+        followLinks << [true, false]
+    }
+
+    @Requires(TestPrecondition.SYMLINKS)
+    def "handles symlinks like Files.walkFileTree (followLinks: #followLinks)"() {
+        def target = rootDir.createFile("sub/target.txt") << "target"
+        rootDir.file("sub/link.txt").createLink(target)
+        rootDir.file("sub/dirLink").createLink(rootDir.createDir("other"))
+        rootDir.createFile("other/d.txt") << "d"
+        rootDir.file("sub/broken").createLink(rootDir.file("missing"))
+        rootDir.file("sub/loop").createLink(rootDir)
+
+        expect:
+        walkWithLister(followLinks) == walkWithJdk(followLinks)
+
+        where:
+        followLinks << [true, false]
+    }
+
+    def "stops walking when the visitor terminates"() {
+        rootDir.createFile("a.txt")
+        rootDir.createFile("b.txt")
+        def visited = []
+
+        when:
+        DirectoryListingFileTreeWalker.walkFileTree(NioDirectoryLister.INSTANCE, rootDir.toPath(), false, new RecordingVisitor(visited, rootDir) {
+            @Override
+            FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                super.visitFile(file, attrs)
+                return FileVisitResult.TERMINATE
+            }
+        })
+
+        then:
+        visited.size() == 2
+        visited[0] == "preVisitDirectory root"
+        visited[1].startsWith("visitFile root/")
+    }
+
+    def "does not list directories skipped by the visitor"() {
+        rootDir.createFile("excluded/a.txt")
+        rootDir.createFile("included/b.txt")
+        def listed = []
+        def lister = { Path directory ->
+            listed << rootDir.parentFile.toPath().relativize(directory).toString().replace(File.separatorChar, '/' as char)
+            NioDirectoryLister.INSTANCE.listDirectory(directory)
+        } as DirectoryLister
+
+        when:
+        DirectoryListingFileTreeWalker.walkFileTree(lister, rootDir.toPath(), false, new RecordingVisitor([], rootDir) {
+            @Override
+            FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.fileName.toString() == "excluded" ? FileVisitResult.SKIP_SUBTREE : super.preVisitDirectory(dir, attrs)
+            }
+        })
+
+        then:
+        listed.sort() == ["root", "root/included"]
+    }
+
+    def "reports a directory which cannot be listed via postVisitDirectory"() {
+        rootDir.createFile("sub/a.txt")
+        def failure = new IOException("broken")
+        def lister = { Path directory ->
+            if (directory.fileName.toString() == "sub") {
+                throw failure
+            }
+            NioDirectoryLister.INSTANCE.listDirectory(directory)
+        } as DirectoryLister
+        def visited = []
+
+        when:
+        DirectoryListingFileTreeWalker.walkFileTree(lister, rootDir.toPath(), false, new RecordingVisitor(visited, rootDir) {
+            @Override
+            FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                visited << "postVisitDirectory ${dir.fileName} ${exc?.message}".toString()
+                return FileVisitResult.CONTINUE
+            }
+        })
+
+        then:
+        visited == ["preVisitDirectory root", "preVisitDirectory root/sub", "postVisitDirectory sub broken", "postVisitDirectory root null"]
+    }
+
+    def "reports a missing root via visitFileFailed"() {
+        def visited = []
+
+        when:
+        DirectoryListingFileTreeWalker.walkFileTree(NioDirectoryLister.INSTANCE, rootDir.file("missing").toPath(), true, new RecordingVisitor(visited, rootDir))
+
+        then:
+        visited == ["visitFileFailed root/missing NoSuchFileException"]
+    }
+
+    private List<String> walkWithLister(boolean followLinks) {
+        def visited = []
+        DirectoryListingFileTreeWalker.walkFileTree(NioDirectoryLister.INSTANCE, rootDir.toPath(), followLinks, new RecordingVisitor(visited, rootDir))
+        return visited.sort()
+    }
+
+    private List<String> walkWithJdk(boolean followLinks) {
+        def visited = []
+        def options = followLinks ? EnumSet.of(FileVisitOption.FOLLOW_LINKS) : EnumSet.noneOf(FileVisitOption)
+        Files.walkFileTree(rootDir.toPath(), options, Integer.MAX_VALUE, new RecordingVisitor(visited, rootDir))
+        return visited.sort()
+    }
+
+    private static class RecordingVisitor implements FileVisitor<Path> {
+        private final List<String> visited
+        private final Path baseDir
+
+        RecordingVisitor(List<String> visited, File rootDir) {
+            this.visited = visited
+            this.baseDir = rootDir.parentFile.toPath()
+        }
+
+        @Override
+        FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            visited << "preVisitDirectory ${relativize(dir)}".toString()
+            return FileVisitResult.CONTINUE
+        }
+
+        @Override
+        FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            visited << "visitFile ${relativize(file)} symlink=${attrs.symbolicLink} size=${attrs.regularFile ? attrs.size() : -1}".toString()
+            return FileVisitResult.CONTINUE
+        }
+
+        @Override
+        FileVisitResult visitFileFailed(Path file, IOException exc) {
+            visited << "visitFileFailed ${relativize(file)} ${exc.getClass().simpleName}".toString()
+            return FileVisitResult.CONTINUE
+        }
+
+        @Override
+        FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+            visited << "postVisitDirectory ${relativize(dir)}".toString()
+            return FileVisitResult.CONTINUE
+        }
+
+        private String relativize(Path path) {
+            return baseDir.relativize(path).toString().replace(File.separatorChar, '/' as char)
+        }
+    }
+}
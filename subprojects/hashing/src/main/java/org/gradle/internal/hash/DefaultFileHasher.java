@@ -21,21 +21,54 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 
 public class DefaultFileHasher implements FileHasher {
+    /**
+     * Files of at least this size are read by mapping them into memory instead of copying them through a buffer.
+     */
+    public static final long DEFAULT_MAPPED_READ_THRESHOLD = 16 * 1024 * 1024;
+
     private final StreamHasher streamHasher;
+    private final long mappedReadThreshold;
 
     public DefaultFileHasher(StreamHasher streamHasher) {
+        this(streamHasher, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param mappedReadThreshold the size from which on files are mapped into memory to hash them, {@code Long.MAX_VALUE} to never map files.
+     */
+    public DefaultFileHasher(StreamHasher streamHasher, long mappedReadThreshold) {
         this.streamHasher = streamHasher;
+        this.mappedReadThreshold = mappedReadThreshold;
     }
 
     @Override
     public HashCode hash(File file) {
+        return hash(file, file.length());
+    }
+
+    @Override
+    public HashCode hash(File file, long length, long lastModified) {
+        return hash(file, length);
+    }
+
+    private HashCode hash(File file, long length) {
+        if (length >= mappedReadThreshold) {
+            return hashMapped(file);
+        }
+        return hashStreamed(file);
+    }
+
+    private HashCode hashStreamed(File file) {
         InputStream inputStream;
         try {
             inputStream = new FileInputStream(file);
         } catch (FileNotFoundException e) {
-            throw new UncheckedIOException(String.format("Failed to create MD5 hash for file '%s' as it does not exist.", file), e);
+            throw new UncheckedIOException(String.format("Failed to create hash for file '%s' as it does not exist.", file), e);
         }
         try {
             return streamHasher.hash(inputStream);
@@ -48,8 +81,17 @@ public HashCode hash(File file) {
         }
     }
 
-    @Override
-    public HashCode hash(File file, long length, long lastModified) {
-        return hash(file);
+    private HashCode hashMapped(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return streamHasher.hash(channel);
+        } catch (NoSuchFileException e) {
+            throw new UncheckedIOException(String.format("Failed to create hash for file '%s' as it does not exist.", file), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to create hash for file '%s'.", file), e);
+        } catch (InternalError e) {
+            // Reading a mapped region fails with an InternalError instead of an IOException,
+            // for example when the file is truncated concurrently or the underlying storage reports an I/O error
+            return hashStreamed(file);
+        }
     }
 }
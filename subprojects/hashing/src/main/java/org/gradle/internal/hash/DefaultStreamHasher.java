@@ -16,25 +16,81 @@
 package org.gradle.internal.hash;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class DefaultStreamHasher implements StreamHasher {
     private static final HashCode SIGNATURE = Hashing.signature(DefaultStreamHasher.class);
+    // Map large files piece by piece, so they don't take up too much address space at once
+    private static final int MAX_MAPPED_REGION_SIZE = 256 * 1024 * 1024;
 
+    private final HashFunction hashFunction;
+    private final int treeChunkSize;
+    private final Executor chunkExecutor;
+    private final HashCode signature;
+    private final String variant;
     private final Queue<byte[]> buffers = new ArrayBlockingQueue<byte[]>(16);
 
+    public DefaultStreamHasher() {
+        this(Hashing.defaultFunction());
+    }
+
+    public DefaultStreamHasher(HashFunction hashFunction) {
+        this(hashFunction, 0, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Creates a hasher that hashes content as a sequence of chunks of the given size.
+     * This allows {@link #hash(FileChannel)} to hash the chunks of a file in parallel on the given executor.
+     *
+     * @param treeChunkSize the size of the chunks, or 0 to hash content as a whole.
+     */
+    public DefaultStreamHasher(HashFunction hashFunction, int treeChunkSize, Executor chunkExecutor) {
+        this.hashFunction = hashFunction;
+        this.treeChunkSize = treeChunkSize;
+        this.chunkExecutor = chunkExecutor;
+        if (hashFunction == Hashing.defaultFunction() && treeChunkSize == 0) {
+            // Keep the signature of the default hasher stable, so existing content hashes stay valid
+            this.signature = SIGNATURE;
+            this.variant = null;
+        } else {
+            String algorithm = hashFunction.getAlgorithm().toLowerCase(Locale.ROOT);
+            this.variant = treeChunkSize == 0 ? algorithm : algorithm + "-tree-" + treeChunkSize;
+            this.signature = Hashing.signature(DefaultStreamHasher.class.getName() + ":" + variant);
+        }
+    }
+
+    @Override
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
+    @Nullable
+    @Override
+    public String getVariant() {
+        return variant;
+    }
+
     @Override
     public HashCode hash(InputStream inputStream) {
         try {
             return doHash(inputStream, ByteStreams.nullOutputStream());
         } catch (IOException e) {
-            throw new UncheckedIOException("Failed to create MD5 hash for file content.", e);
+            throw new UncheckedIOException("Failed to create " + hashFunction.getAlgorithm() + " hash for file content.", e);
         }
     }
 
@@ -43,25 +99,88 @@ public HashCode hashCopy(InputStream inputStream, OutputStream outputStream) thr
         return doHash(inputStream, outputStream);
     }
 
+    @Override
+    public HashCode hash(FileChannel channel) throws IOException {
+        long length = channel.size();
+        if (treeChunkSize == 0) {
+            PrimitiveHasher hasher = newContentHasher();
+            putRegion(hasher, channel, 0, length);
+            return hasher.hash();
+        }
+
+        List<CompletableFuture<HashCode>> chunkHashes = new ArrayList<CompletableFuture<HashCode>>();
+        for (long start = 0; start < length; start += treeChunkSize) {
+            long chunkStart = start;
+            long chunkLength = Math.min(treeChunkSize, length - start);
+            chunkHashes.add(CompletableFuture.supplyAsync(() -> hashChunk(channel, chunkStart, chunkLength), chunkExecutor));
+        }
+        PrimitiveHasher hasher = newContentHasher();
+        try {
+            for (CompletableFuture<HashCode> chunkHash : chunkHashes) {
+                hasher.putHash(chunkHash.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        return hasher.hash();
+    }
+
+    private HashCode hashChunk(FileChannel channel, long start, long length) {
+        PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
+        try {
+            putRegion(hasher, channel, start, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hasher.hash();
+    }
+
+    private static void putRegion(PrimitiveHasher hasher, FileChannel channel, long start, long length) throws IOException {
+        long end = start + length;
+        for (long position = start; position < end; position += MAX_MAPPED_REGION_SIZE) {
+            hasher.putBytes(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPED_REGION_SIZE, end - position)));
+        }
+    }
+
     private HashCode doHash(InputStream inputStream, OutputStream outputStream) throws IOException {
         byte[] buffer = takeBuffer();
         try {
-            PrimitiveHasher hasher = Hashing.newPrimitiveHasher();
-            hasher.putHash(SIGNATURE);
-            while (true) {
-                int nread = inputStream.read(buffer);
-                if (nread < 0) {
-                    break;
-                }
-                outputStream.write(buffer, 0, nread);
-                hasher.putBytes(buffer, 0, nread);
+            if (treeChunkSize == 0) {
+                PrimitiveHasher hasher = newContentHasher();
+                copy(inputStream, outputStream, buffer, hasher::putBytes);
+                return hasher.hash();
             }
+            TreeHasher hasher = new TreeHasher();
+            copy(inputStream, outputStream, buffer, hasher::putBytes);
             return hasher.hash();
         } finally {
             returnBuffer(buffer);
         }
     }
 
+    private static void copy(InputStream inputStream, OutputStream outputStream, byte[] buffer, BytesConsumer hasher) throws IOException {
+        while (true) {
+            int nread = inputStream.read(buffer);
+            if (nread < 0) {
+                break;
+            }
+            outputStream.write(buffer, 0, nread);
+            hasher.putBytes(buffer, 0, nread);
+        }
+    }
+
+    private PrimitiveHasher newContentHasher() {
+        PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
+        hasher.putHash(signature);
+        return hasher;
+    }
+
     private void returnBuffer(byte[] buffer) {
         // Retain buffer if there is capacity in the queue, otherwise discard
         buffers.offer(buffer);
@@ -74,4 +193,42 @@ private byte[] takeBuffer() {
         }
         return buffer;
     }
+
+    private interface BytesConsumer {
+        void putBytes(byte[] bytes, int off, int len);
+    }
+
+    /**
+     * Hashes streamed content the same way {@link #hash(FileChannel)} hashes files in tree mode: the hash of the hashes of the chunks.
+     */
+    private class TreeHasher {
+        private final PrimitiveHasher hasher = newContentHasher();
+        private PrimitiveHasher chunkHasher;
+        private int chunkRemaining;
+
+        void putBytes(byte[] bytes, int off, int len) {
+            while (len > 0) {
+                if (chunkHasher == null) {
+                    chunkHasher = hashFunction.newPrimitiveHasher();
+                    chunkRemaining = treeChunkSize;
+                }
+                int count = Math.min(len, chunkRemaining);
+                chunkHasher.putBytes(bytes, off, count);
+                off += count;
+                len -= count;
+                chunkRemaining -= count;
+                if (chunkRemaining == 0) {
+                    hasher.putHash(chunkHasher.hash());
+                    chunkHasher = null;
+                }
+            }
+        }
+
+        HashCode hash() {
+            if (chunkHasher != null) {
+                hasher.putHash(chunkHasher.hash());
+            }
+            return hasher.hash();
+        }
+    }
 }
@@ -15,11 +15,25 @@
  */
 package org.gradle.internal.hash;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 public interface StreamHasher {
+    /**
+     * The function used to hash the content of streams.
+     */
+    HashFunction getHashFunction();
+
+    /**
+     * Identifies how content is hashed when it is not hashed the default way, or {@code null} for the default.
+     * Hashes calculated by hashers of different variants must not be mixed.
+     */
+    @Nullable
+    String getVariant();
+
     /**
      * Returns the hash of the given input stream. The stream will not be closed by the method.
      */
@@ -30,4 +44,10 @@ public interface StreamHasher {
      * The method will not close either stream.
      */
     HashCode hashCopy(InputStream inputStream, OutputStream outputStream) throws IOException;
+
+    /**
+     * Returns the hash of the content of the given file channel, the same as {@link #hash(InputStream)} returns for the same content.
+     * The content is read by mapping the file into memory. The channel will not be closed by the method.
+     */
+    HashCode hash(FileChannel channel) throws IOException;
 }
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.hash;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.gradle.internal.hash.HashCode.Usage.SAFE_TO_REUSE_BYTES;
+
+/**
+ * A streaming implementation of the 128-bit variant of XXH3 with the default secret and seed.
+ *
+ * <p>XXH3 is a non-cryptographic hash function which is many times faster than MD5 on large inputs,
+ * while still producing 128-bit hashes with good collision resistance for non-adversarial input.
+ * The hashes are the same as the ones produced by the reference implementation at https://github.com/Cyan4973/xxHash,
+ * with the high 64 bits first.</p>
+ *
+ * <p>As with the reference implementation, inputs of up to {@value #MIDSIZE_MAX} bytes are collected in a buffer and hashed
+ * with dedicated algorithms once complete. Longer inputs are consumed in stripes of 64 bytes, always keeping back the last few stripes
+ * until more input arrives, since the last stripe needs to be handled differently. Large chunks of input are consumed without copying them.</p>
+ */
+class Xxh128Hasher implements PrimitiveHasher {
+    private static final long PRIME32_1 = 0x9E3779B1L;
+    private static final long PRIME32_2 = 0x85EBCA77L;
+    private static final long PRIME32_3 = 0xC2B2AE3DL;
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+    private static final long PRIME_MX1 = 0x165667919E3779F9L;
+    private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+    private static final byte[] SECRET = {
+        (byte) 0xb8, (byte) 0xfe, (byte) 0x6c, (byte) 0x39, (byte) 0x23, (byte) 0xa4, (byte) 0x4b, (byte) 0xbe,
+        (byte) 0x7c, (byte) 0x01, (byte) 0x81, (byte) 0x2c, (byte) 0xf7, (byte) 0x21, (byte) 0xad, (byte) 0x1c,
+        (byte) 0xde, (byte) 0xd4, (byte) 0x6d, (byte) 0xe9, (byte) 0x83, (byte) 0x90, (byte) 0x97, (byte) 0xdb,
+        (byte) 0x72, (byte) 0x40, (byte) 0xa4, (byte) 0xa4, (byte) 0xb7, (byte) 0xb3, (byte) 0x67, (byte) 0x1f,
+        (byte) 0xcb, (byte) 0x79, (byte) 0xe6, (byte) 0x4e, (byte) 0xcc, (byte) 0xc0, (byte) 0xe5, (byte) 0x78,
+        (byte) 0x82, (byte) 0x5a, (byte) 0xd0, (byte) 0x7d, (byte) 0xcc, (byte) 0xff, (byte) 0x72, (byte) 0x21,
+        (byte) 0xb8, (byte) 0x08, (byte) 0x46, (byte) 0x74, (byte) 0xf7, (byte) 0x43, (byte) 0x24, (byte) 0x8e,
+        (byte) 0xe0, (byte) 0x35, (byte) 0x90, (byte) 0xe6, (byte) 0x81, (byte) 0x3a, (byte) 0x26, (byte) 0x4c,
+        (byte) 0x3c, (byte) 0x28, (byte) 0x52, (byte) 0xbb, (byte) 0x91, (byte) 0xc3, (byte) 0x00, (byte) 0xcb,
+        (byte) 0x88, (byte) 0xd0, (byte) 0x65, (byte) 0x8b, (byte) 0x1b, (byte) 0x53, (byte) 0x2e, (byte) 0xa3,
+        (byte) 0x71, (byte) 0x64, (byte) 0x48, (byte) 0x97, (byte) 0xa2, (byte) 0x0d, (byte) 0xf9, (byte) 0x4e,
+        (byte) 0x38, (byte) 0x19, (byte) 0xef, (byte) 0x46, (byte) 0xa9, (byte) 0xde, (byte) 0xac, (byte) 0xd8,
+        (byte) 0xa8, (byte) 0xfa, (byte) 0x76, (byte) 0x3f, (byte) 0xe3, (byte) 0x9c, (byte) 0x34, (byte) 0x3f,
+        (byte) 0xf9, (byte) 0xdc, (byte) 0xbb, (byte) 0xc7, (byte) 0xc7, (byte) 0x0b, (byte) 0x4f, (byte) 0x1d,
+        (byte) 0x8a, (byte) 0x51, (byte) 0xe0, (byte) 0x4b, (byte) 0xcd, (byte) 0xb4, (byte) 0x59, (byte) 0x31,
+        (byte) 0xc8, (byte) 0x9f, (byte) 0x7e, (byte) 0xc9, (byte) 0xd9, (byte) 0x78, (byte) 0x73, (byte) 0x64,
+        (byte) 0xea, (byte) 0xc5, (byte) 0xac, (byte) 0x83, (byte) 0x34, (byte) 0xd3, (byte) 0xeb, (byte) 0xc3,
+        (byte) 0xc5, (byte) 0x81, (byte) 0xa0, (byte) 0xff, (byte) 0xfa, (byte) 0x13, (byte) 0x63, (byte) 0xeb,
+        (byte) 0x17, (byte) 0x0d, (byte) 0xdd, (byte) 0x51, (byte) 0xb7, (byte) 0xf0, (byte) 0xda, (byte) 0x49,
+        (byte) 0xd3, (byte) 0x16, (byte) 0x55, (byte) 0x26, (byte) 0x29, (byte) 0xd4, (byte) 0x68, (byte) 0x9e,
+        (byte) 0x2b, (byte) 0x16, (byte) 0xbe, (byte) 0x58, (byte) 0x7d, (byte) 0x47, (byte) 0xa1, (byte) 0xfc,
+        (byte) 0x8f, (byte) 0xf8, (byte) 0xb8, (byte) 0xd1, (byte) 0x7a, (byte) 0xd0, (byte) 0x31, (byte) 0xce,
+        (byte) 0x45, (byte) 0xcb, (byte) 0x3a, (byte) 0x8f, (byte) 0x95, (byte) 0x16, (byte) 0x04, (byte) 0x28,
+        (byte) 0xaf, (byte) 0xd7, (byte) 0xfb, (byte) 0xca, (byte) 0xbb, (byte) 0x4b, (byte) 0x40, (byte) 0x7e
+    };
+    private static final ByteBuffer SECRET_VIEW = ByteBuffer.wrap(SECRET).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    // The secret as 64-bit words, for the stripes which read it at offsets aligned to 8 bytes
+    private static final long[] SECRET_WORDS = secretWords();
+
+    private static final int STRIPE_LENGTH = 64;
+    private static final int SECRET_CONSUME_RATE = 8;
+    private static final int STRIPES_PER_BLOCK = (SECRET.length - STRIPE_LENGTH) / SECRET_CONSUME_RATE;
+    private static final int SCRAMBLE_SECRET_OFFSET = SECRET.length - STRIPE_LENGTH;
+    private static final int LAST_STRIPE_SECRET_OFFSET = SECRET.length - STRIPE_LENGTH - 7;
+    private static final int MERGE_SECRET_OFFSET = 11;
+    private static final int MIDSIZE_MAX = 240;
+    private static final int MIDSIZE_START_OFFSET = 3;
+    private static final int MIDSIZE_LAST_OFFSET = 17;
+    private static final int SECRET_SIZE_MIN = 136;
+    private static final int BUFFER_SIZE = 4 * STRIPE_LENGTH;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer bufferView = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer scratch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private final long[] acc = {PRIME32_3, PRIME64_1, PRIME64_2, PRIME64_3, PRIME64_4, PRIME32_2, PRIME64_5, PRIME32_1};
+    private int bufferedSize;
+    private long totalLength;
+    private int stripesInBlock;
+    private boolean finished;
+
+    // Accumulator of the algorithms for short inputs
+    private long accLow;
+    private long accHigh;
+
+    @Override
+    public void putBytes(byte[] bytes) {
+        putBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void putBytes(byte[] bytes, int off, int len) {
+        checkNotFinished();
+        while (len > 0) {
+            if (bufferedSize == BUFFER_SIZE) {
+                // There is more input, so none of the buffered stripes is the last one
+                consumeStripes(bufferView, 0, BUFFER_SIZE / STRIPE_LENGTH);
+                bufferedSize = 0;
+            }
+            if (bufferedSize == 0 && len > BUFFER_SIZE) {
+                // Consume large inputs without copying them, keeping back at least one byte
+                int count = (len - 1) / BUFFER_SIZE * BUFFER_SIZE;
+                consumeStripes(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), off, count / STRIPE_LENGTH);
+                // The last stripe may start in the consumed input
+                System.arraycopy(bytes, off + count - STRIPE_LENGTH, buffer, BUFFER_SIZE - STRIPE_LENGTH, STRIPE_LENGTH);
+                totalLength += count;
+                off += count;
+                len -= count;
+            }
+            int count = Math.min(len, BUFFER_SIZE - bufferedSize);
+            System.arraycopy(bytes, off, buffer, bufferedSize, count);
+            bufferedSize += count;
+            totalLength += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void putBytes(ByteBuffer bytes) {
+        checkNotFinished();
+        // Read mapped and other direct buffers in place
+        ByteBuffer input = bytes.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int off = 0;
+        int len = input.remaining();
+        while (len > 0) {
+            if (bufferedSize == BUFFER_SIZE) {
+                consumeStripes(bufferView, 0, BUFFER_SIZE / STRIPE_LENGTH);
+                bufferedSize = 0;
+            }
+            if (bufferedSize == 0 && len > BUFFER_SIZE) {
+                int count = (len - 1) / BUFFER_SIZE * BUFFER_SIZE;
+                consumeStripes(input, off, count / STRIPE_LENGTH);
+                copy(input, off + count - STRIPE_LENGTH, BUFFER_SIZE - STRIPE_LENGTH, STRIPE_LENGTH);
+                totalLength += count;
+                off += count;
+                len -= count;
+            }
+            int count = Math.min(len, BUFFER_SIZE - bufferedSize);
+            copy(input, off, bufferedSize, count);
+            bufferedSize += count;
+            totalLength += count;
+            off += count;
+            len -= count;
+        }
+        castBuffer(bytes).position(bytes.limit());
+    }
+
+    private void copy(ByteBuffer input, int offset, int bufferOffset, int length) {
+        ByteBuffer source = input.duplicate();
+        castBuffer(source).position(offset);
+        source.get(buffer, bufferOffset, length);
+    }
+
+    /**
+     * Without this cast, when the code compiled by Java 9+ is executed on Java 8, it will throw
+     * java.lang.NoSuchMethodError: Method position(I)Ljava/nio/ByteBuffer; does not exist in class java.nio.ByteBuffer
+     */
+    @SuppressWarnings("RedundantCast")
+    private static Buffer castBuffer(ByteBuffer byteBuffer) {
+        return (Buffer) byteBuffer;
+    }
+
+    @Override
+    public void putByte(byte value) {
+        scratch.put(0, value);
+        putBytes(scratch.array(), 0, 1);
+    }
+
+    @Override
+    public void putInt(int value) {
+        scratch.putInt(0, value);
+        putBytes(scratch.array(), 0, 4);
+    }
+
+    @Override
+    public void putLong(long value) {
+        scratch.putLong(0, value);
+        putBytes(scratch.array(), 0, 8);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        putLong(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void putBoolean(boolean value) {
+        putByte((byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public void putString(CharSequence value) {
+        putBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void putHash(HashCode hashCode) {
+        hashCode.appendToHasher(this);
+    }
+
+    @Override
+    public HashCode hash() {
+        checkNotFinished();
+        finished = true;
+        int length = (int) Math.min(totalLength, Integer.MAX_VALUE);
+        if (length == 0) {
+            return toHashCode(
+                xxh64Avalanche(secret64(64) ^ secret64(72)),
+                xxh64Avalanche(secret64(80) ^ secret64(88))
+            );
+        } else if (length <= 3) {
+            return hash1To3(length);
+        } else if (length <= 8) {
+            return hash4To8(length);
+        } else if (length <= 16) {
+            return hash9To16(length);
+        } else if (length <= 128) {
+            return hash17To128(length);
+        } else if (length <= MIDSIZE_MAX) {
+            return hash129To240(length);
+        } else {
+            return hashLong();
+        }
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Cannot reuse hasher!");
+        }
+    }
+
+    private HashCode hash1To3(int length) {
+        int c1 = buffer[0] & 0xFF;
+        int c2 = buffer[length >> 1] & 0xFF;
+        int c3 = buffer[length - 1] & 0xFF;
+        int combinedLow = (c1 << 16) | (c2 << 24) | c3 | (length << 8);
+        int combinedHigh = Integer.rotateLeft(Integer.reverseBytes(combinedLow), 13);
+        long bitflipLow = secret32(0) ^ secret32(4);
+        long bitflipHigh = secret32(8) ^ secret32(12);
+        return toHashCode(
+            xxh64Avalanche((combinedLow & 0xFFFFFFFFL) ^ bitflipLow),
+            xxh64Avalanche((combinedHigh & 0xFFFFFFFFL) ^ bitflipHigh)
+        );
+    }
+
+    private HashCode hash4To8(int length) {
+        long inputLow = bufferView.getInt(0) & 0xFFFFFFFFL;
+        long inputHigh = bufferView.getInt(length - 4) & 0xFFFFFFFFL;
+        long keyed = (inputLow + (inputHigh << 32)) ^ (secret64(16) ^ secret64(24));
+        long multiplier = PRIME64_1 + ((long) length << 2);
+        long low = keyed * multiplier;
+        long high = unsignedMultiplyHigh(keyed, multiplier);
+        high += low << 1;
+        low ^= high >>> 3;
+        low ^= low >>> 35;
+        low *= PRIME_MX2;
+        low ^= low >>> 28;
+        return toHashCode(low, avalanche(high));
+    }
+
+    private HashCode hash9To16(int length) {
+        long bitflipLow = secret64(32) ^ secret64(40);
+        long bitflipHigh = secret64(48) ^ secret64(56);
+        long inputLow = read64(0);
+        long inputHigh = read64(length - 8);
+        long keyed = inputLow ^ inputHigh ^ bitflipLow;
+        long low = keyed * PRIME64_1;
+        long high = unsignedMultiplyHigh(keyed, PRIME64_1);
+        low += (long) (length - 1) << 54;
+        inputHigh ^= bitflipHigh;
+        high += inputHigh + (inputHigh & 0xFFFFFFFFL) * (PRIME32_2 - 1);
+        low ^= Long.reverseBytes(high);
+        long resultLow = low * PRIME64_2;
+        long resultHigh = unsignedMultiplyHigh(low, PRIME64_2) + high * PRIME64_2;
+        return toHashCode(avalanche(resultLow), avalanche(resultHigh));
+    }
+
+    private HashCode hash17To128(int length) {
+        accLow = length * PRIME64_1;
+        accHigh = 0;
+        if (length > 32) {
+            if (length > 64) {
+                if (length > 96) {
+                    mix32(48, length - 64, 96);
+                }
+                mix32(32, length - 48, 64);
+            }
+            mix32(16, length - 32, 32);
+        }
+        mix32(0, length - 16, 0);
+        return finishShort(length);
+    }
+
+    private HashCode hash129To240(int length) {
+        int rounds = length / 32;
+        accLow = length * PRIME64_1;
+        accHigh = 0;
+        for (int i = 0; i < 4; i++) {
+            mix32(32 * i, 32 * i + 16, 32 * i);
+        }
+        accLow = avalanche(accLow);
+        accHigh = avalanche(accHigh);
+        for (int i = 4; i < rounds; i++) {
+            mix32(32 * i, 32 * i + 16, MIDSIZE_START_OFFSET + 32 * (i - 4));
+        }
+        mix32(length - 16, length - 32, SECRET_SIZE_MIN - MIDSIZE_LAST_OFFSET - 16);
+        return finishShort(length);
+    }
+
+    private HashCode finishShort(int length) {
+        long low = accLow + accHigh;
+        long high = accLow * PRIME64_1 + accHigh * PRIME64_4 + length * PRIME64_2;
+        return toHashCode(avalanche(low), -avalanche(high));
+    }
+
+    private void mix32(int firstOffset, int secondOffset, int secretOffset) {
+        accLow += mix16(firstOffset, secretOffset);
+        accLow ^= read64(secondOffset) + read64(secondOffset + 8);
+        accHigh += mix16(secondOffset, secretOffset + 16);
+        accHigh ^= read64(firstOffset) + read64(firstOffset + 8);
+    }
+
+    private long mix16(int offset, int secretOffset) {
+        return multiplyFold64(read64(offset) ^ secret64(secretOffset), read64(offset + 8) ^ secret64(secretOffset + 8));
+    }
+
+    private HashCode hashLong() {
+        consumeStripes(bufferView, 0, (bufferedSize - 1) / STRIPE_LENGTH);
+        if (bufferedSize >= STRIPE_LENGTH) {
+            accumulateStripe(bufferView, bufferedSize - STRIPE_LENGTH, LAST_STRIPE_SECRET_OFFSET);
+        } else {
+            // The last stripe starts in the previously consumed input, whose end is still at the end of the buffer
+            byte[] lastStripe = new byte[STRIPE_LENGTH];
+            int fromPreviousBuffer = STRIPE_LENGTH - bufferedSize;
+            System.arraycopy(buffer, BUFFER_SIZE - fromPreviousBuffer, lastStripe, 0, fromPreviousBuffer);
+            System.arraycopy(buffer, 0, lastStripe, fromPreviousBuffer, bufferedSize);
+            accumulateStripe(ByteBuffer.wrap(lastStripe).order(ByteOrder.LITTLE_ENDIAN), 0, LAST_STRIPE_SECRET_OFFSET);
+        }
+        long low = mergeAccumulators(MERGE_SECRET_OFFSET, totalLength * PRIME64_1);
+        long high = mergeAccumulators(SECRET.length - STRIPE_LENGTH - MERGE_SECRET_OFFSET, ~(totalLength * PRIME64_2));
+        return toHashCode(low, high);
+    }
+
+    private void consumeStripes(ByteBuffer data, int start, int stripes) {
+        long[] acc = this.acc;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            int offset = start + stripe * STRIPE_LENGTH;
+            int secretWord = stripesInBlock;
+            for (int i = 0; i < 8; i++) {
+                long value = data.getLong(offset + 8 * i);
+                long key = value ^ SECRET_WORDS[secretWord + i];
+                acc[i ^ 1] += value;
+                acc[i] += (key & 0xFFFFFFFFL) * (key >>> 32);
+            }
+            if (++stripesInBlock == STRIPES_PER_BLOCK) {
+                scrambleAccumulators();
+                stripesInBlock = 0;
+            }
+        }
+    }
+
+    private void accumulateStripe(ByteBuffer data, int offset, int secretOffset) {
+        long[] acc = this.acc;
+        for (int i = 0; i < 8; i++) {
+            long value = data.getLong(offset + 8 * i);
+            long key = value ^ secret64(secretOffset + 8 * i);
+            acc[i ^ 1] += value;
+            acc[i] += (key & 0xFFFFFFFFL) * (key >>> 32);
+        }
+    }
+
+    private void scrambleAccumulators() {
+        long[] acc = this.acc;
+        for (int i = 0; i < 8; i++) {
+            long value = acc[i];
+            value ^= value >>> 47;
+            value ^= SECRET_WORDS[SCRAMBLE_SECRET_OFFSET / 8 + i];
+            acc[i] = value * PRIME32_1;
+        }
+    }
+
+    private long mergeAccumulators(int secretOffset, long start) {
+        long result = start;
+        for (int i = 0; i < 4; i++) {
+            result += multiplyFold64(acc[2 * i] ^ secret64(secretOffset + 16 * i), acc[2 * i + 1] ^ secret64(secretOffset + 16 * i + 8));
+        }
+        return avalanche(result);
+    }
+
+    private static long[] secretWords() {
+        long[] words = new long[SECRET.length / 8];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = SECRET_VIEW.getLong(8 * i);
+        }
+        return words;
+    }
+
+    private long read64(int offset) {
+        return bufferView.getLong(offset);
+    }
+
+    private static long secret64(int offset) {
+        return SECRET_VIEW.getLong(offset);
+    }
+
+    private static long secret32(int offset) {
+        return SECRET_VIEW.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 37;
+        hash *= PRIME_MX1;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static long xxh64Avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static long multiplyFold64(long a, long b) {
+        return (a * b) ^ unsignedMultiplyHigh(a, b);
+    }
+
+    /**
+     * The high 64 bits of the unsigned 128-bit product, like {@code Math.unsignedMultiplyHigh()} which is not available on Java 8.
+     */
+    private static long unsignedMultiplyHigh(long a, long b) {
+        long a0 = a & 0xFFFFFFFFL;
+        long a1 = a >>> 32;
+        long b0 = b & 0xFFFFFFFFL;
+        long b1 = b >>> 32;
+        long low = a0 * b0;
+        long cross = a1 * b0 + (low >>> 32);
+        long middle = (cross & 0xFFFFFFFFL) + a0 * b1;
+        return a1 * b1 + (cross >>> 32) + (middle >>> 32);
+    }
+
+    private static HashCode toHashCode(long low, long high) {
+        byte[] bytes = new byte[16];
+        ByteBuffer.wrap(bytes).putLong(high).putLong(low);
+        return HashCode.fromBytes(bytes, SAFE_TO_REUSE_BYTES);
+    }
+}
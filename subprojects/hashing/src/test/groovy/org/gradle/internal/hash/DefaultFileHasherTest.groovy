@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.channels.FileChannel
+
+class DefaultFileHasherTest extends Specification {
+    @TempDir
+    File tmpDir
+
+    def streamHasher = new DefaultStreamHasher()
+
+    def "hashes files above the threshold by mapping them"() {
+        def small = file("small.bin", 100)
+        def large = file("large.bin", 1000)
+        def hasher = new DefaultFileHasher(streamHasher, 1000)
+
+        expect:
+        hasher.hash(small) == streamHasher.hash(new ByteArrayInputStream(small.bytes))
+        hasher.hash(large) == streamHasher.hash(new ByteArrayInputStream(large.bytes))
+        hasher.hash(large, large.length(), large.lastModified()) == new DefaultFileHasher(streamHasher).hash(large)
+    }
+
+    def "fails for missing file"() {
+        def hasher = new DefaultFileHasher(streamHasher, mappedReadThreshold)
+
+        when:
+        hasher.hash(new File(tmpDir, "missing"), 2000, 0)
+
+        then:
+        def e = thrown(UncheckedIOException)
+        e.message.contains("as it does not exist")
+
+        where:
+        mappedReadThreshold << [1000, Long.MAX_VALUE]
+    }
+
+    def "falls back to streaming when reading the mapped file fails"() {
+        def large = file("large.bin", 1000)
+        def failingStreamHasher = Spy(DefaultStreamHasher)
+        def hasher = new DefaultFileHasher(failingStreamHasher, 1000)
+
+        when:
+        def hash = hasher.hash(large)
+
+        then:
+        1 * failingStreamHasher.hash(_ as FileChannel) >> { throw new InternalError("a fault occurred in an unsafe memory access operation") }
+        hash == streamHasher.hash(new ByteArrayInputStream(large.bytes))
+    }
+
+    private File file(String name, int size) {
+        def file = new File(tmpDir, name)
+        def content = new byte[size]
+        new Random(size).nextBytes(content)
+        file.bytes = content
+        return file
+    }
+}
@@ -16,9 +16,17 @@
 
 package org.gradle.internal.hash
 
+import com.google.common.util.concurrent.MoreExecutors
 import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
 
 class DefaultStreamHasherTest extends Specification {
+    @TempDir
+    File tmpDir
+
     def "can hash input"() {
         def input = new ByteArrayInputStream("hello".bytes)
         when:
@@ -36,4 +44,51 @@ class DefaultStreamHasherTest extends Specification {
         hash.toString() == "af67a92e9f73b51572e9b94e343d2840"
         output.toByteArray() == "hello".bytes
     }
+
+    def "can hash input with another hash function"() {
+        def input = new ByteArrayInputStream("hello".bytes)
+        when:
+        def hasher = new DefaultStreamHasher(Hashing.xxh128())
+        def hash = hasher.hash(input)
+        then:
+        hasher.hashFunction == Hashing.xxh128()
+        hash.toString() == "769fd905513b19e7e82ed0d62c0cae5b"
+        hasher.variant == "xxh128"
+    }
+
+    def "default hasher has no variant"() {
+        expect:
+        new DefaultStreamHasher().variant == null
+        new DefaultStreamHasher(Hashing.md5(), 1024, MoreExecutors.directExecutor()).variant == "md5-tree-1024"
+    }
+
+    def "hashes mapped file content like streamed content with #hashFunction and chunk size #treeChunkSize"() {
+        def content = new byte[10_000]
+        new Random(1).nextBytes(content)
+        def file = new File(tmpDir, "content.bin")
+        file.bytes = content
+        def hasher = new DefaultStreamHasher(hashFunction, treeChunkSize, MoreExecutors.directExecutor())
+
+        when:
+        def mappedHash = FileChannel.open(file.toPath(), StandardOpenOption.READ).withCloseable { hasher.hash(it) }
+
+        then:
+        mappedHash == hasher.hash(new ByteArrayInputStream(content))
+
+        where:
+        hashFunction     | treeChunkSize
+        Hashing.md5()    | 0
+        Hashing.md5()    | 1000
+        Hashing.md5()    | 4096
+        Hashing.xxh128() | 0
+        Hashing.xxh128() | 4096
+        Hashing.xxh128() | 20_000
+    }
+
+    def "tree hashes differ from plain hashes"() {
+        def input = "hello".bytes
+
+        expect:
+        new DefaultStreamHasher(Hashing.md5(), 1024, MoreExecutors.directExecutor()).hash(new ByteArrayInputStream(input)) != new DefaultStreamHasher().hash(new ByteArrayInputStream(input))
+    }
 }
@@ -109,6 +109,45 @@ class HashingTest extends Specification {
         hashStrings(["abc", "de"]) != hashStrings(["ab", "cde"])
     }
 
+    def 'xxh128 matches reference implementation for #length bytes'() {
+        def input = (0..<length).collect { (it % 251) as byte } as byte[]
+
+        expect:
+        Hashing.xxh128().hashBytes(input).toString() == expected
+
+        where:
+        length | expected
+        0      | "99aa06d3014798d86001c324468d497f"
+        3      | "e3b55f57945a17cf5f4299fc161c9cbb"
+        8      | "e1e4432a62217fe4cfd50c61c8bb98c1"
+        16     | "72950631827607e2842812cc870dcae2"
+        100    | "da95ef16fd9566f329b20ba5f03ec01e"
+        200    | "cb0395310643ba0edd97e9af3609d9f5"
+        1000   | "18bf41bc8229e27733ef703fb2b20ed1"
+        100000 | "54182c58bbb1337c42c23aeead96750d"
+    }
+
+    def 'xxh128 hash does not depend on how input is split for #length bytes'() {
+        def input = new byte[length]
+        new Random(length).nextBytes(input)
+        def random = new Random(42)
+
+        when:
+        def hasher = Hashing.xxh128().newPrimitiveHasher()
+        int offset = 0
+        while (offset < length) {
+            int chunk = Math.min(length - offset, random.nextInt(300))
+            hasher.putBytes(input, offset, chunk)
+            offset += chunk
+        }
+
+        then:
+        hasher.hash() == Hashing.xxh128().hashBytes(input)
+
+        where:
+        length << [17, 240, 241, 255, 256, 257, 1024, 1025, 10_000]
+    }
+
     def hashStrings(List<String> strings) {
         def hasher = Hashing.newHasher()
         strings.each { hasher.putString(it) }
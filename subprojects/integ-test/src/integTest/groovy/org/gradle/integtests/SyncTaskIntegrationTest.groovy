@@ -464,7 +464,7 @@ class SyncTaskIntegrationTest extends AbstractIntegrationSpec {
             "Syncing to a directory which contains unreadable content is not supported. " +
             "Use a Copy task with Task.doNotTrackState() instead. " +
             "See https://docs.gradle.org/current/userguide/incremental_build.html#disable-state-tracking for more details.")
-        failureHasCause("Failed to create MD5 hash for file '${unreadableOutput}' as it does not exist.")
+        failureHasCause("Failed to create hash for file '${unreadableOutput}' as it does not exist.")
 
         cleanup:
         unreadableOutput.makeReadable()
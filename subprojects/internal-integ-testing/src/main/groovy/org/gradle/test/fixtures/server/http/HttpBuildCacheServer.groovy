@@ -34,10 +34,15 @@ import javax.servlet.http.HttpServletRequest
 import javax.servlet.http.HttpServletResponse
 
 class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture {
+    private static final String BATCH_HEADER = "X-Gradle-Build-Cache-Batch"
+    private static final String BATCH_CONTAINS_PATH = "_contains"
+
     private final TestDirectoryProvider provider
     private final WebAppContext webapp
     private TestFile cacheDir
     private int blockIncomingConnectionsForSeconds = 0
+    private int responseLatencyMillis = 0
+    private boolean batchedContains
     private final List<Responder> responders = []
 
     HttpBuildCacheServer(TestDirectoryProvider provider) {
@@ -61,6 +66,15 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
         if (blockIncomingConnectionsForSeconds > 0) {
             this.webapp.addFilter(new FilterHolder(new BlockFilter(blockIncomingConnectionsForSeconds)), "/*", EnumSet.of(DispatcherType.REQUEST))
         }
+        if (responseLatencyMillis > 0) {
+            addResponder { request, response ->
+                Thread.sleep(responseLatencyMillis)
+                true
+            }
+        }
+        if (batchedContains) {
+            addResponder(this.&respondToBatchedContains)
+        }
         def filter = new Filter() {
             @Override
             void init(FilterConfig filterConfig) throws ServletException {
@@ -100,6 +114,39 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
         this
     }
 
+    /**
+     * Delays every response by the given time, to emulate a remote cache.
+     */
+    HttpBuildCacheServer withResponseLatency(int millis) {
+        responseLatencyMillis = millis
+        this
+    }
+
+    /**
+     * Advertises and answers batched queries for existing entries, as understood by {@code HttpBuildCacheService}.
+     */
+    HttpBuildCacheServer withBatchedContains() {
+        batchedContains = true
+        this
+    }
+
+    private boolean respondToBatchedContains(HttpServletRequest request, HttpServletResponse response) {
+        if (request.method == "OPTIONS") {
+            response.setHeader(BATCH_HEADER, "contains")
+            response.status = HttpServletResponse.SC_OK
+            return false
+        }
+        if (request.method == "POST" && request.requestURI.endsWith("/" + BATCH_CONTAINS_PATH)) {
+            def directory = cacheDir.file(request.requestURI.substring(1, request.requestURI.length() - BATCH_CONTAINS_PATH.length()))
+            def existing = request.reader.readLines()*.trim().findAll { it && directory.file(it).isFile() }
+            response.contentType = "text/plain"
+            response.status = HttpServletResponse.SC_OK
+            response.writer.write(existing.join("\n"))
+            return false
+        }
+        true
+    }
+
     @Override
     void start() {
         cacheDir = provider.testDirectory.createDir('http-cache-dir')
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.exec;
+
+import org.gradle.cache.internal.DefaultInMemoryCacheDecoratorFactory;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.internal.offheap.OffHeapCacheStatistics;
+import org.gradle.cache.internal.offheap.OffHeapCacheStatisticsBuildOperationType;
+import org.gradle.internal.buildtree.BuildActionRunner;
+import org.gradle.internal.buildtree.BuildTreeLifecycleController;
+import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationRunner;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BuildActionRunner} that reports how the off-heap store of persistent caches was used by the build, when there is one.
+ */
+public class OffHeapCacheStatisticsReportingBuildActionRunner implements BuildActionRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapCacheStatisticsReportingBuildActionRunner.class);
+
+    private final InMemoryCacheDecoratorFactory cacheDecoratorFactory;
+    private final BuildOperationRunner buildOperationRunner;
+    private final BuildActionRunner delegate;
+
+    public OffHeapCacheStatisticsReportingBuildActionRunner(InMemoryCacheDecoratorFactory cacheDecoratorFactory, BuildOperationRunner buildOperationRunner, BuildActionRunner delegate) {
+        this.cacheDecoratorFactory = cacheDecoratorFactory;
+        this.buildOperationRunner = buildOperationRunner;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Result run(BuildAction action, BuildTreeLifecycleController buildController) {
+        // Discard what happened between builds
+        collectStatistics();
+        try {
+            return delegate.run(action, buildController);
+        } finally {
+            OffHeapCacheStatistics statistics = collectStatistics();
+            if (statistics != null) {
+                reportStatistics(statistics);
+            }
+        }
+    }
+
+    @Nullable
+    private OffHeapCacheStatistics collectStatistics() {
+        if (cacheDecoratorFactory instanceof DefaultInMemoryCacheDecoratorFactory) {
+            return ((DefaultInMemoryCacheDecoratorFactory) cacheDecoratorFactory).collectOffHeapStatistics();
+        }
+        return null;
+    }
+
+    private void reportStatistics(OffHeapCacheStatistics statistics) {
+        buildOperationRunner.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                LOGGER.info("Off-heap cache statistics: {}", statistics);
+                context.setResult(OffHeapCacheStatisticsBuildOperationType.Result.INSTANCE);
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Report off-heap cache statistics")
+                    .details(new StatisticsDetails(statistics));
+            }
+        });
+    }
+
+    private static class StatisticsDetails implements OffHeapCacheStatisticsBuildOperationType.Details {
+        private final OffHeapCacheStatistics statistics;
+
+        StatisticsDetails(OffHeapCacheStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public long getHits() {
+            return statistics.getHits();
+        }
+
+        @Override
+        public long getMisses() {
+            return statistics.getMisses();
+        }
+
+        @Override
+        public long getEvictions() {
+            return statistics.getEvictions();
+        }
+
+        @Override
+        public long getStoredBytes() {
+            return statistics.getStoredBytes();
+        }
+
+        @Override
+        public long getMaxBytes() {
+            return statistics.getMaxBytes();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.api.internal.changedetection.state.FileHasherStatistics;
+import org.gradle.internal.file.StatStatistics;
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
+import org.gradle.internal.vfs.VirtualFileSystemStatistics;
+import org.gradle.internal.watch.vfs.VirtualFileSystemStatisticsBuildOperationType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The statistics of the virtual file system, stat-ing files, hashing files and snapshotting directories, collected at the same time.
+ */
+class CollectedFileSystemStatistics implements VirtualFileSystemStatisticsBuildOperationType.Statistics {
+    private final VirtualFileSystemStatistics vfsStatistics;
+    private final StatStatistics statStatistics;
+    private final FileHasherStatistics fileHasherStatistics;
+    private final DirectorySnapshotterStatistics directorySnapshotterStatistics;
+
+    private CollectedFileSystemStatistics(
+        VirtualFileSystemStatistics vfsStatistics,
+        StatStatistics statStatistics,
+        FileHasherStatistics fileHasherStatistics,
+        DirectorySnapshotterStatistics directorySnapshotterStatistics
+    ) {
+        this.vfsStatistics = vfsStatistics;
+        this.statStatistics = statStatistics;
+        this.fileHasherStatistics = fileHasherStatistics;
+        this.directorySnapshotterStatistics = directorySnapshotterStatistics;
+    }
+
+    /**
+     * Collects the statistics from the collectors, resetting them.
+     */
+    public static CollectedFileSystemStatistics collect(
+        VirtualFileSystemStatistics.Collector vfsStatisticsCollector,
+        StatStatistics.Collector statStatisticsCollector,
+        FileHasherStatistics.Collector fileHasherStatisticsCollector,
+        DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector
+    ) {
+        return new CollectedFileSystemStatistics(
+            vfsStatisticsCollector.collect(),
+            statStatisticsCollector.collect(),
+            fileHasherStatisticsCollector.collect(),
+            directorySnapshotterStatisticsCollector.collect()
+        );
+    }
+
+    public VirtualFileSystemStatistics getVfsStatistics() {
+        return vfsStatistics;
+    }
+
+    public StatStatistics getStatStatistics() {
+        return statStatistics;
+    }
+
+    public FileHasherStatistics getFileHasherStatistics() {
+        return fileHasherStatistics;
+    }
+
+    public DirectorySnapshotterStatistics getDirectorySnapshotterStatistics() {
+        return directorySnapshotterStatistics;
+    }
+
+    @Override
+    public long getVfsHitCount() {
+        return vfsStatistics.getHitCount();
+    }
+
+    @Override
+    public long getVfsMissCount() {
+        return vfsStatistics.getMissCount();
+    }
+
+    @Override
+    public long getInvalidatingWatchEventCount() {
+        return vfsStatistics.getInvalidatingWatchEventCount();
+    }
+
+    @Override
+    public long getStatCount() {
+        return statStatistics.getStatCount();
+    }
+
+    @Override
+    public long getUnixModeCount() {
+        return statStatistics.getUnixModeCount();
+    }
+
+    @Override
+    public long getHashedFileCount() {
+        return fileHasherStatistics.getHashedFileCount();
+    }
+
+    @Override
+    public long getHashedContentLength() {
+        return fileHasherStatistics.getHashedContentLength();
+    }
+
+    @Override
+    public long getSnapshottedHierarchyCount() {
+        return directorySnapshotterStatistics.getVisitedHierarchyCount();
+    }
+
+    @Override
+    public long getVisitedDirectoryCount() {
+        return directorySnapshotterStatistics.getVisitedDirectoryCount();
+    }
+
+    @Override
+    public long getVisitedFileCount() {
+        return directorySnapshotterStatistics.getVisitedFiles();
+    }
+
+    @Override
+    public long getFailedFileCount() {
+        return directorySnapshotterStatistics.getFailedFiles();
+    }
+
+    @Override
+    public long getSnapshottingTimeMillis() {
+        return directorySnapshotterStatistics.getSnapshottingTimeMillis();
+    }
+
+    /**
+     * The statistics as a flat JSON object with numeric values.
+     */
+    public String toJson() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("vfsHitCount", getVfsHitCount());
+        values.put("vfsMissCount", getVfsMissCount());
+        values.put("invalidatingWatchEventCount", getInvalidatingWatchEventCount());
+        values.put("statCount", getStatCount());
+        values.put("unixModeCount", getUnixModeCount());
+        values.put("hashedFileCount", getHashedFileCount());
+        values.put("hashedContentLength", getHashedContentLength());
+        values.put("snapshottedHierarchyCount", getSnapshottedHierarchyCount());
+        values.put("visitedDirectoryCount", getVisitedDirectoryCount());
+        values.put("visitedFileCount", getVisitedFileCount());
+        values.put("failedFileCount", getFailedFileCount());
+        values.put("snapshottingTimeMillis", getSnapshottingTimeMillis());
+
+        StringBuilder json = new StringBuilder("{");
+        values.forEach((name, value) -> {
+            if (json.length() > 1) {
+                json.append(", ");
+            }
+            json.append('"').append(name).append("\": ").append(value);
+        });
+        return json.append('}').toString();
+    }
+}
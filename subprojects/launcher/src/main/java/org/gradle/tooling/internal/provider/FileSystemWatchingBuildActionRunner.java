@@ -25,18 +25,28 @@
 import org.gradle.internal.buildtree.BuildTreeLifecycleController;
 import org.gradle.internal.file.StatStatistics;
 import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationProgressEventEmitter;
 import org.gradle.internal.operations.BuildOperationRunner;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.service.scopes.VirtualFileSystemServices;
 import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
+import org.gradle.internal.vfs.VirtualFileSystemStatistics;
 import org.gradle.internal.watch.options.FileSystemWatchingSettingsFinalizedProgressDetails;
 import org.gradle.internal.watch.registry.WatchMode;
 import org.gradle.internal.watch.vfs.BuildLifecycleAwareVirtualFileSystem;
 import org.gradle.internal.watch.vfs.VfsLogging;
+import org.gradle.internal.watch.vfs.VirtualFileSystemStatisticsBuildOperationType;
 import org.gradle.internal.watch.vfs.WatchLogging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 public class FileSystemWatchingBuildActionRunner implements BuildActionRunner {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemWatchingBuildActionRunner.class);
 
@@ -46,6 +56,7 @@ public class FileSystemWatchingBuildActionRunner implements BuildActionRunner {
     private final StatStatistics.Collector statStatisticsCollector;
     private final FileHasherStatistics.Collector fileHasherStatisticsCollector;
     private final DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector;
+    private final VirtualFileSystemStatistics.Collector vfsStatisticsCollector;
     private final BuildOperationRunner buildOperationRunner;
     private final BuildActionRunner delegate;
     private final InternalOptions options;
@@ -57,6 +68,7 @@ public FileSystemWatchingBuildActionRunner(
         StatStatistics.Collector statStatisticsCollector,
         FileHasherStatistics.Collector fileHasherStatisticsCollector,
         DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector,
+        VirtualFileSystemStatistics.Collector vfsStatisticsCollector,
         BuildOperationRunner buildOperationRunner,
         BuildActionRunner delegate,
         InternalOptions options
@@ -67,6 +79,7 @@ public FileSystemWatchingBuildActionRunner(
         this.statStatisticsCollector = statStatisticsCollector;
         this.fileHasherStatisticsCollector = fileHasherStatisticsCollector;
         this.directorySnapshotterStatisticsCollector = directorySnapshotterStatisticsCollector;
+        this.vfsStatisticsCollector = vfsStatisticsCollector;
         this.buildOperationRunner = buildOperationRunner;
         this.delegate = delegate;
         this.options = options;
@@ -95,8 +108,9 @@ public Result run(BuildAction action, BuildTreeLifecycleController buildControll
         if (watchFileSystemMode.isEnabled()) {
             dropVirtualFileSystemIfRequested(options, virtualFileSystem);
         }
+        CollectedFileSystemStatistics statisticsSinceLastBuild = collectStatistics();
         if (verboseVfsLogging == VfsLogging.VERBOSE) {
-            logVfsStatistics("since last build", statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector);
+            logVfsStatistics("since last build", statisticsSinceLastBuild);
         }
 
         if (action.getStartParameter().getProjectCacheDir() != null) {
@@ -140,29 +154,80 @@ public boolean isEnabled() {
             return delegate.run(action, buildController);
         } finally {
             int maximumNumberOfWatchedHierarchies = VirtualFileSystemServices.getMaximumNumberOfWatchedHierarchies(options);
+            int watchBudget = VirtualFileSystemServices.getWatchBudget(options);
             virtualFileSystem.beforeBuildFinished(
                 watchFileSystemMode,
                 verboseVfsLogging,
                 debugWatchLogging,
                 buildOperationRunner,
-                maximumNumberOfWatchedHierarchies
+                maximumNumberOfWatchedHierarchies,
+                watchBudget
             );
+            CollectedFileSystemStatistics statisticsDuringBuild = collectStatistics();
             if (verboseVfsLogging == VfsLogging.VERBOSE) {
-                logVfsStatistics("during current build", statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector);
+                logVfsStatistics("during current build", statisticsDuringBuild);
             }
+            publishStatistics(statisticsSinceLastBuild, statisticsDuringBuild, startParameter.getCurrentDir());
         }
     }
 
-    private static void logVfsStatistics(
-        String title,
-        StatStatistics.Collector statStatisticsCollector,
-        FileHasherStatistics.Collector fileHasherStatisticsCollector,
-        DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector
-    ) {
+    private CollectedFileSystemStatistics collectStatistics() {
+        return CollectedFileSystemStatistics.collect(vfsStatisticsCollector, statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector);
+    }
+
+    private static void logVfsStatistics(String title, CollectedFileSystemStatistics statistics) {
         LOGGER.warn("VFS> Statistics {}:", title);
-        LOGGER.warn("VFS> > Stat: {}", statStatisticsCollector.collect());
-        LOGGER.warn("VFS> > FileHasher: {}", fileHasherStatisticsCollector.collect());
-        LOGGER.warn("VFS> > DirectorySnapshotter: {}", directorySnapshotterStatisticsCollector.collect());
+        LOGGER.warn("VFS> > VFS: {}", statistics.getVfsStatistics());
+        LOGGER.warn("VFS> > Stat: {}", statistics.getStatStatistics());
+        LOGGER.warn("VFS> > FileHasher: {}", statistics.getFileHasherStatistics());
+        LOGGER.warn("VFS> > DirectorySnapshotter: {}", statistics.getDirectorySnapshotterStatistics());
+    }
+
+    private void publishStatistics(CollectedFileSystemStatistics statisticsSinceLastBuild, CollectedFileSystemStatistics statisticsDuringBuild, File currentDir) {
+        String statisticsFile = VirtualFileSystemServices.getStatisticsFile(options);
+        buildOperationRunner.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                if (statisticsFile != null) {
+                    writeStatistics(resolveStatisticsFile(statisticsFile, currentDir), statisticsSinceLastBuild, statisticsDuringBuild);
+                }
+                context.setResult(new VirtualFileSystemStatisticsBuildOperationType.Result() {
+                    @Override
+                    public VirtualFileSystemStatisticsBuildOperationType.Statistics getStatisticsSinceLastBuild() {
+                        return statisticsSinceLastBuild;
+                    }
+
+                    @Override
+                    public VirtualFileSystemStatisticsBuildOperationType.Statistics getStatisticsDuringBuild() {
+                        return statisticsDuringBuild;
+                    }
+                });
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName(VirtualFileSystemStatisticsBuildOperationType.DISPLAY_NAME)
+                    .details(VirtualFileSystemStatisticsBuildOperationType.Details.INSTANCE);
+            }
+        });
+    }
+
+    private static File resolveStatisticsFile(String statisticsFile, File currentDir) {
+        File file = new File(statisticsFile);
+        return file.isAbsolute() ? file : new File(currentDir, statisticsFile);
+    }
+
+    private static void writeStatistics(File file, CollectedFileSystemStatistics statisticsSinceLastBuild, CollectedFileSystemStatistics statisticsDuringBuild) {
+        String json = "{\"sinceLastBuild\": " + statisticsSinceLastBuild.toJson() + ", \"duringBuild\": " + statisticsDuringBuild.toJson() + "}\n";
+        try {
+            File parentDir = file.getParentFile();
+            if (parentDir != null) {
+                Files.createDirectories(parentDir.toPath());
+            }
+            Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOGGER.warn("Could not write virtual file system statistics to {}", file, e);
+        }
     }
 
     private static void dropVirtualFileSystemIfRequested(InternalOptions options, BuildLifecycleAwareVirtualFileSystem virtualFileSystem) {
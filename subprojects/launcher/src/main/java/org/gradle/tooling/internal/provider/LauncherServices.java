@@ -17,8 +17,11 @@
 package org.gradle.tooling.internal.provider;
 
 import org.gradle.StartParameter;
+import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.FileHasherStatistics;
 import org.gradle.deployment.internal.DeploymentRegistryInternal;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.scopes.BuildTreeScopedCacheBuilderFactory;
 import org.gradle.execution.WorkValidationWarningReporter;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.initialization.BuildEventConsumer;
@@ -43,6 +46,7 @@
 import org.gradle.internal.execution.WorkInputListeners;
 import org.gradle.internal.featurelifecycle.ScriptUsageLocationReporter;
 import org.gradle.internal.file.StatStatistics;
+import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
@@ -56,11 +60,13 @@
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
+import org.gradle.internal.service.scopes.VirtualFileSystemServices;
 import org.gradle.internal.session.BuildSessionActionExecutor;
 import org.gradle.internal.snapshot.CaseSensitivity;
 import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.time.Time;
+import org.gradle.internal.vfs.VirtualFileSystemStatistics;
 import org.gradle.internal.watch.vfs.BuildLifecycleAwareVirtualFileSystem;
 import org.gradle.internal.watch.vfs.FileChangeListeners;
 import org.gradle.internal.watch.vfs.FileSystemWatchingInformation;
@@ -70,6 +76,7 @@
 import org.gradle.launcher.exec.BuildOutcomeReportingBuildActionRunner;
 import org.gradle.launcher.exec.BuildTreeLifecycleBuildActionExecutor;
 import org.gradle.launcher.exec.ChainingBuildActionRunner;
+import org.gradle.launcher.exec.OffHeapCacheStatisticsReportingBuildActionRunner;
 import org.gradle.launcher.exec.RootBuildLifecycleBuildActionExecutor;
 import org.gradle.launcher.exec.RunAsBuildOperationBuildActionExecutor;
 import org.gradle.launcher.exec.RunAsWorkerThreadBuildActionExecutor;
@@ -83,6 +90,7 @@
 import org.gradle.tooling.internal.provider.serialization.PayloadSerializer;
 import org.gradle.tooling.internal.provider.serialization.WellKnownClassLoaderRegistry;
 
+import java.io.File;
 import java.util.List;
 
 import static org.gradle.internal.snapshot.CaseSensitivity.CASE_INSENSITIVE;
@@ -224,6 +232,7 @@ BuildTreeActionExecutor createActionExecutor(
             StatStatistics.Collector statStatisticsCollector,
             FileHasherStatistics.Collector fileHasherStatisticsCollector,
             DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector,
+            VirtualFileSystemStatistics.Collector vfsStatisticsCollector,
             BuildOperationRunner buildOperationRunner,
             BuildLayout buildLayout,
             ExceptionAnalyser exceptionAnalyser,
@@ -231,32 +240,46 @@ BuildTreeActionExecutor createActionExecutor(
             BuildLoggerFactory buildLoggerFactory,
             InternalOptions options,
             ScriptUsageLocationReporter usageLocationReporter,
-            StartParameter startParameter
+            StartParameter startParameter,
+            InMemoryCacheDecoratorFactory cacheDecoratorFactory,
+            BuildTreeScopedCacheBuilderFactory cacheBuilderFactory,
+            FileSystem fileSystem,
+            StringInterner stringInterner,
+            StreamHasher streamHasher
         ) {
             return new InitDeprecationLoggingActionExecutor(new RootBuildLifecycleBuildActionExecutor(
                 buildStateRegistry,
                 new BuildCompletionNotifyingBuildActionRunner(
-                    new FileSystemWatchingBuildActionRunner(
-                        eventEmitter,
-                        virtualFileSystem,
-                        deploymentRegistry,
-                        statStatisticsCollector,
-                        fileHasherStatisticsCollector,
-                        directorySnapshotterStatisticsCollector,
+                    new OffHeapCacheStatisticsReportingBuildActionRunner(
+                        cacheDecoratorFactory,
                         buildOperationRunner,
-                        new BuildOutcomeReportingBuildActionRunner(
-                            styledTextOutputFactory,
-                            listenerManager,
-                            new ProblemReportingBuildActionRunner(
-                                new ChainingBuildActionRunner(buildActionRunners),
-                                exceptionAnalyser,
-                                buildLayout,
-                                problemReporters
-                            ),
-                            buildStartedTime,
-                            buildRequestMetaData,
-                            buildLoggerFactory),
-                        options),
+                        new FileSystemWatchingBuildActionRunner(
+                            eventEmitter,
+                            virtualFileSystem,
+                            deploymentRegistry,
+                            statStatisticsCollector,
+                            fileHasherStatisticsCollector,
+                            directorySnapshotterStatisticsCollector,
+                            vfsStatisticsCollector,
+                            buildOperationRunner,
+                            new VirtualFileSystemPersistingBuildActionRunner(
+                                virtualFileSystem,
+                                buildLayout.getRootDirectory(),
+                                new PersistedVirtualFileSystemState(new File(cacheBuilderFactory.baseDirForCache("vfs"), VirtualFileSystemServices.contentHashCacheName("snapshots", streamHasher) + ".bin"), fileSystem, stringInterner),
+                                options,
+                                new BuildOutcomeReportingBuildActionRunner(
+                                    styledTextOutputFactory,
+                                    listenerManager,
+                                    new ProblemReportingBuildActionRunner(
+                                        new ChainingBuildActionRunner(buildActionRunners),
+                                        exceptionAnalyser,
+                                        buildLayout,
+                                        problemReporters
+                                    ),
+                                    buildStartedTime,
+                                    buildRequestMetaData,
+                                    buildLoggerFactory)),
+                            options)),
                     gradleEnterprisePluginManager)),
                 usageLocationReporter, eventEmitter, startParameter);
         }
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider;
+
+import com.google.common.collect.Interner;
+import org.gradle.internal.execution.history.impl.FileSystemSnapshotSerializer;
+import org.gradle.internal.file.FileException;
+import org.gradle.internal.file.FileMetadata;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.file.Stat;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.internal.snapshot.CompositeFileSystemSnapshot;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor;
+import org.gradle.internal.snapshot.MissingFileSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotUtil;
+import org.gradle.internal.snapshot.SnapshotVisitResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The snapshots of a virtual file system, kept in a file so they can be reused by another daemon.
+ *
+ * <p>Snapshots are written in the format of {@link FileSystemSnapshotSerializer}, followed by the time the build started and a stamp of each
+ * directory taken when the snapshots are written. When reading the snapshots back, only the parts that are still up-to-date are returned:
+ * regular files need to have the same type, modification time and length, and directories need to have the same modification time and file key
+ * (the inode on Unix). Changing the entries of a directory changes its modification time, so directories are not listed again.</p>
+ *
+ * <p>The stamp of a directory is taken when the state is written, which can be after the directory was snapshotted. So only directories which
+ * have not been modified since the build started are restored, as all snapshots taken during the build are newer than them. Similarly to
+ * {@code FileTimeStampInspector}, files and directories with a modification time that is not older than the start of the build are not restored,
+ * as a change in the same file system timestamp tick would not be visible.</p>
+ */
+public class PersistedVirtualFileSystemState {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistedVirtualFileSystemState.class);
+
+    private static final long MISSING_DIRECTORY = -1;
+
+    private final File stateFile;
+    private final Stat stat;
+    private final FileSystemSnapshotSerializer serializer;
+
+    public PersistedVirtualFileSystemState(File stateFile, Stat stat, Interner<String> stringInterner) {
+        this.stateFile = stateFile;
+        this.stat = stat;
+        this.serializer = new FileSystemSnapshotSerializer(stringInterner);
+    }
+
+    public File getStateFile() {
+        return stateFile;
+    }
+
+    /**
+     * Returns the current time as seen by the file system, with the precision of its timestamps.
+     */
+    public long currentTimestamp() {
+        try {
+            Files.createDirectories(stateFile.getParentFile().toPath());
+            File file = File.createTempFile("build-started", ".tmp", stateFile.getParentFile());
+            try {
+                return Files.getLastModifiedTime(file.toPath()).toMillis();
+            } finally {
+                file.delete();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not determine the file system time in {}.", stateFile.getParentFile(), e);
+            // Nothing written with this timestamp is restored
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Replaces the persisted state with the given root snapshots.
+     *
+     * @param buildStartTimestamp the {@link #currentTimestamp() file system time} before any of the snapshots were taken.
+     */
+    public void write(List<FileSystemLocationSnapshot> rootSnapshots, long buildStartTimestamp) {
+        File tempFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+        try {
+            Files.createDirectories(stateFile.getParentFile().toPath());
+            try (KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile))) {
+                FileSystemSnapshot snapshot = CompositeFileSystemSnapshot.of(rootSnapshots);
+                serializer.write(encoder, snapshot);
+                encoder.writeLong(buildStartTimestamp);
+                writeDirectoryStamps(encoder, directoriesOf(snapshot));
+            }
+            // Other daemons may read the state at the same time
+            Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            LOGGER.debug("Could not write virtual file system state to {}.", stateFile, e);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Reads the persisted state and returns the snapshots which are still up-to-date.
+     *
+     * Directories with changes are not returned, though their up-to-date children are.
+     */
+    public List<FileSystemLocationSnapshot> readUnchanged() {
+        if (!stateFile.isFile()) {
+            return Collections.emptyList();
+        }
+        FileSystemSnapshot snapshot;
+        long buildStartTimestamp;
+        Map<DirectorySnapshot, DirectoryStamp> directoryStamps;
+        try (KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(stateFile))) {
+            snapshot = serializer.read(decoder);
+            buildStartTimestamp = decoder.readLong();
+            directoryStamps = readDirectoryStamps(decoder, directoriesOf(snapshot));
+        } catch (Exception e) {
+            LOGGER.debug("Could not read virtual file system state from {}.", stateFile, e);
+            return Collections.emptyList();
+        }
+
+        List<FileSystemLocationSnapshot> unchanged = new ArrayList<>();
+        for (FileSystemLocationSnapshot rootSnapshot : SnapshotUtil.rootIndex(snapshot).values()) {
+            if (collectUnchanged(rootSnapshot, buildStartTimestamp, directoryStamps, unchanged)) {
+                unchanged.add(rootSnapshot);
+            }
+        }
+        return unchanged;
+    }
+
+    /**
+     * Returns whether the snapshot is completely up-to-date.
+     * If it is not, the parts of it which are up-to-date are added to {@code unchanged}.
+     */
+    private boolean collectUnchanged(FileSystemLocationSnapshot snapshot, long buildStartTimestamp, Map<DirectorySnapshot, DirectoryStamp> directoryStamps, List<FileSystemLocationSnapshot> unchanged) {
+        return snapshot.accept(new FileSystemLocationSnapshot.FileSystemLocationSnapshotTransformer<Boolean>() {
+            @Override
+            public Boolean visitDirectory(DirectorySnapshot directorySnapshot) {
+                int unchangedBefore = unchanged.size();
+                DirectoryStamp stamp = directoryStamps.get(directorySnapshot);
+                boolean directoryUnchanged = hasType(directorySnapshot, FileType.Directory)
+                    && stamp.lastModified < buildStartTimestamp
+                    && stamp.equals(DirectoryStamp.of(new File(directorySnapshot.getAbsolutePath())));
+                for (FileSystemLocationSnapshot child : directorySnapshot.getChildren()) {
+                    if (collectUnchanged(child, buildStartTimestamp, directoryStamps, unchanged)) {
+                        unchanged.add(child);
+                    } else {
+                        directoryUnchanged = false;
+                    }
+                }
+                if (directoryUnchanged) {
+                    // The whole directory is reused, so there is no need to keep track of its children separately
+                    unchanged.subList(unchangedBefore, unchanged.size()).clear();
+                }
+                return directoryUnchanged;
+            }
+
+            @Override
+            public Boolean visitRegularFile(RegularFileSnapshot fileSnapshot) {
+                FileMetadata metadata = statOrNull(fileSnapshot);
+                return fileSnapshot.getMetadata().getLastModified() < buildStartTimestamp
+                    && metadata != null
+                    && metadata.getType() == FileType.RegularFile
+                    && metadata.getAccessType() == fileSnapshot.getAccessType()
+                    && metadata.getLastModified() == fileSnapshot.getMetadata().getLastModified()
+                    && metadata.getLength() == fileSnapshot.getMetadata().getLength();
+            }
+
+            @Override
+            public Boolean visitMissing(MissingFileSnapshot missingSnapshot) {
+                return hasType(missingSnapshot, FileType.Missing);
+            }
+        });
+    }
+
+    private boolean hasType(FileSystemLocationSnapshot snapshot, FileType type) {
+        FileMetadata metadata = statOrNull(snapshot);
+        return metadata != null && metadata.getType() == type && metadata.getAccessType() == snapshot.getAccessType();
+    }
+
+    @Nullable
+    private FileMetadata statOrNull(FileSystemLocationSnapshot snapshot) {
+        try {
+            return stat.stat(new File(snapshot.getAbsolutePath()));
+        } catch (FileException e) {
+            return null;
+        }
+    }
+
+    private static List<DirectorySnapshot> directoriesOf(FileSystemSnapshot snapshot) {
+        List<DirectorySnapshot> directories = new ArrayList<>();
+        snapshot.accept(new FileSystemSnapshotHierarchyVisitor() {
+            @Override
+            public void enterDirectory(DirectorySnapshot directorySnapshot) {
+                directories.add(directorySnapshot);
+            }
+
+            @Override
+            public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot snapshot) {
+                return SnapshotVisitResult.CONTINUE;
+            }
+        });
+        return directories;
+    }
+
+    private static void writeDirectoryStamps(Encoder encoder, List<DirectorySnapshot> directories) throws IOException {
+        encoder.writeSmallInt(directories.size());
+        for (DirectorySnapshot directory : directories) {
+            DirectoryStamp stamp = DirectoryStamp.of(new File(directory.getAbsolutePath()));
+            encoder.writeLong(stamp.lastModified);
+            encoder.writeInt(stamp.fileKeyHash);
+        }
+    }
+
+    private static Map<DirectorySnapshot, DirectoryStamp> readDirectoryStamps(Decoder decoder, List<DirectorySnapshot> directories) throws IOException {
+        int count = decoder.readSmallInt();
+        if (count != directories.size()) {
+            throw new IOException("Expected " + directories.size() + " directory stamps, but found " + count + ".");
+        }
+        Map<DirectorySnapshot, DirectoryStamp> stamps = new IdentityHashMap<>(count);
+        for (DirectorySnapshot directory : directories) {
+            long lastModified = decoder.readLong();
+            int fileKeyHash = decoder.readInt();
+            stamps.put(directory, new DirectoryStamp(lastModified, fileKeyHash));
+        }
+        return stamps;
+    }
+
+    private static class DirectoryStamp {
+        private static final DirectoryStamp MISSING = new DirectoryStamp(MISSING_DIRECTORY, 0);
+
+        private final long lastModified;
+        private final int fileKeyHash;
+
+        DirectoryStamp(long lastModified, int fileKeyHash) {
+            this.lastModified = lastModified;
+            this.fileKeyHash = fileKeyHash;
+        }
+
+        static DirectoryStamp of(File directory) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(directory.toPath(), BasicFileAttributes.class);
+                if (!attributes.isDirectory()) {
+                    return MISSING;
+                }
+                // The file key is not available on all platforms, in which case only the modification time is compared
+                return new DirectoryStamp(attributes.lastModifiedTime().toMillis(), Objects.hashCode(attributes.fileKey()));
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DirectoryStamp that = (DirectoryStamp) o;
+            return lastModified != MISSING_DIRECTORY && lastModified == that.lastModified && fileKeyHash == that.fileKeyHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, fileKeyHash);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildtree.BuildActionRunner;
+import org.gradle.internal.buildtree.BuildTreeLifecycleController;
+import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.service.scopes.VirtualFileSystemServices;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.watch.vfs.BuildLifecycleAwareVirtualFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link BuildActionRunner} that keeps the virtual file system of the root build in the project cache directory between builds.
+ *
+ * <p>When the virtual file system knows nothing about the root build at the start of the build, for example in a new daemon,
+ * the up-to-date parts of the persisted state are restored. At the end of the build, the state is written again.</p>
+ */
+public class VirtualFileSystemPersistingBuildActionRunner implements BuildActionRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualFileSystemPersistingBuildActionRunner.class);
+
+    private final BuildLifecycleAwareVirtualFileSystem virtualFileSystem;
+    private final File rootDirectory;
+    private final PersistedVirtualFileSystemState persistedState;
+    private final InternalOptions options;
+    private final BuildActionRunner delegate;
+
+    public VirtualFileSystemPersistingBuildActionRunner(
+        BuildLifecycleAwareVirtualFileSystem virtualFileSystem,
+        File rootDirectory,
+        PersistedVirtualFileSystemState persistedState,
+        InternalOptions options,
+        BuildActionRunner delegate
+    ) {
+        this.virtualFileSystem = virtualFileSystem;
+        this.rootDirectory = rootDirectory;
+        this.persistedState = persistedState;
+        this.options = options;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Result run(BuildAction action, BuildTreeLifecycleController buildController) {
+        if (!VirtualFileSystemServices.isPersistVfs(options)) {
+            return delegate.run(action, buildController);
+        }
+        String rootPath = rootDirectory.getAbsolutePath();
+        long buildStartTimestamp = persistedState.currentTimestamp();
+        if (!virtualFileSystem.rootSnapshotsUnder(rootPath).findAny().isPresent()) {
+            restore();
+        }
+        try {
+            return delegate.run(action, buildController);
+        } finally {
+            List<FileSystemLocationSnapshot> rootSnapshots = virtualFileSystem.rootSnapshotsUnder(rootPath).collect(Collectors.toList());
+            persistedState.write(rootSnapshots, buildStartTimestamp);
+            LOGGER.info("Persisted {} virtual file system snapshots to {}", rootSnapshots.size(), persistedState.getStateFile());
+        }
+    }
+
+    private void restore() {
+        List<FileSystemLocationSnapshot> unchangedSnapshots = persistedState.readUnchanged();
+        for (FileSystemLocationSnapshot snapshot : unchangedSnapshots) {
+            virtualFileSystem.store(snapshot.getAbsolutePath(), () -> snapshot);
+        }
+        LOGGER.info("Restored {} unchanged virtual file system snapshots from {}", unchangedSnapshots.size(), persistedState.getStateFile());
+    }
+}
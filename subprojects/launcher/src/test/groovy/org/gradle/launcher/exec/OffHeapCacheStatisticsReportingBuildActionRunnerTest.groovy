@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.exec
+
+import org.gradle.cache.internal.DefaultInMemoryCacheDecoratorFactory
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory
+import org.gradle.cache.internal.offheap.OffHeapCacheStatistics
+import org.gradle.cache.internal.offheap.OffHeapCacheStatisticsBuildOperationType
+import org.gradle.internal.buildtree.BuildActionRunner
+import org.gradle.internal.buildtree.BuildTreeLifecycleController
+import org.gradle.internal.invocation.BuildAction
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import spock.lang.Specification
+
+class OffHeapCacheStatisticsReportingBuildActionRunnerTest extends Specification {
+    def delegate = Mock(BuildActionRunner)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def action = Stub(BuildAction)
+    def controller = Stub(BuildTreeLifecycleController)
+
+    def "reports statistics of the off-heap store at the end of the build"() {
+        def cacheDecoratorFactory = Mock(DefaultInMemoryCacheDecoratorFactory)
+        def runner = new OffHeapCacheStatisticsReportingBuildActionRunner(cacheDecoratorFactory, buildOperationExecutor, delegate)
+        def statistics = Stub(OffHeapCacheStatistics) {
+            getHits() >> 10
+            getMisses() >> 2
+            getEvictions() >> 1
+            getStoredBytes() >> 1000
+            getMaxBytes() >> 2000
+        }
+
+        when:
+        runner.run(action, controller)
+
+        then:
+        1 * cacheDecoratorFactory.collectOffHeapStatistics() >> Stub(OffHeapCacheStatistics)
+
+        then:
+        1 * delegate.run(action, controller) >> BuildActionRunner.Result.nothing()
+
+        then:
+        1 * cacheDecoratorFactory.collectOffHeapStatistics() >> statistics
+
+        and:
+        def details = buildOperationExecutor.log.mostRecentDetails(OffHeapCacheStatisticsBuildOperationType)
+        details.hits == 10
+        details.misses == 2
+        details.evictions == 1
+        details.storedBytes == 1000
+        details.maxBytes == 2000
+    }
+
+    def "does not report anything when there is no off-heap store"() {
+        def cacheDecoratorFactory = Stub(DefaultInMemoryCacheDecoratorFactory) {
+            collectOffHeapStatistics() >> null
+        }
+        def runner = new OffHeapCacheStatisticsReportingBuildActionRunner(cacheDecoratorFactory, buildOperationExecutor, delegate)
+
+        when:
+        runner.run(action, controller)
+
+        then:
+        1 * delegate.run(action, controller) >> BuildActionRunner.Result.nothing()
+        buildOperationExecutor.log.records.empty
+    }
+
+    def "does not report anything for other cache decorator factories"() {
+        def runner = new OffHeapCacheStatisticsReportingBuildActionRunner(Stub(InMemoryCacheDecoratorFactory), buildOperationExecutor, delegate)
+
+        when:
+        runner.run(action, controller)
+
+        then:
+        1 * delegate.run(action, controller) >> BuildActionRunner.Result.nothing()
+        buildOperationExecutor.log.records.empty
+    }
+}
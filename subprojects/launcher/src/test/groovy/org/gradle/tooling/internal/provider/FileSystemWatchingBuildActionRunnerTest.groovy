@@ -25,18 +25,28 @@ import org.gradle.internal.buildtree.BuildActionRunner
 import org.gradle.internal.buildtree.BuildTreeLifecycleController
 import org.gradle.internal.file.StatStatistics
 import org.gradle.internal.invocation.BuildAction
+import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationProgressEventEmitter
 import org.gradle.internal.operations.BuildOperationRunner
+import org.gradle.internal.operations.RunnableBuildOperation
 import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
+import org.gradle.internal.vfs.VirtualFileSystemStatistics
 import org.gradle.internal.watch.options.FileSystemWatchingSettingsFinalizedProgressDetails
+import org.gradle.internal.watch.registry.WatchBudgetUsage
 import org.gradle.internal.watch.registry.WatchMode
 import org.gradle.internal.watch.vfs.BuildLifecycleAwareVirtualFileSystem
 import org.gradle.internal.watch.vfs.VfsLogging
+import org.gradle.internal.watch.vfs.VirtualFileSystemStatisticsBuildOperationType
 import org.gradle.internal.watch.vfs.WatchLogging
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class FileSystemWatchingBuildActionRunnerTest extends Specification {
 
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
     def watchingHandler = Mock(BuildLifecycleAwareVirtualFileSystem)
     List<Deployment> deployments = []
     def deploymentRegistry = Stub(DeploymentRegistryInternal) {
@@ -56,6 +66,7 @@ class FileSystemWatchingBuildActionRunnerTest extends Specification {
         Stub(StatStatistics.Collector),
         Stub(FileHasherStatistics.Collector),
         Stub(DirectorySnapshotterStatistics.Collector),
+        Stub(VirtualFileSystemStatistics.Collector),
         buildOperationRunner,
         delegate,
         new DefaultInternalOptions([:]))
@@ -84,7 +95,10 @@ class FileSystemWatchingBuildActionRunnerTest extends Specification {
         1 * delegate.run(buildAction, buildController)
 
         then:
-        1 * watchingHandler.beforeBuildFinished(watchMode, vfsLogging, watchLogging, buildOperationRunner, _)
+        1 * watchingHandler.beforeBuildFinished(watchMode, vfsLogging, watchLogging, buildOperationRunner, _, WatchBudgetUsage.NO_WATCH_BUDGET)
+
+        then:
+        1 * buildOperationRunner.run(_)
 
         then:
         0 * _
@@ -120,7 +134,10 @@ class FileSystemWatchingBuildActionRunnerTest extends Specification {
         1 * delegate.run(buildAction, buildController)
 
         then:
-        1 * watchingHandler.beforeBuildFinished(WatchMode.DISABLED, _, _, buildOperationRunner, _)
+        1 * watchingHandler.beforeBuildFinished(WatchMode.DISABLED, _, _, buildOperationRunner, _, _)
+
+        then:
+        1 * buildOperationRunner.run(_)
 
         then:
         0 * _
@@ -159,7 +176,10 @@ class FileSystemWatchingBuildActionRunnerTest extends Specification {
         1 * delegate.run(buildAction, buildController)
 
         then:
-        1 * watchingHandler.beforeBuildFinished(WatchMode.ENABLED, _, _, buildOperationRunner, _)
+        1 * watchingHandler.beforeBuildFinished(WatchMode.ENABLED, _, _, buildOperationRunner, _, _)
+
+        then:
+        1 * buildOperationRunner.run(_)
 
         then:
         0 * _
@@ -190,4 +210,72 @@ class FileSystemWatchingBuildActionRunnerTest extends Specification {
         "using continuous build"  | false         | true
         "a deployment is running" | true          | false
     }
+
+    def "passes the configured watch budget to the virtual file system"() {
+        def runner = new FileSystemWatchingBuildActionRunner(
+            buildOperationProgressEventEmitter,
+            watchingHandler,
+            deploymentRegistry,
+            Stub(StatStatistics.Collector),
+            Stub(FileHasherStatistics.Collector),
+            Stub(DirectorySnapshotterStatistics.Collector),
+            Stub(VirtualFileSystemStatistics.Collector),
+            buildOperationRunner,
+            delegate,
+            new DefaultInternalOptions(["org.gradle.vfs.watch.directories.max": "1000"]))
+        _ * startParameter.watchFileSystemMode >> WatchMode.ENABLED
+        _ * startParameter.projectCacheDir >> null
+
+        when:
+        runner.run(buildAction, buildController)
+
+        then:
+        1 * watchingHandler.beforeBuildFinished(WatchMode.ENABLED, _, _, buildOperationRunner, _, 1000)
+    }
+
+    def "publishes file system statistics at the end of the build and writes them to #description file"() {
+        def vfsStatisticsCollector = Stub(VirtualFileSystemStatistics.Collector) {
+            collect() >>> [Stub(VirtualFileSystemStatistics), Stub(VirtualFileSystemStatistics) {
+                getHitCount() >> 5
+                getMissCount() >> 2
+            }]
+        }
+        def statisticsFile = temporaryFolder.testDirectory.file("build/vfs-statistics.json")
+        def runner = new FileSystemWatchingBuildActionRunner(
+            buildOperationProgressEventEmitter,
+            watchingHandler,
+            deploymentRegistry,
+            Stub(StatStatistics.Collector),
+            Stub(FileHasherStatistics.Collector),
+            Stub(DirectorySnapshotterStatistics.Collector),
+            vfsStatisticsCollector,
+            buildOperationRunner,
+            delegate,
+            new DefaultInternalOptions(["org.gradle.vfs.statistics.file": absolute ? statisticsFile.absolutePath : "build/vfs-statistics.json"]))
+        def buildOperationContext = Mock(BuildOperationContext)
+        _ * startParameter.watchFileSystemMode >> WatchMode.DISABLED
+        _ * startParameter.projectCacheDir >> null
+        _ * startParameter.currentDir >> temporaryFolder.testDirectory
+
+        when:
+        runner.run(buildAction, buildController)
+
+        then:
+        1 * buildOperationRunner.run(_) >> { RunnableBuildOperation operation ->
+            assert operation.description().build().displayName == VirtualFileSystemStatisticsBuildOperationType.DISPLAY_NAME
+            operation.run(buildOperationContext)
+        }
+        1 * buildOperationContext.setResult({ VirtualFileSystemStatisticsBuildOperationType.Result result ->
+            result.statisticsSinceLastBuild.vfsHitCount == 0 &&
+                result.statisticsDuringBuild.vfsHitCount == 5 &&
+                result.statisticsDuringBuild.vfsMissCount == 2
+        })
+        statisticsFile.text.startsWith('{"sinceLastBuild": {"vfsHitCount": 0, ')
+        statisticsFile.text.contains('"duringBuild": {"vfsHitCount": 5, "vfsMissCount": 2, ')
+
+        where:
+        description | absolute
+        "absolute"  | true
+        "relative"  | false
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+@CleanupTestDirectory
+class PersistedVirtualFileSystemStateTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def rootDir = temporaryFolder.createDir("root")
+    def stateFile = temporaryFolder.file("state/snapshots.bin")
+    def state = new PersistedVirtualFileSystemState(stateFile, TestFiles.fileSystem(), new StringInterner())
+    // Treats the files created by a test as if they were created before the build started
+    def afterChanges = System.currentTimeMillis() + 60_000
+
+    def "reads back unchanged snapshots"() {
+        def src = rootDir.file("src")
+        src.file("a/b/x.txt").text = "x"
+        src.file("a/y.txt").text = "y"
+        def missing = rootDir.file("missing")
+
+        when:
+        state.write([snapshot(src), snapshot(missing)], afterChanges)
+        def unchanged = state.readUnchanged()
+
+        then:
+        unchanged*.absolutePath as Set == [src.absolutePath, missing.absolutePath] as Set
+        unchanged.find { it.absolutePath == src.absolutePath }.hash == snapshot(src).hash
+    }
+
+    def "drops changed files and their parent directories"() {
+        def src = rootDir.file("src")
+        src.file("a/b/x.txt").text = "x"
+        def changed = src.file("a/y.txt")
+        changed.text = "y"
+        src.file("z.txt").text = "z"
+        state.write([snapshot(src)], afterChanges)
+
+        when:
+        changed.text = "changed"
+        def unchanged = state.readUnchanged()
+
+        then:
+        unchanged*.absolutePath as Set == [src.file("a/b").absolutePath, src.file("z.txt").absolutePath] as Set
+    }
+
+    def "drops directories with new entries"() {
+        def src = rootDir.file("src")
+        def dir = src.file("a")
+        dir.file("x.txt").text = "x"
+        state.write([snapshot(src)], afterChanges)
+
+        when:
+        dir.file("new.txt").text = "new"
+        dir.makeOlder()
+        def unchanged = state.readUnchanged()
+
+        then:
+        unchanged*.absolutePath == [dir.file("x.txt").absolutePath]
+    }
+
+    def "drops directories changed after they were snapshotted during the build"() {
+        def src = rootDir.file("src")
+        def dir = src.file("a")
+        def unchangedFile = dir.file("x.txt")
+        unchangedFile.text = "x"
+        unchangedFile.makeOlder()
+        dir.makeOlder()
+        src.makeOlder()
+        def buildStartTimestamp = state.currentTimestamp()
+        def snapshot = snapshot(src)
+
+        when:
+        dir.file("new.txt").text = "new"
+        state.write([snapshot], buildStartTimestamp)
+        def unchanged = state.readUnchanged()
+
+        then:
+        unchanged*.absolutePath == [unchangedFile.absolutePath]
+    }
+
+    def "drops files modified since the build started"() {
+        def file = rootDir.file("file.txt")
+        def buildStartTimestamp = state.currentTimestamp()
+        file.text = "content"
+        file.setLastModified(buildStartTimestamp)
+
+        when:
+        state.write([snapshot(file)], buildStartTimestamp)
+
+        then:
+        state.readUnchanged().empty
+    }
+
+    def "drops missing files which have been created"() {
+        def missing = rootDir.file("missing")
+        state.write([snapshot(missing)], afterChanges)
+
+        when:
+        missing.text = "created"
+
+        then:
+        state.readUnchanged().empty
+    }
+
+    def "ignores corrupt state"() {
+        stateFile.text = "corrupt"
+
+        expect:
+        state.readUnchanged().empty
+    }
+
+    def "ignores missing state"() {
+        expect:
+        state.readUnchanged().empty
+    }
+
+    private static FileSystemLocationSnapshot snapshot(File file) {
+        return TestFiles.fileSystemAccess().read(file.absolutePath)
+    }
+}
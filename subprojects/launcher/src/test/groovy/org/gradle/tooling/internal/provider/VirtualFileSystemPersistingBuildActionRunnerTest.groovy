@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider
+
+import org.gradle.internal.buildoption.DefaultInternalOptions
+import org.gradle.internal.buildtree.BuildActionRunner
+import org.gradle.internal.buildtree.BuildTreeLifecycleController
+import org.gradle.internal.invocation.BuildAction
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.watch.vfs.BuildLifecycleAwareVirtualFileSystem
+import spock.lang.Specification
+
+import java.util.stream.Stream
+
+class VirtualFileSystemPersistingBuildActionRunnerTest extends Specification {
+    def virtualFileSystem = Mock(BuildLifecycleAwareVirtualFileSystem)
+    def persistedState = Mock(PersistedVirtualFileSystemState) {
+        currentTimestamp() >> 42
+    }
+    def delegate = Mock(BuildActionRunner)
+    def action = Stub(BuildAction)
+    def controller = Stub(BuildTreeLifecycleController)
+    def rootDir = new File("root").absoluteFile
+
+    def "restores the persisted state into an empty virtual file system and persists it at the end of the build"() {
+        def restored = Stub(FileSystemLocationSnapshot) {
+            getAbsolutePath() >> new File(rootDir, "src").absolutePath
+        }
+        def current = Stub(FileSystemLocationSnapshot)
+        def runner = runner(true)
+
+        when:
+        runner.run(action, controller)
+
+        then:
+        1 * virtualFileSystem.rootSnapshotsUnder(rootDir.absolutePath) >> Stream.empty()
+        1 * persistedState.readUnchanged() >> [restored]
+        1 * virtualFileSystem.store(restored.absolutePath, _)
+
+        then:
+        1 * delegate.run(action, controller) >> BuildActionRunner.Result.nothing()
+
+        then:
+        1 * virtualFileSystem.rootSnapshotsUnder(rootDir.absolutePath) >> Stream.of(current)
+        1 * persistedState.write([current], 42)
+    }
+
+    def "does not restore the persisted state when the virtual file system already knows about the build"() {
+        def current = Stub(FileSystemLocationSnapshot)
+        def runner = runner(true)
+
+        when:
+        runner.run(action, controller)
+
+        then:
+        1 * virtualFileSystem.rootSnapshotsUnder(rootDir.absolutePath) >> Stream.of(current)
+        0 * persistedState.readUnchanged()
+
+        then:
+        1 * delegate.run(action, controller) >> BuildActionRunner.Result.nothing()
+
+        then:
+        1 * virtualFileSystem.rootSnapshotsUnder(rootDir.absolutePath) >> Stream.of(current)
+        1 * persistedState.write([current], 42)
+    }
+
+    def "does nothing when persisting the virtual file system is not enabled"() {
+        def runner = runner(false)
+
+        when:
+        runner.run(action, controller)
+
+        then:
+        1 * delegate.run(action, controller) >> BuildActionRunner.Result.nothing()
+        0 * virtualFileSystem._
+        0 * persistedState._
+    }
+
+    private VirtualFileSystemPersistingBuildActionRunner runner(boolean enabled) {
+        def options = new DefaultInternalOptions(["org.gradle.vfs.persist": enabled.toString()])
+        return new VirtualFileSystemPersistingBuildActionRunner(virtualFileSystem, rootDir, persistedState, options, delegate)
+    }
+}
@@ -21,6 +21,7 @@
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.FileMetadata.AccessType;
 import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.file.impl.NioDirectoryLister;
 import org.gradle.internal.nativeintegration.filesystem.jdk7.NioFileMetadataAccessor;
 import org.gradle.internal.nativeintegration.filesystem.services.FallbackFileMetadataAccessor;
 import org.gradle.internal.nativeintegration.filesystem.services.NativePlatformBackedFileMetadataAccessor;
@@ -40,6 +41,7 @@
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -72,6 +74,8 @@ public class FileMetadataAccessorBenchmark {
     Path directoryPath;
     File realFile;
     Path realFilePath;
+    File populatedDirectory;
+    Path populatedDirectoryPath;
 
     @Setup
     public void prepare() throws IOException {
@@ -87,12 +91,31 @@ public void prepare() throws IOException {
         FileOutputStream fos = new FileOutputStream(realFile);
         fos.write(new byte[1024]);
         fos.close();
+
+        populatedDirectoryPath = java.nio.file.Files.createTempDirectory("jmh");
+        populatedDirectory = populatedDirectoryPath.toFile();
+        for (int i = 0; i < 100; i++) {
+            File child = new File(populatedDirectory, "file" + i + ".txt");
+            FileOutputStream childStream = new FileOutputStream(child);
+            childStream.write(new byte[i]);
+            childStream.close();
+        }
+        for (int i = 0; i < 10; i++) {
+            new File(populatedDirectory, "dir" + i).mkdir();
+        }
     }
 
     @TearDown
     public void tearDown() {
         directory.delete();
         realFile.delete();
+        File[] children = populatedDirectory.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                child.delete();
+            }
+        }
+        populatedDirectory.delete();
     }
 
     private FileMetadataAccessor getAccessor(String name) {
@@ -114,6 +137,23 @@ public void stat_existing(Blackhole bh) {
         bh.consume(getAccessor(accessorClassName).stat(realFile));
     }
 
+    @Benchmark
+    public void list_directory_and_stat_each_entry(Blackhole bh) {
+        FileMetadataAccessor accessor = getAccessor(accessorClassName);
+        File[] children = populatedDirectory.listFiles();
+        for (File child : children) {
+            bh.consume(accessor.stat(child));
+        }
+    }
+
+    @Benchmark
+    public void list_directory_with_metadata(Blackhole bh) throws IOException {
+        List<FileMetadataAccessor.Entry> entries = getAccessor(accessorClassName).listDirectory(populatedDirectoryPath);
+        for (FileMetadataAccessor.Entry entry : entries) {
+            bh.consume(entry.getAttributes());
+        }
+    }
+
     private static class Jdk7FileMetadataAccessor implements FileMetadataAccessor {
         @Override
         public FileMetadata stat(File f) {
@@ -133,5 +173,10 @@ public FileMetadata stat(File f) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
         }
+
+        @Override
+        public List<Entry> listDirectory(Path directory) throws IOException {
+            return NioDirectoryLister.INSTANCE.listDirectory(directory);
+        }
     }
 }
@@ -16,11 +16,15 @@
 
 package org.gradle.internal.nativeintegration.filesystem;
 
+import org.gradle.internal.file.DirectoryLister;
 import org.gradle.internal.file.FileMetadata;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
-public interface FileMetadataAccessor {
+public interface FileMetadataAccessor extends DirectoryLister {
     /**
      * Gets the file metadata of a {@link File}.
      * <p>
@@ -39,4 +43,12 @@ public interface FileMetadataAccessor {
      * </ul>
      */
     FileMetadata stat(File f);
+
+    /**
+     * Lists the entries of a directory together with their metadata, reading the metadata of all the entries in one go where the platform allows.
+     * <p>
+     * Symlinks are not followed.
+     */
+    @Override
+    List<Entry> listDirectory(Path directory) throws IOException;
 }
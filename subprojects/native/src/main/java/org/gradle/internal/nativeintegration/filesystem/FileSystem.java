@@ -16,6 +16,7 @@
 package org.gradle.internal.nativeintegration.filesystem;
 
 import org.gradle.internal.file.Chmod;
+import org.gradle.internal.file.DirectoryLister;
 import org.gradle.internal.file.FileException;
 import org.gradle.internal.file.Stat;
 
@@ -24,7 +25,7 @@
 /**
  * A file system accessible to Gradle.
  */
-public interface FileSystem extends Chmod, Stat {
+public interface FileSystem extends Chmod, Stat, DirectoryLister {
     /**
      * Default Unix permissions for directories, {@code 755}.
      */
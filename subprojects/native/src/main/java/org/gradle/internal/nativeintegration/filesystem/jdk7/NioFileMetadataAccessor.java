@@ -19,6 +19,7 @@
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.FileMetadata.AccessType;
 import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.file.impl.NioDirectoryLister;
 import org.gradle.internal.nativeintegration.filesystem.FileMetadataAccessor;
 
 import java.io.File;
@@ -27,6 +28,7 @@
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
 
 @SuppressWarnings("Since15")
 public class NioFileMetadataAccessor implements FileMetadataAccessor {
@@ -55,4 +57,9 @@ public FileMetadata stat(File file) {
         }
         return DefaultFileMetadata.file(attributes.lastModifiedTime().toMillis(), attributes.size(), accessType);
     }
+
+    @Override
+    public List<Entry> listDirectory(Path directory) throws IOException {
+        return NioDirectoryLister.INSTANCE.listDirectory(directory);
+    }
 }
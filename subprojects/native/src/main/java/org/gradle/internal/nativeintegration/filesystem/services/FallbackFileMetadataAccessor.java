@@ -20,9 +20,13 @@
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.FileMetadata.AccessType;
 import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.file.impl.NioDirectoryLister;
 import org.gradle.internal.nativeintegration.filesystem.FileMetadataAccessor;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 public class FallbackFileMetadataAccessor implements FileMetadataAccessor {
     @Override
@@ -38,4 +42,9 @@ public FileMetadata stat(File f) {
         }
         throw new UncheckedIOException("Unsupported file type for " + f.getAbsolutePath());
     }
+
+    @Override
+    public List<Entry> listDirectory(Path directory) throws IOException {
+        return NioDirectoryLister.INSTANCE.listDirectory(directory);
+    }
 }
@@ -34,6 +34,8 @@
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.UUID;
 
 class GenericFileSystem implements FileSystem {
@@ -107,6 +109,11 @@ public FileMetadata stat(File f) throws FileException {
         return metadata.stat(f);
     }
 
+    @Override
+    public List<Entry> listDirectory(Path directory) throws IOException {
+        return metadata.listDirectory(directory);
+    }
+
     @Override
     public void chmod(File f, int mode) {
         try {
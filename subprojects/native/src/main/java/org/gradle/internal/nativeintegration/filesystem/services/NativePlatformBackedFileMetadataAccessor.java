@@ -17,6 +17,7 @@
 package org.gradle.internal.nativeintegration.filesystem.services;
 
 import net.rubygrapefruit.platform.NativeException;
+import net.rubygrapefruit.platform.file.DirEntry;
 import net.rubygrapefruit.platform.file.FileInfo;
 import net.rubygrapefruit.platform.file.Files;
 import org.gradle.api.UncheckedIOException;
@@ -26,6 +27,13 @@
 import org.gradle.internal.nativeintegration.filesystem.FileMetadataAccessor;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
 
 public class NativePlatformBackedFileMetadataAccessor implements FileMetadataAccessor {
     private final Files files;
@@ -67,4 +75,80 @@ public FileMetadata stat(File f) {
                 throw new IllegalArgumentException("Unrecognised file type: " + stat.getType());
         }
     }
+
+    @Override
+    public List<Entry> listDirectory(Path directory) throws IOException {
+        List<? extends DirEntry> dirEntries;
+        try {
+            dirEntries = files.listDir(directory.toFile(), false);
+        } catch (NativeException e) {
+            throw new IOException("Could not list directory " + directory, e);
+        }
+        List<Entry> entries = new ArrayList<>(dirEntries.size());
+        for (DirEntry dirEntry : dirEntries) {
+            String name = dirEntry.getName();
+            if (dirEntry.getType() == FileInfo.Type.Missing) {
+                // The entry has been removed while listing the directory
+                entries.add(Entry.failed(name, new NoSuchFileException(directory.resolve(name).toString())));
+            } else {
+                entries.add(Entry.of(name, new FileInfoBackedAttributes(dirEntry)));
+            }
+        }
+        return entries;
+    }
+
+    private static class FileInfoBackedAttributes implements BasicFileAttributes {
+        private final FileInfo fileInfo;
+
+        public FileInfoBackedAttributes(FileInfo fileInfo) {
+            this.fileInfo = fileInfo;
+        }
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return FileTime.fromMillis(fileInfo.getLastModifiedTime());
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            // Not provided by native-platform
+            return lastModifiedTime();
+        }
+
+        @Override
+        public FileTime creationTime() {
+            // Not provided by native-platform
+            return lastModifiedTime();
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return fileInfo.getType() == FileInfo.Type.File;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return fileInfo.getType() == FileInfo.Type.Directory;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return fileInfo.getType() == FileInfo.Type.Symlink;
+        }
+
+        @Override
+        public boolean isOther() {
+            return fileInfo.getType() == FileInfo.Type.Other;
+        }
+
+        @Override
+        public long size() {
+            return fileInfo.getSize();
+        }
+
+        @Override
+        public Object fileKey() {
+            return null;
+        }
+    }
 }
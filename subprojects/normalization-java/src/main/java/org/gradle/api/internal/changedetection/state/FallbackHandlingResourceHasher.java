@@ -155,6 +155,11 @@ public int size() {
             return delegate.size();
         }
 
+        @Override
+        public long getCrc() {
+            return delegate.getCrc();
+        }
+
         @Override
         public boolean canReopen() {
             return true;
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The pool {@link ZipHasher}s use to hash the entries of a zip file in parallel, shared by all the builds run by a process.
+ */
+public class ZipEntryHashingPool implements Closeable {
+    private final ForkJoinPool pool;
+
+    public ZipEntryHashingPool(boolean enabled) {
+        this.pool = enabled ? createPool() : null;
+    }
+
+    /**
+     * Returns the executor to hash entries with, or {@code null} when entries should be hashed on the calling thread.
+     */
+    @Nullable
+    public Executor getExecutor() {
+        return pool;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static ForkJoinPool createPool() {
+        AtomicInteger workerCount = new AtomicInteger();
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("Zip entry hasher worker " + workerCount.incrementAndGet());
+            return worker;
+        }, null, false);
+    }
+}
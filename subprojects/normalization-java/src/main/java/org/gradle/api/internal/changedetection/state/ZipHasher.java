@@ -42,10 +42,22 @@
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Hashes zip files by hashing their entries with a {@link ResourceHasher}, as if the zip file were expanded on disk.
+ *
+ * <p>When created with an executor, the entries of a zip file that can be read in any order are hashed in parallel.
+ * The zip file's central directory is only read once, and entry hashes are cached by their full name, CRC-32 and size,
+ * so that classes that didn't change between versions of a jar are not hashed again.</p>
+ */
 public class ZipHasher implements RegularFileSnapshotContextHasher, ConfigurableNormalizer {
 
     private static final Set<String> KNOWN_ZIP_EXTENSIONS = ImmutableSet.of("zip", "jar", "war", "rar", "ear", "apk", "aar", "klib");
@@ -58,17 +70,46 @@ public static boolean isZipFile(final String name) {
 
     private final ResourceHasher resourceHasher;
     private final HashingExceptionReporter hashingExceptionReporter;
+    @Nullable
+    private final ResourceSnapshotterCacheService entryCacheService;
+    @Nullable
+    private final Executor entryHashingExecutor;
+    private final HashCode resourceHasherConfigurationHash;
 
     public ZipHasher(ResourceHasher resourceHasher) {
+        this(resourceHasher, null, null);
+    }
+
+    public ZipHasher(ResourceHasher resourceHasher, HashingExceptionReporter hashingExceptionReporter) {
+        this(resourceHasher, hashingExceptionReporter, null, null);
+    }
+
+    /**
+     * Creates a hasher that hashes entries in parallel on the given executor and caches them in the given cache service, when both are present.
+     */
+    public ZipHasher(ResourceHasher resourceHasher, @Nullable ResourceSnapshotterCacheService entryCacheService, @Nullable Executor entryHashingExecutor) {
         this(
             resourceHasher,
-            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e)
+            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e),
+            entryCacheService,
+            entryHashingExecutor
         );
     }
 
-    public ZipHasher(ResourceHasher resourceHasher, HashingExceptionReporter hashingExceptionReporter) {
+    public ZipHasher(
+        ResourceHasher resourceHasher,
+        HashingExceptionReporter hashingExceptionReporter,
+        @Nullable ResourceSnapshotterCacheService entryCacheService,
+        @Nullable Executor entryHashingExecutor
+    ) {
         this.resourceHasher = resourceHasher;
         this.hashingExceptionReporter = hashingExceptionReporter;
+        boolean parallel = entryCacheService != null && entryHashingExecutor != null;
+        this.entryCacheService = parallel ? entryCacheService : null;
+        this.entryHashingExecutor = parallel ? entryHashingExecutor : null;
+        Hasher hasher = Hashing.newHasher();
+        resourceHasher.appendConfigurationToHasher(hasher);
+        this.resourceHasherConfigurationHash = hasher.hash();
     }
 
     @Nullable
@@ -109,27 +150,81 @@ private List<FileSystemLocationFingerprint> fingerprintZipEntries(String zipFile
 
     private void fingerprintZipEntries(String parentName, String rootParentName, List<FileSystemLocationFingerprint> fingerprints, ZipInput input) throws IOException {
         fingerprints.add(newZipMarker(parentName));
-        for (ZipEntry zipEntry : input) {
-            if (zipEntry.isDirectory()) {
-                continue;
+        // The fingerprints are sorted before hashing, so the order in which parallel results are added doesn't matter
+        List<CompletableFuture<FileSystemLocationFingerprint>> pendingFingerprints = new ArrayList<>();
+        try {
+            for (ZipEntry zipEntry : input) {
+                if (zipEntry.isDirectory()) {
+                    continue;
+                }
+                String fullName = parentName.isEmpty() ? zipEntry.getName() : parentName + "/" + zipEntry.getName();
+                ZipEntryContext zipEntryContext = new DefaultZipEntryContext(zipEntry, fullName, rootParentName);
+                if (isZipFile(zipEntry.getName())) {
+                    zipEntryContext.getEntry().withInputStream(inputStream -> {
+                        fingerprintZipEntries(fullName, rootParentName, fingerprints, new StreamZipInput(inputStream));
+                        return null;
+                    });
+                } else if (entryHashingExecutor != null && zipEntry.canReopen()) {
+                    pendingFingerprints.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return fingerprintZipEntry(zipEntryContext);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, entryHashingExecutor));
+                } else {
+                    addIfPresent(fingerprintZipEntry(zipEntryContext), fingerprints);
+                }
             }
-            String fullName = parentName.isEmpty() ? zipEntry.getName() : parentName + "/" + zipEntry.getName();
-            ZipEntryContext zipEntryContext = new DefaultZipEntryContext(zipEntry, fullName, rootParentName);
-            if (isZipFile(zipEntry.getName())) {
-                zipEntryContext.getEntry().withInputStream(inputStream -> {
-                    fingerprintZipEntries(fullName, rootParentName, fingerprints, new StreamZipInput(inputStream));
-                    return null;
-                });
-            } else {
-                fingerprintZipEntry(zipEntryContext, fingerprints);
+            for (CompletableFuture<FileSystemLocationFingerprint> pendingFingerprint : pendingFingerprints) {
+                addIfPresent(join(pendingFingerprint), fingerprints);
             }
+        } finally {
+            // The zip file is closed once we return, so wait for all tasks still reading from it when hashing fails
+            awaitCompletion(pendingFingerprints);
         }
     }
 
-    private void fingerprintZipEntry(ZipEntryContext zipEntryContext, List<FileSystemLocationFingerprint> fingerprints) throws IOException {
-        HashCode hash = resourceHasher.hash(zipEntryContext);
-        if (hash != null) {
-            fingerprints.add(new DefaultFileSystemLocationFingerprint(zipEntryContext.getFullName(), FileType.RegularFile, hash));
+    private static void awaitCompletion(List<CompletableFuture<FileSystemLocationFingerprint>> pendingFingerprints) {
+        for (CompletableFuture<FileSystemLocationFingerprint> pendingFingerprint : pendingFingerprints) {
+            try {
+                pendingFingerprint.join();
+            } catch (CompletionException e) {
+                // Only the first failure is propagated
+            }
+        }
+    }
+
+    @Nullable
+    private FileSystemLocationFingerprint fingerprintZipEntry(ZipEntryContext zipEntryContext) throws IOException {
+        HashCode hash = entryCacheService != null
+            ? entryCacheService.hashZipEntry(zipEntryContext, resourceHasher, resourceHasherConfigurationHash)
+            : resourceHasher.hash(zipEntryContext);
+        return hash == null ? null : new DefaultFileSystemLocationFingerprint(zipEntryContext.getFullName(), FileType.RegularFile, hash);
+    }
+
+    private static void addIfPresent(@Nullable FileSystemLocationFingerprint fingerprint, List<FileSystemLocationFingerprint> fingerprints) {
+        if (fingerprint != null) {
+            fingerprints.add(fingerprint);
+        }
+    }
+
+    @Nullable
+    private static FileSystemLocationFingerprint join(CompletableFuture<FileSystemLocationFingerprint> pendingFingerprint) throws IOException {
+        try {
+            return pendingFingerprint.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
         }
     }
 
@@ -479,6 +479,11 @@ class MetaInfAwareClasspathResourceHasherTest extends Specification {
                 return bos.size()
             }
 
+            @Override
+            long getCrc() {
+                return -1
+            }
+
             @Override
             boolean canReopen() {
                 return !unsafe
@@ -377,6 +377,11 @@ class PropertiesFileAwareClasspathResourceHasherTest extends Specification {
                 return bytes.length
             }
 
+            @Override
+            long getCrc() {
+                return -1
+            }
+
             @Override
             boolean canReopen() {
                 return !unsafe
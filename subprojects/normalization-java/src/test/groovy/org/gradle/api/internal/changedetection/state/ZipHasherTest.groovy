@@ -21,6 +21,8 @@ import org.gradle.internal.file.FileMetadata.AccessType
 import org.gradle.internal.file.impl.DefaultFileMetadata
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext
 import org.gradle.internal.fingerprint.hashing.ResourceHasher
+import org.gradle.internal.fingerprint.hashing.ZipEntryContext
+import org.gradle.internal.hash.HashCode
 import org.gradle.internal.hash.TestHashCodes
 import org.gradle.internal.snapshot.RegularFileSnapshot
 import org.gradle.test.fixtures.file.TestFile
@@ -28,6 +30,10 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 import java.util.jar.Attributes
 import java.util.jar.JarEntry
 import java.util.jar.JarOutputStream
@@ -43,6 +49,12 @@ class ZipHasherTest extends Specification {
     ZipHasher zipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING))
     ZipHasher ignoringZipHasher = new ZipHasher(resourceHasher(manifestResourceFilter, propertyResourceFilter))
 
+    def executor = Executors.newFixedThreadPool(4)
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
     static ResourceHasher resourceHasher(ResourceEntryFilter manifestResourceFilter, ResourceEntryFilter propertyResourceFilter) {
         ResourceHasher hasher = new RuntimeClasspathResourceHasher()
         ResourceHasher propertiesFileHasher = new PropertiesFileAwareClasspathResourceHasher(hasher, ['**/*.properties': propertyResourceFilter])
@@ -148,6 +160,103 @@ class ZipHasherTest extends Specification {
         hash1 == hash2
     }
 
+    def "hashing entries in parallel produces the same hash"() {
+        given:
+        def outerContent = tmpDir.createDir("outer")
+        20.times { outerContent.file("org/gradle/Class${it}.class") << "class ${it}" }
+        outerContent.file("META-INF/build-info.properties") << "foo=bar"
+        def innerContent = tmpDir.createDir("inner")
+        innerContent.file("foo") << "Foo"
+        innerContent.zipTo(outerContent.file("lib/inner.jar"))
+        def outer = tmpDir.file("outer.jar")
+        outerContent.zipTo(outer)
+        def cacheService = Stub(ResourceSnapshotterCacheService) {
+            hashZipEntry(_ as ZipEntryContext, _ as ResourceHasher, _ as HashCode) >> { ZipEntryContext context, ResourceHasher hasher, HashCode configurationHash -> hasher.hash(context) }
+        }
+        def parallelZipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING), cacheService, executor)
+
+        expect:
+        parallelZipHasher.hash(snapshotContext(outer)) == zipHasher.hash(snapshotContext(outer))
+    }
+
+    def "entry hashes are looked up in the cache when hashing in parallel"() {
+        given:
+        def content = tmpDir.createDir("content")
+        content.file("org/gradle/First.class") << "first"
+        content.file("org/gradle/Second.class") << "second"
+        def jar = tmpDir.file("test.jar")
+        content.zipTo(jar)
+        def cachedEntries = new ConcurrentLinkedQueue<String>()
+        def cacheService = Stub(ResourceSnapshotterCacheService) {
+            hashZipEntry(_ as ZipEntryContext, _ as ResourceHasher, _ as HashCode) >> { ZipEntryContext context, ResourceHasher hasher, HashCode configurationHash ->
+                cachedEntries.add(context.fullName)
+                return TestHashCodes.hashCodeFrom(1)
+            }
+        }
+        def parallelZipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING), cacheService, executor)
+
+        when:
+        def hash = parallelZipHasher.hash(snapshotContext(jar))
+
+        then:
+        cachedEntries.sort() == ["org/gradle/First.class", "org/gradle/Second.class"]
+        hash != zipHasher.hash(snapshotContext(jar))
+    }
+
+    def "failures hashing entries in parallel fall back to the file hash"() {
+        given:
+        def content = tmpDir.createDir("content")
+        content.file("org/gradle/First.class") << "first"
+        def jar = tmpDir.file("test.jar")
+        content.zipTo(jar)
+        def cacheService = Stub(ResourceSnapshotterCacheService) {
+            hashZipEntry(_ as ZipEntryContext, _ as ResourceHasher, _ as HashCode) >> { throw new IOException("broken") }
+        }
+        def parallelZipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING), cacheService, executor)
+
+        expect:
+        parallelZipHasher.hash(snapshotContext(jar)) == TestHashCodes.hashCodeFrom(0)
+    }
+
+    def "waits for entries still being hashed when hashing another entry fails"() {
+        given:
+        def content = tmpDir.createDir("content")
+        content.file("org/gradle/Broken.class") << "broken"
+        3.times { content.file("org/gradle/Slow${it}.class") << "slow ${it}" }
+        def jar = tmpDir.file("test.jar")
+        content.zipTo(jar)
+        def brokenEntryFailed = new CountDownLatch(1)
+        def hashedEntries = new ConcurrentLinkedQueue<String>()
+        def failedEntries = new ConcurrentLinkedQueue<String>()
+        def cacheService = Stub(ResourceSnapshotterCacheService) {
+            hashZipEntry(_ as ZipEntryContext, _ as ResourceHasher, _ as HashCode) >> { ZipEntryContext context, ResourceHasher hasher, HashCode configurationHash ->
+                if (context.fullName.endsWith("Broken.class")) {
+                    brokenEntryFailed.countDown()
+                    throw new IOException("broken")
+                }
+                brokenEntryFailed.await(10, TimeUnit.SECONDS)
+                Thread.sleep(200)
+                try {
+                    def hash = hasher.hash(context)
+                    hashedEntries.add(context.fullName)
+                    return hash
+                } catch (Exception e) {
+                    failedEntries.add(context.fullName)
+                    throw e
+                }
+            }
+        }
+        def parallelZipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING), cacheService, executor)
+
+        when:
+        def hash = parallelZipHasher.hash(snapshotContext(jar))
+
+        then:
+        hash == TestHashCodes.hashCodeFrom(0)
+        hashedEntries.sort() == ["org/gradle/Slow0.class", "org/gradle/Slow1.class", "org/gradle/Slow2.class"]
+        failedEntries.empty
+    }
+
     def createJarWithAttributes(TestFile jarfile, Map<String, String> attributes) {
         def manifest = new Manifest()
         def mainAttributes = manifest.getMainAttributes()
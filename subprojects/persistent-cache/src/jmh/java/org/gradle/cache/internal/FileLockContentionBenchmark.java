@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.cache.FileLock;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.cache.FileLockManager.LockMode.Exclusive;
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Measures how quickly an exclusive file lock changes hands between processes, with and without the shared-memory lock table.
+ *
+ * <p>The benchmark process and the contender processes all hold the lock until another process asks for it, like daemons sharing a cache do.
+ * One operation acquires the lock from a contender and then waits for a contender to take it back, so it measures two hand-overs.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FileLockContentionBenchmark {
+    @Param({"false", "true"})
+    boolean lockTable;
+
+    @Param({"1", "3"})
+    int contenders;
+
+    File tempDir;
+    File lockFile;
+    DefaultFileLockContentionHandler contentionHandler;
+    FileLockManager lockManager;
+    List<Process> contenderProcesses;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        tempDir = Files.createTempDirectory("file-lock-contention-benchmark").toFile();
+        lockFile = new File(tempDir, "cache.lock");
+        File lockTableFile = lockTable ? new File(tempDir, DefaultFileLockContentionHandler.LOCK_TABLE_FILE_NAME) : null;
+        contentionHandler = new DefaultFileLockContentionHandler(new DefaultExecutorFactory(), new InetAddressFactory(), lockTableFile);
+        lockManager = createLockManager(contentionHandler);
+
+        contenderProcesses = new ArrayList<>();
+        for (int i = 0; i < contenders; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Contender.class.getName());
+            command.add(lockFile.getAbsolutePath());
+            if (lockTableFile != null) {
+                command.add(lockTableFile.getAbsolutePath());
+            }
+            contenderProcesses.add(new ProcessBuilder(command).inheritIO().start());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException, InterruptedException {
+        for (Process process : contenderProcesses) {
+            process.destroy();
+            process.waitFor();
+        }
+        contentionHandler.stop();
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Benchmark
+    public void handOverLock() throws InterruptedException {
+        holdUntilContended(lockManager, lockFile);
+    }
+
+    private static FileLockManager createLockManager(DefaultFileLockContentionHandler contentionHandler) {
+        return new DefaultFileLockManager(new ProcessMetaDataProvider() {
+            @Override
+            public String getProcessIdentifier() {
+                return "benchmark";
+            }
+
+            @Override
+            public String getProcessDisplayName() {
+                return "file lock contention benchmark";
+            }
+        }, contentionHandler);
+    }
+
+    /**
+     * Acquires the lock, and returns once it has been released to another process that asked for it.
+     */
+    private static void holdUntilContended(FileLockManager lockManager, File lockFile) throws InterruptedException {
+        CompletableFuture<FileLock> acquired = new CompletableFuture<>();
+        CountDownLatch released = new CountDownLatch(1);
+        FileLock lock = lockManager.lock(lockFile, mode(Exclusive), "benchmark lock", "", signal -> {
+            acquired.join().close();
+            signal.trigger();
+            released.countDown();
+        });
+        acquired.complete(lock);
+        released.await();
+    }
+
+    /**
+     * Takes the lock back from the benchmark process over and over, until destroyed.
+     */
+    public static class Contender {
+        public static void main(String[] args) throws InterruptedException {
+            File lockFile = new File(args[0]);
+            File lockTableFile = args.length > 1 ? new File(args[1]) : null;
+            DefaultFileLockContentionHandler contentionHandler = new DefaultFileLockContentionHandler(new DefaultExecutorFactory(), new InetAddressFactory(), lockTableFile);
+            FileLockManager lockManager = createLockManager(contentionHandler);
+            while (true) {
+                holdUntilContended(lockManager, lockFile);
+            }
+        }
+    }
+}
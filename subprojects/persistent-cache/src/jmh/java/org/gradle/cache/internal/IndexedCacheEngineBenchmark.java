@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.cache.IndexedCacheEngine;
+import org.gradle.cache.PersistentIndexedCacheFile;
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.cache.internal.logstructured.LogStructuredPersistentIndexedCache;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Compares the indexed cache engines on lookups, writes, and on opening a cache and reading all of it.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class IndexedCacheEngineBenchmark {
+    // Advances through the keys in an order unrelated to how they were written
+    private static final int STRIDE = 7919;
+
+    @Param({"BTREE", "LOG_STRUCTURED"})
+    IndexedCacheEngine engine;
+
+    @Param({"10000", "100000"})
+    int entries;
+
+    File tempDir;
+    File cacheFile;
+    String[] keys;
+    byte[] value;
+    PersistentIndexedCacheFile<String, byte[]> cache;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        tempDir = Files.createTempDirectory("indexed-cache-benchmark").toFile();
+        cacheFile = new File(tempDir, "cache.bin");
+        keys = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = "/home/user/project/src/main/java/org/example/package" + i % 100 + "/Type" + i + ".java";
+        }
+        // About the size of a file hash cache entry
+        value = new byte[48];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        cache = openCache();
+        for (String key : keys) {
+            cache.put(key, value);
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        cache.close();
+        FileUtils.forceDelete(cacheFile);
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        blackhole.consume(cache.get(nextKey()));
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(nextKey(), value);
+    }
+
+    @Benchmark
+    public void openAndReadAll(Blackhole blackhole) {
+        cache.close();
+        cache = openCache();
+        for (String key : keys) {
+            blackhole.consume(cache.get(key));
+        }
+    }
+
+    private String nextKey() {
+        next = (next + STRIDE) % entries;
+        return keys[next];
+    }
+
+    private PersistentIndexedCacheFile<String, byte[]> openCache() {
+        switch (engine) {
+            case BTREE:
+                return new BTreePersistentIndexedCache<>(cacheFile, BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.BYTE_ARRAY_SERIALIZER);
+            case LOG_STRUCTURED:
+                // A new instance, so the index is rebuilt from the whole log
+                LogStructuredPersistentIndexedCache<String, byte[]> logStructuredCache = new LogStructuredPersistentIndexedCache<>(cacheFile, BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.BYTE_ARRAY_SERIALIZER);
+                logStructuredCache.open();
+                return logStructuredCache;
+            default:
+                throw new IllegalArgumentException(engine.name());
+        }
+    }
+}
@@ -16,10 +16,14 @@
 
 package org.gradle.cache;
 
+import org.gradle.internal.serialize.Serializer;
+
 public interface CacheDecorator {
     /**
      * @param cacheId Unique id for this cache instance.
      * @param cacheName Name for the type of contents stored in this cache instance.
+     * @param keySerializer Serializer for the keys stored in this cache instance.
+     * @param valueSerializer Serializer for the values stored in this cache instance.
      */
-    <K, V> MultiProcessSafeIndexedCache<K, V> decorate(String cacheId, String cacheName, MultiProcessSafeIndexedCache<K, V> indexedCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess);
+    <K, V> MultiProcessSafeIndexedCache<K, V> decorate(String cacheId, String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer, MultiProcessSafeIndexedCache<K, V> indexedCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess);
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache;
+
+/**
+ * The on-disk data structure backing an {@link IndexedCache}.
+ */
+public enum IndexedCacheEngine {
+    /**
+     * A B-tree of blocks that are updated in place.
+     */
+    BTREE,
+
+    /**
+     * An append-only log of entries, with a hash index of the log kept in memory.
+     *
+     * Lookups and writes are cheaper than with {@link #BTREE}, at the cost of the memory for the index and of disk space for stale entries until the log is compacted.
+     */
+    LOG_STRUCTURED
+}
@@ -26,13 +26,16 @@
 import org.gradle.cache.FileIntegrityViolationException;
 import org.gradle.cache.FileLock;
 import org.gradle.cache.FileLockManager;
+import org.gradle.cache.IndexedCacheEngine;
 import org.gradle.cache.IndexedCacheParameters;
 import org.gradle.cache.InsufficientLockModeException;
 import org.gradle.cache.LockOptions;
 import org.gradle.cache.LockTimeoutException;
 import org.gradle.cache.MultiProcessSafeIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheFile;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
 import org.gradle.cache.internal.cacheops.CacheAccessOperationsStack;
+import org.gradle.cache.internal.logstructured.LogStructuredPersistentIndexedCache;
 import org.gradle.internal.Cast;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
@@ -310,12 +313,12 @@ public <K, V> MultiProcessSafeIndexedCache<K, V> newCache(final IndexedCachePara
             if (entry == null) {
                 File cacheFile = findCacheFile(parameters);
                 LOG.debug("Creating new cache for {}, path {}, access {}", parameters.getCacheName(), cacheFile, this);
-                Factory<BTreePersistentIndexedCache<K, V>> indexedCacheFactory = () -> doCreateCache(cacheFile, parameters.getKeySerializer(), parameters.getValueSerializer());
+                Factory<? extends PersistentIndexedCacheFile<K, V>> indexedCacheFactory = createIndexedCacheFactory(cacheFile, parameters);
 
                 MultiProcessSafeIndexedCache<K, V> indexedCache = new DefaultMultiProcessSafeIndexedCache<K, V>(indexedCacheFactory, fileAccess);
                 CacheDecorator decorator = parameters.getCacheDecorator();
                 if (decorator != null) {
-                    indexedCache = decorator.decorate(cacheFile.getAbsolutePath(), parameters.getCacheName(), indexedCache, crossProcessCacheAccess, getCacheAccessWorker());
+                    indexedCache = decorator.decorate(cacheFile.getAbsolutePath(), parameters.getCacheName(), parameters.getKeySerializer(), parameters.getValueSerializer(), indexedCache, crossProcessCacheAccess, getCacheAccessWorker());
                     if (fileLock == null) {
                         useCache(NO_OP);
                     }
@@ -334,8 +337,21 @@ public <K, V> MultiProcessSafeIndexedCache<K, V> newCache(final IndexedCachePara
         }
     }
 
+    private <K, V> Factory<? extends PersistentIndexedCacheFile<K, V>> createIndexedCacheFactory(File cacheFile, IndexedCacheParameters<K, V> parameters) {
+        if (parameters.getEngine() == IndexedCacheEngine.LOG_STRUCTURED) {
+            // Reopen the same instance every time, so its index only needs to catch up with what other processes appended in the meantime
+            LogStructuredPersistentIndexedCache<K, V> cache = new LogStructuredPersistentIndexedCache<>(cacheFile, parameters.getKeySerializer(), parameters.getValueSerializer());
+            return () -> {
+                cache.open();
+                return cache;
+            };
+        }
+        return () -> doCreateCache(cacheFile, parameters.getKeySerializer(), parameters.getValueSerializer());
+    }
+
     private <K, V> File findCacheFile(IndexedCacheParameters<K, V> parameters) {
-        return new File(baseDir, parameters.getCacheName() + ".bin");
+        String extension = parameters.getEngine() == IndexedCacheEngine.LOG_STRUCTURED ? ".log" : ".bin";
+        return new File(baseDir, parameters.getCacheName() + extension);
     }
 
     @Override
@@ -505,6 +521,7 @@ void assertCompatibleCacheParameters(IndexedCacheParameters<K, V> parameters) {
             checkCompatibleKeySerializer(faultMessages, parameters.getKeySerializer());
             checkCompatibleValueSerializer(faultMessages, parameters.getValueSerializer());
             checkCompatibleCacheDecorator(faultMessages, parameters.getCacheDecorator());
+            checkCompatibleEngine(faultMessages, parameters.getEngine());
 
             if (!faultMessages.isEmpty()) {
                 String lineSeparator = SystemProperties.getInstance().getLineSeparator();
@@ -547,6 +564,14 @@ private void checkCompatibleCacheDecorator(Collection<String> faultMessages, Cac
                         cacheDecorator, parameters.getCacheDecorator()));
             }
         }
+
+        private void checkCompatibleEngine(Collection<String> faultMessages, IndexedCacheEngine engine) {
+            if (engine != parameters.getEngine()) {
+                faultMessages.add(
+                    String.format(" * Requested cache engine (%s) doesn't match current cache engine (%s)",
+                        engine, parameters.getEngine()));
+            }
+        }
     }
 
     @VisibleForTesting
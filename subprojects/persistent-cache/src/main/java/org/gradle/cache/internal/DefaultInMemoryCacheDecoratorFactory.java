@@ -23,26 +23,46 @@
 import org.gradle.cache.CrossProcessCacheAccess;
 import org.gradle.cache.FileLock;
 import org.gradle.cache.MultiProcessSafeIndexedCache;
+import org.gradle.cache.internal.offheap.OffHeapCacheStatistics;
+import org.gradle.cache.internal.offheap.OffHeapRecordStore;
+import org.gradle.internal.serialize.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A {@link CacheDecorator} that wraps each cache with an in-memory cache that is used to short-circuit reads from the backing cache.
  * The in-memory cache is invalidated when the backing cache is changed by another process.
  *
+ * When {@value #OFF_HEAP_CACHE_SYSTEM_PROPERTY} is set, serialized entries are also kept in an {@link OffHeapRecordStore} shared by all caches,
+ * whose size does not depend on the size of the heap.
+ *
  * Also decorates each cache so that updates to the backing cache are made asynchronously.
  */
 public class DefaultInMemoryCacheDecoratorFactory implements InMemoryCacheDecoratorFactory {
+    public static final String OFF_HEAP_CACHE_SYSTEM_PROPERTY = "org.gradle.cache.offheap.mb";
     private final static Logger LOG = LoggerFactory.getLogger(DefaultInMemoryCacheDecoratorFactory.class);
     private final boolean longLivingProcess;
     private final HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
     private final CrossBuildInMemoryCache<String, CacheDetails> caches;
+    private final CrossBuildInMemoryCache<String, OffHeapCacheDetails> offHeapCaches;
+    @Nullable
+    private final OffHeapRecordStore offHeapStore;
 
     public DefaultInMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory) {
+        this(longLivingProcess, cacheFactory, Long.getLong(OFF_HEAP_CACHE_SYSTEM_PROPERTY, 0) * 1024 * 1024);
+    }
+
+    /**
+     * @param offHeapCacheSize The maximum number of bytes of serialized entries to keep in direct memory, or 0 to not keep any.
+     */
+    public DefaultInMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory, long offHeapCacheSize) {
         this.longLivingProcess = longLivingProcess;
         caches = cacheFactory.newCache();
+        offHeapCaches = cacheFactory.newCache();
+        offHeapStore = offHeapCacheSize > 0 ? new OffHeapRecordStore(offHeapCacheSize) : null;
     }
 
     @Override
@@ -50,6 +70,25 @@ public CacheDecorator decorator(final int maxEntriesToKeepInMemory, final boolea
         return new InMemoryCacheDecorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses);
     }
 
+    /**
+     * Returns the statistics of the off-heap store gathered since the last time this method was called, or null when no off-heap store is used.
+     */
+    @Nullable
+    public OffHeapCacheStatistics collectOffHeapStatistics() {
+        return offHeapStore == null ? null : offHeapStore.collectStatistics();
+    }
+
+    private <K, V> MultiProcessSafeIndexedCache<K, V> applyOffHeapCaching(String cacheId, Serializer<K> keySerializer, Serializer<V> valueSerializer, MultiProcessSafeIndexedCache<K, V> backingCache, boolean cacheInMemoryForShortLivedProcesses) {
+        if (offHeapStore == null || (!longLivingProcess && !cacheInMemoryForShortLivedProcesses)) {
+            return backingCache;
+        }
+        OffHeapCacheDetails cacheDetails = offHeapCaches.get(cacheId, () -> {
+            LOG.debug("Creating off-heap store for cache {}", cacheId);
+            return new OffHeapCacheDetails(offHeapStore.newRegion(), new AtomicReference<>());
+        });
+        return new OffHeapDecoratedCache<>(backingCache, cacheDetails.records, keySerializer, valueSerializer, cacheId, cacheDetails.lockState);
+    }
+
     protected <K, V> MultiProcessSafeAsyncPersistentIndexedCache<K, V> applyInMemoryCaching(String cacheId, MultiProcessSafeAsyncPersistentIndexedCache<K, V> backingCache, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses) {
         if (!longLivingProcess && !cacheInMemoryForShortLivedProcesses) {
             // Short lived process, don't cache in memory
@@ -109,8 +148,9 @@ public int hashCode() {
         }
 
         @Override
-        public <K, V> MultiProcessSafeIndexedCache<K, V> decorate(String cacheId, String cacheName, MultiProcessSafeIndexedCache<K, V> indexedCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess) {
-            MultiProcessSafeAsyncPersistentIndexedCache<K, V> asyncCache = new AsyncCacheAccessDecoratedCache<>(asyncCacheAccess, indexedCache);
+        public <K, V> MultiProcessSafeIndexedCache<K, V> decorate(String cacheId, String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer, MultiProcessSafeIndexedCache<K, V> indexedCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess) {
+            MultiProcessSafeIndexedCache<K, V> offHeapCache = applyOffHeapCaching(cacheId, keySerializer, valueSerializer, indexedCache, cacheInMemoryForShortLivedProcesses);
+            MultiProcessSafeAsyncPersistentIndexedCache<K, V> asyncCache = new AsyncCacheAccessDecoratedCache<>(asyncCacheAccess, offHeapCache);
             MultiProcessSafeAsyncPersistentIndexedCache<K, V> memCache = applyInMemoryCaching(cacheId, asyncCache, maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses);
             return new CrossProcessSynchronizingIndexedCache<>(memCache, crossProcessCacheAccess);
         }
@@ -129,4 +169,14 @@ private static class CacheDetails {
             this.lockState = lockState;
         }
     }
+
+    private static class OffHeapCacheDetails {
+        private final OffHeapRecordStore.Region records;
+        private final AtomicReference<FileLock.State> lockState;
+
+        OffHeapCacheDetails(OffHeapRecordStore.Region records, AtomicReference<FileLock.State> lockState) {
+            this.records = records;
+            this.lockState = lockState;
+        }
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.cache.FileLock;
+import org.gradle.cache.MultiProcessSafeIndexedCache;
+import org.gradle.cache.internal.offheap.OffHeapRecordStore;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Keeps serialized copies of the entries of the backing cache in an {@link OffHeapRecordStore}, so that reads of recently used entries
+ * don't need to go to the cache file. The records are invalidated when the backing cache is changed by another process.
+ */
+class OffHeapDecoratedCache<K, V> implements MultiProcessSafeIndexedCache<K, V> {
+    private final static Logger LOG = LoggerFactory.getLogger(OffHeapDecoratedCache.class);
+    private final MultiProcessSafeIndexedCache<K, V> delegate;
+    private final OffHeapRecordStore.Region records;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final String cacheId;
+    private final AtomicReference<FileLock.State> fileLockStateReference;
+
+    public OffHeapDecoratedCache(MultiProcessSafeIndexedCache<K, V> delegate, OffHeapRecordStore.Region records, Serializer<K> keySerializer, Serializer<V> valueSerializer, String cacheId, AtomicReference<FileLock.State> fileLockStateReference) {
+        this.delegate = delegate;
+        this.records = records;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.cacheId = cacheId;
+        this.fileLockStateReference = fileLockStateReference;
+    }
+
+    @Override
+    public String toString() {
+        return "{off-heap-cache cache: " + delegate + "}";
+    }
+
+    @Nullable
+    @Override
+    public V getIfPresent(K key) {
+        byte[] serializedKey = serialize(keySerializer, key);
+        byte[] serializedValue = records.get(serializedKey);
+        if (serializedValue != null) {
+            return deserialize(valueSerializer, serializedValue);
+        }
+        V value = delegate.getIfPresent(key);
+        if (value != null) {
+            records.put(serializedKey, serialize(valueSerializer, value));
+        }
+        return value;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> producer) {
+        V value = getIfPresent(key);
+        if (value == null) {
+            value = producer.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        delegate.put(key, value);
+        records.put(serialize(keySerializer, key), serialize(valueSerializer, value));
+    }
+
+    @Override
+    public void remove(K key) {
+        delegate.remove(key);
+        records.remove(serialize(keySerializer, key));
+    }
+
+    @Override
+    public void afterLockAcquire(FileLock.State currentCacheState) {
+        FileLock.State previousState = fileLockStateReference.get();
+        if (previousState == null) {
+            records.invalidate();
+        } else if (currentCacheState.hasBeenUpdatedSince(previousState)) {
+            LOG.info("Invalidating off-heap cache of {}", cacheId);
+            records.invalidate();
+        }
+        delegate.afterLockAcquire(currentCacheState);
+    }
+
+    @Override
+    public void finishWork() {
+        delegate.finishWork();
+    }
+
+    @Override
+    public void beforeLockRelease(FileLock.State currentCacheState) {
+        fileLockStateReference.set(currentCacheState);
+        delegate.beforeLockRelease(currentCacheState);
+    }
+
+    private static <T> byte[] serialize(Serializer<T> serializer, T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        try {
+            serializer.write(encoder, value);
+            encoder.flush();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T deserialize(Serializer<T> serializer, byte[] bytes) {
+        try {
+            return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes)));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -25,13 +25,19 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.SocketAddress;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.gradle.cache.internal.locklistener.FileLockPacketType.LOCK_RELEASE_CONFIRMATION;
@@ -72,28 +78,56 @@
  * <p>
  * As Lock Requester, the state of the request is always stored per lock (lockId) and Lock Holder (port). The Lock Holder
  * for a lock might change without acquiring the lock if several Lock Requester compete for the same lock.
+ * <p>
+ * When given a lock table file, processes on the same host exchange requests and releases through a {@link SharedMemoryLockTable}
+ * instead of the socket: the Lock Holder registers its locks in the table, and a watcher thread polls the table for requests to release
+ * the locks held by this process and for releases of the locks requested by this process. The socket is still used for locks
+ * that are not in the table, and when the Lock Holder does not react to a request made through the table.
  */
 public class DefaultFileLockContentionHandler implements FileLockContentionHandler, Stoppable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileLockContentionHandler.class);
+    /**
+     * Enables the {@link SharedMemoryLockTable} in the Gradle user home for processes on the same host.
+     */
+    public static final String LOCK_TABLE_SYSTEM_PROPERTY = "org.gradle.cache.lock-table";
+    public static final String LOCK_TABLE_FILE_NAME = "file-lock-table.bin";
     private static final int PING_DELAY = 1000;
+    private static final long MIN_LOCK_TABLE_POLL_INTERVAL = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final long MAX_LOCK_TABLE_POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
     private final Lock lock = new ReentrantLock();
 
     private final Map<Long, ContendedAction> contendedActions = new HashMap<Long, ContendedAction>();
     private final Map<Long, FileLockReleasedSignal> lockReleasedSignals = new HashMap<Long, FileLockReleasedSignal>();
     private final Map<Long, Integer> unlocksRequestedFrom = new HashMap<Long, Integer>();
     private final Map<Long, Integer> unlocksConfirmedFrom = new HashMap<Long, Integer>();
+    // Request count last seen in the lock table, for each lock held by this process
+    private final Map<Long, Long> lockTableRequestCounts = new HashMap<Long, Long>();
+    private final Map<Long, LockTableRequest> lockTableRequests = new HashMap<Long, LockTableRequest>();
 
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
+    private final File lockTableFile;
 
     private FileLockCommunicator communicator;
     private ManagedExecutor fileLockRequestListener;
     private ManagedExecutor unlockActionExecutor;
+    private SharedMemoryLockTable lockTable;
+    private boolean lockTableUnavailable;
+    private ManagedExecutor lockTableWatcher;
+    private volatile Thread lockTableWatcherThread;
     private boolean stopped;
 
     public DefaultFileLockContentionHandler(ExecutorFactory executorFactory, InetAddressFactory addressFactory) {
+        this(executorFactory, addressFactory, null);
+    }
+
+    /**
+     * @param lockTableFile the {@link SharedMemoryLockTable} to use for locks held by processes on this host, or null to only use the socket.
+     */
+    public DefaultFileLockContentionHandler(ExecutorFactory executorFactory, InetAddressFactory addressFactory, @Nullable File lockTableFile) {
         this.executorFactory = executorFactory;
         this.addressFactory = addressFactory;
+        this.lockTableFile = lockTableFile;
     }
 
     private Runnable listener() {
@@ -142,6 +176,103 @@ private void doRun() {
         };
     }
 
+    private Runnable lockTableWatcher() {
+        return () -> {
+            LOGGER.debug("Starting file lock table watcher thread.");
+            lockTableWatcherThread = Thread.currentThread();
+            long pollInterval = MIN_LOCK_TABLE_POLL_INTERVAL;
+            while (true) {
+                boolean changed;
+                boolean watching;
+                lock.lock();
+                try {
+                    if (stopped) {
+                        LOGGER.debug("File lock table watcher thread completed.");
+                        return;
+                    }
+                    changed = pollLockTable();
+                    watching = !lockTableRequestCounts.isEmpty() || !lockTableRequests.isEmpty();
+                } finally {
+                    lock.unlock();
+                }
+                if (!watching) {
+                    // Woken up when a lock is started or requested
+                    LockSupport.park(this);
+                    pollInterval = MIN_LOCK_TABLE_POLL_INTERVAL;
+                } else {
+                    // Poll quickly while locks change hands, and back off while they don't
+                    pollInterval = changed ? MIN_LOCK_TABLE_POLL_INTERVAL : Math.min(pollInterval * 2, MAX_LOCK_TABLE_POLL_INTERVAL);
+                    LockSupport.parkNanos(this, pollInterval);
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts releasing the held locks that have been requested, and signals the requested locks that have been released.
+     * Must be called while holding the lock.
+     *
+     * @return whether anything changed
+     */
+    private boolean pollLockTable() {
+        boolean changed = false;
+        for (Map.Entry<Long, Long> entry : lockTableRequestCounts.entrySet()) {
+            long lockId = entry.getKey();
+            long requestCount = lockTable.getRequestCount(lockId);
+            if (requestCount != entry.getValue()) {
+                entry.setValue(requestCount);
+                changed = true;
+                ContendedAction contendedAction = contendedActions.get(lockId);
+                if (contendedAction != null && !contendedAction.running) {
+                    LOGGER.debug("Another Gradle process requested the release of lock with id {} through the lock table.", lockId);
+                    startLockReleaseAsLockHolder(contendedAction);
+                }
+            }
+        }
+        for (Iterator<Map.Entry<Long, LockTableRequest>> iterator = lockTableRequests.entrySet().iterator(); iterator.hasNext();) {
+            Map.Entry<Long, LockTableRequest> entry = iterator.next();
+            long lockId = entry.getKey();
+            LockTableRequest request = entry.getValue();
+            // The holder unregisters the lock when closing it, which may happen before it records the release
+            if (!lockTable.isRegistered(lockId) || lockTable.getReleaseCount(lockId) != request.releaseCount) {
+                iterator.remove();
+                changed = true;
+                LOGGER.debug("Lock with id {} was released according to the lock table.", lockId);
+                if (request.signal != null) {
+                    request.signal.trigger();
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the lock table, or null when there is none.
+     * Must be called while holding the lock.
+     */
+    @Nullable
+    private SharedMemoryLockTable getLockTable() {
+        if (lockTable == null && lockTableFile != null && !lockTableUnavailable) {
+            try {
+                lockTable = SharedMemoryLockTable.open(lockTableFile);
+            } catch (Exception e) {
+                LOGGER.debug("Could not open file lock table {}. Using the socket only.", lockTableFile, e);
+                lockTableUnavailable = true;
+                return null;
+            }
+            lockTableWatcher = executorFactory.create("File lock table watcher");
+            lockTableWatcher.execute(lockTableWatcher());
+        }
+        return lockTable;
+    }
+
+    private void wakeUpLockTableWatcher() {
+        Thread watcherThread = lockTableWatcherThread;
+        if (watcherThread != null) {
+            LockSupport.unpark(watcherThread);
+        }
+    }
+
     private void startLockReleaseAsLockHolder(ContendedAction contendedAction) {
         contendedAction.running = true;
         unlockActionExecutor.execute(contendedAction);
@@ -169,6 +300,7 @@ public void start(long lockId, Action<FileLockReleasedSignal> whenContended) {
             lockReleasedSignals.remove(lockId);
             unlocksRequestedFrom.remove(lockId);
             unlocksConfirmedFrom.remove(lockId);
+            lockTableRequests.remove(lockId);
             assertNotStopped();
             if (communicator == null) {
                 throw new IllegalStateException("Must initialize the handler by reserving the port first.");
@@ -184,6 +316,11 @@ public void start(long lockId, Action<FileLockReleasedSignal> whenContended) {
                 throw new UnsupportedOperationException("Multiple contention actions for a given lock are currently not supported.");
             }
             contendedActions.put(lockId, new ContendedAction(lockId, whenContended));
+            SharedMemoryLockTable lockTable = getLockTable();
+            if (lockTable != null && lockTable.register(lockId)) {
+                lockTableRequestCounts.put(lockId, lockTable.getRequestCount(lockId));
+                wakeUpLockTableWatcher();
+            }
         } finally {
             lock.unlock();
         }
@@ -191,6 +328,14 @@ public void start(long lockId, Action<FileLockReleasedSignal> whenContended) {
 
     @Override
     public boolean maybePingOwner(int port, long lockId, String displayName, long timeElapsed, FileLockReleasedSignal signal) {
+        lock.lock();
+        try {
+            if (requestReleaseThroughLockTable(lockId, signal)) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
         if (Integer.valueOf(port).equals(unlocksConfirmedFrom.get(lockId))) {
             //the unlock was confirmed we are waiting
             return false;
@@ -213,6 +358,33 @@ public boolean maybePingOwner(int port, long lockId, String displayName, long ti
         return pingSentSuccessfully;
     }
 
+    /**
+     * Requests the release of the given lock through the lock table, when its holder registered it there.
+     * Must be called while holding the lock.
+     *
+     * @return true if the holder was asked to release the lock in this call
+     */
+    private boolean requestReleaseThroughLockTable(long lockId, @Nullable FileLockReleasedSignal signal) {
+        SharedMemoryLockTable lockTable = stopped ? null : getLockTable();
+        if (lockTable == null) {
+            return false;
+        }
+        LockTableRequest previousRequest = lockTableRequests.get(lockId);
+        if (previousRequest != null && System.nanoTime() - previousRequest.requestTime >= TimeUnit.MILLISECONDS.toNanos(PING_DELAY)) {
+            // The holder did not react, maybe because it does not see the same table. Keep watching the table, but ping the holder over the socket as well.
+            return false;
+        }
+        long releaseCount = lockTable.requestRelease(lockId);
+        if (releaseCount == -1) {
+            return false;
+        }
+        if (previousRequest == null) {
+            lockTableRequests.put(lockId, new LockTableRequest(releaseCount, signal, System.nanoTime()));
+            wakeUpLockTableWatcher();
+        }
+        return true;
+    }
+
     private void assertNotStopped() {
         if (stopped) {
             throw new IllegalStateException(
@@ -225,6 +397,9 @@ public void stop(long lockId) {
         lock.lock();
         try {
             contendedActions.remove(lockId);
+            if (lockTableRequestCounts.remove(lockId) != null) {
+                lockTable.unregister(lockId);
+            }
         } finally {
             lock.unlock();
         }
@@ -236,6 +411,8 @@ public void stop() {
         try {
             stopped = true;
             contendedActions.clear();
+            lockTableRequestCounts.clear();
+            lockTableRequests.clear();
             if (communicator != null) {
                 communicator.stop();
             }
@@ -248,6 +425,22 @@ public void stop() {
         if (unlockActionExecutor != null) {
             unlockActionExecutor.stop();
         }
+        if (lockTableWatcher != null) {
+            wakeUpLockTableWatcher();
+            lockTableWatcher.stop();
+        }
+        lock.lock();
+        try {
+            if (lockTable != null) {
+                lockTable.close();
+                lockTable = null;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not close file lock table {}.", lockTableFile, e);
+        } finally {
+            lockTableUnavailable = true;
+            lock.unlock();
+        }
     }
 
     @Override
@@ -268,6 +461,29 @@ private FileLockCommunicator getCommunicator() {
         }
     }
 
+    private void markReleasedInLockTable(long lockId) {
+        lock.lock();
+        try {
+            if (lockTable != null) {
+                lockTable.markReleased(lockId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class LockTableRequest {
+        private final long releaseCount;
+        private final FileLockReleasedSignal signal;
+        private final long requestTime;
+
+        private LockTableRequest(long releaseCount, @Nullable FileLockReleasedSignal signal, long requestTime) {
+            this.releaseCount = releaseCount;
+            this.signal = signal;
+            this.requestTime = requestTime;
+        }
+    }
+
     private class ContendedAction implements Runnable {
         private final Lock lock = new ReentrantLock();
         private final long lockId;
@@ -290,6 +506,7 @@ public void trigger() {
                         throw new IllegalStateException("trigger() has already been called and must at most be called once");
                     }
                     communicator.confirmLockRelease(requesters, lockId);
+                    markReleasedInLockTable(lockId);
                 }
             });
         }
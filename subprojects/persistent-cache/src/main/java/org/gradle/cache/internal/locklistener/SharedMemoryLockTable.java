@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.locklistener;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+/**
+ * A table of file lock ownership in a memory-mapped file, shared by the Gradle processes of a host.
+ *
+ * <p>A lock holder registers its locks in the table. A lock requester that finds the lock it wants registered asks for it to be released
+ * by bumping the request counter of the lock, and the holder bumps the release counter of the lock once it released it. Both sides poll the counters,
+ * so waiting for a request or a release doesn't involve any I/O.</p>
+ *
+ * <p>Each lock maps to a bucket of slots, and is registered in a free slot of its bucket. Each slot stores the full id of its lock, which is checked
+ * on every access. When all slots of the bucket are taken, the lock is not registered, so its requesters fall back to pinging the holder over the network.
+ * The same happens when the processes don't see the same table, like processes on different hosts sharing a cache on a network file system.</p>
+ *
+ * <p>Changes to a bucket are made while holding a file lock for the bucket, so concurrent requests and releases from different processes are not lost.
+ * Reads of each value are single aligned 8 byte accesses, so they are not torn.</p>
+ */
+public class SharedMemoryLockTable implements Closeable {
+    private static final int BUCKET_COUNT = 512;
+    private static final int SLOTS_PER_BUCKET = 8;
+    // Lock id, request count, release count and 8 unused bytes
+    private static final int SLOT_SIZE = 32;
+    private static final int BUCKET_SIZE = SLOTS_PER_BUCKET * SLOT_SIZE;
+    private static final long TABLE_SIZE = (long) BUCKET_COUNT * BUCKET_SIZE;
+    private static final int LOCK_ID_OFFSET = 0;
+    private static final int REQUEST_COUNT_OFFSET = 8;
+    private static final int RELEASE_COUNT_OFFSET = 16;
+
+    private static final long NO_LOCK = 0;
+    private static final int NOT_REGISTERED = -1;
+
+    // File locks are held by the whole JVM, so changes from different tables in this JVM must not overlap
+    private static final Object CHANGE_LOCK = new Object();
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer slots;
+
+    private SharedMemoryLockTable(RandomAccessFile file, MappedByteBuffer slots) {
+        this.file = file;
+        this.slots = slots;
+    }
+
+    public static SharedMemoryLockTable open(File tableFile) {
+        try {
+            File parentDir = tableFile.getParentFile();
+            if (!parentDir.isDirectory() && !parentDir.mkdirs() && !parentDir.isDirectory()) {
+                throw new IOException("Could not create directory " + parentDir);
+            }
+            RandomAccessFile file = new RandomAccessFile(tableFile, "rw");
+            try {
+                if (file.length() < TABLE_SIZE) {
+                    file.setLength(TABLE_SIZE);
+                }
+                return new SharedMemoryLockTable(file, file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, TABLE_SIZE));
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open file lock table " + tableFile, e);
+        }
+    }
+
+    /**
+     * Registers the given lock as held by this process.
+     *
+     * @return whether the lock is registered, which is not the case when there is no free slot for it.
+     */
+    public boolean register(long lockId) {
+        if (lockId == NO_LOCK) {
+            return false;
+        }
+        synchronized (CHANGE_LOCK) {
+            try (FileLock ignored = lockBucket(lockId)) {
+                if (find(lockId) != NOT_REGISTERED) {
+                    return true;
+                }
+                int bucket = bucket(lockId);
+                for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot += SLOT_SIZE) {
+                    if (slots.getLong(slot + LOCK_ID_OFFSET) == NO_LOCK) {
+                        slots.putLong(slot + LOCK_ID_OFFSET, lockId);
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not register lock with id " + lockId + " in file lock table", e);
+            }
+        }
+    }
+
+    /**
+     * Removes the given lock from the table, if it is registered.
+     */
+    public void unregister(long lockId) {
+        change(lockId, "unregister", slot -> {
+            slots.putLong(slot + LOCK_ID_OFFSET, NO_LOCK);
+            return 0;
+        });
+    }
+
+    public boolean isRegistered(long lockId) {
+        return find(lockId) != NOT_REGISTERED;
+    }
+
+    /**
+     * Asks the holder of the given lock to release it.
+     *
+     * @return the release count of the lock at the time of the request, or -1 when the lock is not registered.
+     */
+    public long requestRelease(long lockId) {
+        return change(lockId, "request release of", slot -> {
+            slots.putLong(slot + REQUEST_COUNT_OFFSET, slots.getLong(slot + REQUEST_COUNT_OFFSET) + 1);
+            return slots.getLong(slot + RELEASE_COUNT_OFFSET);
+        });
+    }
+
+    /**
+     * Records that the holder of the given lock released it, if the lock is still registered.
+     */
+    public void markReleased(long lockId) {
+        change(lockId, "mark release of", slot -> {
+            slots.putLong(slot + RELEASE_COUNT_OFFSET, slots.getLong(slot + RELEASE_COUNT_OFFSET) + 1);
+            return 0;
+        });
+    }
+
+    /**
+     * Returns the request count of the given lock, or -1 when the lock is not registered.
+     */
+    public long getRequestCount(long lockId) {
+        return read(lockId, REQUEST_COUNT_OFFSET);
+    }
+
+    /**
+     * Returns the release count of the given lock, or -1 when the lock is not registered.
+     */
+    public long getReleaseCount(long lockId) {
+        return read(lockId, RELEASE_COUNT_OFFSET);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself stays valid until the buffer is garbage collected
+        file.close();
+    }
+
+    /**
+     * Applies the given change to the slot of the given lock while holding the lock of its bucket.
+     *
+     * @return the result of the change, or -1 when the lock is not registered.
+     */
+    private long change(long lockId, String verb, SlotChange change) {
+        if (!isRegistered(lockId)) {
+            return -1;
+        }
+        synchronized (CHANGE_LOCK) {
+            try (FileLock ignored = lockBucket(lockId)) {
+                // Another process may have changed the slot before the bucket was locked
+                int slot = find(lockId);
+                return slot == NOT_REGISTERED ? -1 : change.apply(slot);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not " + verb + " lock with id " + lockId + " in file lock table", e);
+            }
+        }
+    }
+
+    private long read(long lockId, int offset) {
+        int slot = find(lockId);
+        if (slot == NOT_REGISTERED) {
+            return -1;
+        }
+        long value = slots.getLong(slot + offset);
+        // The slot may have been taken over by another lock while reading
+        return slots.getLong(slot + LOCK_ID_OFFSET) == lockId ? value : -1;
+    }
+
+    private int find(long lockId) {
+        if (lockId == NO_LOCK) {
+            return NOT_REGISTERED;
+        }
+        int bucket = bucket(lockId);
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot += SLOT_SIZE) {
+            if (slots.getLong(slot + LOCK_ID_OFFSET) == lockId) {
+                return slot;
+            }
+        }
+        return NOT_REGISTERED;
+    }
+
+    private FileLock lockBucket(long lockId) throws IOException {
+        // Lock a region past the end of the table, so the lock does not interfere with accessing the mapped table on platforms with mandatory locks
+        return file.getChannel().lock(TABLE_SIZE + bucket(lockId) / BUCKET_SIZE, 1, false);
+    }
+
+    private static int bucket(long lockId) {
+        // Lock ids are random, so their low bits are evenly distributed
+        return (int) (lockId & (BUCKET_COUNT - 1)) * BUCKET_SIZE;
+    }
+
+    private interface SlotChange {
+        long apply(int slot);
+    }
+}
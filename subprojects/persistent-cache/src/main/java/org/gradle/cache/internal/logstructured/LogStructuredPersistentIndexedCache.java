@@ -0,0 +1,443 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.logstructured;
+
+import com.google.common.hash.Hashing;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.cache.PersistentIndexedCacheFile;
+import org.gradle.internal.os.OperatingSystem;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A persistent indexed cache that appends every change to a log file, and keeps a hash index from keys to their latest record in memory.
+ *
+ * <p>The log is memory-mapped for reading, except on Windows, where a mapped file cannot be deleted or replaced until the mapping is garbage collected.
+ * Records appended since the log was mapped are read from the file channel, until enough of them accumulate to make remapping worthwhile.</p>
+ *
+ * <p>The same instance is meant to be opened and closed every time the file lock of the cache is acquired and released.
+ * The index is kept while the cache is closed, so opening only has to read the records other processes appended in the meantime.
+ * A random id in the file header changes whenever the log is recreated, which tells when the index has to be rebuilt from scratch instead.</p>
+ *
+ * <p>The log is compacted when the cache is closed and most of it is taken up by stale records.
+ * Compaction needs the file lock, so it happens on the way out rather than in between cache operations.</p>
+ *
+ * <p>Like {@link org.gradle.cache.internal.btree.BTreePersistentIndexedCache}, entries are identified by a 64-bit hash of the serialized key.
+ * The key itself is stored as well, so a hash collision causes a cache miss rather than returning the value for the wrong key.</p>
+ */
+public class LogStructuredPersistentIndexedCache<K, V> implements PersistentIndexedCacheFile<K, V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStructuredPersistentIndexedCache.class);
+
+    private static final int MAGIC = 0x474c4f47;
+    private static final int VERSION = 1;
+    // magic, version, file id
+    private static final int FILE_HEADER_SIZE = 16;
+    // record size, checksum, key hash, key length, value length
+    private static final int RECORD_HEADER_SIZE = 24;
+    // The checksum covers everything after itself
+    private static final int CHECKSUMMED_OFFSET = 8;
+    private static final int REMOVED = -1;
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+    private static final long MIN_REMAP_SIZE = 64 * 1024;
+
+    private final File cacheFile;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final boolean mapFile;
+    private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+    private final KryoBackedEncoder keyEncoder = new KryoBackedEncoder(keyBytes);
+
+    // Kept while the cache is closed
+    private LongLongHashIndex index = new LongLongHashIndex();
+    private long fileId;
+    private long end;
+    private long liveBytes;
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    public LogStructuredPersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(cacheFile, keySerializer, valueSerializer, !OperatingSystem.current().isWindows());
+    }
+
+    LogStructuredPersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer, boolean mapFile) {
+        this.cacheFile = cacheFile;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.mapFile = mapFile;
+    }
+
+    @Override
+    public String toString() {
+        return "cache " + cacheFile.getName() + " (" + cacheFile + ")";
+    }
+
+    public void open() {
+        LOGGER.debug("Opening {}", this);
+        try {
+            channel = FileChannel.open(cacheFile.toPath(), CREATE, READ, WRITE);
+            long size = channel.size();
+            if (size == 0) {
+                initialize();
+                return;
+            }
+            ByteBuffer header = read(0, FILE_HEADER_SIZE, size);
+            if (header == null || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                rebuild();
+                return;
+            }
+            long currentFileId = header.getLong();
+            if (currentFileId != fileId || size < end) {
+                resetIndex(currentFileId);
+            }
+            map(size);
+            readRecords(size);
+        } catch (Exception e) {
+            // Start from scratch next time
+            resetIndex(0);
+            closeChannel();
+            throw new UncheckedIOException(String.format("Could not open %s.", this), e);
+        }
+    }
+
+    public boolean isOpen() {
+        return channel != null;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        try {
+            byte[] serializedKey = serializeKey(key);
+            long position = index.get(hash(serializedKey));
+            if (position < 0) {
+                return null;
+            }
+            int recordSize = read(position, RECORD_HEADER_SIZE).getInt();
+            ByteBuffer record = read(position, recordSize);
+            record.position(RECORD_HEADER_SIZE - 8);
+            int keyLength = record.getInt();
+            int valueLength = record.getInt();
+            if (!keyMatches(record, keyLength, serializedKey)) {
+                return null;
+            }
+            byte[] serializedValue = new byte[valueLength];
+            record.position(RECORD_HEADER_SIZE + keyLength);
+            record.get(serializedValue);
+            return valueSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(serializedValue)));
+        } catch (Exception e) {
+            throw new UncheckedIOException(String.format("Could not read entry '%s' from %s.", key, this), e);
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        try {
+            byte[] serializedKey = serializeKey(key);
+            ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+            KryoBackedEncoder valueEncoder = new KryoBackedEncoder(valueBytes);
+            valueSerializer.write(valueEncoder, value);
+            valueEncoder.flush();
+            append(hash(serializedKey), serializedKey, valueBytes.toByteArray());
+        } catch (Exception e) {
+            throw new UncheckedIOException(String.format("Could not add entry '%s' to %s.", key, this), e);
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        try {
+            byte[] serializedKey = serializeKey(key);
+            long keyHash = hash(serializedKey);
+            if (index.get(keyHash) >= 0) {
+                append(keyHash, serializedKey, null);
+            }
+        } catch (Exception e) {
+            throw new UncheckedIOException(String.format("Could not remove entry '%s' from %s.", key, this), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        LOGGER.debug("Closing {}", this);
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (end > MIN_COMPACTION_SIZE && liveBytes < (end - FILE_HEADER_SIZE) / 2) {
+                compact();
+            }
+        } catch (Exception e) {
+            // The log is still intact, compaction can be retried next time
+            LOGGER.debug("Could not compact {}.", this, e);
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        mapped = null;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void initialize() throws IOException {
+        channel.truncate(0);
+        long newFileId = newFileId();
+        writeFully(channel, fileHeader(newFileId), 0);
+        resetIndex(newFileId);
+        mapped = null;
+    }
+
+    private void rebuild() throws IOException {
+        LOGGER.warn("{} is corrupt. Discarding.", this);
+        initialize();
+    }
+
+    private void resetIndex(long newFileId) {
+        index.clear();
+        fileId = newFileId;
+        end = FILE_HEADER_SIZE;
+        liveBytes = 0;
+    }
+
+    /**
+     * Reads the records from the end of what is already indexed, and drops any incomplete record left behind by a process that crashed while writing it.
+     */
+    private void readRecords(long size) throws IOException {
+        long position = end;
+        while (true) {
+            ByteBuffer header = read(position, RECORD_HEADER_SIZE, size);
+            if (header == null) {
+                break;
+            }
+            int recordSize = header.getInt();
+            int checksum = header.getInt();
+            long keyHash = header.getLong();
+            int keyLength = header.getInt();
+            int valueLength = header.getInt();
+            if (keyLength < 0 || valueLength < REMOVED || recordSize != RECORD_HEADER_SIZE + keyLength + Math.max(valueLength, 0)) {
+                break;
+            }
+            ByteBuffer record = read(position, recordSize, size);
+            if (record == null || checksum(record) != checksum) {
+                break;
+            }
+            // Extend the readable range first, as applying the record reads the record it replaces
+            end = position + recordSize;
+            apply(keyHash, valueLength, position, recordSize);
+            position = end;
+        }
+        if (end < size) {
+            LOGGER.debug("Discarding {} bytes of incomplete records from {}.", size - end, this);
+            mapped = null;
+            channel.truncate(end);
+            map(end);
+        }
+    }
+
+    private void apply(long keyHash, int valueLength, long position, int recordSize) throws IOException {
+        long previous = index.get(keyHash);
+        if (previous >= 0) {
+            liveBytes -= read(previous, 4).getInt();
+        }
+        if (valueLength == REMOVED) {
+            index.remove(keyHash);
+        } else {
+            index.put(keyHash, position);
+            liveBytes += recordSize;
+        }
+    }
+
+    private void append(long keyHash, byte[] serializedKey, @Nullable byte[] serializedValue) throws IOException {
+        int valueLength = serializedValue == null ? REMOVED : serializedValue.length;
+        int recordSize = RECORD_HEADER_SIZE + serializedKey.length + Math.max(valueLength, 0);
+        ByteBuffer record = ByteBuffer.allocate(recordSize);
+        record.putInt(recordSize);
+        record.putInt(0);
+        record.putLong(keyHash);
+        record.putInt(serializedKey.length);
+        record.putInt(valueLength);
+        record.put(serializedKey);
+        if (serializedValue != null) {
+            record.put(serializedValue);
+        }
+        record.flip();
+        record.putInt(4, checksum(record));
+        writeFully(channel, record, end);
+        apply(keyHash, valueLength, end, recordSize);
+        end += recordSize;
+    }
+
+    /**
+     * Rewrites the log with only the latest record for each key, and atomically replaces the current log with it.
+     */
+    private void compact() throws IOException {
+        File compactedFile = new File(cacheFile.getPath() + ".compact");
+        long compactedFileId = newFileId();
+        LongLongHashIndex compactedIndex = new LongLongHashIndex();
+        long compactedEnd = FILE_HEADER_SIZE;
+        try (FileChannel compacted = FileChannel.open(compactedFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE)) {
+            writeFully(compacted, fileHeader(compactedFileId), 0);
+            for (long position : index.sortedValues()) {
+                int recordSize = read(position, RECORD_HEADER_SIZE).getInt();
+                ByteBuffer record = read(position, recordSize);
+                long keyHash = record.getLong(8);
+                writeFully(compacted, record, compactedEnd);
+                compactedIndex.put(keyHash, compactedEnd);
+                compactedEnd += recordSize;
+            }
+        }
+        LOGGER.debug("Compacted {} from {} to {} bytes.", this, end, compactedEnd);
+        mapped = null;
+        channel.close();
+        Files.move(compactedFile.toPath(), cacheFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+
+        index = compactedIndex;
+        fileId = compactedFileId;
+        end = compactedEnd;
+        liveBytes = compactedEnd - FILE_HEADER_SIZE;
+    }
+
+    private static ByteBuffer fileHeader(long fileId) {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(fileId);
+        header.flip();
+        return header;
+    }
+
+    private static long newFileId() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private void map(long size) throws IOException {
+        mapped = mapFile && size <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        if (mapFile && end <= Integer.MAX_VALUE && end - mappedSize() > Math.max(MIN_REMAP_SIZE, mappedSize() / 4)) {
+            // Enough has been appended since the log was mapped for it to be worth mapping again
+            map(end);
+        }
+        ByteBuffer buffer = read(position, length, end);
+        if (buffer == null) {
+            throw new EOFException(String.format("Unexpected end of %s.", this));
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the given range of the log, or returns null if it extends past {@code limit}.
+     */
+    @Nullable
+    private ByteBuffer read(long position, int length, long limit) throws IOException {
+        if (position + length > limit) {
+            return null;
+        }
+        if (position + length <= mappedSize()) {
+            ByteBuffer slice = mapped.duplicate();
+            slice.position((int) position);
+            slice.limit((int) position + length);
+            return slice.slice();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private long mappedSize() {
+        return mapped == null ? 0 : mapped.capacity();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private byte[] serializeKey(K key) throws Exception {
+        keyBytes.reset();
+        keySerializer.write(keyEncoder, key);
+        keyEncoder.flush();
+        return keyBytes.toByteArray();
+    }
+
+    private static long hash(byte[] serializedKey) {
+        long hash = Hashing.murmur3_128().hashBytes(serializedKey).asLong();
+        // The index uses 0 for empty slots. Colliding with another key's hash only costs a cache miss.
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static boolean keyMatches(ByteBuffer record, int keyLength, byte[] serializedKey) {
+        if (keyLength != serializedKey.length) {
+            return false;
+        }
+        for (int i = 0; i < keyLength; i++) {
+            if (record.get(RECORD_HEADER_SIZE + i) != serializedKey[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(ByteBuffer record) {
+        ByteBuffer checksummed = record.duplicate();
+        checksummed.position(CHECKSUMMED_OFFSET);
+        CRC32 crc = new CRC32();
+        crc.update(checksummed);
+        return (int) crc.getValue();
+    }
+}
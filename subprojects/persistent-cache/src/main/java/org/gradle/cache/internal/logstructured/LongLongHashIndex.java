@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.logstructured;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from non-zero {@code long} keys to non-negative {@code long} values, which avoids boxing for large indexes.
+ */
+public class LongLongHashIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongLongHashIndex() {
+        clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value for the given key, or -1 if there is none.
+     */
+    public long get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return values[slot];
+            }
+            if (candidate == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    public void put(long key, long value) {
+        assert key != EMPTY && value >= 0;
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    public void remove(long key) {
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Move entries further down the probe sequence back, so that lookups don't stop at the new gap
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long candidate = keys[next];
+            if (candidate == EMPTY) {
+                break;
+            }
+            int home = slot(candidate);
+            boolean homeBetweenGapAndCandidate = slot <= next
+                ? slot < home && home <= next
+                : slot < home || home <= next;
+            if (!homeBetweenGapAndCandidate) {
+                keys[slot] = candidate;
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = EMPTY;
+        values[slot] = 0;
+        size--;
+    }
+
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new long[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    /**
+     * Returns all values, in ascending order.
+     */
+    public long[] sortedValues() {
+        long[] result = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                result[count++] = values[slot];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int slot(long key) {
+        // Keys are already hashes, so mixing the high bits in is enough
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != EMPTY) {
+                int newSlot = slot(key);
+                while (keys[newSlot] != EMPTY) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                keys[newSlot] = key;
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.offheap;
+
+public interface OffHeapCacheStatistics {
+    /**
+     * Number of lookups that found a record.
+     */
+    long getHits();
+
+    /**
+     * Number of lookups that did not find a record.
+     */
+    long getMisses();
+
+    /**
+     * Number of records removed to make room for new records.
+     */
+    long getEvictions();
+
+    /**
+     * Amount of memory currently used by records, including records that can no longer be reached.
+     */
+    long getStoredBytes();
+
+    /**
+     * Amount of memory the store may use.
+     */
+    long getMaxBytes();
+}
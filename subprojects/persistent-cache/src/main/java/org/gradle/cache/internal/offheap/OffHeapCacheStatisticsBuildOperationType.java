@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.offheap;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Reports the use of the off-heap store of persistent caches during a build.
+ *
+ * Fired at the end of each build, when an off-heap store is used.
+ */
+public final class OffHeapCacheStatisticsBuildOperationType implements BuildOperationType<OffHeapCacheStatisticsBuildOperationType.Details, OffHeapCacheStatisticsBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * Number of lookups during the build that found a record.
+         */
+        long getHits();
+
+        /**
+         * Number of lookups during the build that did not find a record.
+         */
+        long getMisses();
+
+        /**
+         * Number of records removed during the build to make room for new records.
+         */
+        long getEvictions();
+
+        /**
+         * Amount of memory used by records at the end of the build.
+         */
+        long getStoredBytes();
+
+        /**
+         * Amount of memory the store may use.
+         */
+        long getMaxBytes();
+
+    }
+
+    public interface Result {
+        Result INSTANCE = new Result() {
+        };
+    }
+
+    private OffHeapCacheStatisticsBuildOperationType() {
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.offheap;
+
+import com.google.common.hash.Hashing;
+import org.gradle.cache.internal.logstructured.LongLongHashIndex;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+
+/**
+ * A size-bounded store of serialized cache records, held in direct memory outside of the Java heap.
+ *
+ * <p>The budget is split into fixed-size segments that are filled one after the other and reused in FIFO order, evicting all records
+ * of the oldest segment at once. Records read from the oldest segment are copied to the current segment, so frequently used records
+ * survive the eviction of the segment they were written to. Only the index from record hashes to record locations lives on the heap.</p>
+ *
+ * <p>Records belong to a {@link Region}, usually one region per persistent cache. Invalidating a region makes all of its records
+ * unreachable without touching them; their memory is reclaimed when their segment is evicted.</p>
+ */
+@ThreadSafe
+public class OffHeapRecordStore {
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    private static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int TARGET_SEGMENT_COUNT = 16;
+
+    // hash, region, generation, key length, value length
+    private static final int HEADER_SIZE = 8 + 4 + 4 + 4 + 4;
+
+    private final int segmentSize;
+    private final ByteBuffer[] segments;
+    // Number of bytes written to each segment, 0 for segments that are empty
+    private final int[] segmentFill;
+    private final LongLongHashIndex index = new LongLongHashIndex();
+    private int currentSegment;
+    private int nextRegionId;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long storedBytes;
+
+    public OffHeapRecordStore(long maxBytes) {
+        this.segmentSize = (int) Math.max(MIN_SEGMENT_SIZE, Math.min(MAX_SEGMENT_SIZE, maxBytes / TARGET_SEGMENT_COUNT));
+        int segmentCount = (int) Math.max(2, maxBytes / segmentSize);
+        this.segments = new ByteBuffer[segmentCount];
+        this.segmentFill = new int[segmentCount];
+    }
+
+    public long getMaxBytes() {
+        return (long) segmentSize * segments.length;
+    }
+
+    public synchronized Region newRegion() {
+        return new Region(nextRegionId++);
+    }
+
+    /**
+     * Returns the statistics gathered since the last time this method was called.
+     */
+    public synchronized OffHeapCacheStatistics collectStatistics() {
+        OffHeapCacheStatistics statistics = new DefaultOffHeapCacheStatistics(hits, misses, evictions, storedBytes, getMaxBytes());
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        return statistics;
+    }
+
+    @Nullable
+    private synchronized byte[] get(Region region, byte[] key) {
+        long hash = hash(region, key);
+        long location = index.get(hash);
+        if (location < 0) {
+            misses++;
+            return null;
+        }
+        int segment = (int) (location >>> 32);
+        int offset = (int) location;
+        ByteBuffer buffer = segments[segment];
+        if (!matches(buffer, offset, region, key)) {
+            // A different key with the same hash
+            misses++;
+            return null;
+        }
+        int valueLength = buffer.getInt(offset + 20);
+        byte[] value = new byte[valueLength];
+        readBytes(buffer, offset + HEADER_SIZE + key.length, value);
+        if (segment == oldestSegment()) {
+            append(hash, region, key, value);
+        }
+        hits++;
+        return value;
+    }
+
+    private synchronized void put(Region region, byte[] key, byte[] value) {
+        long hash = hash(region, key);
+        if ((long) HEADER_SIZE + key.length + value.length > segmentSize) {
+            // Too large to be cached
+            index.remove(hash);
+            return;
+        }
+        append(hash, region, key, value);
+    }
+
+    private synchronized void remove(Region region, byte[] key) {
+        index.remove(hash(region, key));
+    }
+
+    private void append(long hash, Region region, byte[] key, byte[] value) {
+        int recordSize = HEADER_SIZE + key.length + value.length;
+        if (segmentFill[currentSegment] + recordSize > segmentSize) {
+            currentSegment = (currentSegment + 1) % segments.length;
+            evict(currentSegment);
+        }
+        ByteBuffer buffer = segments[currentSegment];
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(segmentSize);
+            segments[currentSegment] = buffer;
+        }
+        int offset = segmentFill[currentSegment];
+        buffer.putLong(offset, hash);
+        buffer.putInt(offset + 8, region.id);
+        buffer.putInt(offset + 12, region.generation);
+        buffer.putInt(offset + 16, key.length);
+        buffer.putInt(offset + 20, value.length);
+        writeBytes(buffer, offset + HEADER_SIZE, key);
+        writeBytes(buffer, offset + HEADER_SIZE + key.length, value);
+        segmentFill[currentSegment] = offset + recordSize;
+        storedBytes += recordSize;
+        index.put(hash, ((long) currentSegment << 32) | offset);
+    }
+
+    private void evict(int segment) {
+        ByteBuffer buffer = segments[segment];
+        int fill = segmentFill[segment];
+        int offset = 0;
+        while (offset < fill) {
+            long hash = buffer.getLong(offset);
+            long location = ((long) segment << 32) | offset;
+            // Records that have been replaced, removed or copied elsewhere are no longer indexed at this location
+            if (index.get(hash) == location) {
+                index.remove(hash);
+                evictions++;
+            }
+            offset += HEADER_SIZE + buffer.getInt(offset + 16) + buffer.getInt(offset + 20);
+        }
+        storedBytes -= fill;
+        segmentFill[segment] = 0;
+    }
+
+    /**
+     * The segment that will be evicted next, or -1 if there are still empty segments.
+     */
+    private int oldestSegment() {
+        int next = (currentSegment + 1) % segments.length;
+        return segmentFill[next] > 0 ? next : -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int offset, Region region, byte[] key) {
+        if (buffer.getInt(offset + 8) != region.id || buffer.getInt(offset + 12) != region.generation || buffer.getInt(offset + 16) != key.length) {
+            return false;
+        }
+        int keyOffset = offset + HEADER_SIZE;
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(keyOffset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(Region region, byte[] key) {
+        long hash = Hashing.murmur3_128().newHasher()
+            .putInt(region.id)
+            .putInt(region.generation)
+            .putBytes(key)
+            .hash()
+            .asLong();
+        // 0 marks an empty slot in the index
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static void readBytes(ByteBuffer buffer, int offset, byte[] target) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(target);
+    }
+
+    private static void writeBytes(ByteBuffer buffer, int offset, byte[] source) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.put(source);
+    }
+
+    private static class DefaultOffHeapCacheStatistics implements OffHeapCacheStatistics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long storedBytes;
+        private final long maxBytes;
+
+        DefaultOffHeapCacheStatistics(long hits, long misses, long evictions, long storedBytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.storedBytes = storedBytes;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public long getHits() {
+            return hits;
+        }
+
+        @Override
+        public long getMisses() {
+            return misses;
+        }
+
+        @Override
+        public long getEvictions() {
+            return evictions;
+        }
+
+        @Override
+        public long getStoredBytes() {
+            return storedBytes;
+        }
+
+        @Override
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        @Override
+        public String toString() {
+            return MessageFormat.format("{0,number,integer} hits, {1,number,integer} misses, {2,number,integer} evictions, {3,number,integer} of {4,number,integer} bytes used",
+                hits, misses, evictions, storedBytes, maxBytes
+            );
+        }
+    }
+
+    /**
+     * The records of a single cache.
+     */
+    @ThreadSafe
+    public class Region {
+        private final int id;
+        // Guarded by the store
+        private int generation;
+
+        private Region(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Returns the serialized value stored for the given serialized key, or null if there is none.
+         */
+        @Nullable
+        public byte[] get(byte[] key) {
+            return OffHeapRecordStore.this.get(this, key);
+        }
+
+        public void put(byte[] key, byte[] value) {
+            OffHeapRecordStore.this.put(this, key, value);
+        }
+
+        public void remove(byte[] key) {
+            OffHeapRecordStore.this.remove(this, key);
+        }
+
+        /**
+         * Discards all records of this region.
+         */
+        public void invalidate() {
+            synchronized (OffHeapRecordStore.this) {
+                generation++;
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.cache.AsyncCacheAccess
 import org.gradle.cache.CrossProcessCacheAccess
 import org.gradle.cache.MultiProcessSafeIndexedCache
 import org.gradle.internal.Factory
+import org.gradle.internal.serialize.BaseSerializerFactory
 import spock.lang.Specification
 
 class InMemoryCacheDecoratorFactoryTest extends Specification {
@@ -27,10 +28,12 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
     def target = Mock(MultiProcessSafeIndexedCache)
     def asyncCacheAccess = Mock(AsyncCacheAccess)
     def crossProcessCacheAccess = Mock(CrossProcessCacheAccess)
+    def keySerializer = BaseSerializerFactory.STRING_SERIALIZER
+    def valueSerializer = BaseSerializerFactory.STRING_SERIALIZER
 
     def "caches result from backing cache and reuses for other instances with the same cache id"() {
         given:
-        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
 
         when:
         def result = cache.getIfPresent("key")
@@ -55,7 +58,7 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         0 * target._
 
         when:
-        def cache2 = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        def cache2 = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
         result = cache2.getIfPresent("key")
 
         then:
@@ -68,7 +71,7 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
 
     def "does not cache result when not long running process"() {
         given:
-        def cache = cacheFactory.decorator(100, false).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        def cache = cacheFactory.decorator(100, false).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
 
         when:
         def result = cache.getIfPresent("key")
@@ -97,7 +100,7 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
 
     def "caches null result from backing cache"() {
         given:
-        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
 
         when:
         def result = cache.getIfPresent("key")
@@ -126,7 +129,7 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         def lock = Mock(Runnable)
 
         given:
-        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
 
         when:
         def result = cache.getIfPresent("key")
@@ -165,7 +168,7 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         def lock = Mock(Runnable)
 
         given:
-        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
 
         when:
         def result = cache.getIfPresent("key")
@@ -200,4 +203,35 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         0 * target._
     }
 
+    def "does not keep entries off-heap by default"() {
+        expect:
+        cacheFactory.collectOffHeapStatistics() == null
+    }
+
+    def "keeps serialized entries off-heap when an off-heap size is configured"() {
+        given:
+        def cacheFactory = new DefaultInMemoryCacheDecoratorFactory(false, new TestCrossBuildInMemoryCacheFactory(), 1024 * 1024)
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", keySerializer, valueSerializer, target, crossProcessCacheAccess, asyncCacheAccess)
+
+        when:
+        def result = cache.getIfPresent("key")
+
+        then:
+        result == "result"
+
+        and:
+        1 * crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        1 * asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        1 * target.getIfPresent("key") >> "result"
+        0 * target._
+
+        when:
+        def statistics = cacheFactory.collectOffHeapStatistics()
+
+        then:
+        statistics.misses == 1
+        statistics.hits == 0
+        statistics.storedBytes > 0
+        statistics.maxBytes == 1024 * 1024
+    }
 }
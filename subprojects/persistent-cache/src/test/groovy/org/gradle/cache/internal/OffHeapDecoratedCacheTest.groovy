@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.cache.FileLock
+import org.gradle.cache.MultiProcessSafeIndexedCache
+import org.gradle.cache.internal.offheap.OffHeapRecordStore
+import org.gradle.internal.serialize.BaseSerializerFactory
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicReference
+
+class OffHeapDecoratedCacheTest extends Specification {
+    def target = Mock(MultiProcessSafeIndexedCache)
+    def store = new OffHeapRecordStore(1024 * 1024)
+    def lockState = new AtomicReference<FileLock.State>()
+    def cache = new OffHeapDecoratedCache<String, String>(target, store.newRegion(), BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER, "cache", lockState)
+
+    def "reads entries from the backing cache only once"() {
+        when:
+        def result = cache.getIfPresent("key")
+
+        then:
+        result == "result"
+        1 * target.getIfPresent("key") >> "result"
+
+        when:
+        result = cache.getIfPresent("key")
+
+        then:
+        result == "result"
+        0 * target._
+    }
+
+    def "does not keep missing entries"() {
+        when:
+        cache.getIfPresent("key")
+        cache.getIfPresent("key")
+
+        then:
+        2 * target.getIfPresent("key") >> null
+    }
+
+    def "keeps entries that are put or produced"() {
+        when:
+        cache.put("key", "value")
+        def produced = cache.get("other", { "produced" })
+
+        then:
+        produced == "produced"
+        1 * target.put("key", "value")
+        1 * target.getIfPresent("other") >> null
+        1 * target.put("other", "produced")
+
+        when:
+        def result = cache.getIfPresent("key")
+        def other = cache.getIfPresent("other")
+
+        then:
+        result == "value"
+        other == "produced"
+        0 * target._
+    }
+
+    def "forgets removed entries"() {
+        cache.put("key", "value")
+
+        when:
+        cache.remove("key")
+        def result = cache.getIfPresent("key")
+
+        then:
+        result == null
+        1 * target.remove("key")
+        1 * target.getIfPresent("key") >> null
+    }
+
+    def "discards entries when the backing cache has been changed by another process"() {
+        def state1 = Mock(FileLock.State)
+        def state2 = Mock(FileLock.State)
+        def state3 = Mock(FileLock.State)
+
+        given:
+        cache.afterLockAcquire(state1)
+        cache.put("key", "value")
+        cache.beforeLockRelease(state1)
+
+        when:
+        cache.afterLockAcquire(state2)
+        def result = cache.getIfPresent("key")
+
+        then:
+        result == "value"
+        1 * state2.hasBeenUpdatedSince(state1) >> false
+        0 * target.getIfPresent(_)
+
+        when:
+        cache.beforeLockRelease(state2)
+        cache.afterLockAcquire(state3)
+        result = cache.getIfPresent("key")
+
+        then:
+        result == "updated"
+        1 * state3.hasBeenUpdatedSince(state2) >> true
+        1 * target.getIfPresent("key") >> "updated"
+    }
+}
@@ -19,13 +19,17 @@ package org.gradle.cache.internal.locklistener
 import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.remote.internal.inet.InetAddressFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.ConcurrentSpecification
+import org.junit.Rule
 
 import java.util.concurrent.atomic.AtomicBoolean
 
 import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
 
 class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
     def addressFactory = new InetAddressFactory()
     def handler = new DefaultFileLockContentionHandler(executorFactory, addressFactory)
     def client = new DefaultFileLockContentionHandler(executorFactory, addressFactory)
@@ -74,6 +78,82 @@ class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
         }
     }
 
+    def "requests lock release through the lock table when the lock is registered there"() {
+        def lockTableFile = tmpDir.file("lock-table.bin")
+        handler = new DefaultFileLockContentionHandler(executorFactory, addressFactory, lockTableFile)
+        client = new DefaultFileLockContentionHandler(executorFactory, addressFactory, lockTableFile)
+        def lockTable = SharedMemoryLockTable.open(lockTableFile)
+        def action = new AtomicBoolean()
+
+        when:
+        int port = handler.reservePort()
+        handler.start(10, { action.set(true) })
+
+        then:
+        lockTable.isRegistered(10)
+
+        when:
+        client.maybePingOwner(port, 10, "lock 1", 50000, null)
+
+        then:
+        lockTable.getRequestCount(10) == 1
+        poll {
+            assert action.get()
+        }
+
+        when:
+        handler.stop(10)
+
+        then:
+        !lockTable.isRegistered(10)
+
+        cleanup:
+        lockTable?.close()
+    }
+
+    def "client receives signal through the lock table when lock is released"() {
+        def lockTableFile = tmpDir.file("lock-table.bin")
+        handler = new DefaultFileLockContentionHandler(executorFactory, addressFactory, lockTableFile)
+        client = new DefaultFileLockContentionHandler(executorFactory, addressFactory, lockTableFile)
+        def signaled = new AtomicBoolean()
+
+        when:
+        int port = handler.reservePort()
+        handler.start(10) { signal ->
+            handler.stop(10)
+            signal.trigger()
+        }
+        client.maybePingOwner(port, 10, "lock 1", 50000) {
+            signaled.set(true)
+        }
+
+        then:
+        poll {
+            assert signaled.get()
+        }
+    }
+
+    def "pings the owner when the lock is not registered in the lock table"() {
+        client = new DefaultFileLockContentionHandler(executorFactory, addressFactory, tmpDir.file("lock-table.bin"))
+        def signaled = new AtomicBoolean()
+
+        when:
+        int port = handler.reservePort()
+        handler.start(10) { signal ->
+            signal.trigger()
+        }
+        client.reservePort()
+        client.start(11) {}
+        client.maybePingOwner(port, 10, "lock 1", 50000) {
+            signaled.set(true)
+        }
+
+        then:
+        poll {
+            assert signaled.get()
+        }
+    }
+
     def "there are only two executors: one lock request listener and one release lock action executor"() {
         def factory = Mock(ExecutorFactory)
         handler = new DefaultFileLockContentionHandler(factory, addressFactory)
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.locklistener
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SharedMemoryLockTableTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def tableFile = tmpDir.file("caches/lock-table.bin")
+    def holder = SharedMemoryLockTable.open(tableFile)
+    def requester = SharedMemoryLockTable.open(tableFile)
+
+    def cleanup() {
+        holder.close()
+        requester.close()
+    }
+
+    def "requester sees locks registered by the holder"() {
+        expect:
+        !requester.isRegistered(10)
+
+        when:
+        holder.register(10)
+
+        then:
+        requester.isRegistered(10)
+        !requester.isRegistered(11)
+
+        when:
+        holder.unregister(10)
+
+        then:
+        !requester.isRegistered(10)
+    }
+
+    def "requester cannot request release of a lock that is not registered"() {
+        expect:
+        requester.requestRelease(10) == -1
+        holder.getRequestCount(10) == 0
+    }
+
+    def "holder sees requests and requester sees releases"() {
+        holder.register(10)
+
+        when:
+        def releaseCount = requester.requestRelease(10)
+
+        then:
+        holder.getRequestCount(10) == 1
+
+        when:
+        holder.markReleased(10)
+
+        then:
+        requester.getReleaseCount(10) == releaseCount + 1
+    }
+
+    def "locks sharing a bucket are registered in separate slots"() {
+        def otherLock = 10 + 512
+
+        when:
+        holder.register(10)
+        holder.register(otherLock)
+        requester.requestRelease(otherLock)
+
+        then:
+        requester.isRegistered(10)
+        requester.isRegistered(otherLock)
+        holder.getRequestCount(10) == 0
+        holder.getRequestCount(otherLock) == 1
+
+        when:
+        holder.markReleased(10)
+
+        then:
+        requester.getReleaseCount(10) == 1
+        requester.getReleaseCount(otherLock) == 0
+
+        when:
+        holder.unregister(10)
+
+        then:
+        !requester.isRegistered(10)
+        requester.isRegistered(otherLock)
+        requester.getRequestCount(10) == -1
+        requester.requestRelease(10) == -1
+    }
+
+    def "does not register lock when all slots of its bucket are taken"() {
+        def locks = (0..7).collect { 10 + it * 512L }
+        def otherLock = 10 + 8 * 512L
+
+        expect:
+        locks.every { holder.register(it) }
+        !holder.register(otherLock)
+        !requester.isRegistered(otherLock)
+        requester.requestRelease(otherLock) == -1
+        locks.every { requester.isRegistered(it) }
+
+        when:
+        holder.unregister(locks[3])
+
+        then:
+        holder.register(otherLock)
+        requester.isRegistered(otherLock)
+    }
+
+    def "does not lose concurrent requests"() {
+        holder.register(10)
+
+        when:
+        def threads = (1..4).collect {
+            Thread.start {
+                def table = SharedMemoryLockTable.open(tableFile)
+                try {
+                    100.times { table.requestRelease(10) }
+                } finally {
+                    table.close()
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        holder.getRequestCount(10) == 400
+    }
+
+    def "does not record releases of locks that are no longer registered"() {
+        holder.register(10)
+        holder.unregister(10)
+
+        when:
+        holder.markReleased(10)
+
+        then:
+        requester.getReleaseCount(10) == 0
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.logstructured
+
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class LogStructuredPersistentIndexedCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def serializerFactory = new BaseSerializerFactory()
+    def cacheFile = tmpDir.file("cache.log")
+
+    def "persists added and removed entries (mapped: #mapFile)"() {
+        def cache = openCache(mapFile)
+
+        when:
+        cache.put("a", "1")
+        cache.put("b", "2")
+        cache.put("c", "3")
+        cache.put("a", "4")
+        cache.remove("b")
+        cache.remove("unknown")
+
+        then:
+        cache.get("a") == "4"
+        cache.get("b") == null
+        cache.get("c") == "3"
+
+        when:
+        cache.close()
+        def reopened = openCache(mapFile)
+
+        then:
+        reopened.get("a") == "4"
+        reopened.get("b") == null
+        reopened.get("c") == "3"
+
+        cleanup:
+        reopened?.close()
+
+        where:
+        mapFile << [true, false]
+    }
+
+    def "reopening catches up with entries written by another process"() {
+        def cache = openCache()
+        cache.put("a", "1")
+        cache.close()
+
+        when:
+        def other = openCache()
+        other.put("a", "2")
+        other.put("b", "3")
+        other.close()
+        cache.open()
+
+        then:
+        cache.get("a") == "2"
+        cache.get("b") == "3"
+
+        cleanup:
+        cache.close()
+    }
+
+    def "discards incomplete records at the end of the log"() {
+        def cache = openCache()
+        cache.put("a", "1")
+        cache.put("b", "2")
+        cache.close()
+        def completeLength = cacheFile.length()
+        cacheFile.append([0, 0, 0, 100, 1, 2, 3] as byte[])
+
+        when:
+        def reopened = openCache()
+
+        then:
+        reopened.get("a") == "1"
+        reopened.get("b") == "2"
+        cacheFile.length() == completeLength
+
+        when:
+        reopened.put("c", "3")
+        reopened.close()
+        reopened.open()
+
+        then:
+        reopened.get("c") == "3"
+
+        cleanup:
+        reopened.close()
+    }
+
+    def "discards log with unexpected header"() {
+        cacheFile.text = "not a log"
+
+        when:
+        def cache = openCache()
+
+        then:
+        cache.get("a") == null
+
+        when:
+        cache.put("a", "1")
+        cache.close()
+        cache = openCache()
+
+        then:
+        cache.get("a") == "1"
+
+        cleanup:
+        cache.close()
+    }
+
+    def "compacts the log on close when most of it is stale"() {
+        def cache = openCache()
+        def other = openCache()
+        other.close()
+        def largeValue = "x" * 1024
+        3000.times {
+            cache.put("a", largeValue + it)
+        }
+        cache.put("b", "2")
+        def uncompactedLength = cacheFile.length()
+
+        when:
+        cache.close()
+
+        then:
+        cacheFile.length() < uncompactedLength / 100
+        !new File(cacheFile.path + ".compact").exists()
+
+        when:
+        cache.open()
+        other.open()
+
+        then:
+        cache.get("a") == largeValue + 2999
+        cache.get("b") == "2"
+        other.get("a") == largeValue + 2999
+        other.get("b") == "2"
+
+        cleanup:
+        cache.close()
+        other.close()
+    }
+
+    private LogStructuredPersistentIndexedCache<String, String> openCache(boolean mapFile = true) {
+        def cache = new LogStructuredPersistentIndexedCache<String, String>(cacheFile, serializerFactory.getSerializerFor(String), serializerFactory.getSerializerFor(String), mapFile)
+        cache.open()
+        return cache
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.logstructured
+
+import spock.lang.Specification
+
+class LongLongHashIndexTest extends Specification {
+    def index = new LongLongHashIndex()
+
+    def "behaves like a map under random puts and removes"() {
+        def random = new Random(42)
+        def expected = [:]
+        // Few distinct keys that share their low bits, so that probe sequences overlap and wrap around
+        def keys = (1..5000).collect { (random.nextInt(200) + 1L) << 32 | 0x3ff }
+
+        when:
+        keys.each { key ->
+            if (random.nextInt(3) == 0) {
+                index.remove(key)
+                expected.remove(key)
+            } else {
+                long value = random.nextInt(1000000)
+                index.put(key, value)
+                expected[key] = value
+            }
+        }
+
+        then:
+        index.size() == expected.size()
+        (1L..201L).each { high ->
+            long key = high << 32 | 0x3ff
+            assert index.get(key) == (expected.containsKey(key) ? expected[key] : -1L)
+        }
+        index.sortedValues() as List == expected.values().sort()
+    }
+
+    def "grows beyond its initial capacity"() {
+        when:
+        (1L..10000L).each { index.put(it, it * 2) }
+
+        then:
+        index.size() == 10000
+        (1L..10000L).every { index.get(it) == it * 2 }
+        index.get(10001L) == -1L
+
+        when:
+        index.clear()
+
+        then:
+        index.size() == 0
+        index.get(1L) == -1L
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.offheap
+
+import spock.lang.Specification
+
+class OffHeapRecordStoreTest extends Specification {
+    // 16 segments of 64KiB
+    def store = new OffHeapRecordStore(1024 * 1024)
+    def region = store.newRegion()
+
+    def "returns stored records"() {
+        when:
+        region.put(bytes("a"), bytes("value a"))
+        region.put(bytes("b"), bytes("value b"))
+
+        then:
+        region.get(bytes("a")) == bytes("value a")
+        region.get(bytes("b")) == bytes("value b")
+        region.get(bytes("c")) == null
+
+        when:
+        region.put(bytes("a"), bytes("new value"))
+        region.remove(bytes("b"))
+
+        then:
+        region.get(bytes("a")) == bytes("new value")
+        region.get(bytes("b")) == null
+
+        and:
+        def statistics = store.collectStatistics()
+        statistics.hits == 3
+        statistics.misses == 2
+        statistics.evictions == 0
+    }
+
+    def "keeps records of different regions apart"() {
+        def other = store.newRegion()
+
+        when:
+        region.put(bytes("key"), bytes("value"))
+        other.put(bytes("key"), bytes("other value"))
+
+        then:
+        region.get(bytes("key")) == bytes("value")
+        other.get(bytes("key")) == bytes("other value")
+
+        when:
+        region.invalidate()
+
+        then:
+        region.get(bytes("key")) == null
+        other.get(bytes("key")) == bytes("other value")
+    }
+
+    def "evicts oldest records once the budget is used"() {
+        def value = new byte[1000]
+
+        when:
+        2000.times {
+            region.put(bytes("key $it"), value)
+        }
+
+        then:
+        region.get(bytes("key 0")) == null
+        region.get(bytes("key 1999")) == value
+
+        and:
+        def statistics = store.collectStatistics()
+        statistics.evictions > 0
+        statistics.storedBytes <= statistics.maxBytes
+        statistics.maxBytes == 1024 * 1024
+    }
+
+    def "keeps records that are used while their segment is the oldest"() {
+        def value = new byte[1000]
+        region.put(bytes("used"), value)
+
+        when:
+        2000.times {
+            region.put(bytes("key $it"), value)
+            assert region.get(bytes("used")) == value
+        }
+
+        then:
+        region.get(bytes("used")) == value
+        region.get(bytes("key 0")) == null
+    }
+
+    def "does not keep records larger than a segment"() {
+        when:
+        region.put(bytes("key"), bytes("small"))
+        region.put(bytes("key"), new byte[64 * 1024])
+
+        then:
+        region.get(bytes("key")) == null
+        store.collectStatistics().storedBytes < 64 * 1024
+    }
+
+    def "resets counters when statistics are collected"() {
+        region.put(bytes("key"), bytes("value"))
+        region.get(bytes("key"))
+        region.get(bytes("missing"))
+
+        when:
+        store.collectStatistics()
+        def statistics = store.collectStatistics()
+
+        then:
+        statistics.hits == 0
+        statistics.misses == 0
+        statistics.evictions == 0
+        statistics.storedBytes > 0
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes("utf-8")
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hashing very large files by streaming them, by mapping them into memory and by hashing mapped chunks in parallel.
+ */
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LargeFileHashingBenchmark {
+    private static final int TREE_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    @Param({"1", "10"})
+    int fileSizeInGigabytes;
+
+    @Param({"stream", "mapped", "tree"})
+    String mode;
+
+    @Param({"md5", "xxh128"})
+    String hashFunction;
+
+    Path file;
+    ExecutorService chunkExecutor;
+    FileHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        file = Files.createTempFile("large-file-hashing-benchmark", ".bin");
+        byte[] block = new byte[1024 * 1024];
+        Random random = new Random(1234L);
+        try (OutputStream output = Files.newOutputStream(file)) {
+            for (int i = 0; i < fileSizeInGigabytes * 1024; i++) {
+                random.nextBytes(block);
+                output.write(block);
+            }
+        }
+
+        HashFunction function = hashFunction.equals("xxh128") ? Hashing.xxh128() : Hashing.md5();
+        chunkExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        switch (mode) {
+            case "stream":
+                hasher = new DefaultFileHasher(new DefaultStreamHasher(function));
+                break;
+            case "mapped":
+                hasher = new DefaultFileHasher(new DefaultStreamHasher(function), 0);
+                break;
+            case "tree":
+                hasher = new DefaultFileHasher(new DefaultStreamHasher(function, TREE_CHUNK_SIZE, chunkExecutor), 0);
+                break;
+            default:
+                throw new IllegalArgumentException(mode);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        chunkExecutor.shutdown();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public HashCode hash() {
+        return hasher.hash(file.toFile());
+    }
+}
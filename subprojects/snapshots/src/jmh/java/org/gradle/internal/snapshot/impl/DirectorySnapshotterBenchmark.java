@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl;
+
+import com.google.common.collect.Interners;
+import org.gradle.internal.hash.DefaultFileHasher;
+import org.gradle.internal.hash.DefaultStreamHasher;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares snapshotting a directory tree on a single thread and in parallel.
+ *
+ * <p>The files are hashed on every snapshot, as there is no file hash cache in between.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DirectorySnapshotterBenchmark {
+    @Param({"false", "true"})
+    boolean parallel;
+
+    @Param({"10000", "200000"})
+    int fileCount;
+
+    Path tempDir;
+    ForkJoinPool pool;
+    DirectorySnapshotter snapshotter;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        tempDir = Files.createTempDirectory("directory-snapshotter-benchmark");
+        // Wide and deep enough to look like a generated sources or node_modules directory
+        for (int i = 0; i < fileCount; i++) {
+            Path file = tempDir.resolve("package-" + (i % 200) + "/lib-" + (i % 13) + "/src/File" + i + ".js");
+            Files.createDirectories(file.getParent());
+            Files.write(file, ("module.exports = function file" + i + "() { return " + i + "; };\n").getBytes(StandardCharsets.UTF_8));
+        }
+        pool = parallel ? new ForkJoinPool() : null;
+        snapshotter = new DirectorySnapshotter(
+            new DefaultFileHasher(new DefaultStreamHasher()),
+            Interners.newWeakInterner(),
+            Collections.emptyList(),
+            new DirectorySnapshotterStatistics.Collector(),
+            pool
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public FileSystemLocationSnapshot snapshot() {
+        return snapshotter.snapshot(tempDir.toString(), null, snapshot -> {});
+    }
+}
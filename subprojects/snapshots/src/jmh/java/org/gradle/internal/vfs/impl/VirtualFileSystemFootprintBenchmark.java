@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.vfs.impl;
+
+import com.google.common.collect.Interners;
+import org.gradle.internal.file.FileMetadata.AccessType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.CaseSensitivity;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotHierarchy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap retained by the virtual file system for a large snapshotted tree, with and without the compact representation.
+ *
+ * <p>The retained heap is reported as the {@code retainedBytes} secondary result. Run with {@code -prof gc} to see the allocation rate as well.</p>
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class VirtualFileSystemFootprintBenchmark {
+    private static final String ROOT = "/home/user/project/node_modules";
+    private static final int FILES_PER_DIRECTORY = 100;
+
+    @Param({"default", "compact"})
+    String hierarchy;
+
+    @Param({"1000000"})
+    int fileCount;
+
+    SnapshotHierarchy root;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        root = null;
+    }
+
+    @Benchmark
+    public SnapshotHierarchy storeTree(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        SnapshotHierarchy empty = hierarchy.equals("compact")
+            ? CompactSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE, Interners.newWeakInterner())
+            : DefaultSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE);
+        root = empty.store(ROOT, createTree(), SnapshotHierarchy.NodeDiffListener.NOOP);
+        footprint.retainedBytes = usedHeapAfterGc() - before;
+        return root;
+    }
+
+    /**
+     * Creates a tree of {@code fileCount} files, {@value #FILES_PER_DIRECTORY} per directory, two directory levels deep.
+     */
+    private DirectorySnapshot createTree() {
+        int directoryCount = Math.max(1, fileCount / FILES_PER_DIRECTORY);
+        int packageCount = (int) Math.ceil(Math.sqrt(directoryCount));
+        List<FileSystemLocationSnapshot> packages = new ArrayList<>(packageCount);
+        int fileIndex = 0;
+        for (int p = 0; p < packageCount && fileIndex < fileCount; p++) {
+            String packagePath = ROOT + "/" + name("package-", p);
+            List<FileSystemLocationSnapshot> libraries = new ArrayList<>(packageCount);
+            for (int l = 0; l < packageCount && fileIndex < fileCount; l++) {
+                String libraryPath = packagePath + "/" + name("lib-", l);
+                List<FileSystemLocationSnapshot> files = new ArrayList<>(FILES_PER_DIRECTORY);
+                for (int f = 0; f < FILES_PER_DIRECTORY && fileIndex < fileCount; f++, fileIndex++) {
+                    String fileName = name("File", f) + ".js";
+                    files.add(new RegularFileSnapshot(libraryPath + "/" + fileName, fileName, hash(fileIndex), DefaultFileMetadata.file(fileIndex, 1000 + fileIndex, AccessType.DIRECT)));
+                }
+                libraries.add(directory(libraryPath, files));
+            }
+            packages.add(directory(packagePath, libraries));
+        }
+        return directory(ROOT, packages);
+    }
+
+    private static DirectorySnapshot directory(String path, List<FileSystemLocationSnapshot> children) {
+        return new DirectorySnapshot(path, path.substring(path.lastIndexOf('/') + 1), AccessType.DIRECT, hash(path.hashCode()), children);
+    }
+
+    private static String name(String prefix, int index) {
+        // Zero-padded, so that the children are sorted
+        return String.format("%s%05d", prefix, index);
+    }
+
+    private static HashCode hash(int seed) {
+        return Hashing.hashString(Integer.toString(seed));
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The children of a directory in a {@link CompactDirectoryTree}.
+ *
+ * Looking up a child only creates the snapshot of that child. Updates are applied to a regular {@link ChildMap} of all children.
+ */
+class CompactChildMap implements ChildMap<FileSystemLocationSnapshot> {
+    private final CompactDirectoryTree tree;
+    private final int node;
+    private final String absolutePath;
+
+    CompactChildMap(CompactDirectoryTree tree, int node, String absolutePath) {
+        this.tree = tree;
+        this.node = node;
+        this.absolutePath = absolutePath;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tree.firstChild(node) == tree.endOfChildren(node);
+    }
+
+    @Override
+    public Stream<Entry<FileSystemLocationSnapshot>> stream() {
+        return IntStream.range(tree.firstChild(node), tree.endOfChildren(node))
+            .mapToObj(this::entry);
+    }
+
+    @Override
+    public <RESULT> RESULT withNode(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, NodeHandler<FileSystemLocationSnapshot, RESULT> handler) {
+        int firstChild = tree.firstChild(node);
+        List<String> childNames = tree.names().subList(firstChild, tree.endOfChildren(node));
+        int childIndex = SearchUtil.binarySearch(childNames, candidate -> targetPath.compareToFirstSegment(candidate, caseSensitivity));
+        if (childIndex >= 0) {
+            return entry(firstChild + childIndex).withNode(targetPath, caseSensitivity, handler);
+        }
+        return handler.handleUnrelatedToAnyChild();
+    }
+
+    @Override
+    public <RESULT> ChildMap<RESULT> invalidate(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, InvalidationHandler<FileSystemLocationSnapshot, RESULT> handler) {
+        return toRegularChildMap().invalidate(targetPath, caseSensitivity, handler);
+    }
+
+    @Override
+    public ChildMap<FileSystemLocationSnapshot> store(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, StoreHandler<FileSystemLocationSnapshot> storeHandler) {
+        return toRegularChildMap().store(targetPath, caseSensitivity, storeHandler);
+    }
+
+    private ChildMap<FileSystemLocationSnapshot> toRegularChildMap() {
+        return ChildMapFactory.childMapFromSorted(stream().collect(Collectors.toList()));
+    }
+
+    private Entry<FileSystemLocationSnapshot> entry(int child) {
+        String name = tree.getName(child);
+        return new Entry<>(name, tree.snapshot(child, CompactDirectoryTree.childPath(absolutePath, name)));
+    }
+
+    @Override
+    public String toString() {
+        return stream().collect(Collectors.toList()).toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot;
+
+import com.google.common.collect.Interner;
+import org.gradle.internal.file.FileMetadata;
+import org.gradle.internal.file.FileMetadata.AccessType;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A complete directory hierarchy stored in a few flat arrays instead of one object graph per file.
+ *
+ * <p>The nodes of the hierarchy are numbered in breadth-first order, so the children of every directory are a contiguous range of nodes.
+ * For each node only the interned file name, the packed hash and the packed metadata are kept, the absolute paths are derived from the parent.
+ * {@link FileSystemLocationSnapshot}s are created on demand when the hierarchy is accessed and are not retained.</p>
+ */
+public final class CompactDirectoryTree {
+    private static final FileType[] FILE_TYPES = FileType.values();
+    private static final AccessType[] ACCESS_TYPES = AccessType.values();
+
+    private final String[] names;
+    // File type ordinal in the lower bits, access type ordinal above
+    private final byte[] types;
+    // Two longs per node
+    private final long[] hashes;
+    // Last modified and length of regular files, two longs per node
+    private final long[] fileMetadata;
+    // The children of node i are the nodes from childOffsets[i] to childOffsets[i + 1]
+    private final int[] childOffsets;
+
+    private CompactDirectoryTree(String[] names, byte[] types, long[] hashes, long[] fileMetadata, int[] childOffsets) {
+        this.names = names;
+        this.types = types;
+        this.hashes = hashes;
+        this.fileMetadata = fileMetadata;
+        this.childOffsets = childOffsets;
+    }
+
+    /**
+     * Returns a snapshot equal to the given one which keeps its descendants in a compact tree.
+     *
+     * Returns the given snapshot when the hierarchy can't be represented compactly, for example when a hash is not 128 bits long.
+     */
+    public static DirectorySnapshot compact(DirectorySnapshot root, Interner<String> nameInterner) {
+        if (root.getChildMap() instanceof CompactChildMap) {
+            return root;
+        }
+        List<FileSystemLocationSnapshot> nodes = new ArrayList<>();
+        nodes.add(root);
+        int[] childOffsets = new int[16];
+        for (int node = 0; node < nodes.size(); node++) {
+            FileSystemLocationSnapshot snapshot = nodes.get(node);
+            if (snapshot.getHash().length() != 16) {
+                return root;
+            }
+            if (node + 1 >= childOffsets.length) {
+                childOffsets = Arrays.copyOf(childOffsets, childOffsets.length * 2);
+            }
+            childOffsets[node] = nodes.size();
+            if (snapshot instanceof DirectorySnapshot) {
+                for (FileSystemLocationSnapshot child : ((DirectorySnapshot) snapshot).getChildren()) {
+                    if (!isChildPath(snapshot.getAbsolutePath(), child.getName(), child.getAbsolutePath())) {
+                        return root;
+                    }
+                    nodes.add(child);
+                }
+            }
+        }
+        int count = nodes.size();
+        childOffsets = Arrays.copyOf(childOffsets, count + 1);
+        childOffsets[count] = count;
+
+        String[] names = new String[count];
+        byte[] types = new byte[count];
+        long[] hashes = new long[2 * count];
+        long[] fileMetadata = new long[2 * count];
+        for (int node = 0; node < count; node++) {
+            FileSystemLocationSnapshot snapshot = nodes.get(node);
+            names[node] = nameInterner.intern(snapshot.getName());
+            types[node] = (byte) (snapshot.getType().ordinal() | snapshot.getAccessType().ordinal() << 2);
+            byte[] hash = snapshot.getHash().toByteArray();
+            hashes[2 * node] = bytesToLong(hash, 0);
+            hashes[2 * node + 1] = bytesToLong(hash, 8);
+            if (snapshot instanceof RegularFileSnapshot) {
+                FileMetadata metadata = ((RegularFileSnapshot) snapshot).getMetadata();
+                fileMetadata[2 * node] = metadata.getLastModified();
+                fileMetadata[2 * node + 1] = metadata.getLength();
+            }
+        }
+        CompactDirectoryTree tree = new CompactDirectoryTree(names, types, hashes, fileMetadata, childOffsets);
+        return tree.directory(0, root.getAbsolutePath());
+    }
+
+    /**
+     * The number of nodes in the tree, including the root directory.
+     */
+    public int getNodeCount() {
+        return names.length;
+    }
+
+    int firstChild(int node) {
+        return childOffsets[node];
+    }
+
+    int endOfChildren(int node) {
+        return childOffsets[node + 1];
+    }
+
+    /**
+     * The names of all nodes, to search the children of a node without creating snapshots.
+     */
+    List<String> names() {
+        return Arrays.asList(names);
+    }
+
+    String getName(int node) {
+        return names[node];
+    }
+
+    FileSystemLocationSnapshot snapshot(int node, String absolutePath) {
+        AccessType accessType = ACCESS_TYPES[types[node] >> 2];
+        switch (FILE_TYPES[types[node] & 3]) {
+            case Directory:
+                return directory(node, absolutePath);
+            case RegularFile:
+                return new RegularFileSnapshot(absolutePath, names[node], hash(node), DefaultFileMetadata.file(fileMetadata[2 * node], fileMetadata[2 * node + 1], accessType));
+            case Missing:
+                return new MissingFileSnapshot(absolutePath, names[node], accessType);
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private DirectorySnapshot directory(int node, String absolutePath) {
+        return new DirectorySnapshot(absolutePath, names[node], ACCESS_TYPES[types[node] >> 2], hash(node), new CompactChildMap(this, node, absolutePath));
+    }
+
+    private HashCode hash(int node) {
+        byte[] bytes = new byte[16];
+        longToBytes(hashes[2 * node], bytes, 0);
+        longToBytes(hashes[2 * node + 1], bytes, 8);
+        return HashCode.fromBytes(bytes);
+    }
+
+    static String childPath(String parentPath, String name) {
+        return endsWithSeparator(parentPath)
+            ? parentPath + name
+            : parentPath + File.separatorChar + name;
+    }
+
+    private static boolean isChildPath(String parentPath, String name, String childPath) {
+        int nameStart = endsWithSeparator(parentPath) ? parentPath.length() : parentPath.length() + 1;
+        return childPath.length() == nameStart + name.length()
+            && childPath.startsWith(parentPath)
+            && childPath.charAt(nameStart - 1) == File.separatorChar
+            && childPath.endsWith(name);
+    }
+
+    private static boolean endsWithSeparator(String path) {
+        return !path.isEmpty() && path.charAt(path.length() - 1) == File.separatorChar;
+    }
+
+    private static long bytesToLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = value << 8 | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void longToBytes(long value, byte[] bytes, int offset) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
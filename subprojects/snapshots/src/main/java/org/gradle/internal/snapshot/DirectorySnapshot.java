@@ -132,6 +132,10 @@ public ImmutableList<FileSystemLocationSnapshot> getChildren() {
             .collect(ImmutableList.toImmutableList());
     }
 
+    ChildMap<FileSystemLocationSnapshot> getChildMap() {
+        return children;
+    }
+
     @Override
     protected Optional<MetadataSnapshot> getChildSnapshot(VfsRelativePath targetPath, CaseSensitivity caseSensitivity) {
         return Optional.of(
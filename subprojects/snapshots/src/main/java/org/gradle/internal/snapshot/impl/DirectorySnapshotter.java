@@ -17,14 +17,17 @@
 package org.gradle.internal.snapshot.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Interner;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import org.gradle.internal.file.DirectoryLister;
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.FileMetadata.AccessType;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.file.impl.DirectoryListingFileTreeWalker;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.snapshot.DirectorySnapshot;
@@ -48,12 +51,16 @@
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -62,9 +69,18 @@
 
 /**
  * For creating {@link DirectorySnapshot}s of directories.
+ *
+ * When given a {@link ForkJoinPool}, subdirectories are snapshotted and regular files are hashed as separate tasks in the pool.
+ * The results of the tasks are added to the snapshot of their parent directory once all of its entries have been visited,
+ * so the snapshot is the same as the one created by a single-threaded walk.
+ *
+ * When given a {@link DirectoryLister}, the entries of each directory are listed together with their metadata via the lister.
+ * Otherwise, the directories are walked via {@link Files#walkFileTree(Path, Set, int, java.nio.file.FileVisitor)}.
  */
 public class DirectorySnapshotter {
     private static final EnumSet<FileVisitOption> DONT_FOLLOW_SYMLINKS = EnumSet.noneOf(FileVisitOption.class);
+    // Only fork while the tasks forked by the current worker are being picked up by other workers
+    private static final int MAX_SURPLUS_QUEUED_TASKS = 3;
     private static final SymbolicLinkMapping EMPTY_SYMBOLIC_LINK_MAPPING = new SymbolicLinkMapping() {
 
         @Override
@@ -74,7 +90,7 @@ public String remapAbsolutePath(Path path) {
 
         @Override
         public SymbolicLinkMapping withNewMapping(String source, String target, RelativePathTracker currentPathTracker) {
-            return new DefaultSymbolicLinkMapping(source, target, currentPathTracker.getSegments());
+            return new DefaultSymbolicLinkMapping(source, target, ImmutableList.copyOf(currentPathTracker.getSegments()));
         }
 
         @Override
@@ -87,12 +103,42 @@ public Iterable<String> getRemappedSegments(Iterable<String> segments) {
     private final Interner<String> stringInterner;
     private final DefaultExcludes defaultExcludes;
     private final DirectorySnapshotterStatistics.Collector collector;
+    private final ForkJoinPool parallelSnapshottingPool;
+    @Nullable
+    private final DirectoryLister directoryLister;
 
     public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector) {
+        this(hasher, stringInterner, defaultExcludes, collector, null);
+    }
+
+    public DirectorySnapshotter(
+        FileHasher hasher,
+        Interner<String> stringInterner,
+        Collection<String> defaultExcludes,
+        DirectorySnapshotterStatistics.Collector collector,
+        @Nullable ForkJoinPool parallelSnapshottingPool
+    ) {
+        this(hasher, stringInterner, defaultExcludes, collector, parallelSnapshottingPool, null);
+    }
+
+    /**
+     * @param parallelSnapshottingPool the pool to snapshot directories in parallel with, or {@code null} to snapshot on the calling thread.
+     * @param directoryLister lists the entries of the visited directories together with their metadata, or {@code null} to walk the directories via the JDK.
+     */
+    public DirectorySnapshotter(
+        FileHasher hasher,
+        Interner<String> stringInterner,
+        Collection<String> defaultExcludes,
+        DirectorySnapshotterStatistics.Collector collector,
+        @Nullable ForkJoinPool parallelSnapshottingPool,
+        @Nullable DirectoryLister directoryLister
+    ) {
         this.hasher = hasher;
         this.stringInterner = stringInterner;
         this.defaultExcludes = new DefaultExcludes(defaultExcludes);
         this.collector = collector;
+        this.parallelSnapshottingPool = parallelSnapshottingPool;
+        this.directoryLister = directoryLister;
     }
 
     /**
@@ -112,18 +158,44 @@ public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner,
      * @return The (possible filtered) snapshot of the directory.
      */
     public FileSystemLocationSnapshot snapshot(String absolutePath, @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate, Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer) {
+        AtomicBoolean hasBeenFiltered = new AtomicBoolean();
+        Path rootPath = Paths.get(absolutePath);
+        FileSystemLocationSnapshot result;
+        long startTime = System.nanoTime();
         try {
-            AtomicBoolean hasBeenFiltered = new AtomicBoolean();
-            Path rootPath = Paths.get(absolutePath);
-            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, unfilteredSnapshotConsumer);
-            Files.walkFileTree(rootPath, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
-            FileSystemLocationSnapshot result = visitor.getResult();
-            if (!hasBeenFiltered.get()) {
-                unfilteredSnapshotConsumer.accept(result);
+            if (parallelSnapshottingPool == null) {
+                PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, unfilteredSnapshotConsumer, false, directoryLister);
+                result = walk(rootPath, visitor);
+            } else {
+                // The consumer is only called on this thread
+                List<FileSystemLocationSnapshot> unfilteredSnapshots = new ArrayList<>();
+                PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, unfilteredSnapshots::add, true, directoryLister);
+                result = parallelSnapshottingPool.invoke(ForkJoinTask.adapt(() -> walk(rootPath, visitor)));
+                unfilteredSnapshots.forEach(unfilteredSnapshotConsumer);
             }
-            return result;
+        } finally {
+            collector.recordSnapshottingTime(System.nanoTime() - startTime);
+        }
+        if (!hasBeenFiltered.get()) {
+            unfilteredSnapshotConsumer.accept(result);
+        }
+        return result;
+    }
+
+    private static FileSystemLocationSnapshot walk(Path rootPath, PathVisitor visitor) {
+        try {
+            walkFileTree(visitor.directoryLister, rootPath, visitor);
+            return visitor.getResult();
         } catch (IOException e) {
-            throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", absolutePath), e);
+            throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", rootPath), e);
+        }
+    }
+
+    private static void walkFileTree(@Nullable DirectoryLister directoryLister, Path start, PathVisitor visitor) throws IOException {
+        if (directoryLister != null) {
+            DirectoryListingFileTreeWalker.walkFileTree(directoryLister, start, false, visitor);
+        } else {
+            Files.walkFileTree(start, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
         }
     }
 
@@ -162,7 +234,7 @@ public String remapAbsolutePath(String absolutePath) {
 
         @Override
         public SymbolicLinkMapping withNewMapping(String source, String target, RelativePathTracker currentPathTracker) {
-            return new DefaultSymbolicLinkMapping(remapAbsolutePath(source), target, getRemappedSegments(currentPathTracker.getSegments()));
+            return new DefaultSymbolicLinkMapping(remapAbsolutePath(source), target, ImmutableList.copyOf(getRemappedSegments(currentPathTracker.getSegments())));
         }
 
         @Override
@@ -253,9 +325,14 @@ private static class PathVisitor extends DirectorySnapshotterStatistics.Collecti
         private final Interner<String> stringInterner;
         private final DefaultExcludes defaultExcludes;
         private final SymbolicLinkMapping symbolicLinkMapping;
-        private final Deque<String> parentDirectories = new ArrayDeque<>();
+        private final Deque<String> parentDirectories;
         private final Set<FileSystemLocationSnapshot> filteredDirectorySnapshots = new HashSet<>();
         private final Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer;
+        private final boolean parallel;
+        @Nullable
+        private final DirectoryLister directoryLister;
+        // The tasks snapshotting entries of each directory being visited, completed when leaving the directory
+        private final Deque<List<ForkJoinTask<? extends FileSystemLocationSnapshot>>> forkedEntries = new ArrayDeque<>();
 
         public PathVisitor(
             @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate,
@@ -265,9 +342,28 @@ public PathVisitor(
             DefaultExcludes defaultExcludes,
             DirectorySnapshotterStatistics.Collector statisticsCollector,
             SymbolicLinkMapping symbolicLinkMapping,
-            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer
+            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer,
+            boolean parallel,
+            @Nullable DirectoryLister directoryLister
+        ) {
+            this(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, statisticsCollector, symbolicLinkMapping, unfilteredSnapshotConsumer, parallel, directoryLister, new ArrayDeque<>(), false);
+        }
+
+        private PathVisitor(
+            @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate,
+            AtomicBoolean hasBeenFiltered,
+            FileHasher hasher,
+            Interner<String> stringInterner,
+            DefaultExcludes defaultExcludes,
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            SymbolicLinkMapping symbolicLinkMapping,
+            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer,
+            boolean parallel,
+            @Nullable DirectoryLister directoryLister,
+            Deque<String> parentDirectories,
+            boolean rootAlreadyRecorded
         ) {
-            super(statisticsCollector);
+            super(statisticsCollector, rootAlreadyRecorded);
             this.builder = FilteredTrackingMerkleDirectorySnapshotBuilder.sortingRequired(this::consumeUnfilteredSnapshot);
             this.predicate = predicate;
             this.hasBeenFiltered = hasBeenFiltered;
@@ -276,6 +372,9 @@ public PathVisitor(
             this.defaultExcludes = defaultExcludes;
             this.symbolicLinkMapping = symbolicLinkMapping;
             this.unfilteredSnapshotConsumer = unfilteredSnapshotConsumer;
+            this.parallel = parallel;
+            this.directoryLister = directoryLister;
+            this.parentDirectories = parentDirectories;
         }
 
         private void consumeUnfilteredSnapshot(FileSystemLocationSnapshot snapshot) {
@@ -293,8 +392,15 @@ protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attr
             String fileName = getInternedFileName(dir);
             pathTracker.enter(fileName);
             if (shouldVisitDirectory(dir, fileName)) {
+                if (!pathTracker.isRoot() && shouldFork()) {
+                    forkedEntries.getLast().add(new SubtreeTask(dir).fork());
+                    collector.recordForkDirectory();
+                    pathTracker.leave();
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
                 builder.enterDirectory(AccessType.DIRECT, intern(symbolicLinkMapping.remapAbsolutePath(dir)), fileName, INCLUDE_EMPTY_DIRS);
                 parentDirectories.addFirst(dir.toString());
+                forkedEntries.addLast(new ArrayList<>());
                 return FileVisitResult.CONTINUE;
             } else {
                 pathTracker.leave();
@@ -311,6 +417,7 @@ protected FileVisitResult doPostVisitDirectory(Path dir, IOException exc) {
             if (isNotFileSystemLoopException(exc)) {
                 throw new UncheckedIOException(String.format("Could not read directory path '%s'.", dir), exc);
             }
+            completeForkedEntries(forkedEntries.removeLast());
             boolean currentLevelComplete = builder.isCurrentLevelUnfiltered();
             FileSystemLocationSnapshot currentLevel = builder.leaveDirectory();
             if (!currentLevelComplete) {
@@ -372,8 +479,10 @@ private DirectorySnapshot followSymlink(Path file, String internedFileName, Atom
                         defaultExcludes,
                         collector,
                         symbolicLinkMapping.withNewMapping(file.toString(), targetDirString, pathTracker),
-                        unfilteredSnapshotConsumer);
-                    Files.walkFileTree(targetDir, EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE, subtreeVisitor);
+                        unfilteredSnapshotConsumer,
+                        parallel,
+                        directoryLister);
+                    walkFileTree(directoryLister, targetDir, subtreeVisitor);
                     return (DirectorySnapshot) subtreeVisitor.getResult();
                 } else {
                     return null;
@@ -383,6 +492,28 @@ private DirectorySnapshot followSymlink(Path file, String internedFileName, Atom
             }
         }
 
+        private boolean shouldFork() {
+            return parallel && ForkJoinTask.inForkJoinPool() && ForkJoinTask.getSurplusQueuedTaskCount() <= MAX_SURPLUS_QUEUED_TASKS;
+        }
+
+        private void completeForkedEntries(List<ForkJoinTask<? extends FileSystemLocationSnapshot>> tasks) {
+            for (ForkJoinTask<? extends FileSystemLocationSnapshot> task : tasks) {
+                FileSystemLocationSnapshot snapshot = task.join();
+                if (task instanceof SubtreeTask) {
+                    SubtreeTask subtreeTask = (SubtreeTask) task;
+                    subtreeTask.unfilteredSnapshots.forEach(unfilteredSnapshotConsumer);
+                    builder.visitDirectory((DirectorySnapshot) snapshot);
+                    if (subtreeTask.hasBeenFiltered.get()) {
+                        filteredDirectorySnapshots.add(snapshot);
+                        builder.markCurrentLevelAsFiltered();
+                        hasBeenFiltered.set(true);
+                    }
+                } else {
+                    builder.visitLeafElement((FileSystemLeafSnapshot) snapshot);
+                }
+            }
+        }
+
         private boolean introducesCycle(String targetDirString) {
             return parentDirectories.contains(targetDirString);
         }
@@ -390,7 +521,12 @@ private boolean introducesCycle(String targetDirString) {
         private void visitResolvedFile(Path file, BasicFileAttributes targetAttributes, AccessType accessType) {
             String internedName = intern(file.getFileName().toString());
             if (shouldVisitFile(file, internedName)) {
-                builder.visitLeafElement(snapshotFile(file, internedName, targetAttributes, accessType));
+                if (!forkedEntries.isEmpty() && targetAttributes.isRegularFile() && shouldFork()) {
+                    forkedEntries.getLast().add(ForkJoinTask.adapt(() -> snapshotFile(file, internedName, targetAttributes, accessType)).fork());
+                    collector.recordForkFile();
+                } else {
+                    builder.visitLeafElement(snapshotFile(file, internedName, targetAttributes, accessType));
+                }
             }
         }
 
@@ -488,5 +624,41 @@ private String getInternedFileName(Path dir) {
         public FileSystemLocationSnapshot getResult() {
             return builder.getResult();
         }
+
+        /**
+         * Snapshots a subdirectory with its own visitor, as if the subdirectory had been visited by this visitor.
+         */
+        private class SubtreeTask extends RecursiveTask<FileSystemLocationSnapshot> {
+            private final Path dir;
+            private final PathVisitor subtreeVisitor;
+            private final AtomicBoolean hasBeenFiltered = new AtomicBoolean();
+            // Only read after joining the task
+            private final List<FileSystemLocationSnapshot> unfilteredSnapshots = new ArrayList<>();
+
+            public SubtreeTask(Path dir) {
+                this.dir = dir;
+                // Maps the subdirectory to itself, to prefix the relative paths seen by the predicate with the path of the subdirectory
+                String dirString = dir.toString();
+                this.subtreeVisitor = new PathVisitor(
+                    predicate,
+                    hasBeenFiltered,
+                    hasher,
+                    stringInterner,
+                    defaultExcludes,
+                    collector,
+                    symbolicLinkMapping.withNewMapping(dirString, dirString, pathTracker),
+                    unfilteredSnapshots::add,
+                    true,
+                    directoryLister,
+                    new ArrayDeque<>(parentDirectories),
+                    true
+                );
+            }
+
+            @Override
+            protected FileSystemLocationSnapshot compute() {
+                return walk(dir, subtreeVisitor);
+            }
+        }
     }
 }
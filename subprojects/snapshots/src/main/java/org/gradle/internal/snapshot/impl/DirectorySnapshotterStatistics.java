@@ -22,6 +22,7 @@
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 public interface DirectorySnapshotterStatistics {
@@ -45,11 +46,29 @@ public interface DirectorySnapshotterStatistics {
      */
     long getFailedFiles();
 
+    /**
+     * The number of directories snapshotted by a separate task when snapshotting in parallel.
+     */
+    long getForkedDirectoryCount();
+
+    /**
+     * The number of files hashed by a separate task when snapshotting in parallel.
+     */
+    long getForkedFileCount();
+
+    /**
+     * The time spent snapshotting directory trees, summed over all snapshotting threads.
+     */
+    long getSnapshottingTimeMillis();
+
     class Collector {
         private final AtomicLong hierarchyCount = new AtomicLong();
         private final AtomicLong directoryCount = new AtomicLong();
         private final AtomicLong fileCount = new AtomicLong();
         private final AtomicLong failedFileCount = new AtomicLong();
+        private final AtomicLong forkedDirectoryCount = new AtomicLong();
+        private final AtomicLong forkedFileCount = new AtomicLong();
+        private final AtomicLong snapshottingTimeNanos = new AtomicLong();
 
         public void recordVisitHierarchy() {
             hierarchyCount.incrementAndGet();
@@ -67,11 +86,26 @@ public void recordVisitFileFailed() {
             failedFileCount.incrementAndGet();
         }
 
+        public void recordForkDirectory() {
+            forkedDirectoryCount.incrementAndGet();
+        }
+
+        public void recordForkFile() {
+            forkedFileCount.incrementAndGet();
+        }
+
+        public void recordSnapshottingTime(long nanos) {
+            snapshottingTimeNanos.addAndGet(nanos);
+        }
+
         public DirectorySnapshotterStatistics collect() {
             long hierarchyCount = this.hierarchyCount.getAndSet(0);
             long directoryCount = this.directoryCount.getAndSet(0);
             long fileCount = this.fileCount.getAndSet(0);
             long failedFileCount = this.failedFileCount.getAndSet(0);
+            long forkedDirectoryCount = this.forkedDirectoryCount.getAndSet(0);
+            long forkedFileCount = this.forkedFileCount.getAndSet(0);
+            long snapshottingTimeMillis = TimeUnit.NANOSECONDS.toMillis(this.snapshottingTimeNanos.getAndSet(0));
 
             return new DirectorySnapshotterStatistics() {
                 @Override
@@ -94,10 +128,30 @@ public long getFailedFiles() {
                     return failedFileCount;
                 }
 
+                @Override
+                public long getForkedDirectoryCount() {
+                    return forkedDirectoryCount;
+                }
+
+                @Override
+                public long getForkedFileCount() {
+                    return forkedFileCount;
+                }
+
+                @Override
+                public long getSnapshottingTimeMillis() {
+                    return snapshottingTimeMillis;
+                }
+
                 @Override
                 public String toString() {
-                    return MessageFormat.format("Snapshot {0,number,integer} directory hierarchies (visited {1,number,integer} directories, {2,number,integer} files and {3,number,integer} failed files)",
-                        hierarchyCount, directoryCount, fileCount, failedFileCount);
+                    String visited = MessageFormat.format("Snapshot {0,number,integer} directory hierarchies in {4,number,integer} ms (visited {1,number,integer} directories, {2,number,integer} files and {3,number,integer} failed files)",
+                        hierarchyCount, directoryCount, fileCount, failedFileCount, snapshottingTimeMillis);
+                    if (forkedDirectoryCount == 0 && forkedFileCount == 0) {
+                        return visited;
+                    }
+                    return visited + MessageFormat.format(", snapshot {0,number,integer} directories and hashed {1,number,integer} files in parallel",
+                        forkedDirectoryCount, forkedFileCount);
                 }
             };
         }
@@ -105,15 +159,30 @@ public String toString() {
 
     abstract class CollectingFileVisitor implements FileVisitor<Path> {
         protected final Collector collector;
+        private boolean rootAlreadyRecorded;
 
         public CollectingFileVisitor(Collector collector) {
+            this(collector, false);
+        }
+
+        /**
+         * @param rootAlreadyRecorded whether the root directory of the walk has already been recorded as part of another walk, like when walking a forked subtree.
+         */
+        protected CollectingFileVisitor(Collector collector, boolean rootAlreadyRecorded) {
             this.collector = collector;
-            collector.recordVisitHierarchy();
+            this.rootAlreadyRecorded = rootAlreadyRecorded;
+            if (!rootAlreadyRecorded) {
+                collector.recordVisitHierarchy();
+            }
         }
 
         @Override
         public final FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-            collector.recordVisitDirectory();
+            if (rootAlreadyRecorded) {
+                rootAlreadyRecorded = false;
+            } else {
+                collector.recordVisitDirectory();
+            }
             return doPreVisitDirectory(dir, attrs);
         }
 
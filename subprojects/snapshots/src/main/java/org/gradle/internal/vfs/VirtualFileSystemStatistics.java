@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.vfs;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+public interface VirtualFileSystemStatistics {
+    /**
+     * Number of reads from {@link FileSystemAccess} which were answered from the virtual file system.
+     */
+    long getHitCount();
+
+    /**
+     * Number of reads from {@link FileSystemAccess} which had to access the file system.
+     */
+    long getMissCount();
+
+    /**
+     * Number of file system change events received via file system watching which invalidated content of the virtual file system.
+     */
+    long getInvalidatingWatchEventCount();
+
+    class Collector {
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+        private final AtomicLong invalidatingWatchEventCount = new AtomicLong();
+
+        public void recordHit() {
+            hitCount.incrementAndGet();
+        }
+
+        public void recordMiss() {
+            missCount.incrementAndGet();
+        }
+
+        public void recordInvalidatingWatchEvent() {
+            invalidatingWatchEventCount.incrementAndGet();
+        }
+
+        public VirtualFileSystemStatistics collect() {
+            long hitCount = this.hitCount.getAndSet(0);
+            long missCount = this.missCount.getAndSet(0);
+            long invalidatingWatchEventCount = this.invalidatingWatchEventCount.getAndSet(0);
+
+            return new VirtualFileSystemStatistics() {
+                @Override
+                public long getHitCount() {
+                    return hitCount;
+                }
+
+                @Override
+                public long getMissCount() {
+                    return missCount;
+                }
+
+                @Override
+                public long getInvalidatingWatchEventCount() {
+                    return invalidatingWatchEventCount;
+                }
+
+                @Override
+                public String toString() {
+                    return MessageFormat.format("Answered {0,number,integer} reads from the VFS and {1,number,integer} reads from the file system, {2,number,integer} watch events invalidated VFS content",
+                        hitCount, missCount, invalidatingWatchEventCount);
+                }
+            };
+        }
+    }
+}
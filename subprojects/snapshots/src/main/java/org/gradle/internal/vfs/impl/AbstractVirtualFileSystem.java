@@ -29,6 +29,7 @@
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public abstract class AbstractVirtualFileSystem implements VirtualFileSystem {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractVirtualFileSystem.class);
@@ -70,6 +71,13 @@ public Optional<MetadataSnapshot> findMetadata(String absolutePath) {
         return root.findMetadata(absolutePath);
     }
 
+    /**
+     * Returns all root snapshots currently stored below {@code absolutePath}.
+     */
+    public Stream<FileSystemLocationSnapshot> rootSnapshotsUnder(String absolutePath) {
+        return root.rootSnapshotsUnder(absolutePath);
+    }
+
     @Override
     public FileSystemLocationSnapshot store(String absolutePath, Supplier<FileSystemLocationSnapshot> snapshotSupplier) {
         long versionBefore = versionHierarchyRoot.getVersion(absolutePath);
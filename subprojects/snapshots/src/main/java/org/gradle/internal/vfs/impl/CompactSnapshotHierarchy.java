@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.vfs.impl;
+
+import com.google.common.collect.Interner;
+import org.gradle.internal.snapshot.CaseSensitivity;
+import org.gradle.internal.snapshot.CompactDirectoryTree;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.MetadataSnapshot;
+import org.gradle.internal.snapshot.SnapshotHierarchy;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A {@link SnapshotHierarchy} which keeps the directory snapshots stored in it as {@link CompactDirectoryTree}s.
+ *
+ * Uses much less memory for large hierarchies, at the cost of creating snapshot objects whenever the hierarchy is queried.
+ */
+public class CompactSnapshotHierarchy implements SnapshotHierarchy {
+    private final SnapshotHierarchy delegate;
+    private final Interner<String> nameInterner;
+
+    public static SnapshotHierarchy empty(CaseSensitivity caseSensitivity, Interner<String> nameInterner) {
+        return new CompactSnapshotHierarchy(DefaultSnapshotHierarchy.empty(caseSensitivity), nameInterner);
+    }
+
+    private CompactSnapshotHierarchy(SnapshotHierarchy delegate, Interner<String> nameInterner) {
+        this.delegate = delegate;
+        this.nameInterner = nameInterner;
+    }
+
+    @Override
+    public Optional<MetadataSnapshot> findMetadata(String absolutePath) {
+        return delegate.findMetadata(absolutePath);
+    }
+
+    @Override
+    public boolean hasDescendantsUnder(String absolutePath) {
+        return delegate.hasDescendantsUnder(absolutePath);
+    }
+
+    @Override
+    public SnapshotHierarchy store(String absolutePath, MetadataSnapshot snapshot, NodeDiffListener diffListener) {
+        MetadataSnapshot compactSnapshot = snapshot instanceof DirectorySnapshot
+            ? CompactDirectoryTree.compact((DirectorySnapshot) snapshot, nameInterner)
+            : snapshot;
+        return wrap(delegate.store(absolutePath, compactSnapshot, diffListener));
+    }
+
+    @Override
+    public SnapshotHierarchy invalidate(String absolutePath, NodeDiffListener diffListener) {
+        return wrap(delegate.invalidate(absolutePath, diffListener));
+    }
+
+    @Override
+    public SnapshotHierarchy empty() {
+        return wrap(delegate.empty());
+    }
+
+    @Override
+    public CaseSensitivity getCaseSensitivity() {
+        return delegate.getCaseSensitivity();
+    }
+
+    @Override
+    public Stream<FileSystemLocationSnapshot> rootSnapshots() {
+        return delegate.rootSnapshots();
+    }
+
+    @Override
+    public Stream<FileSystemLocationSnapshot> rootSnapshotsUnder(String absolutePath) {
+        return delegate.rootSnapshotsUnder(absolutePath);
+    }
+
+    private SnapshotHierarchy wrap(SnapshotHierarchy newDelegate) {
+        return newDelegate == delegate
+            ? this
+            : new CompactSnapshotHierarchy(newDelegate, nameInterner);
+    }
+}
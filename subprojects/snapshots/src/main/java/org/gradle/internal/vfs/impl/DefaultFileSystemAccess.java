@@ -19,6 +19,7 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Interner;
 import com.google.common.util.concurrent.Striped;
+import org.gradle.internal.file.DirectoryLister;
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.excludes.FileSystemDefaultExcludesListener;
 import org.gradle.internal.file.FileType;
@@ -35,12 +36,15 @@
 import org.gradle.internal.snapshot.impl.FileSystemSnapshotFilter;
 import org.gradle.internal.vfs.FileSystemAccess;
 import org.gradle.internal.vfs.VirtualFileSystem;
+import org.gradle.internal.vfs.VirtualFileSystemStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -53,9 +57,13 @@ public class DefaultFileSystemAccess implements FileSystemAccess, FileSystemDefa
     private final Interner<String> stringInterner;
     private final WriteListener writeListener;
     private final DirectorySnapshotterStatistics.Collector statisticsCollector;
+    private final VirtualFileSystemStatistics.Collector vfsStatisticsCollector;
     private ImmutableList<String> defaultExcludes;
     private DirectorySnapshotter directorySnapshotter;
     private final FileHasher hasher;
+    private final ForkJoinPool parallelSnapshottingPool;
+    @Nullable
+    private final DirectoryLister directoryLister;
     private final StripedProducerGuard<String> producingSnapshots = new StripedProducerGuard<>();
 
     public DefaultFileSystemAccess(
@@ -66,13 +74,35 @@ public DefaultFileSystemAccess(
         WriteListener writeListener,
         DirectorySnapshotterStatistics.Collector statisticsCollector,
         String... defaultExcludes
+    ) {
+        this(hasher, stringInterner, stat, virtualFileSystem, writeListener, statisticsCollector, new VirtualFileSystemStatistics.Collector(), null, null, defaultExcludes);
+    }
+
+    /**
+     * @param parallelSnapshottingPool the pool to snapshot directories in parallel with, or {@code null} to snapshot directories on the calling thread.
+     * @param directoryLister lists the entries of directories together with their metadata when snapshotting directories, or {@code null} to walk directories via the JDK.
+     */
+    public DefaultFileSystemAccess(
+        FileHasher hasher,
+        Interner<String> stringInterner,
+        Stat stat,
+        VirtualFileSystem virtualFileSystem,
+        WriteListener writeListener,
+        DirectorySnapshotterStatistics.Collector statisticsCollector,
+        VirtualFileSystemStatistics.Collector vfsStatisticsCollector,
+        @Nullable ForkJoinPool parallelSnapshottingPool,
+        @Nullable DirectoryLister directoryLister,
+        String... defaultExcludes
     ) {
         this.stringInterner = stringInterner;
         this.stat = stat;
         this.writeListener = writeListener;
         this.statisticsCollector = statisticsCollector;
+        this.vfsStatisticsCollector = vfsStatisticsCollector;
+        this.parallelSnapshottingPool = parallelSnapshottingPool;
+        this.directoryLister = directoryLister;
         this.defaultExcludes = ImmutableList.copyOf(defaultExcludes);
-        this.directorySnapshotter = new DirectorySnapshotter(hasher, stringInterner, this.defaultExcludes, statisticsCollector);
+        this.directorySnapshotter = new DirectorySnapshotter(hasher, stringInterner, this.defaultExcludes, statisticsCollector, parallelSnapshottingPool, directoryLister);
         this.hasher = hasher;
         this.virtualFileSystem = virtualFileSystem;
     }
@@ -87,14 +117,17 @@ public Optional<HashCode> readRegularFileContentHash(String location) {
         return virtualFileSystem.findMetadata(location)
             .<Optional<FileSystemLocationSnapshot>>flatMap(snapshot -> {
                 if (snapshot.getType() != FileType.RegularFile) {
+                    vfsStatisticsCollector.recordHit();
                     return Optional.of(Optional.empty());
                 }
                 if (snapshot instanceof FileSystemLocationSnapshot) {
+                    vfsStatisticsCollector.recordHit();
                     return Optional.of(Optional.of((FileSystemLocationSnapshot) snapshot));
                 }
                 return Optional.empty();
             })
             .orElseGet(() -> virtualFileSystem.store(location, vfsStorer -> {
+                vfsStatisticsCollector.recordMiss();
                 File file = new File(location);
                 FileMetadata fileMetadata = this.stat.stat(file);
                 switch (fileMetadata.getType()) {
@@ -183,15 +216,23 @@ private <T> T readSnapshotFromLocation(
         Supplier<T> readFromDisk
     ) {
         return virtualFileSystem.findSnapshot(location)
-            .map(snapshotProcessor)
+            .map(snapshot -> processFoundSnapshot(snapshot, snapshotProcessor))
             // Avoid snapshotting the same location at the same time
             .orElseGet(() -> producingSnapshots.guardByKey(location,
                 () -> virtualFileSystem.findSnapshot(location)
-                    .map(snapshotProcessor)
-                    .orElseGet(readFromDisk)
+                    .map(snapshot -> processFoundSnapshot(snapshot, snapshotProcessor))
+                    .orElseGet(() -> {
+                        vfsStatisticsCollector.recordMiss();
+                        return readFromDisk.get();
+                    })
             ));
     }
 
+    private <T> T processFoundSnapshot(FileSystemLocationSnapshot snapshot, Function<FileSystemLocationSnapshot, T> snapshotProcessor) {
+        vfsStatisticsCollector.recordHit();
+        return snapshotProcessor.apply(snapshot);
+    }
+
     @Override
     public void write(Iterable<String> locations, Runnable action) {
         writeListener.locationsWritten(locations);
@@ -210,7 +251,7 @@ public void onDefaultExcludesChanged(List<String> excludes) {
         if (!defaultExcludes.equals(newDefaultExcludes)) {
             LOGGER.debug("Default excludes changes from {} to {}", defaultExcludes, newDefaultExcludes);
             defaultExcludes = newDefaultExcludes;
-            directorySnapshotter = new DirectorySnapshotter(hasher, stringInterner, newDefaultExcludes, statisticsCollector);
+            directorySnapshotter = new DirectorySnapshotter(hasher, stringInterner, newDefaultExcludes, statisticsCollector, parallelSnapshottingPool, directoryLister);
             virtualFileSystem.invalidateAll();
         }
     }
@@ -49,6 +49,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
         def ex = thrown(UncheckedIOException)
         ex.cause instanceof NoSuchFileException
         1 * statisticsCollector.recordVisitFileFailed()
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
     }
 
@@ -61,6 +62,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
 
         then:
         1 * statisticsCollector.recordVisitFile()
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
     }
 
@@ -73,6 +75,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
 
         then:
         1 * statisticsCollector.recordVisitDirectory()
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
     }
 
@@ -93,6 +96,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
         then:
         3 * statisticsCollector.recordVisitDirectory()
         2 * statisticsCollector.recordVisitFile()
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
     }
 
@@ -112,6 +116,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
         then:
         1 * statisticsCollector.recordVisitDirectory()
         1 * statisticsCollector.recordVisitFile()
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
     }
 
@@ -133,6 +138,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
         1 * statisticsCollector.recordVisitHierarchy()
         3 * statisticsCollector.recordVisitDirectory()
         3 * statisticsCollector.recordVisitFile()
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
     }
 
@@ -156,6 +162,7 @@ class DirectorySnapshotterStatisticsTest extends Specification {
         } else {
             1 * statisticsCollector.recordVisitFile()
         }
+        1 * statisticsCollector.recordSnapshottingTime(_)
         0 * _
 
         cleanup:
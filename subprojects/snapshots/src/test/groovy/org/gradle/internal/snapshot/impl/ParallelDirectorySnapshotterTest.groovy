@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.tasks.util.PatternSet
+import org.gradle.internal.fingerprint.impl.PatternSetSnapshottingFilter
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.SnapshotVisitorUtil
+import org.gradle.internal.snapshot.SnapshottingFilter
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+@UsesNativeServices
+@CleanupTestDirectory(fieldName = "tmpDir")
+class ParallelDirectorySnapshotterTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def fileHasher = new TestFileHasher()
+    def pool = new ForkJoinPool(4)
+    def sequentialStatistics = new DirectorySnapshotterStatistics.Collector()
+    def parallelStatistics = new DirectorySnapshotterStatistics.Collector()
+    def sequentialSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), ["**/.git/**"], sequentialStatistics)
+    def parallelSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), ["**/.git/**"], parallelStatistics, pool)
+
+    def cleanup() {
+        pool.shutdown()
+    }
+
+    def "creates the same snapshot as a sequential walk"() {
+        def rootDir = tmpDir.createDir("root")
+        createTree(rootDir, 3)
+        rootDir.file(".git/objects/file.txt").createFile()
+
+        expect:
+        snapshotsMatch(rootDir, null)
+        def statistics = parallelStatistics.collect()
+        statistics.forkedDirectoryCount > 0
+        statistics.forkedFileCount > 0
+        statistics.visitedDirectoryCount == sequentialStatistics.collect().visitedDirectoryCount
+    }
+
+    def "creates the same snapshot as a sequential walk with filters"() {
+        def rootDir = tmpDir.createDir("root")
+        createTree(rootDir, 3)
+        def patterns = new PatternSet()
+        patterns.include("**/*.txt")
+        patterns.exclude("dir-1/dir-2/**")
+        patterns.exclude("**/file-3.txt")
+
+        expect:
+        snapshotsMatch(rootDir, new PatternSetSnapshottingFilter(patterns, TestFiles.fileSystem()).asDirectoryWalkerPredicate)
+    }
+
+    @Requires(TestPrecondition.SYMLINKS)
+    def "creates the same snapshot as a sequential walk with symlinks"() {
+        def rootDir = tmpDir.createDir("root")
+        createTree(rootDir, 3)
+        rootDir.file("linked-dir").createLink(rootDir.file("dir-0"))
+        rootDir.file("dir-1/cycle").createLink(rootDir)
+        rootDir.file("dir-2/broken").createLink(rootDir.file("missing"))
+        def patterns = new PatternSet()
+        patterns.exclude("linked-dir/dir-1/**")
+
+        expect:
+        snapshotsMatch(rootDir, null)
+        snapshotsMatch(rootDir, new PatternSetSnapshottingFilter(patterns, TestFiles.fileSystem()).asDirectoryWalkerPredicate)
+    }
+
+    def "reports failures of forked tasks"() {
+        def rootDir = tmpDir.createDir("root")
+        createTree(rootDir, 2)
+        def failingHasher = Stub(FileHasher) {
+            hash(_, _, _) >> { throw new UncheckedIOException(new IOException("Boom")) }
+        }
+        def snapshotter = new DirectorySnapshotter(failingHasher, new StringInterner(), [], parallelStatistics, pool)
+
+        when:
+        snapshotter.snapshot(rootDir.absolutePath, null) {}
+
+        then:
+        def e = thrown(UncheckedIOException)
+        e.cause.message == "Boom"
+    }
+
+    private void snapshotsMatch(File rootDir, SnapshottingFilter.DirectoryWalkerPredicate predicate) {
+        List<FileSystemLocationSnapshot> sequentialUnfiltered = []
+        List<FileSystemLocationSnapshot> parallelUnfiltered = []
+        def sequential = sequentialSnapshotter.snapshot(rootDir.absolutePath, predicate) { sequentialUnfiltered.add(it) }
+        def parallel = parallelSnapshotter.snapshot(rootDir.absolutePath, predicate) { parallelUnfiltered.add(it) }
+
+        assert parallel.hash == sequential.hash
+        assert SnapshotVisitorUtil.getAbsolutePaths(parallel, true) == SnapshotVisitorUtil.getAbsolutePaths(sequential, true)
+        assert SnapshotVisitorUtil.getRelativePaths(parallel, true) == SnapshotVisitorUtil.getRelativePaths(sequential, true)
+        assert parallelUnfiltered.collect { it.absolutePath + ":" + it.hash }.sort() == sequentialUnfiltered.collect { it.absolutePath + ":" + it.hash }.sort()
+    }
+
+    private static void createTree(TestFile dir, int depth) {
+        4.times { dir.file("file-${it}.txt").text = "${dir.name} ${it}" }
+        dir.file("file.html").text = dir.name
+        if (depth > 0) {
+            3.times { createTree(dir.file("dir-${it}"), depth - 1) }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.vfs.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.file.FileMetadata.AccessType
+import org.gradle.internal.file.impl.DefaultFileMetadata
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.snapshot.CompactDirectoryTree
+import org.gradle.internal.snapshot.DirectorySnapshot
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor
+import org.gradle.internal.snapshot.RegularFileSnapshot
+import org.gradle.internal.snapshot.SnapshotHierarchy
+import org.gradle.internal.snapshot.SnapshotVisitResult
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.stream.Collectors
+import java.util.stream.Stream
+
+import static org.gradle.internal.snapshot.CaseSensitivity.CASE_SENSITIVE
+
+class CompactSnapshotHierarchyTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def interner = new StringInterner()
+    def directorySnapshotter = new DirectorySnapshotter(TestFiles.fileHasher(), interner, [], Stub(DirectorySnapshotterStatistics.Collector))
+    def root = tmpDir.createDir("root")
+
+    def setup() {
+        root.file("a.txt").text = "a"
+        root.file("b/c.txt").text = "c"
+        root.file("b/d/e.txt").text = "e"
+        root.createDir("empty")
+        (1..20).each { root.file("many/file${it}.txt").text = "content $it" }
+    }
+
+    def "stores directory snapshots compactly"() {
+        def snapshot = snapshotDir(root)
+
+        when:
+        def hierarchy = CompactSnapshotHierarchy.empty(CASE_SENSITIVE, interner)
+            .store(root.absolutePath, snapshot, SnapshotHierarchy.NodeDiffListener.NOOP)
+        def stored = hierarchy.findSnapshot(root.absolutePath).get()
+
+        then:
+        stored instanceof DirectorySnapshot
+        !stored.is(snapshot)
+        stored == snapshot
+        describe(stored) == describe(snapshot)
+    }
+
+    def "answers queries like the default hierarchy"() {
+        def snapshot = snapshotDir(root)
+        def compact = CompactSnapshotHierarchy.empty(CASE_SENSITIVE, interner).store(root.absolutePath, snapshot, SnapshotHierarchy.NodeDiffListener.NOOP)
+        def regular = DefaultSnapshotHierarchy.empty(CASE_SENSITIVE).store(root.absolutePath, snapshot, SnapshotHierarchy.NodeDiffListener.NOOP)
+
+        expect:
+        [root, root.file("a.txt"), root.file("b"), root.file("b/d/e.txt"), root.file("empty"), root.file("many/file13.txt"),
+         root.file("missing"), root.file("a.txt/below-file"), root.file("b/d/missing"), root.file("many/file"), tmpDir.file("other")].each { TestFile location ->
+            assert compact.findMetadata(location.absolutePath).map { describe(it) } == regular.findMetadata(location.absolutePath).map { describe(it) }
+            assert compact.hasDescendantsUnder(location.absolutePath) == regular.hasDescendantsUnder(location.absolutePath)
+            assert describeAll(compact.rootSnapshotsUnder(location.absolutePath)) == describeAll(regular.rootSnapshotsUnder(location.absolutePath))
+        }
+    }
+
+    def "invalidates and updates like the default hierarchy"() {
+        def snapshot = snapshotDir(root)
+        SnapshotHierarchy compact = CompactSnapshotHierarchy.empty(CASE_SENSITIVE, interner).store(root.absolutePath, snapshot, SnapshotHierarchy.NodeDiffListener.NOOP)
+        SnapshotHierarchy regular = DefaultSnapshotHierarchy.empty(CASE_SENSITIVE).store(root.absolutePath, snapshot, SnapshotHierarchy.NodeDiffListener.NOOP)
+
+        when:
+        compact = compact.invalidate(root.file("b/d/e.txt").absolutePath, SnapshotHierarchy.NodeDiffListener.NOOP)
+        regular = regular.invalidate(root.file("b/d/e.txt").absolutePath, SnapshotHierarchy.NodeDiffListener.NOOP)
+
+        then:
+        compact instanceof CompactSnapshotHierarchy
+        describeAll(compact.rootSnapshots()) == describeAll(regular.rootSnapshots())
+        !compact.findMetadata(root.file("b/d/e.txt").absolutePath).present
+        compact.findMetadata(root.file("b/c.txt").absolutePath).get() instanceof RegularFileSnapshot
+
+        when:
+        root.file("b/d/e.txt").text = "changed"
+        def updated = snapshotDir(root.file("b/d"))
+        compact = compact.store(root.file("b/d").absolutePath, updated, SnapshotHierarchy.NodeDiffListener.NOOP)
+        regular = regular.store(root.file("b/d").absolutePath, updated, SnapshotHierarchy.NodeDiffListener.NOOP)
+
+        then:
+        describeAll(compact.rootSnapshots()) == describeAll(regular.rootSnapshots())
+
+        when:
+        compact = compact.invalidate(root.absolutePath, SnapshotHierarchy.NodeDiffListener.NOOP)
+
+        then:
+        compact.rootSnapshots().count() == 0
+    }
+
+    def "keeps snapshots which are not below their parent"() {
+        def child = new RegularFileSnapshot("/elsewhere/file.txt", "file.txt", TestHashCodes.hashCodeFrom(1234), DefaultFileMetadata.file(1, 1, AccessType.DIRECT))
+        def snapshot = new DirectorySnapshot("/dir", "dir", AccessType.DIRECT, TestHashCodes.hashCodeFrom(5678), [child])
+
+        expect:
+        CompactDirectoryTree.compact(snapshot, interner).is(snapshot)
+    }
+
+    private FileSystemLocationSnapshot snapshotDir(File dir) {
+        directorySnapshotter.snapshot(dir.absolutePath, null, {})
+    }
+
+    private static List<String> describeAll(Stream<FileSystemLocationSnapshot> snapshots) {
+        snapshots.collect(Collectors.toList()).collectMany { describe(it) }
+    }
+
+    private static List<String> describe(def metadata) {
+        if (!(metadata instanceof FileSystemLocationSnapshot)) {
+            return ["${metadata.type}"]
+        }
+        List<String> entries = []
+        metadata.accept({ FileSystemLocationSnapshot entry ->
+            def metadataDescription = entry instanceof RegularFileSnapshot ? " ${entry.metadata.length} ${entry.metadata.lastModified}" : ""
+            entries.add("${entry.absolutePath} ${entry.name} ${entry.type} ${entry.accessType} ${entry.hash}${metadataDescription}".toString())
+            return SnapshotVisitResult.CONTINUE
+        } as FileSystemSnapshotHierarchyVisitor)
+        return entries
+    }
+}
@@ -34,9 +34,11 @@
 import org.gradle.internal.work.AsyncWorkTracker;
 import org.gradle.internal.work.ConditionalExecutionQueue;
 import org.gradle.internal.work.DefaultConditionalExecutionQueue;
+import org.gradle.internal.work.MemoryAdmission;
 import org.gradle.internal.work.WorkerThreadRegistry;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.internal.JavaForkOptionsFactory;
+import org.gradle.process.internal.health.memory.MemoryAmount;
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider;
 import org.gradle.util.internal.CollectionUtils;
 import org.gradle.workers.ClassLoaderWorkerSpec;
@@ -71,6 +73,7 @@ public class DefaultWorkerExecutor implements WorkerExecutor {
     private final IsolationScheme<WorkAction<?>, WorkParameters> isolationScheme = new IsolationScheme<>(Cast.uncheckedCast(WorkAction.class), WorkParameters.class, WorkParameters.None.class);
     private final CachedClasspathTransformer classpathTransformer;
     private final File baseDir;
+    private final MemoryAdmission memoryAdmission;
 
     public DefaultWorkerExecutor(
         WorkerFactory daemonWorkerFactory, WorkerFactory isolatedClassloaderWorkerFactory, WorkerFactory noIsolationWorkerFactory,
@@ -78,7 +81,8 @@ public DefaultWorkerExecutor(
         AsyncWorkTracker asyncWorkTracker, WorkerDirectoryProvider workerDirectoryProvider, WorkerExecutionQueueFactory workerExecutionQueueFactory,
         ClassLoaderStructureProvider classLoaderStructureProvider, ActionExecutionSpecFactory actionExecutionSpecFactory, Instantiator instantiator,
         CachedClasspathTransformer classpathTransformer,
-        File baseDir
+        File baseDir,
+        MemoryAdmission memoryAdmission
     ) {
         this.daemonWorkerFactory = daemonWorkerFactory;
         this.isolatedClassloaderWorkerFactory = isolatedClassloaderWorkerFactory;
@@ -94,6 +98,7 @@ public DefaultWorkerExecutor(
         this.instantiator = instantiator;
         this.classpathTransformer = classpathTransformer;
         this.baseDir = baseDir;
+        this.memoryAdmission = memoryAdmission;
     }
 
     @Override
@@ -163,10 +168,11 @@ private <T extends WorkParameters> AsyncWorkCompletion submitWork(Class<? extend
     private AsyncWorkCompletion submitWork(IsolatedParametersActionExecutionSpec<?> spec, WorkerFactory workerFactory, WorkerRequirement workerRequirement) {
         checkIsManagedThread();
         final BuildOperationRef currentBuildOperation = buildOperationExecutor.getCurrentOperation();
+        long memoryWeightBytes = memoryWeightOf(workerRequirement);
         WorkItemExecution execution = new WorkItemExecution(spec.getDisplayName(), () -> {
             try {
                 BuildOperationAwareWorker worker = workerFactory.getWorker(workerRequirement);
-                return worker.execute(spec, currentBuildOperation);
+                return memoryAdmission.whileAdmitted(spec.getDisplayName(), memoryWeightBytes, currentBuildOperation, () -> worker.execute(spec, currentBuildOperation));
             } catch (Throwable t) {
                 throw new WorkExecutionException(spec.getDisplayName(), t);
             }
@@ -176,6 +182,23 @@ private AsyncWorkCompletion submitWork(IsolatedParametersActionExecutionSpec<?>
         return execution;
     }
 
+    /**
+     * Returns the memory the given work needs to be admitted. Only the heap declared for a worker daemon counts, and none when the submitting
+     * thread already holds a memory lease, as the work then runs under the lease of its parent.
+     */
+    private long memoryWeightOf(WorkerRequirement workerRequirement) {
+        if (!memoryAdmission.isEnabled() || !(workerRequirement instanceof ForkedWorkerRequirement) || memoryAdmission.holdsLease()) {
+            return 0;
+        }
+        String maxHeapSize = ((ForkedWorkerRequirement) workerRequirement).getForkOptions().getJavaForkOptions().getMaxHeapSize();
+        try {
+            return Math.max(0, MemoryAmount.parseNotation(maxHeapSize));
+        } catch (IllegalArgumentException e) {
+            // The worker daemon will fail to start, so it does not need any memory
+            return 0;
+        }
+    }
+
     private void checkIsManagedThread() {
         if (!workerThreadRegistry.isWorkerThread()) {
             throw new IllegalStateException("An attempt was made to submit work from a thread not managed by Gradle.  Work may only be submitted from a Gradle-managed thread.");
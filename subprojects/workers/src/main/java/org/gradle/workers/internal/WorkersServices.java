@@ -36,6 +36,7 @@
 import org.gradle.internal.work.AsyncWorkTracker;
 import org.gradle.internal.work.ConditionalExecutionQueueFactory;
 import org.gradle.internal.work.DefaultConditionalExecutionQueueFactory;
+import org.gradle.internal.work.MemoryAdmission;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.process.internal.JavaForkOptionsFactory;
@@ -115,7 +116,8 @@ WorkerExecutor createWorkerExecutor(InstantiatorFactory instantiatorFactory,
                                             ServiceRegistry projectServices,
                                             ActionExecutionSpecFactory actionExecutionSpecFactory,
                                             CachedClasspathTransformer classpathTransformer,
-                                            ProjectLayout projectLayout) {
+                                            ProjectLayout projectLayout,
+                                            MemoryAdmission memoryAdmission) {
             NoIsolationWorkerFactory noIsolationWorkerFactory = new NoIsolationWorkerFactory(buildOperationExecutor, instantiatorFactory, actionExecutionSpecFactory, projectServices);
 
             DefaultWorkerExecutor workerExecutor = instantiatorFactory.decorateLenient().newInstance(
@@ -133,7 +135,8 @@ WorkerExecutor createWorkerExecutor(InstantiatorFactory instantiatorFactory,
                 actionExecutionSpecFactory,
                 instantiatorFactory.decorateLenient(projectServices),
                 classpathTransformer,
-                projectLayout.getProjectDirectory().getAsFile());
+                projectLayout.getProjectDirectory().getAsFile(),
+                memoryAdmission);
             noIsolationWorkerFactory.setWorkerExecutor(workerExecutor);
             return workerExecutor;
         }
@@ -26,6 +26,7 @@ import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.work.AsyncWorkTracker
 import org.gradle.internal.work.ConditionalExecution
 import org.gradle.internal.work.ConditionalExecutionQueue
+import org.gradle.internal.work.MemoryAdmission
 import org.gradle.internal.work.WorkerThreadRegistry
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -65,6 +66,7 @@ class DefaultWorkerExecutorTest extends Specification {
     def actionExecutionSpecFactory = Mock(ActionExecutionSpecFactory)
     def instantiator = Mock(Instantiator)
     def classpathTransformer = Mock(CachedClasspathTransformer)
+    def memoryAdmission = Mock(MemoryAdmission)
     ConditionalExecution task
     DefaultWorkerExecutor workerExecutor
 
@@ -75,7 +77,8 @@ class DefaultWorkerExecutorTest extends Specification {
         _ * instantiator.newInstance(DefaultProcessWorkerSpec, _) >> { args -> new DefaultProcessWorkerSpec(args[1][0], objectFactory) }
         _ * instantiator.newInstance(DefaultWorkerExecutor.DefaultWorkQueue, _, _, _) >> { args -> new DefaultWorkerExecutor.DefaultWorkQueue(args[1][0], args[1][1], args[1][2]) }
         _ * classpathTransformer.transform(_, _) >> { args -> args[0] }
-        workerExecutor = new DefaultWorkerExecutor(workerDaemonFactory, inProcessWorkerFactory, noIsolationWorkerFactory, forkOptionsFactory, workerThreadRegistry, buildOperationExecutor, asyncWorkTracker, workerDirectoryProvider, executionQueueFactory, classLoaderStructureProvider, actionExecutionSpecFactory, instantiator, classpathTransformer, temporaryFolder.testDirectory)
+        _ * memoryAdmission.whileAdmitted(_, _, _, _) >> { args -> args[3].create() }
+        workerExecutor = new DefaultWorkerExecutor(workerDaemonFactory, inProcessWorkerFactory, noIsolationWorkerFactory, forkOptionsFactory, workerThreadRegistry, buildOperationExecutor, asyncWorkTracker, workerDirectoryProvider, executionQueueFactory, classLoaderStructureProvider, actionExecutionSpecFactory, instantiator, classpathTransformer, temporaryFolder.testDirectory, memoryAdmission)
         _ * actionExecutionSpecFactory.newIsolatedSpec(_, _, _, _, _) >> Mock(IsolatedParametersActionExecutionSpec)
     }
 
@@ -177,6 +180,63 @@ class DefaultWorkerExecutorTest extends Specification {
         }
     }
 
+    def "admits work for a worker daemon with the maximum heap of the daemon"() {
+        when:
+        workerExecutor.processIsolation { spec -> spec.forkOptions.maxHeapSize = "512m" }.submit(TestExecutable.class, Actions.doNothing())
+
+        then:
+        1 * workerThreadRegistry.workerThread >> true
+        _ * memoryAdmission.enabled >> true
+        _ * memoryAdmission.holdsLease() >> false
+        1 * executionQueue.submit(_) >> { args -> task = args[0] }
+
+        when:
+        task.getExecution().run()
+
+        then:
+        1 * workerDaemonFactory.getWorker(_) >> worker
+        1 * memoryAdmission.whileAdmitted(_, 512 * 1024 * 1024, _, _) >> { args -> args[3].create() }
+        1 * worker.execute(_, _) >> new DefaultWorkResult(true, null)
+    }
+
+    def "work submitted while holding a memory lease runs under the lease of its parent"() {
+        when:
+        workerExecutor.processIsolation { spec -> spec.forkOptions.maxHeapSize = "512m" }.submit(TestExecutable.class, Actions.doNothing())
+
+        then:
+        1 * workerThreadRegistry.workerThread >> true
+        _ * memoryAdmission.enabled >> true
+        _ * memoryAdmission.holdsLease() >> true
+        1 * executionQueue.submit(_) >> { args -> task = args[0] }
+
+        when:
+        task.getExecution().run()
+
+        then:
+        1 * workerDaemonFactory.getWorker(_) >> worker
+        1 * memoryAdmission.whileAdmitted(_, 0, _, _) >> { args -> args[3].create() }
+        1 * worker.execute(_, _) >> new DefaultWorkResult(true, null)
+    }
+
+    def "work that runs in-process does not need to be admitted"() {
+        when:
+        workerExecutor.classLoaderIsolation().submit(TestExecutable.class, Actions.doNothing())
+
+        then:
+        1 * workerThreadRegistry.workerThread >> true
+        _ * memoryAdmission.enabled >> true
+        _ * memoryAdmission.holdsLease() >> false
+        1 * executionQueue.submit(_) >> { args -> task = args[0] }
+
+        when:
+        task.getExecution().run()
+
+        then:
+        1 * inProcessWorkerFactory.getWorker(_) >> worker
+        1 * memoryAdmission.whileAdmitted(_, 0, _, _) >> { args -> args[3].create() }
+        1 * worker.execute(_, _) >> new DefaultWorkResult(true, null)
+    }
+
     abstract static class TestExecutable implements WorkAction<WorkParameters.None> {
         @Override
         void execute() {